@@ -0,0 +1,31 @@
+package prog.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: the usual JMH command line, with the GC profiler always on,
+ * so every run reports the allocation rate (gc.alloc.rate.norm is bytes allocated per call)
+ * next to the MB/s.
+ *
+ * Usage example, from the project root:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar HuffmanBenchmark -p format=CANONICAL
+ * </pre>
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            // Quiets the engines' INFO/DEBUG logging in the forked JVMs
+            .jvmArgsAppend("-Dlogback.configurationFile=logback-benchmark.xml")
+            .build();
+        new Runner(options).run();
+    }
+}
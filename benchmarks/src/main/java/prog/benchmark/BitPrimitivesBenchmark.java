@@ -0,0 +1,118 @@
+package prog.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import prog.util.BitReader;
+import prog.util.BitWriter;
+import prog.util.ByteReader;
+import prog.util.ByteWriter;
+import prog.util.CommonUtil;
+import prog.util.Constants;
+
+/**
+ * The util helpers every engine is built on, each run over a whole corpus file per call.
+ *
+ * Bits are read and written 13 at a time, the width of a mid-sized LZW code; the CommonUtil
+ * string conversions are the ones the UI and older formats still use.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BitPrimitivesBenchmark {
+    private static final int CODE_WIDTH = 13;
+
+    @Param({Corpus.REPETITIVE, Corpus.RANDOM, Corpus.STRUCTURED, Corpus.CODE, Corpus.LOGS, Corpus.BASE64})
+    public String corpus;
+
+    private byte[] content;
+
+    /**
+     * The 8-bit strings of the content's first 4096 bytes, for the string to byte conversion
+     */
+    private String[] binaryStrings;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        content = Corpus.read(corpus);
+        binaryStrings = new String[Math.min(content.length, 4096)];
+        for (int i = 0; i < binaryStrings.length; i++) {
+            binaryStrings[i] = CommonUtil.integerToBinaryStringWithFixedLength(content[i] & 0xFF, Constants.BITS_PER_BYTE);
+        }
+    }
+
+    @Benchmark
+    public void byteReader(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (ByteReader reader = new ByteReader(new ByteArrayInputStream(content))) {
+            int value;
+            while ((value = reader.read()) != -1) {
+                blackhole.consume(value);
+            }
+        }
+        throughput.add(content.length);
+    }
+
+    @Benchmark
+    public void bitReader(Throughput throughput, Blackhole blackhole) throws IOException {
+        BitReader reader = new BitReader(content, 0);
+        while (reader.getAvailableBits() >= CODE_WIDTH) {
+            blackhole.consume(reader.readBits(CODE_WIDTH));
+        }
+        throughput.add(content.length);
+    }
+
+    @Benchmark
+    public void bitWriter(Throughput throughput) throws IOException {
+        try (ByteWriter byteWriter = new ByteWriter(OutputStream.nullOutputStream())) {
+            BitWriter writer = new BitWriter(byteWriter);
+            for (int i = 0; i + 1 < content.length; i += 2) {
+                writer.writeBits(((content[i] & 0xFF) << 8 | (content[i + 1] & 0xFF)) >>> 3, CODE_WIDTH);
+            }
+            writer.flush();
+        }
+        throughput.add(content.length);
+    }
+
+    @Benchmark
+    public void byteToUnsignedInt(Throughput throughput, Blackhole blackhole) {
+        for (byte value : content) {
+            blackhole.consume(CommonUtil.byteToUnsignedInt(value));
+        }
+        throughput.add(content.length);
+    }
+
+    @Benchmark
+    public void integerToBinaryString(Throughput throughput, Blackhole blackhole) {
+        for (byte value : content) {
+            blackhole.consume(CommonUtil.integerToBinaryStringWithFixedLength(value & 0xFF, Constants.BITS_PER_BYTE));
+        }
+        throughput.add(content.length);
+    }
+
+    @Benchmark
+    public void stringToByte(Throughput throughput, Blackhole blackhole) {
+        for (String binaryString : binaryStrings) {
+            blackhole.consume(CommonUtil.stringToByte(binaryString));
+        }
+        throughput.add(binaryStrings.length);
+    }
+}
@@ -0,0 +1,72 @@
+package prog.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Locates the benchmark inputs: the 50KB files that LargeFileCompressionIntegrationTest uses.
+ *
+ * The directory defaults to src/test/resources, so benchmarks run from the project root;
+ * pass -Dbenchmark.corpus=/other/dir (and -jvmArgsAppend for the forks) to use other files.
+ */
+final class Corpus {
+    /**
+     * Benchmark parameter values, one per content type
+     */
+    static final String REPETITIVE = "test_repetitive_50kb.txt";
+    static final String RANDOM = "test_random_50kb.txt";
+    static final String STRUCTURED = "test_structured_50kb.txt";
+    static final String CODE = "test_code_50kb.txt";
+    static final String LOGS = "test_logs_50kb.txt";
+    static final String BASE64 = "test_base64_50kb.txt";
+
+    private static final String DIRECTORY_PROPERTY = "benchmark.corpus";
+    private static final String DEFAULT_DIRECTORY = "src/test/resources";
+
+    private Corpus() {
+    }
+
+    /**
+     * @param fileName One of the corpus file names
+     * @return Path of the file in the corpus directory
+     */
+    static Path resolve(String fileName) {
+        return Path.of(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY), fileName);
+    }
+
+    /**
+     * @param fileName One of the corpus file names
+     * @return The content of the file
+     * @throws IOException If the file cannot be read, usually because the benchmark runs from another directory
+     */
+    static byte[] read(String fileName) throws IOException {
+        return Files.readAllBytes(resolve(fileName));
+    }
+
+    /**
+     * Copies a corpus file into a fresh temporary directory, so compressed files can be written next to it.
+     *
+     * @param fileName One of the corpus file names
+     * @return Path of the copy
+     */
+    static Path copyToTempDirectory(String fileName) throws IOException {
+        Path directory = Files.createTempDirectory("compression-benchmark");
+        Path copy = directory.resolve(fileName);
+        Files.copy(resolve(fileName), copy);
+        return copy;
+    }
+
+    /**
+     * Deletes a temporary directory created by copyToTempDirectory() with everything in it.
+     */
+    static void deleteTempDirectory(Path file) throws IOException {
+        Path directory = file.getParent();
+        try (var files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,81 @@
+package prog.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import prog.huffman.HuffmanCompressor;
+import prog.huffman.HuffmanDecompressor;
+import prog.huffman.HuffmanFormat;
+import prog.util.Constants;
+
+/**
+ * Throughput of HuffmanCompressor and HuffmanDecompressor per corpus file and format.
+ *
+ * Compression goes through the file path constructor, as the UI uses it; the input and its .huffz
+ * stay in the page cache, so disk speed hardly matters. Decompression reads the .huffz through a
+ * channel and discards the output, so no renamed copies pile up.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HuffmanBenchmark {
+    @Param({Corpus.REPETITIVE, Corpus.RANDOM, Corpus.STRUCTURED, Corpus.CODE, Corpus.LOGS, Corpus.BASE64})
+    public String corpus;
+
+    @Param({"FREQUENCY_TABLE", "CANONICAL", "BLOCKS"})
+    public HuffmanFormat format;
+
+    private Path inputFile;
+    private Path compressedFile;
+    private long inputSize;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inputFile = Corpus.copyToTempDirectory(corpus);
+        inputSize = Files.size(inputFile);
+        new HuffmanCompressor(inputFile.toString(), format).compress();
+        compressedFile = Path.of(inputFile + Constants.HUFFMAN_FILE_EXTENSION);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Corpus.deleteTempDirectory(inputFile);
+    }
+
+    @Benchmark
+    public void compress(Throughput throughput) {
+        // Overwrites the .huffz written by setUp() with the same bytes
+        new HuffmanCompressor(inputFile.toString(), format).compress();
+        throughput.add(inputSize);
+    }
+
+    @Benchmark
+    public void decompress(Throughput throughput) throws IOException {
+        try (FileChannel input = FileChannel.open(compressedFile)) {
+            new HuffmanDecompressor(input, Channels.newChannel(OutputStream.nullOutputStream())).decompress();
+        }
+        throughput.add(inputSize);
+    }
+}
@@ -0,0 +1,67 @@
+package prog.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import prog.huffman.HuffmanNode;
+import prog.huffman.HuffmanUtils;
+import prog.util.Constants;
+import prog.util.FileInputSource;
+
+/**
+ * The two steps before any code is written: counting the bytes and building the tree.
+ *
+ * Tree building only depends on which byte values occur and how skewed their counts are,
+ * so its cost is per call, not per megabyte.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HuffmanTreeBenchmark {
+    @Param({Corpus.REPETITIVE, Corpus.RANDOM, Corpus.STRUCTURED, Corpus.CODE, Corpus.LOGS, Corpus.BASE64})
+    public String corpus;
+
+    private Path inputFile;
+    private long inputSize;
+    private long[] frequency;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inputFile = Corpus.resolve(corpus);
+        inputSize = Files.size(inputFile);
+        frequency = new long[Constants.BYTE_VALUES_COUNT];
+        for (byte value : Corpus.read(corpus)) {
+            frequency[value & 0xFF]++;
+        }
+    }
+
+    @Benchmark
+    public long[] countFrequencies(Throughput throughput) {
+        long[] counted = HuffmanUtils.calculateFrequencyOfBytesInParallel(new FileInputSource(inputFile.toString()));
+        throughput.add(inputSize);
+        return counted;
+    }
+
+    @Benchmark
+    public HuffmanNode buildHuffmanTree() {
+        return HuffmanUtils.buildHuffmanTree(frequency);
+    }
+}
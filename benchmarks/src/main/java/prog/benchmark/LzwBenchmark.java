@@ -0,0 +1,80 @@
+package prog.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import prog.lzw.LzwCompressor;
+import prog.lzw.LzwDecompressor;
+import prog.lzw.LzwFormat;
+import prog.util.Constants;
+
+/**
+ * Throughput of LzwCompressor and LzwDecompressor per corpus file and format.
+ *
+ * Set up like HuffmanBenchmark. The decompressor reads a FileChannel, which is seekable,
+ * so the block format is measured too.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LzwBenchmark {
+    @Param({Corpus.REPETITIVE, Corpus.RANDOM, Corpus.STRUCTURED, Corpus.CODE, Corpus.LOGS, Corpus.BASE64})
+    public String corpus;
+
+    @Param({"FIXED_WIDTH", "VARIABLE_WIDTH", "ADAPTIVE_RESET", "BLOCKS"})
+    public LzwFormat format;
+
+    private Path inputFile;
+    private Path compressedFile;
+    private long inputSize;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inputFile = Corpus.copyToTempDirectory(corpus);
+        inputSize = Files.size(inputFile);
+        new LzwCompressor(inputFile.toString(), format).compress();
+        compressedFile = Path.of(inputFile + Constants.LZW_FILE_EXTENSION);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Corpus.deleteTempDirectory(inputFile);
+    }
+
+    @Benchmark
+    public void compress(Throughput throughput) {
+        // Overwrites the .LmZWp written by setUp() with the same bytes
+        new LzwCompressor(inputFile.toString(), format).compress();
+        throughput.add(inputSize);
+    }
+
+    @Benchmark
+    public void decompress(Throughput throughput) throws IOException {
+        try (FileChannel input = FileChannel.open(compressedFile)) {
+            new LzwDecompressor(input, Channels.newChannel(OutputStream.nullOutputStream())).decompress();
+        }
+        throughput.add(inputSize);
+    }
+}
@@ -0,0 +1,36 @@
+package prog.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the uncompressed megabytes each benchmark processes.
+ *
+ * JMH reports the counter as a secondary "megabytes" result next to ops/s; in throughput mode
+ * with seconds as the time unit, that result is the speed in MB/s (1 MB = 1,000,000 bytes).
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+    /**
+     * Uncompressed megabytes processed in the current iteration
+     */
+    public double megabytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        megabytes = 0;
+    }
+
+    /**
+     * Records one pass over an input of the given size.
+     *
+     * @param bytes Uncompressed size of the input
+     */
+    void add(long bytes) {
+        megabytes += bytes / 1_000_000.0;
+    }
+}
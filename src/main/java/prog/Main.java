@@ -9,6 +9,8 @@ import javax.swing.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import prog.compression.ProgressEvent;
+import prog.handler.BackgroundTask;
 import prog.handler.CompressionHandler;
 import prog.handler.DecompressionHandler;
 import prog.handler.FileOperationHandler;
@@ -38,6 +40,15 @@ public class Main implements ActionListener {
 	private JButton lzwCompressButton;
 	private JButton lzwDecompressButton;
 	private JButton exitButton;
+	private JProgressBar progressBar;
+	private JLabel progressDetailsLabel;
+	private JButton cancelButton;
+
+	/**
+	 * The compression or decompression running in the background, or null
+	 * Only one runs at a time: the action buttons are disabled meanwhile
+	 */
+	private BackgroundTask currentTask;
 
 	public Main() {
 		this.ui = new FileCompressorUI();
@@ -62,6 +73,9 @@ public class Main implements ActionListener {
 		lzwCompressButton = ui.getLzwCompressButton();
 		lzwDecompressButton = ui.getLzwDecompressButton();
 		exitButton = ui.getExitButton();
+		progressBar = ui.getProgressBar();
+		progressDetailsLabel = ui.getProgressDetailsLabel();
+		cancelButton = ui.getCancelButton();
 
 		return contentPane;
 	}
@@ -70,6 +84,10 @@ public class Main implements ActionListener {
 	 * Handles the browse button action to open file chooser
 	 */
 	private void handleBrowse(ActionEvent e) {
+		if (currentTask != null) {
+			// The File > Open menu stays enabled; the running task keeps its file
+			return;
+		}
 		File selectedFile = fileHandler.browseForFile();
 		if (selectedFile != null) {
 			filePathField.setText(selectedFile.getAbsolutePath());
@@ -101,61 +119,148 @@ public class Main implements ActionListener {
 	private void handleHuffmanCompression() {
 		if (!validateFileSelected()) return;
 
-		statusLabel.setText("🗜️ Compressing with Huffman...");
-		File outputFile = compressionHandler.compressWithHuffman(fileHandler.getSelectedFile());
-
-		if (outputFile != null) {
-			fileHandler.setOutputFile(outputFile);
-			updateCompressionStats();
-			statusLabel.setText("✅ Compression complete!");
-		} else {
-			statusLabel.setText("❌ Compression failed");
-		}
+		File inputFile = fileHandler.getSelectedFile();
+		startTask("🗜️ Compressing with Huffman...", true,
+			listener -> compressionHandler.compressWithHuffman(inputFile, listener));
 	}
 
 	private void handleHuffmanDecompression() {
 		if (!validateFileSelected()) return;
 
-		statusLabel.setText("📂 Decompressing Huffman file...");
-		File outputFile = decompressionHandler.decompressHuffman(fileHandler.getSelectedFile());
-
-		if (outputFile != null) {
-			fileHandler.setOutputFile(outputFile);
-			updateDecompressionStats();
-			statusLabel.setText("✅ Decompression complete!");
-		} else {
-			statusLabel.setText("❌ Decompression failed");
-		}
+		File compressedFile = fileHandler.getSelectedFile();
+		startTask("📂 Decompressing Huffman file...", false,
+			listener -> decompressionHandler.decompressHuffman(compressedFile, listener));
 	}
 
 	private void handleLZWCompression() {
 		if (!validateFileSelected()) return;
 
-		statusLabel.setText("🗜️ Compressing with LZW...");
-		File outputFile = compressionHandler.compressWithLZW(fileHandler.getSelectedFile());
-
-		if (outputFile != null) {
-			fileHandler.setOutputFile(outputFile);
-			updateCompressionStats();
-			statusLabel.setText("✅ Compression complete!");
-		} else {
-			statusLabel.setText("❌ Compression failed");
-		}
+		File inputFile = fileHandler.getSelectedFile();
+		startTask("🗜️ Compressing with LZW...", true,
+			listener -> compressionHandler.compressWithLZW(inputFile, listener));
 	}
 
 	private void handleLZWDecompression() {
 		if (!validateFileSelected()) return;
 
-		statusLabel.setText("📂 Decompressing LZW file...");
-		File outputFile = decompressionHandler.decompressLZW(fileHandler.getSelectedFile());
+		File compressedFile = fileHandler.getSelectedFile();
+		startTask("📂 Decompressing LZW file...", false,
+			listener -> decompressionHandler.decompressLZW(compressedFile, listener));
+	}
 
-		if (outputFile != null) {
-			fileHandler.setOutputFile(outputFile);
-			updateDecompressionStats();
-			statusLabel.setText("✅ Decompression complete!");
-		} else {
-			statusLabel.setText("❌ Decompression failed");
+	/**
+	 * Runs the operation off the Event Dispatch Thread, so the window keeps repainting
+	 * The action buttons are disabled and the cancel button enabled until it finishes
+	 */
+	private void startTask(String status, boolean compressing, BackgroundTask.Operation operation) {
+		statusLabel.setText(status);
+		setTaskRunning(true);
+		// Indeterminate until the engine starts its first phase
+		progressBar.setIndeterminate(true);
+		progressBar.setString("Preparing...");
+
+		currentTask = new BackgroundTask(operation, new BackgroundTask.Callback() {
+			@Override
+			public void onProgress(ProgressEvent event) {
+				showProgress(event);
+			}
+
+			@Override
+			public void onSuccess(File outputFile) {
+				finishTask();
+				progressBar.setValue(100);
+				progressBar.setString("100%");
+				fileHandler.setOutputFile(outputFile);
+				if (compressing) {
+					statusLabel.setText("✅ Compression complete!");
+					updateCompressionStats();
+					compressionHandler.showSuccess(outputFile);
+				} else {
+					statusLabel.setText("✅ Decompression complete!");
+					updateDecompressionStats();
+					decompressionHandler.showSuccess(outputFile);
+				}
+			}
+
+			@Override
+			public void onFailure(Exception exception) {
+				finishTask();
+				logger.error("{} failed for file: {}", compressing ? "Compression" : "Decompression",
+					fileHandler.getSelectedFile(), exception);
+				if (compressing) {
+					statusLabel.setText("❌ Compression failed");
+					compressionHandler.showFailure(exception);
+				} else {
+					statusLabel.setText("❌ Decompression failed");
+					decompressionHandler.showFailure(exception);
+				}
+			}
+
+			@Override
+			public void onCancel() {
+				finishTask();
+				statusLabel.setText("⏹ Cancelled, partial output deleted");
+			}
+		});
+		currentTask.execute();
+	}
+
+	/**
+	 * Asks the running task to stop; its callback resets the window once the engine has stopped
+	 */
+	private void handleCancel() {
+		if (currentTask == null) return;
+
+		currentTask.requestCancel();
+		cancelButton.setEnabled(false);
+		statusLabel.setText("⏹ Cancelling...");
+	}
+
+	/**
+	 * Shows the phase, its percentage done, the throughput and the estimated time left in the phase
+	 * Example: "Encode: 12.50 MB of 100.00 MB · 85.3 MB/s · 2 s left"
+	 */
+	private void showProgress(ProgressEvent event) {
+		int percent = event.getPercent();
+		String phase = event.getPhase().getDescription();
+		StringBuilder details = new StringBuilder(Character.toUpperCase(phase.charAt(0)) + phase.substring(1))
+			.append(": ").append(fileHandler.formatFileSize(event.getBytesIn()));
+		if (percent >= 0) {
+			progressBar.setIndeterminate(false);
+			progressBar.setValue(percent);
+			progressBar.setString(percent + "%");
+			details.append(" of ").append(fileHandler.formatFileSize(event.getTotalBytes()));
 		}
+		details.append(" · ").append(fileHandler.formatFileSize((long) event.getBytesPerSecond())).append("/s");
+		long remainingSeconds = event.getRemainingSeconds();
+		if (remainingSeconds >= 0) {
+			details.append(" · ").append(formatDuration(remainingSeconds)).append(" left");
+		}
+		progressDetailsLabel.setText(details.toString());
+	}
+
+	private static String formatDuration(long seconds) {
+		if (seconds < 60) return seconds + " s";
+		else if (seconds < 3600) return String.format("%d min %02d s", seconds / 60, seconds % 60);
+		else return String.format("%d h %02d min", seconds / 3600, seconds % 3600 / 60);
+	}
+
+	private void finishTask() {
+		currentTask = null;
+		setTaskRunning(false);
+		progressBar.setIndeterminate(false);
+		progressBar.setValue(0);
+		progressBar.setString("");
+		progressDetailsLabel.setText(" ");
+	}
+
+	private void setTaskRunning(boolean running) {
+		huffmanCompressButton.setEnabled(!running);
+		huffmanDecompressButton.setEnabled(!running);
+		lzwCompressButton.setEnabled(!running);
+		lzwDecompressButton.setEnabled(!running);
+		ui.getBrowseButton().setEnabled(!running);
+		cancelButton.setEnabled(running);
 	}
 
 	private void updateCompressionStats() {
@@ -192,6 +297,8 @@ public class Main implements ActionListener {
 			handleLZWCompression();
 		} else if (e.getSource() == lzwDecompressButton) {
 			handleLZWDecompression();
+		} else if (e.getSource() == cancelButton) {
+			handleCancel();
 		} else if (e.getSource() == exitButton) {
 			System.exit(0);
 		}
@@ -207,6 +314,9 @@ public class Main implements ActionListener {
 	public JButton getLzwCompressButton() { return lzwCompressButton; }
 	public JButton getLzwDecompressButton() { return lzwDecompressButton; }
 	public JButton getExitButton() { return exitButton; }
+	public JProgressBar getProgressBar() { return progressBar; }
+	public JLabel getProgressDetailsLabel() { return progressDetailsLabel; }
+	public JButton getCancelButton() { return cancelButton; }
 	public File getOpenedFile() { return fileHandler.getSelectedFile(); }
 
 	/**
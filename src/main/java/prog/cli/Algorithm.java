@@ -0,0 +1,104 @@
+package prog.cli;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import prog.compression.Compressor;
+import prog.compression.Decompressor;
+import prog.huffman.HuffmanCompressor;
+import prog.huffman.HuffmanDecompressor;
+import prog.lzw.LzwCompressor;
+import prog.lzw.LzwDecompressor;
+import prog.util.Constants;
+
+/**
+ * The compression engines the command line can drive, with the file extension each one writes.
+ *
+ * Files are compressed through the path constructors, so the output is the same as from the GUI;
+ * decompression goes through channels, so the command line chooses (and can delete) the output file.
+ */
+public enum Algorithm {
+    HUFFMAN("huffman", Constants.HUFFMAN_FILE_EXTENSION),
+    LZW("lzw", Constants.LZW_FILE_EXTENSION);
+
+    private final String name;
+    private final String extension;
+
+    Algorithm(String name, String extension) {
+        this.name = name;
+        this.extension = extension;
+    }
+
+    /**
+     * @return The name used on the command line, e.g. "huffman"
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The extension of compressed files, e.g. ".huffz"
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Finds the algorithm for its command line name.
+     *
+     * @param name "huffman" or "lzw", in any case
+     * @return The matching algorithm
+     * @throws IllegalArgumentException if no algorithm has that name
+     */
+    public static Algorithm fromName(String name) {
+        for (Algorithm algorithm : values()) {
+            if (algorithm.name.equalsIgnoreCase(name)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown algorithm: " + name + " (expected huffman or lzw)");
+    }
+
+    /**
+     * Finds the algorithm that wrote a compressed file, from its extension.
+     *
+     * @param filePath Path of the compressed file
+     * @return The matching algorithm, or null if the extension is not known
+     */
+    public static Algorithm forCompressedFile(String filePath) {
+        for (Algorithm algorithm : values()) {
+            if (filePath.endsWith(algorithm.extension)) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compresses a file into filePath + getExtension().
+     */
+    Compressor compressor(String filePath) {
+        return this == HUFFMAN ? new HuffmanCompressor(filePath) : new LzwCompressor(filePath);
+    }
+
+    Compressor compressor(InputStream inputStream, OutputStream outputStream) {
+        return this == HUFFMAN ? new HuffmanCompressor(inputStream, outputStream) : new LzwCompressor(inputStream, outputStream);
+    }
+
+    /**
+     * The input should be a FileChannel, so LZW block files (which need seeking) can be read too.
+     */
+    Decompressor decompressor(ReadableByteChannel inputChannel, WritableByteChannel outputChannel) {
+        return this == HUFFMAN
+            ? new HuffmanDecompressor(inputChannel, outputChannel)
+            : new LzwDecompressor(inputChannel, outputChannel);
+    }
+
+    Decompressor decompressor(InputStream inputStream, OutputStream outputStream) {
+        return this == HUFFMAN
+            ? new HuffmanDecompressor(inputStream, outputStream)
+            : new LzwDecompressor(inputStream, outputStream);
+    }
+}
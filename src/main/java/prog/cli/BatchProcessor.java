@@ -0,0 +1,257 @@
+package prog.cli;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import prog.compression.Compressor;
+import prog.compression.Decompressor;
+import prog.metrics.CompressionMetrics;
+import prog.metrics.MetricsRegistry;
+import prog.metrics.PhaseTimer;
+import prog.util.FileUtils;
+
+/**
+ * Compresses or decompresses many files on a fixed number of worker threads.
+ *
+ * Directories are walked lazily and files are handed to the workers as they are found. At most
+ * two files per worker are queued; beyond that the walk waits for any file to finish, so memory
+ * stays flat for hundreds of thousands of files while every worker stays busy. A file that fails
+ * is reported and counted, its partial output is deleted, and the batch goes on. Every file the
+ * engines run on is recorded in the metrics, with the time of each of its steps.
+ *
+ * Example:
+ * <pre>
+ * BatchSummary summary = new BatchProcessor(CommandLineOptions.parse("compress", "-r", "logs/"), System.err).run();
+ * </pre>
+ */
+public class BatchProcessor {
+    private final CommandLineOptions options;
+    private final PrintStream err;
+    private final CompressionMetrics metrics;
+    private final BatchSummary summary = new BatchSummary();
+
+    /**
+     * @param options Parsed options with at least one path
+     * @param err Receives one line per failed or skipped file
+     */
+    public BatchProcessor(CommandLineOptions options, PrintStream err) {
+        this(options, err, new CompressionMetrics(new MetricsRegistry()));
+    }
+
+    /**
+     * @param metrics Records every file compressed or decompressed
+     */
+    public BatchProcessor(CommandLineOptions options, PrintStream err, CompressionMetrics metrics) {
+        this.options = options;
+        this.err = err;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Processes every path of the options and waits for all files to finish.
+     *
+     * @return The totals of the run
+     * @throws InterruptedIOException If interrupted while waiting; queued files are abandoned
+     */
+    public BatchSummary run() throws InterruptedIOException {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(options.getJobs());
+        try {
+            CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+            int maxFilesInFlight = 2 * options.getJobs();
+            int filesInFlight = 0;
+            for (String argument : options.getPaths()) {
+                Iterator<Path> files = null;
+                Stream<Path> walk = null;
+                try {
+                    Path path = Path.of(argument);
+                    if (Files.isDirectory(path)) {
+                        if (!options.isRecursive()) {
+                            fail(argument, "is a directory (use -r)");
+                            continue;
+                        }
+                        walk = Files.walk(path).filter(Files::isRegularFile).filter(this::isSelectedInDirectory);
+                        files = walk.iterator();
+                    } else if (!Files.isRegularFile(path)) {
+                        fail(argument, "no such file");
+                        continue;
+                    } else {
+                        files = Stream.of(path).iterator();
+                    }
+
+                    while (files.hasNext()) {
+                        Path file = files.next();
+                        if (filesInFlight >= maxFilesInFlight) {
+                            awaitOne(completion);
+                            filesInFlight--;
+                        }
+                        completion.submit(() -> process(file), null);
+                        filesInFlight++;
+                    }
+                } catch (IOException | UncheckedIOException e) {
+                    // A directory that cannot be read stops its own walk only
+                    fail(argument, message(e));
+                } finally {
+                    if (walk != null) {
+                        walk.close();
+                    }
+                }
+            }
+            while (filesInFlight > 0) {
+                awaitOne(completion);
+                filesInFlight--;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        summary.setElapsedNanos(System.nanoTime() - start);
+        return summary;
+    }
+
+    private void awaitOne(CompletionService<Void> completion) throws InterruptedIOException {
+        try {
+            completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for files");
+        } catch (ExecutionException e) {
+            // process() reports its own failures, so this is a bug rather than a bad file
+            throw new IllegalStateException("File task failed", e.getCause());
+        }
+    }
+
+    /**
+     * Decides which files found in a directory are processed; the others are left alone silently.
+     * Compression skips files that are already compressed; decompression takes only compressed files.
+     */
+    private boolean isSelectedInDirectory(Path file) {
+        String name = file.toString();
+        if (options.isCompress()) {
+            return Algorithm.forCompressedFile(name) == null;
+        }
+        return options.getAlgorithm() == null
+            ? Algorithm.forCompressedFile(name) != null
+            : name.endsWith(options.getAlgorithm().getExtension());
+    }
+
+    /**
+     * Compresses or decompresses one file, recording the outcome in the summary.
+     */
+    private void process(Path file) {
+        try {
+            if (options.isCompress()) {
+                compress(file);
+            } else {
+                decompress(file);
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(file.toString(), message(e));
+        }
+    }
+
+    private void compress(Path file) throws IOException {
+        Algorithm algorithm = options.getAlgorithm();
+        if (file.toString().endsWith(algorithm.getExtension())) {
+            skip(file, "already has the " + algorithm.getExtension() + " extension");
+            return;
+        }
+        long originalSize = Files.size(file);
+        if (originalSize == 0) {
+            // The engines reject empty files; nothing is lost by leaving them as they are
+            skip(file, "empty file");
+            return;
+        }
+
+        Path output = Path.of(file + algorithm.getExtension());
+        PhaseTimer phases = new PhaseTimer();
+        long start = System.nanoTime();
+        try {
+            Compressor compressor = algorithm.compressor(file.toString());
+            try {
+                compressor.setPhaseTimer(phases);
+                compressor.compress();
+            } finally {
+                compressor.cleanup();
+            }
+        } catch (RuntimeException e) {
+            metrics.recordFailure(algorithm.getName(), CompressionMetrics.COMPRESS, e);
+            Files.deleteIfExists(output);
+            throw e;
+        }
+        long compressedSize = Files.size(output);
+        metrics.recordCompression(algorithm.getName(), originalSize, compressedSize, System.nanoTime() - start, phases);
+        summary.addProcessed(originalSize, compressedSize);
+    }
+
+    private void decompress(Path file) throws IOException {
+        String name = file.toString();
+        Algorithm algorithm = options.getAlgorithm() != null ? options.getAlgorithm() : Algorithm.forCompressedFile(name);
+        if (algorithm == null || !name.endsWith(algorithm.getExtension())) {
+            String expected = algorithm != null ? algorithm.getExtension() : "a .huffz or .LmZWp";
+            throw new IOException("does not have " + (algorithm != null ? "the " : "") + expected + " extension");
+        }
+
+        Path output = createOutputFile(name.substring(0, name.length() - algorithm.getExtension().length()));
+        PhaseTimer phases = new PhaseTimer();
+        long start = System.nanoTime();
+        try (FileChannel input = FileChannel.open(file);
+             FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+            Decompressor decompressor = algorithm.decompressor(input, outputChannel);
+            decompressor.setPhaseTimer(phases);
+            decompressor.decompress();
+        } catch (IOException | RuntimeException e) {
+            metrics.recordFailure(algorithm.getName(), CompressionMetrics.DECOMPRESS, e);
+            Files.deleteIfExists(output);
+            throw e;
+        }
+        long originalSize = Files.size(output);
+        long compressedSize = Files.size(file);
+        metrics.recordDecompression(algorithm.getName(), compressedSize, originalSize, System.nanoTime() - start, phases);
+        summary.addProcessed(originalSize, compressedSize);
+    }
+
+    /**
+     * Creates the output file of a decompression, numbered like the GUI does if the name is taken.
+     * Creating the file claims the name, so two workers never pick the same one.
+     */
+    private static Path createOutputFile(String filePath) throws IOException {
+        while (true) {
+            Path candidate = Path.of(FileUtils.getUniqueFilePath(filePath));
+            try {
+                return Files.createFile(candidate);
+            } catch (FileAlreadyExistsException e) {
+                // Another worker took the name between the check and the create; pick the next one
+            }
+        }
+    }
+
+    private void skip(Path file, String reason) {
+        summary.addSkipped();
+        err.println(file + ": skipped, " + reason);
+    }
+
+    private void fail(String path, String reason) {
+        summary.addFailed();
+        err.println(path + ": " + reason);
+    }
+
+    private static String message(Exception e) {
+        // The engines wrap IOExceptions in RuntimeExceptions; the cause says what went wrong
+        Throwable cause = e.getCause() != null && e.getCause().getMessage() != null ? e.getCause() : e;
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package prog.cli;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Totals of a batch run, updated by every worker thread.
+ *
+ * Sizes are counted as original (uncompressed) and compressed bytes in both directions,
+ * so throughput is always in uncompressed MB/s, whichever way the files went.
+ */
+public class BatchSummary {
+    private final AtomicInteger processedFiles = new AtomicInteger();
+    private final AtomicInteger skippedFiles = new AtomicInteger();
+    private final AtomicInteger failedFiles = new AtomicInteger();
+    private final AtomicLong originalBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private volatile long elapsedNanos;
+
+    void addProcessed(long originalSize, long compressedSize) {
+        processedFiles.incrementAndGet();
+        originalBytes.addAndGet(originalSize);
+        compressedBytes.addAndGet(compressedSize);
+    }
+
+    void addSkipped() {
+        skippedFiles.incrementAndGet();
+    }
+
+    void addFailed() {
+        failedFiles.incrementAndGet();
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getProcessedFiles() {
+        return processedFiles.get();
+    }
+
+    public int getSkippedFiles() {
+        return skippedFiles.get();
+    }
+
+    public int getFailedFiles() {
+        return failedFiles.get();
+    }
+
+    public long getOriginalBytes() {
+        return originalBytes.get();
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.get();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Formats the totals as one line.
+     * Example: "Compressed 3 files: 1.20 MB -> 512.00 KB (saved 58.3%) in 0.42 s, 3.00 MB/s; 1 skipped, 0 failed"
+     *
+     * @param verb "Compressed" or "Decompressed"
+     */
+    public String format(String verb) {
+        long original = getOriginalBytes();
+        long compressed = getCompressedBytes();
+        double seconds = elapsedNanos / 1e9;
+        double saved = original == 0 ? 0 : (1.0 - (double) compressed / original) * 100;
+        double megabytesPerSecond = seconds == 0 ? 0 : original / 1e6 / seconds;
+        String from = verb.startsWith("Compress") ? formatBytes(original) : formatBytes(compressed);
+        String to = verb.startsWith("Compress") ? formatBytes(compressed) : formatBytes(original);
+        return String.format("%s %d files: %s -> %s (saved %.1f%%) in %.2f s, %.2f MB/s; %d skipped, %d failed",
+            verb, getProcessedFiles(), from, to, saved, seconds, megabytesPerSecond, getSkippedFiles(), getFailedFiles());
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.2f KB", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024) return String.format("%.2f MB", bytes / (1024.0 * 1024));
+        return String.format("%.2f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+}
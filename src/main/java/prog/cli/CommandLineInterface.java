@@ -0,0 +1,161 @@
+package prog.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import prog.compression.Compressor;
+import prog.compression.Decompressor;
+import prog.compression.ProgressEvent;
+import prog.metrics.CompressionMetrics;
+import prog.metrics.MetricsRegistry;
+import prog.metrics.PhaseTimer;
+
+/**
+ * Headless entry point: compresses and decompresses files, directory trees or standard input
+ * without the Swing UI, for scripts and cron jobs.
+ *
+ * Usage example:
+ * <pre>
+ * java -cp file-compression-2.0-SNAPSHOT-jar-with-dependencies.jar prog.cli.CommandLineInterface compress -r -j 16 /data/logs
+ * </pre>
+ *
+ * Exit status: 0 when every file succeeded, 1 when any file failed, 2 for invalid arguments.
+ *
+ * This class has no logger on purpose: main() has to pick the logging configuration
+ * before the first logger is created.
+ */
+public class CommandLineInterface {
+    public static final int EXIT_SUCCESS = 0;
+    public static final int EXIT_FAILURE = 1;
+    public static final int EXIT_USAGE = 2;
+
+    private static final String LOGBACK_CONFIGURATION_PROPERTY = "logback.configurationFile";
+
+    /**
+     * Keeps engine logging off standard output, which may carry compressed data
+     */
+    private static final String CLI_LOGBACK_CONFIGURATION = "logback-cli.xml";
+
+    private final InputStream in;
+    private final OutputStream out;
+    private final PrintStream err;
+
+    /**
+     * @param in Data to compress or decompress when no paths are given
+     * @param out Receives the result for standard input, and the help text
+     * @param err Receives errors, skipped files and the batch summary
+     */
+    public CommandLineInterface(InputStream in, OutputStream out, PrintStream err) {
+        this.in = in;
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        if (System.getProperty(LOGBACK_CONFIGURATION_PROPERTY) == null) {
+            System.setProperty(LOGBACK_CONFIGURATION_PROPERTY, CLI_LOGBACK_CONFIGURATION);
+        }
+        System.exit(new CommandLineInterface(System.in, System.out, System.err).run(args));
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @param args The command, options and paths, as on the command line
+     * @return The exit status
+     */
+    public int run(String... args) {
+        CommandLineOptions options;
+        try {
+            options = CommandLineOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(CommandLineOptions.USAGE);
+            return EXIT_USAGE;
+        }
+        if (options == null) {
+            PrintStream help = new PrintStream(out, true);
+            help.println(CommandLineOptions.USAGE);
+            return EXIT_SUCCESS;
+        }
+
+        CompressionMetrics metrics = new CompressionMetrics(new MetricsRegistry());
+        int status;
+        if (options.getPaths().isEmpty()) {
+            status = runStreams(options, metrics);
+        } else {
+            try {
+                BatchSummary summary = new BatchProcessor(options, err, metrics).run();
+                err.println(summary.format(options.isCompress() ? "Compressed" : "Decompressed"));
+                status = summary.getFailedFiles() == 0 ? EXIT_SUCCESS : EXIT_FAILURE;
+            } catch (InterruptedIOException e) {
+                err.println(e.getMessage());
+                status = EXIT_FAILURE;
+            }
+        }
+        return writeMetrics(options, metrics) ? status : EXIT_FAILURE;
+    }
+
+    /**
+     * Writes the metrics of the run to the file of -m, if given.
+     *
+     * @return false if the file could not be written
+     */
+    private boolean writeMetrics(CommandLineOptions options, CompressionMetrics metrics) {
+        if (options.getMetricsFile() == null) {
+            return true;
+        }
+        try {
+            metrics.getRegistry().writeSnapshot(options.getMetricsFile());
+            return true;
+        } catch (IOException e) {
+            err.println(options.getMetricsFile() + ": cannot write metrics, " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Compresses or decompresses standard input to standard output.
+     * Decompression uses Huffman unless -a says otherwise, as the formats cannot be told apart by content.
+     * The sizes for the metrics come from the last progress event, as streams have no size to look up.
+     */
+    private int runStreams(CommandLineOptions options, CompressionMetrics metrics) {
+        Algorithm algorithm = options.getAlgorithm() != null ? options.getAlgorithm() : Algorithm.HUFFMAN;
+        String operation = options.isCompress() ? CompressionMetrics.COMPRESS : CompressionMetrics.DECOMPRESS;
+        ProgressEvent[] lastEvent = new ProgressEvent[1];
+        PhaseTimer phases = new PhaseTimer();
+        long start = System.nanoTime();
+        try {
+            if (options.isCompress()) {
+                Compressor compressor = algorithm.compressor(in, out);
+                // Phases are reported when they start and end only
+                compressor.setProgressListener(event -> lastEvent[0] = event, Long.MAX_VALUE);
+                compressor.setPhaseTimer(phases);
+                compressor.compress();
+            } else {
+                Decompressor decompressor = algorithm.decompressor(in, out);
+                decompressor.setProgressListener(event -> lastEvent[0] = event, Long.MAX_VALUE);
+                decompressor.setPhaseTimer(phases);
+                decompressor.decompress();
+            }
+            out.flush();
+            long elapsedNanos = System.nanoTime() - start;
+            long bytesIn = lastEvent[0] != null ? lastEvent[0].getBytesIn() : 0;
+            long bytesOut = lastEvent[0] != null ? lastEvent[0].getBytesOut() : 0;
+            if (options.isCompress()) {
+                metrics.recordCompression(algorithm.getName(), bytesIn, bytesOut, elapsedNanos, phases);
+            } else {
+                metrics.recordDecompression(algorithm.getName(), bytesIn, bytesOut, elapsedNanos, phases);
+            }
+            return EXIT_SUCCESS;
+        } catch (IOException | RuntimeException e) {
+            metrics.recordFailure(algorithm.getName(), operation, e);
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            err.println("<stdin>: " + (cause.getMessage() != null ? cause.getMessage() : cause));
+            return EXIT_FAILURE;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package prog.cli;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed command line arguments.
+ *
+ * Examples:
+ * - "compress notes.txt" compresses one file with Huffman codes
+ * - "compress -a lzw -r -j 8 logs/" compresses every file below logs/ on 8 threads
+ * - "decompress -r archive/" decompresses every .huffz and .LmZWp file below archive/
+ * - "compress -a lzw" compresses standard input to standard output
+ * - "compress -r -m metrics.prom logs/" also writes the metrics of the run to metrics.prom
+ */
+public class CommandLineOptions {
+    static final String USAGE = String.join(System.lineSeparator(),
+        "Usage: (compress | decompress) [options] [paths...]",
+        "  -a, --algorithm huffman|lzw  Algorithm to use (default: huffman; decompress",
+        "                               takes it from each file's extension when not given)",
+        "  -r, --recursive              Process the files in directories and their subdirectories",
+        "  -j, --jobs N                 Number of files processed at once (default: number of processors)",
+        "  -m, --metrics FILE           Write the metrics of the run to FILE at the end, as JSON if it",
+        "                               ends in .json, in the Prometheus text format otherwise",
+        "  -h, --help                   Show this help",
+        "With no paths, reads standard input and writes standard output.");
+
+    private final boolean compress;
+    private final Algorithm algorithm;
+    private final boolean recursive;
+    private final int jobs;
+    private final List<String> paths;
+    private final Path metricsFile;
+
+    private CommandLineOptions(boolean compress, Algorithm algorithm, boolean recursive, int jobs, List<String> paths,
+                               Path metricsFile) {
+        this.compress = compress;
+        this.algorithm = algorithm;
+        this.recursive = recursive;
+        this.jobs = jobs;
+        this.paths = paths;
+        this.metricsFile = metricsFile;
+    }
+
+    /**
+     * Parses the arguments of a command.
+     *
+     * @param args The command, then options and paths in any order
+     * @return The parsed options, or null if help was requested
+     * @throws IllegalArgumentException with a message for the user if the arguments are invalid
+     */
+    public static CommandLineOptions parse(String... args) {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Missing command");
+        }
+        boolean compress;
+        switch (args[0]) {
+            case "compress" -> compress = true;
+            case "decompress" -> compress = false;
+            case "-h", "--help" -> {
+                return null;
+            }
+            default -> throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+
+        Algorithm algorithm = null;
+        boolean recursive = false;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        List<String> paths = new ArrayList<>();
+        Path metricsFile = null;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "-a", "--algorithm" -> algorithm = Algorithm.fromName(valueOf(args, ++i));
+                case "-r", "--recursive" -> recursive = true;
+                case "-j", "--jobs" -> jobs = parseJobs(valueOf(args, ++i));
+                case "-m", "--metrics" -> metricsFile = Path.of(valueOf(args, ++i));
+                case "-h", "--help" -> {
+                    return null;
+                }
+                default -> {
+                    if (args[i].startsWith("-") && args[i].length() > 1) {
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                    }
+                    paths.add(args[i]);
+                }
+            }
+        }
+        if (compress && algorithm == null) {
+            algorithm = Algorithm.HUFFMAN;
+        }
+        return new CommandLineOptions(compress, algorithm, recursive, jobs, List.copyOf(paths), metricsFile);
+    }
+
+    private static String valueOf(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static int parseJobs(String value) {
+        int jobs;
+        try {
+            jobs = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Number of jobs must be a number, got: " + value);
+        }
+        if (jobs < 1) {
+            throw new IllegalArgumentException("Number of jobs must be positive, got: " + value);
+        }
+        return jobs;
+    }
+
+    /**
+     * @return true for compress, false for decompress
+     */
+    public boolean isCompress() {
+        return compress;
+    }
+
+    /**
+     * @return The chosen algorithm; null when decompressing without -a, where each file's extension decides
+     */
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public boolean isRecursive() {
+        return recursive;
+    }
+
+    public int getJobs() {
+        return jobs;
+    }
+
+    /**
+     * @return The files and directories to process; empty for standard input
+     */
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * @return The file to write the metrics of the run to, or null for none
+     */
+    public Path getMetricsFile() {
+        return metricsFile;
+    }
+}
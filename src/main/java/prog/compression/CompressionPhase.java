@@ -0,0 +1,44 @@
+package prog.compression;
+
+/**
+ * Stage of a compression or decompression, as reported to a ProgressListener.
+ * A job goes through one or more phases in order; every phase reads the whole input once.
+ *
+ * Example: a Huffman compression in the frequency table format goes through
+ * FREQUENCY_SCAN and then ENCODE, a Huffman decompression through DECODE only.
+ */
+public enum CompressionPhase {
+    /**
+     * Counting how often each byte occurs, before the Huffman codes can be built
+     */
+    FREQUENCY_SCAN("frequency scan"),
+
+    /**
+     * Building the LZW dictionary once to find the width of fixed-width codes
+     */
+    DICTIONARY_SCAN("dictionary scan"),
+
+    /**
+     * Reading the input and writing the compressed bytes
+     */
+    ENCODE("encode"),
+
+    /**
+     * Reading the compressed bytes and writing the original ones
+     */
+    DECODE("decode");
+
+    private final String description;
+
+    CompressionPhase(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Returns the phase in words, for logs and status lines.
+     * Example: "frequency scan"
+     */
+    public String getDescription() {
+        return description;
+    }
+}
@@ -1,5 +1,7 @@
 package prog.compression;
 
+import prog.metrics.PhaseTimer;
+
 /**
  * Interface for file compression algorithms.
  * Provides a unified API for different compression implementations (Huffman, LZW, etc.)
@@ -10,6 +12,13 @@ package prog.compression;
  * compressor.compress(); // Creates input.txt.huffz
  * compressor.cleanup();
  * </pre>
+ *
+ * Streams and channels are compressed through the same interface, without temporary files.
+ * The caller's streams are left open:
+ * <pre>
+ * Compressor compressor = new HuffmanCompressor(request.getInputStream(), response.getOutputStream());
+ * compressor.compress(); // Writes the compressed bytes to the response
+ * </pre>
  */
 public interface Compressor {
     /**
@@ -24,6 +33,46 @@ public interface Compressor {
      */
     void compress();
 
+    /**
+     * Sets the listener told the phases and the progress of compress(), every
+     * ProgressListener.DEFAULT_GRANULARITY bytes of input; call it before compress().
+     *
+     * @param listener Receives the progress, or null for none
+     */
+    default void setProgressListener(ProgressListener listener) {
+        setProgressListener(listener, ProgressListener.DEFAULT_GRANULARITY);
+    }
+
+    /**
+     * Sets the listener told the phases and the progress of compress(); call it before compress().
+     * Without a listener, compress() does not measure its progress at all.
+     *
+     * For example:
+     * - 1 &lt;&lt; 20 reports every megabyte read, enough for a progress bar
+     * - 4096 reports more often, at the cost of smaller reads from the input
+     *
+     * Note: A compressor that cannot report progress ignores the listener.
+     *
+     * @param listener Receives the progress, or null for none
+     * @param granularity Bytes of input between two reports
+     * @throws IllegalArgumentException if the granularity is not positive
+     */
+    default void setProgressListener(ProgressListener listener, long granularity) {
+        // Default implementation does not report progress
+    }
+
+    /**
+     * Sets the timer told when each step of compress() starts, e.g. to record phase durations as metrics;
+     * call it before compress().
+     *
+     * Note: A compressor that does not time its steps ignores the timer.
+     *
+     * @param timer Times the steps, or null for none
+     */
+    default void setPhaseTimer(PhaseTimer timer) {
+        // Default implementation does not time its steps
+    }
+
     /**
      * Cleans up any resources used by the compressor.
      * Should be called after compression is complete.
@@ -0,0 +1,141 @@
+package prog.compression;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * Base of the decompressing input streams: hands out decoded bytes one piece at a time.
+ *
+ * Subclasses decode the next piece (a Huffman block, an LZW phrase) when the previous one
+ * has been read. Counts and marks refer to the decompressed bytes, never to the compressed
+ * ones underneath.
+ */
+abstract class DecodingInputStream extends FilterInputStream {
+    private byte[] decoded = new byte[0];
+    private int position;
+    private int limit;
+    private boolean endOfData;
+    private boolean closed;
+
+    protected DecodingInputStream(InputStream in) {
+        super(in);
+    }
+
+    /**
+     * Decodes the next piece and passes it to setDecoded.
+     *
+     * @return false once the compressed data has ended
+     * @throws IOException If reading fails or the compressed data is corrupt
+     */
+    protected abstract boolean decodeNext() throws IOException;
+
+    /**
+     * Tells whether compressed bytes are at hand, so decoding the next piece is not expected to block.
+     * Subclasses that read ahead into a buffer of their own must count that buffer too.
+     */
+    protected boolean hasBufferedInput() throws IOException {
+        return in.available() > 0;
+    }
+
+    /**
+     * Sets the bytes read next.
+     *
+     * @param bytes Array holding the piece, from index 0; not copied
+     * @param length Number of bytes of the piece
+     */
+    protected final void setDecoded(byte[] bytes, int length) {
+        this.decoded = bytes;
+        this.position = 0;
+        this.limit = length;
+    }
+
+    /**
+     * Makes sure some decoded bytes are waiting.
+     *
+     * @return false at the end of the data
+     */
+    private boolean fill() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (position == limit) {
+            if (endOfData || !decodeNext()) {
+                endOfData = true;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return decoded[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length == 0) {
+            return 0;
+        }
+        int total = 0;
+        // Goes on to the next piece while compressed bytes are at hand, like BufferedInputStream,
+        // so small pieces cost no extra calls and a slow source does not block a partial read
+        while (total < length && (total == 0 || position < limit || hasBufferedInput()) && fill()) {
+            int count = Math.min(length - total, limit - position);
+            System.arraycopy(decoded, position, bytes, offset + total, count);
+            position += count;
+            total += count;
+        }
+        return total == 0 ? -1 : total;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        long skipped = 0;
+        while (skipped < count && fill()) {
+            int step = (int) Math.min(count - skipped, limit - position);
+            position += step;
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    /**
+     * Returns the number of decoded bytes waiting, which can be read without decoding or blocking.
+     */
+    @Override
+    public int available() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        return limit - position;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readLimit) {
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            in.close();
+        }
+    }
+}
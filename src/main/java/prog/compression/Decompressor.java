@@ -1,5 +1,7 @@
 package prog.compression;
 
+import prog.metrics.PhaseTimer;
+
 /**
  * Interface for file decompression algorithms.
  * Provides a unified API for different decompression implementations (Huffman, LZW, etc.)
@@ -9,6 +11,13 @@ package prog.compression;
  * Decompressor decompressor = new HuffmanDecompressor("input.txt.huffz");
  * decompressor.decompress(); // Creates input.txt
  * </pre>
+ *
+ * Streams and channels are decompressed through the same interface, without temporary files.
+ * The caller's streams are left open:
+ * <pre>
+ * Decompressor decompressor = new HuffmanDecompressor(blob.getInputStream(), response.getOutputStream());
+ * decompressor.decompress(); // Writes the original bytes to the response
+ * </pre>
  */
 public interface Decompressor {
     /**
@@ -22,4 +31,44 @@ public interface Decompressor {
      * @throws RuntimeException if decompression fails
      */
     void decompress();
+
+    /**
+     * Sets the listener told the phases and the progress of decompress(), every
+     * ProgressListener.DEFAULT_GRANULARITY bytes of input; call it before decompress().
+     *
+     * @param listener Receives the progress, or null for none
+     */
+    default void setProgressListener(ProgressListener listener) {
+        setProgressListener(listener, ProgressListener.DEFAULT_GRANULARITY);
+    }
+
+    /**
+     * Sets the listener told the phases and the progress of decompress(); call it before decompress().
+     * Without a listener, decompress() does not measure its progress at all.
+     *
+     * For example:
+     * - 1 &lt;&lt; 20 reports every megabyte read, enough for a progress bar
+     * - 4096 reports more often, at the cost of smaller reads from the input
+     *
+     * Note: A decompressor that cannot report progress ignores the listener.
+     *
+     * @param listener Receives the progress, or null for none
+     * @param granularity Bytes of input between two reports
+     * @throws IllegalArgumentException if the granularity is not positive
+     */
+    default void setProgressListener(ProgressListener listener, long granularity) {
+        // Default implementation does not report progress
+    }
+
+    /**
+     * Sets the timer told when each step of decompress() starts, e.g. to record phase durations as metrics;
+     * call it before decompress().
+     *
+     * Note: A decompressor that does not time its steps ignores the timer.
+     *
+     * @param timer Times the steps, or null for none
+     */
+    default void setPhaseTimer(PhaseTimer timer) {
+        // Default implementation does not time its steps
+    }
 }
@@ -0,0 +1,80 @@
+package prog.compression;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import prog.huffman.HuffmanBlockCodec;
+import prog.huffman.HuffmanFormat;
+
+/**
+ * Input stream that decompresses the output of a HuffmanOutputStream, like java.util.zip.InflaterInputStream.
+ *
+ * Reads the block format of HuffmanFormat.BLOCKS one block at a time, so memory stays at one
+ * block however long the stream runs. Other Huffman formats need a HuffmanDecompressor.
+ *
+ * Usage example:
+ * <pre>
+ * try (InputStream input = new HuffmanInputStream(socket.getInputStream())) {
+ *     byte[] payload = input.readAllBytes();
+ * }
+ * </pre>
+ */
+public class HuffmanInputStream extends DecodingInputStream {
+    /**
+     * Largest original length of a block, from the container header
+     */
+    private final int blockSize;
+
+    /**
+     * Reads the container header.
+     *
+     * @param in The compressed bytes
+     * @throws IOException If the header cannot be read or is not the header of the block format
+     */
+    public HuffmanInputStream(InputStream in) throws IOException {
+        super(in);
+        int version = in.read();
+        if (version != HuffmanFormat.BLOCKS.getVersion()) {
+            throw new IOException(version == -1
+                ? "Unexpected end of Huffman stream"
+                : "Not a Huffman block stream, version byte: " + version);
+        }
+        byte[] blockSizeBytes = in.readNBytes(Integer.BYTES);
+        if (blockSizeBytes.length < Integer.BYTES) {
+            throw new EOFException("Unexpected end of Huffman stream");
+        }
+        this.blockSize = ByteBuffer.wrap(blockSizeBytes).getInt();
+        if (blockSize <= 0) {
+            throw new IOException("Invalid block size " + blockSize + " in Huffman stream");
+        }
+    }
+
+    /**
+     * Reads and decodes the next block.
+     */
+    @Override
+    protected boolean decodeNext() throws IOException {
+        // [4 bytes: original length] [4 bytes: payload length]; the stream may only end before it
+        byte[] header = in.readNBytes(2 * Integer.BYTES);
+        if (header.length == 0) {
+            return false;
+        }
+        if (header.length < 2 * Integer.BYTES) {
+            throw new EOFException("Unexpected end of Huffman stream");
+        }
+        ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+        int originalLength = headerBuffer.getInt();
+        int payloadLength = headerBuffer.getInt();
+        if (originalLength <= 0 || originalLength > blockSize || payloadLength < 0) {
+            throw new IOException("Invalid block header in Huffman stream");
+        }
+        byte[] payload = in.readNBytes(payloadLength);
+        if (payload.length < payloadLength) {
+            throw new EOFException("Unexpected end of Huffman stream");
+        }
+        setDecoded(HuffmanBlockCodec.decode(payload, originalLength), originalLength);
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+package prog.compression;
+
+import java.io.IOException;
+
+import prog.huffman.HuffmanBlockCodec;
+import prog.util.ByteReader;
+import prog.util.ByteWriter;
+import prog.util.Constants;
+
+/**
+ * Huffman-compresses messages held in memory, see {@link MessageCodec}.
+ *
+ * The payload is one block of HuffmanFormat.BLOCKS: canonical code lengths followed by the codes.
+ * The code lengths take up to 256 bytes, so messages of a few hundred bytes are usually stored.
+ *
+ * Usage example:
+ * <pre>
+ * byte[] compressed = new HuffmanMessageCodec().compress(json.getBytes(StandardCharsets.UTF_8));
+ * </pre>
+ */
+public class HuffmanMessageCodec extends MessageCodec {
+    private final int maxCodeLength;
+
+    /**
+     * Limits codes to Constants.DEFAULT_MAX_CODE_LENGTH bits, like the block format.
+     */
+    public HuffmanMessageCodec() {
+        this(Constants.DEFAULT_MAX_CODE_LENGTH);
+    }
+
+    /**
+     * @param maxCodeLength Longest code in bits, or Constants.UNLIMITED_CODE_LENGTH to use the plain Huffman tree
+     */
+    public HuffmanMessageCodec(int maxCodeLength) {
+        this.maxCodeLength = maxCodeLength;
+    }
+
+    @Override
+    protected void encode(byte[] data, int offset, int length, ByteWriter writer) throws IOException {
+        HuffmanBlockCodec.encode(data, offset, length, maxCodeLength, writer);
+    }
+
+    @Override
+    protected void decode(ByteReader reader, int payloadLength, byte[] output, int offset, int length)
+            throws IOException {
+        HuffmanBlockCodec.decode(reader, payloadLength, output, offset, length);
+    }
+
+    /**
+     * Every byte takes a code of at least one bit.
+     */
+    @Override
+    protected long maxDecodedLength(int payloadLength) {
+        return (long) payloadLength * Constants.BITS_PER_BYTE;
+    }
+}
@@ -0,0 +1,167 @@
+package prog.compression;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+import prog.huffman.HuffmanBlockCodec;
+import prog.huffman.HuffmanFormat;
+import prog.util.Constants;
+
+/**
+ * Output stream that Huffman-compresses everything written to it, like java.util.zip.DeflaterOutputStream.
+ *
+ * Writes the block format of HuffmanFormat.BLOCKS: the bytes are collected into blocks, and every
+ * full block gets a Huffman code of its own. The total length never needs to be known, and memory
+ * stays at one block however long the stream runs. The output can be read back with a
+ * HuffmanInputStream, or decompressed like any .huffz file.
+ *
+ * Usage example:
+ * <pre>
+ * try (OutputStream output = new HuffmanOutputStream(socket.getOutputStream())) {
+ *     output.write(payload);
+ * }
+ * </pre>
+ */
+public class HuffmanOutputStream extends FilterOutputStream {
+    private final byte[] block;
+
+    /**
+     * Number of bytes waiting in the block
+     */
+    private int blockLength;
+
+    /**
+     * Whether flush() also compresses the bytes waiting in the block
+     */
+    private final boolean syncFlush;
+
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * Compresses into blocks of Constants.DEFAULT_HUFFMAN_BLOCK_SIZE bytes.
+     *
+     * @param out Receives the compressed bytes
+     * @throws IOException If the container header cannot be written
+     */
+    public HuffmanOutputStream(OutputStream out) throws IOException {
+        this(out, Constants.DEFAULT_HUFFMAN_BLOCK_SIZE, false);
+    }
+
+    /**
+     * @param out Receives the compressed bytes
+     * @param blockSize Number of input bytes per block, which is also the memory used
+     * @param syncFlush If true, flush() compresses the bytes written so far into a short block,
+     *        so the reader gets them right away. Every block carries its own code lengths,
+     *        so flushing after every few bytes costs more than it saves.
+     * @throws IOException If the container header cannot be written
+     * @throws IllegalArgumentException If the block size is not positive
+     */
+    public HuffmanOutputStream(OutputStream out, int blockSize, boolean syncFlush) throws IOException {
+        super(out);
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive, got: " + blockSize);
+        }
+        this.block = new byte[blockSize];
+        this.syncFlush = syncFlush;
+        out.write(HuffmanFormat.BLOCKS.getVersion());
+        writeInt(blockSize);
+    }
+
+    @Override
+    public void write(int byteValue) throws IOException {
+        ensureWritable();
+        if (blockLength == block.length) {
+            writeBlock();
+        }
+        block[blockLength++] = (byte) byteValue;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        ensureWritable();
+        while (length > 0) {
+            if (blockLength == block.length) {
+                writeBlock();
+            }
+            int count = Math.min(length, block.length - blockLength);
+            System.arraycopy(bytes, offset, block, blockLength, count);
+            blockLength += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Flushes the compressed bytes written so far.
+     * With syncFlush, the bytes waiting in the block are compressed first; without it, they wait
+     * until the block is full or the stream is finished.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (syncFlush && !finished) {
+            writeBlock();
+        }
+        out.flush();
+    }
+
+    /**
+     * Compresses the bytes waiting in the block without closing the underlying stream.
+     * Nothing can be written afterwards.
+     */
+    public void finish() throws IOException {
+        ensureOpen();
+        if (!finished) {
+            writeBlock();
+            finished = true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                finish();
+                out.flush();
+            } finally {
+                closed = true;
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Compresses the bytes waiting in the block and writes them as one block of the container.
+     */
+    private void writeBlock() throws IOException {
+        if (blockLength == 0) {
+            return;
+        }
+        byte[] payload = HuffmanBlockCodec.encode(block, blockLength, Constants.DEFAULT_MAX_CODE_LENGTH);
+        writeInt(blockLength);
+        writeInt(payload.length);
+        out.write(payload);
+        blockLength = 0;
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value});
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void ensureWritable() throws IOException {
+        ensureOpen();
+        if (finished) {
+            throw new IOException("Stream finished");
+        }
+    }
+}
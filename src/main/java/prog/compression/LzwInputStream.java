@@ -0,0 +1,90 @@
+package prog.compression;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import prog.lzw.LzwDecoder;
+import prog.lzw.LzwFormat;
+import prog.util.BitReader;
+import prog.util.ByteReader;
+import prog.util.Constants;
+
+/**
+ * Input stream that decompresses the output of an LzwOutputStream, like java.util.zip.InflaterInputStream.
+ *
+ * Decodes one phrase at a time, so memory stays at the dictionary limits plus two buffers however
+ * long the stream runs. Reads every .LmZWp format but BLOCKS, whose block index is at the end;
+ * those files need an LzwDecompressor.
+ *
+ * Usage example:
+ * <pre>
+ * try (InputStream input = new LzwInputStream(new FileInputStream("app.log.LmZWp"))) {
+ *     input.transferTo(System.out);
+ * }
+ * </pre>
+ */
+public class LzwInputStream extends DecodingInputStream {
+    private final BitReader bitReader;
+    private final LzwDecoder decoder;
+
+    /**
+     * Reads the header.
+     *
+     * @param in The compressed bytes
+     * @throws IOException If the header cannot be read or is not the header of a streamable format
+     */
+    public LzwInputStream(InputStream in) throws IOException {
+        super(in);
+        int firstByte = in.read();
+        if (firstByte == -1) {
+            throw new EOFException("Unexpected end of LZW stream");
+        }
+        LzwFormat format;
+        try {
+            format = LzwFormat.fromVersion(firstByte);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Not an LZW stream: " + e.getMessage(), e);
+        }
+        if (format == LzwFormat.BLOCKS) {
+            throw new IOException("LZW blocks need a file or a seekable channel, use LzwDecompressor");
+        }
+        int bitSize = 0;
+        if (format == LzwFormat.FIXED_WIDTH) {
+            // The first byte was the top byte of the bit size
+            for (int i = 1; i < Integer.BYTES; i++) {
+                int nextByte = in.read();
+                if (nextByte == -1) {
+                    throw new EOFException("Unexpected end of LZW stream");
+                }
+                bitSize = (bitSize << Constants.BITS_PER_BYTE) | nextByte;
+            }
+            if (bitSize <= 0 || bitSize > Integer.SIZE) {
+                throw new IOException("Invalid bit size " + bitSize + " in LZW stream");
+            }
+        }
+        this.bitReader = new BitReader(new ByteReader(in), 0);
+        this.decoder = new LzwDecoder(bitReader, format, bitSize);
+    }
+
+    /**
+     * The bit reader takes the compressed bytes from in ahead of time, so its bits count as at hand.
+     */
+    @Override
+    protected boolean hasBufferedInput() throws IOException {
+        return bitReader.getAvailableBits() > 0 || in.available() > 0;
+    }
+
+    /**
+     * Decodes the next phrase.
+     */
+    @Override
+    protected boolean decodeNext() throws IOException {
+        int length = decoder.decodePhrase();
+        if (length == -1) {
+            return false;
+        }
+        setDecoded(decoder.getPhrase(), length);
+        return true;
+    }
+}
@@ -0,0 +1,41 @@
+package prog.compression;
+
+import java.io.IOException;
+
+import prog.lzw.LzwBlockCodec;
+import prog.util.ByteReader;
+import prog.util.ByteWriter;
+import prog.util.Constants;
+
+/**
+ * LZW-compresses messages held in memory, see {@link MessageCodec}.
+ *
+ * The payload is one block of LzwFormat.BLOCKS: variable-width codes over a dictionary built
+ * from the message alone. There is no table to store, so short repetitive messages shrink too.
+ *
+ * Usage example:
+ * <pre>
+ * byte[] original = new LzwMessageCodec().decompress(cache.get(key));
+ * </pre>
+ */
+public class LzwMessageCodec extends MessageCodec {
+    @Override
+    protected void encode(byte[] data, int offset, int length, ByteWriter writer) throws IOException {
+        LzwBlockCodec.encode(data, offset, length, writer);
+    }
+
+    @Override
+    protected void decode(ByteReader reader, int payloadLength, byte[] output, int offset, int length)
+            throws IOException {
+        LzwBlockCodec.decode(reader, payloadLength, output, offset, length);
+    }
+
+    /**
+     * Codes take at least 9 bits, and the n-th code decodes to at most n bytes (a run of one byte).
+     */
+    @Override
+    protected long maxDecodedLength(int payloadLength) {
+        long codeCount = (long) payloadLength * Constants.BITS_PER_BYTE / Constants.LZW_INITIAL_CODE_WIDTH;
+        return codeCount * (codeCount + 1) / 2;
+    }
+}
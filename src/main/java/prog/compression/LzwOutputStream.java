@@ -0,0 +1,129 @@
+package prog.compression;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+import prog.lzw.LzwEncoder;
+import prog.lzw.LzwFormat;
+import prog.util.BitWriter;
+import prog.util.ByteWriter;
+
+/**
+ * Output stream that LZW-compresses everything written to it, like java.util.zip.DeflaterOutputStream.
+ *
+ * Codes grow from 9 bits with the dictionary, so nothing about the input needs to be known up
+ * front. Memory stays at the dictionary limits plus two buffers however long the stream runs.
+ * The output can be read back with an LzwInputStream, or decompressed like any .LmZWp file.
+ *
+ * Usage example:
+ * <pre>
+ * try (OutputStream output = new LzwOutputStream(new FileOutputStream("app.log.LmZWp"))) {
+ *     output.write(line.getBytes());
+ * }
+ * </pre>
+ */
+public class LzwOutputStream extends FilterOutputStream {
+    private final ByteWriter byteWriter;
+    private final BitWriter bitWriter;
+    private final LzwEncoder encoder;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * Compresses in the adaptive-reset format, whose dictionary keeps adapting however long the stream runs.
+     *
+     * @param out Receives the compressed bytes
+     * @throws IOException If the header cannot be written
+     */
+    public LzwOutputStream(OutputStream out) throws IOException {
+        this(out, LzwFormat.ADAPTIVE_RESET);
+    }
+
+    /**
+     * @param out Receives the compressed bytes
+     * @param format VARIABLE_WIDTH or ADAPTIVE_RESET
+     * @throws IOException If the header cannot be written
+     * @throws IllegalArgumentException If the format needs the whole input up front
+     */
+    public LzwOutputStream(OutputStream out, LzwFormat format) throws IOException {
+        super(out);
+        if (format != LzwFormat.VARIABLE_WIDTH && format != LzwFormat.ADAPTIVE_RESET) {
+            throw new IllegalArgumentException("Streams are compressed with variable-width codes, got: " + format);
+        }
+        this.byteWriter = new ByteWriter(out);
+        this.bitWriter = new BitWriter(byteWriter);
+        this.encoder = new LzwEncoder(bitWriter, format);
+        byteWriter.writeByte(format.getVersion());
+    }
+
+    @Override
+    public void write(int byteValue) throws IOException {
+        ensureWritable();
+        encoder.write(byteValue & 0xFF);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        ensureWritable();
+        for (int i = offset; i < offset + length; i++) {
+            encoder.write(bytes[i] & 0xFF);
+        }
+    }
+
+    /**
+     * Flushes every whole byte of the codes written so far.
+     * The code of the current phrase is only known once the phrase ends, so it stays pending
+     * together with up to 7 bits of the previous codes until more bytes are written or the stream is finished.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (!finished) {
+            bitWriter.flushWholeBytes();
+        }
+        byteWriter.flush();
+        out.flush();
+    }
+
+    /**
+     * Writes the last code without closing the underlying stream.
+     * Nothing can be written afterwards.
+     */
+    public void finish() throws IOException {
+        ensureOpen();
+        if (!finished) {
+            encoder.finish();
+            byteWriter.flush();
+            finished = true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                finish();
+                out.flush();
+            } finally {
+                closed = true;
+                out.close();
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void ensureWritable() throws IOException {
+        ensureOpen();
+        if (finished) {
+            throw new IOException("Stream finished");
+        }
+    }
+}
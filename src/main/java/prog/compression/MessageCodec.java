@@ -0,0 +1,326 @@
+package prog.compression;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import prog.util.ByteReader;
+import prog.util.ByteWriter;
+import prog.util.StreamUtils;
+
+/**
+ * Compresses messages held in memory: byte arrays and ByteBuffers in, byte arrays and ByteBuffers out.
+ *
+ * Meant for RPC payloads, cache entries and other values that never touch a file. Nothing is
+ * written to disk and no streams are opened; heap and direct buffers both work. A codec keeps
+ * no state between calls, so one instance can serve any number of threads.
+ *
+ * Message layout:
+ * <pre>
+ * [varint: original length] [1 byte: method, 0 = stored, 1 = encoded] [payload]
+ * </pre>
+ *
+ * A message that does not shrink is stored as it is, so no message is ever longer than
+ * {@link #maxCompressedLength}: the input plus a few bytes of header.
+ *
+ * The length in the header is checked against the payload before anything is allocated:
+ * a stored payload must hold exactly that many bytes, and an encoded one must be able to
+ * decode to it. So a short message from an untrusted peer cannot claim gigabytes.
+ *
+ * Usage example:
+ * <pre>
+ * MessageCodec codec = new LzwMessageCodec();
+ * ByteBuffer compressed = ByteBuffer.allocateDirect(codec.maxCompressedLength(payload.remaining()));
+ * codec.compress(payload, compressed);
+ * compressed.flip();
+ * </pre>
+ */
+public abstract class MessageCodec {
+    /**
+     * Method of a message whose payload is the original bytes
+     */
+    private static final int STORED = 0;
+
+    /**
+     * Method of a message whose payload was written by {@link #encode}
+     */
+    private static final int ENCODED = 1;
+
+    /**
+     * Compresses one message into a writer, which is flushed by the caller.
+     *
+     * @param data Array holding the message
+     * @param offset Index of the first byte of the message
+     * @param length Number of bytes of the message, at least 1
+     * @param writer Receives the payload
+     */
+    protected abstract void encode(byte[] data, int offset, int length, ByteWriter writer) throws IOException;
+
+    /**
+     * Decompresses the payload of one message.
+     *
+     * @param reader Reader positioned at the payload, which ends the input
+     * @param payloadLength Size of the payload in bytes
+     * @param output Receives the original bytes
+     * @param offset Index in output of the first original byte
+     * @param length Number of bytes the payload decodes to
+     * @throws IOException If the payload is truncated or corrupt
+     */
+    protected abstract void decode(ByteReader reader, int payloadLength, byte[] output, int offset, int length)
+            throws IOException;
+
+    /**
+     * Returns the most bytes an encoded payload of the given size can decode to.
+     * Messages claiming more are rejected as corrupt.
+     *
+     * @param payloadLength Size of the payload in bytes
+     */
+    protected abstract long maxDecodedLength(int payloadLength);
+
+    /**
+     * Returns the most bytes a message of the given length compresses to, for sizing the destination.
+     *
+     * Example: maxCompressedLength(1000) is 1003 (2 bytes of length, 1 byte of method, 1000 stored bytes)
+     *
+     * @param length Number of bytes to compress
+     * @return The worst-case size of the compressed message
+     * @throws IllegalArgumentException If the length is negative, or the bound does not fit in an int
+     */
+    public int maxCompressedLength(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length must not be negative, got: " + length);
+        }
+        long bound = (long) headerLength(length) + length;
+        if (bound > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Message of " + length + " bytes is too large to compress in memory");
+        }
+        return (int) bound;
+    }
+
+    /**
+     * Compresses a whole array.
+     *
+     * @param data Bytes to compress, possibly empty
+     * @return The compressed message
+     */
+    public byte[] compress(byte[] data) {
+        ByteBuffer compressed = ByteBuffer.allocate(maxCompressedLength(data.length));
+        int length = compress(ByteBuffer.wrap(data), compressed);
+        return Arrays.copyOf(compressed.array(), length);
+    }
+
+    /**
+     * Compresses the remaining bytes of src into dst.
+     *
+     * On success the position of src reaches its limit and the position of dst moves past the message.
+     * A direct src is copied into one temporary array first, as the engines work on arrays.
+     *
+     * @param src Bytes to compress, between position and limit
+     * @param dst Receives the message from its position; maxCompressedLength(src.remaining()) bytes are always enough
+     * @return Number of bytes written to dst
+     * @throws BufferOverflowException If the message does not fit in dst; neither position moves
+     */
+    public int compress(ByteBuffer src, ByteBuffer dst) {
+        int length = src.remaining();
+        int headerLength = headerLength(length);
+        byte[] data;
+        int offset;
+        if (src.hasArray()) {
+            data = src.array();
+            offset = src.arrayOffset() + src.position();
+        } else {
+            data = new byte[length];
+            src.get(src.position(), data);
+            offset = 0;
+        }
+
+        int written;
+        try {
+            written = length > 0 ? tryEncode(data, offset, length, headerLength, dst) : -1;
+            if (written == -1) {
+                written = store(data, offset, length, headerLength, dst);
+            }
+        } catch (IOException e) {
+            // Only the buffers are written, so this is a bug in an engine rather than bad input
+            throw new RuntimeException("Failed to compress message", e);
+        }
+        src.position(src.limit());
+        return written;
+    }
+
+    /**
+     * Step 1: Encode into dst, allowing one byte less than the stored message would take.
+     *
+     * @return Number of bytes written, or -1 if the encoded message is no smaller or does not fit;
+     *         dst moves only on success
+     */
+    private int tryEncode(byte[] data, int offset, int length, int headerLength, ByteBuffer dst) throws IOException {
+        ByteBuffer window = dst.duplicate();
+        window.limit((int) Math.min(dst.limit(), (long) dst.position() + headerLength + length - 1));
+        ByteWriter writer = new ByteWriter(StreamUtils.toBuffer(window), writerBufferSize(headerLength + length));
+        try {
+            writer.writeVarLong(length);
+            writer.writeByte(ENCODED);
+            encode(data, offset, length, writer);
+            writer.flush();
+        } catch (BufferOverflowException e) {
+            return -1;
+        }
+        int written = window.position() - dst.position();
+        dst.position(window.position());
+        return written;
+    }
+
+    /**
+     * Step 2: Store the original bytes, when encoding does not pay.
+     */
+    private static int store(byte[] data, int offset, int length, int headerLength, ByteBuffer dst) throws IOException {
+        if (dst.remaining() < headerLength + length) {
+            throw new BufferOverflowException();
+        }
+        ByteWriter writer = new ByteWriter(StreamUtils.toBuffer(dst), headerLength);
+        writer.writeVarLong(length);
+        writer.writeByte(STORED);
+        writer.write(data, offset, length);
+        writer.flush();
+        return headerLength + length;
+    }
+
+    /**
+     * Decompresses a whole message.
+     *
+     * @param compressed One message written by compress
+     * @return The original bytes
+     * @throws RuntimeException If the message is truncated or corrupt
+     */
+    public byte[] decompress(byte[] compressed) {
+        ByteBuffer src = ByteBuffer.wrap(compressed);
+        byte[] output = new byte[getDecompressedLength(src)];
+        decompress(src, ByteBuffer.wrap(output));
+        return output;
+    }
+
+    /**
+     * Decompresses the message held by the remaining bytes of src into dst.
+     *
+     * On success the position of src reaches its limit and the position of dst moves past the original bytes.
+     * A dst without an accessible array (direct or read-only) gets the bytes through one temporary array.
+     *
+     * @param src One whole message, between position and limit
+     * @param dst Receives the original bytes from its position; getDecompressedLength(src) bytes are enough
+     * @return Number of bytes written to dst
+     * @throws BufferOverflowException If the original bytes do not fit in dst; neither position moves
+     * @throws RuntimeException If the message is truncated or corrupt
+     */
+    public int decompress(ByteBuffer src, ByteBuffer dst) {
+        int messageLength = src.remaining();
+        // The reader leaves the position of src alone until the message is done
+        ByteReader reader = new ByteReader(src);
+        try {
+            int length = readLength(reader);
+            int method = readMethod(reader);
+            int payloadLength = messageLength - headerLength(length);
+            checkLength(length, method, payloadLength);
+            if (dst.remaining() < length) {
+                throw new BufferOverflowException();
+            }
+
+            byte[] output;
+            int offset;
+            if (dst.hasArray()) {
+                output = dst.array();
+                offset = dst.arrayOffset() + dst.position();
+            } else {
+                output = new byte[length];
+                offset = 0;
+            }
+            if (method == STORED) {
+                if (reader.readNBytes(output, offset, length) < length) {
+                    throw new EOFException("Stored message is shorter than " + length + " bytes");
+                }
+            } else if (method == ENCODED) {
+                decode(reader, payloadLength, output, offset, length);
+            }
+
+            if (dst.hasArray()) {
+                dst.position(dst.position() + length);
+            } else {
+                dst.put(output, 0, length);
+            }
+            src.position(src.limit());
+            return length;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decompress message: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the original length from the header of a message, without moving the position of src.
+     * The length is checked against the size of the message, so it is safe for sizing a buffer.
+     *
+     * @param src One whole message written by compress, between position and limit
+     * @return Number of bytes the message decompresses to
+     * @throws RuntimeException If the header is truncated, corrupt, or claims more than the payload can hold
+     */
+    public int getDecompressedLength(ByteBuffer src) {
+        ByteReader reader = new ByteReader(src);
+        try {
+            int length = readLength(reader);
+            checkLength(length, readMethod(reader), src.remaining() - headerLength(length));
+            return length;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decompress message: " + e.getMessage(), e);
+        }
+    }
+
+    private static int readLength(ByteReader reader) throws IOException {
+        long length = reader.readVarLong();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Message length " + length + " does not fit in an array");
+        }
+        return (int) length;
+    }
+
+    private static int readMethod(ByteReader reader) throws IOException {
+        int method = reader.read();
+        if (method == -1) {
+            throw new EOFException("Message ends inside its header");
+        }
+        if (method != STORED && method != ENCODED) {
+            throw new IOException("Unknown message method " + method);
+        }
+        return method;
+    }
+
+    /**
+     * Rejects a length the payload cannot hold, before any output is allocated.
+     */
+    private void checkLength(int length, int method, int payloadLength) throws IOException {
+        if (method == STORED && length != payloadLength) {
+            throw new IOException("Stored message of " + length + " bytes has " + payloadLength + " bytes of payload");
+        }
+        if (method == ENCODED && (payloadLength <= 0 || length > maxDecodedLength(payloadLength))) {
+            throw new IOException("Message of " + length + " bytes cannot be encoded in " + payloadLength + " bytes");
+        }
+    }
+
+    /**
+     * Returns the size of the header: the varint of the length plus the method byte.
+     */
+    private static int headerLength(int length) {
+        int varintLength = 1;
+        for (int rest = length >>> 7; rest != 0; rest >>>= 7) {
+            varintLength++;
+        }
+        return varintLength + 1;
+    }
+
+    /**
+     * Sizes the write buffer by the message, so small messages do not allocate the full default buffer.
+     */
+    private static int writerBufferSize(int messageLength) {
+        return Math.min(ByteWriter.DEFAULT_BUFFER_SIZE, messageLength);
+    }
+}
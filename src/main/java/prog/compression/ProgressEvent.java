@@ -0,0 +1,96 @@
+package prog.compression;
+
+/**
+ * Progress of a compression or decompression at one moment, as reported to a ProgressListener.
+ *
+ * Bytes in count from zero in every phase, as every phase reads the input again.
+ * Example: halfway through the encode phase of a 10 MB Huffman compression,
+ * bytesIn is 5 MB, totalBytes 10 MB, and elapsedNanos includes the frequency scan.
+ */
+public class ProgressEvent {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final CompressionPhase phase;
+    private final long bytesIn;
+    private final long totalBytes;
+    private final long bytesOut;
+    private final long elapsedNanos;
+    private final long phaseElapsedNanos;
+
+    /**
+     * @param phase Phase running
+     * @param bytesIn Input bytes read so far in this phase; compressed bytes when decompressing
+     * @param totalBytes Size of the whole input, or ProgressListener.UNKNOWN_TOTAL
+     * @param bytesOut Output bytes written so far
+     * @param elapsedNanos Time since the first phase started
+     * @param phaseElapsedNanos Time since this phase started
+     */
+    public ProgressEvent(CompressionPhase phase, long bytesIn, long totalBytes, long bytesOut,
+                         long elapsedNanos, long phaseElapsedNanos) {
+        this.phase = phase;
+        this.bytesIn = bytesIn;
+        this.totalBytes = totalBytes;
+        this.bytesOut = bytesOut;
+        this.elapsedNanos = elapsedNanos;
+        this.phaseElapsedNanos = phaseElapsedNanos;
+    }
+
+    public CompressionPhase getPhase() {
+        return phase;
+    }
+
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getPhaseElapsedNanos() {
+        return phaseElapsedNanos;
+    }
+
+    /**
+     * Returns the part of the input read in this phase as a percentage (0-100), or -1 if the total is unknown.
+     */
+    public int getPercent() {
+        if (totalBytes == ProgressListener.UNKNOWN_TOTAL || totalBytes == 0) {
+            return -1;
+        }
+        return (int) Math.min(100, bytesIn * 100 / totalBytes);
+    }
+
+    /**
+     * Returns the average input bytes read per second in this phase, or 0 before any time has passed.
+     */
+    public double getBytesPerSecond() {
+        return phaseElapsedNanos > 0 ? bytesIn * (double) NANOS_PER_SECOND / phaseElapsedNanos : 0;
+    }
+
+    /**
+     * Estimates the seconds left in this phase at its average speed so far.
+     *
+     * @return The estimate rounded up, or -1 if the total or the speed is not known yet
+     */
+    public long getRemainingSeconds() {
+        double bytesPerSecond = getBytesPerSecond();
+        if (getPercent() < 0 || bytesPerSecond == 0) {
+            return -1;
+        }
+        return (long) Math.ceil(Math.max(0, totalBytes - bytesIn) / bytesPerSecond);
+    }
+
+    @Override
+    public String toString() {
+        return phase.getDescription() + ": " + bytesIn + "/" + totalBytes + " bytes in, " + bytesOut + " bytes out";
+    }
+}
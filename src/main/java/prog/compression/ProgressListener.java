@@ -0,0 +1,35 @@
+package prog.compression;
+
+/**
+ * Receives the progress of a compression or decompression while it runs.
+ * Called on the thread running compress() or decompress() when a phase starts, every
+ * granularity bytes of input, and when the phase ends. During the parallel frequency scan
+ * it is called from the counting threads, one call at a time.
+ *
+ * Usage example:
+ * <pre>
+ * compressor.setProgressListener(event -> {
+ *     if (cancelled) {
+ *         throw new CancellationException();
+ *     }
+ *     status.setText(event.getPhase().getDescription() + " " + event.getPercent() + "%");
+ * }, 1 << 20);
+ * </pre>
+ *
+ * Throwing an unchecked exception stops the engine: compress() or decompress() throws it
+ * unchanged, and the caller is responsible for deleting the partial output.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    /**
+     * Marker for a total that is not known in advance, as for a stream.
+     */
+    long UNKNOWN_TOTAL = -1;
+
+    /**
+     * Bytes of input between two reports, unless set otherwise.
+     */
+    long DEFAULT_GRANULARITY = 1 << 20;
+
+    void onProgress(ProgressEvent event);
+}
@@ -0,0 +1,112 @@
+package prog.compression;
+
+import java.util.function.LongSupplier;
+
+import prog.util.ByteReader;
+
+/**
+ * Turns the byte counts of an engine into ProgressEvents for its listener.
+ *
+ * An engine creates a tracker only when a listener is set, and leaves it null otherwise: the hot
+ * loops never see it, as the counts come from the ByteReader once per chunk. Without a listener,
+ * a job pays a null check per chunk and nothing per byte.
+ *
+ * Usage example:
+ * <pre>
+ * tracker.startPhase(CompressionPhase.ENCODE, inputSize);
+ * tracker.track(byteReader);
+ * encode();
+ * tracker.endPhase();
+ * </pre>
+ */
+public class ProgressTracker {
+    private final ProgressListener listener;
+    private final long granularity;
+
+    /**
+     * Output bytes written so far, read when an event is reported
+     */
+    private LongSupplier bytesOut = () -> 0;
+
+    private long startNanos = -1;
+    private CompressionPhase phase;
+    private long phaseStartNanos;
+    private long totalBytes;
+    private long bytesIn;
+    private long reportedBytesIn;
+
+    /**
+     * @param listener Receives the events
+     * @param granularity Bytes of input between two reports
+     * @throws IllegalArgumentException if the granularity is not positive
+     */
+    public ProgressTracker(ProgressListener listener, long granularity) {
+        if (granularity <= 0) {
+            throw new IllegalArgumentException("Granularity must be positive, got: " + granularity);
+        }
+        this.listener = listener;
+        this.granularity = granularity;
+    }
+
+    /**
+     * @param bytesOut Returns the output bytes written so far, e.g. ByteWriter::getBytesWritten
+     */
+    public void setBytesOut(LongSupplier bytesOut) {
+        this.bytesOut = bytesOut;
+    }
+
+    /**
+     * Starts a phase and reports it with no input read yet.
+     *
+     * @param phase Phase starting
+     * @param totalBytes Size of the input, or ProgressListener.UNKNOWN_TOTAL
+     */
+    public synchronized void startPhase(CompressionPhase phase, long totalBytes) {
+        long now = System.nanoTime();
+        if (startNanos < 0) {
+            startNanos = now;
+        }
+        this.phase = phase;
+        this.phaseStartNanos = now;
+        this.totalBytes = totalBytes;
+        this.bytesIn = 0;
+        report(now);
+    }
+
+    /**
+     * Has the reader tell the tracker its count, cutting its chunks to the granularity if that is smaller.
+     * The reader's count must start at zero in this phase, or at the bytes it read ahead (e.g. a header).
+     */
+    public void track(ByteReader reader) {
+        reader.setReadListener(this::update, (int) Math.min(granularity, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Records the input bytes read so far in this phase, reporting once granularity bytes were read since the last report.
+     * A count lower than the last one, from a thread that fell behind another, is ignored.
+     */
+    public synchronized void update(long bytesIn) {
+        if (bytesIn <= this.bytesIn) {
+            return;
+        }
+        this.bytesIn = bytesIn;
+        if (bytesIn - reportedBytesIn >= granularity) {
+            report(System.nanoTime());
+        }
+    }
+
+    /**
+     * Reports the last bytes of the phase, unless they were reported already.
+     */
+    public synchronized void endPhase() {
+        if (bytesIn != reportedBytesIn) {
+            report(System.nanoTime());
+        }
+    }
+
+    private void report(long now) {
+        reportedBytesIn = bytesIn;
+        listener.onProgress(new ProgressEvent(phase, bytesIn, totalBytes, bytesOut.getAsLong(),
+            now - startNanos, now - phaseStartNanos));
+    }
+}
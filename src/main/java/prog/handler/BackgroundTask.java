@@ -0,0 +1,125 @@
+package prog.handler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import prog.compression.ProgressEvent;
+import prog.compression.ProgressListener;
+
+import javax.swing.*;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs one compression or decompression on a worker thread, so the window stays responsive.
+ * Progress and the outcome are reported to a Callback on the Event Dispatch Thread.
+ *
+ * Cancelling is cooperative: the next time the engine reports progress, the listener throws a
+ * CancellationException, which stops the engine; the operation then deletes its partial output.
+ * The task only finishes once the engine has stopped, so the file is never in use when onCancel() runs.
+ *
+ * Usage example:
+ * <pre>
+ * BackgroundTask task = new BackgroundTask(listener -> handler.compressWithLZW(file, listener), callback);
+ * task.execute();
+ * cancelButton.addActionListener(e -> task.requestCancel());
+ * </pre>
+ */
+public class BackgroundTask extends SwingWorker<File, ProgressEvent> {
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundTask.class);
+
+    /**
+     * The work done on the worker thread.
+     */
+    @FunctionalInterface
+    public interface Operation {
+        /**
+         * @param listener Listener to pass to the engine
+         * @return The output file
+         */
+        File run(ProgressListener listener);
+    }
+
+    /**
+     * Receives the progress and the outcome of a task, always on the Event Dispatch Thread.
+     * Exactly one of onSuccess, onFailure and onCancel is called, after the last onProgress.
+     */
+    public interface Callback {
+        void onProgress(ProgressEvent event);
+
+        void onSuccess(File outputFile);
+
+        void onFailure(Exception exception);
+
+        void onCancel();
+    }
+
+    private final Operation operation;
+    private final Callback callback;
+
+    /**
+     * Set on the Event Dispatch Thread, read by the engine's thread
+     */
+    private volatile boolean cancelRequested;
+
+    public BackgroundTask(Operation operation, Callback callback) {
+        this.operation = operation;
+        this.callback = callback;
+    }
+
+    /**
+     * Asks the engine to stop at the next chunk it reads.
+     * An engine that is past its last chunk finishes normally, and onSuccess is called.
+     */
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    @Override
+    protected File doInBackground() {
+        return operation.run(this::reportProgress);
+    }
+
+    private void reportProgress(ProgressEvent event) {
+        if (cancelRequested) {
+            throw new CancellationException("Cancelled by the user");
+        }
+        publish(event);
+    }
+
+    @Override
+    protected void process(List<ProgressEvent> chunks) {
+        // Updates published faster than the window repaints are merged; only the latest matters
+        if (!cancelRequested) {
+            callback.onProgress(chunks.get(chunks.size() - 1));
+        }
+    }
+
+    @Override
+    protected void done() {
+        File outputFile;
+        try {
+            outputFile = get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CancellationException) {
+                logger.info("Task cancelled");
+                callback.onCancel();
+            } else {
+                callback.onFailure(cause instanceof Exception exception ? exception : e);
+            }
+            return;
+        } catch (InterruptedException e) {
+            // done() runs after the task finished, so get() does not wait
+            Thread.currentThread().interrupt();
+            return;
+        }
+        callback.onSuccess(outputFile);
+    }
+}
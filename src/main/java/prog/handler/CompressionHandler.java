@@ -3,8 +3,12 @@ package prog.handler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import prog.compression.Compressor;
+import prog.compression.ProgressListener;
 import prog.huffman.HuffmanCompressor;
 import prog.lzw.LzwCompressor;
+import prog.metrics.CompressionMetrics;
+import prog.metrics.PhaseTimer;
 import prog.util.Constants;
 
 import javax.swing.*;
@@ -12,58 +16,78 @@ import java.io.File;
 
 /**
  * Handles compression operations for both Huffman and LZW algorithms.
+ * The compress methods run on the caller's thread, usually a BackgroundTask;
+ * the dialogs must be shown on the Event Dispatch Thread.
+ * Every compression is recorded in the metrics once its compressor is created, whether it succeeds or not.
  */
 public class CompressionHandler {
     private static final Logger logger = LoggerFactory.getLogger(CompressionHandler.class);
 
+    private final CompressionMetrics metrics;
+
+    public CompressionHandler() {
+        this(CompressionMetrics.getDefault());
+    }
+
+    /**
+     * @param metrics Records every compression
+     */
+    public CompressionHandler(CompressionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Compresses a file using Huffman algorithm.
      *
      * @param inputFile The file to compress
-     * @return The compressed output file, or null if compression failed
+     * @param listener Receives the progress of the compression, or null
+     * @return The compressed output file
+     * @throws RuntimeException if compression fails or the listener stops it; no output file is left behind
      */
-    public File compressWithHuffman(File inputFile) {
-        try {
-            logger.info("Starting Huffman compression for file: {}", inputFile.getPath());
-            HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getPath());
-            compressor.compress();
-            compressor.cleanup();
-
-            File outputFile = new File(inputFile.getPath() + Constants.HUFFMAN_FILE_EXTENSION);
-            logger.info("Huffman compression completed successfully. Output: {}", outputFile.getPath());
-
-            showSuccessDialog("File compressed successfully!\nOutput: " + outputFile.getName());
-            return outputFile;
-
-        } catch (Exception ex) {
-            logger.error("Huffman compression failed for file: {}", inputFile.getPath(), ex);
-            showErrorDialog("Compression failed: " + ex.getMessage());
-            return null;
-        }
+    public File compressWithHuffman(File inputFile, ProgressListener listener) {
+        logger.info("Starting Huffman compression for file: {}", inputFile.getPath());
+        File outputFile = new File(inputFile.getPath() + Constants.HUFFMAN_FILE_EXTENSION);
+        compress(new HuffmanCompressor(inputFile.getPath()), "huffman", listener, inputFile, outputFile);
+        logger.info("Huffman compression completed successfully. Output: {}", outputFile.getPath());
+        return outputFile;
     }
 
     /**
      * Compresses a file using LZW algorithm.
      *
      * @param inputFile The file to compress
-     * @return The compressed output file, or null if compression failed
+     * @param listener Receives the progress of the compression, or null
+     * @return The compressed output file
+     * @throws RuntimeException if compression fails or the listener stops it; no output file is left behind
+     */
+    public File compressWithLZW(File inputFile, ProgressListener listener) {
+        logger.info("Starting LZW compression for file: {}", inputFile.getPath());
+        File outputFile = new File(inputFile.getPath() + Constants.LZW_FILE_EXTENSION);
+        compress(new LzwCompressor(inputFile.getPath()), "lzw", listener, inputFile, outputFile);
+        logger.info("LZW compression completed successfully. Output: {}", outputFile.getPath());
+        return outputFile;
+    }
+
+    /**
+     * Runs the compressor and records it in the metrics, deleting its partial output if it fails or is cancelled.
      */
-    public File compressWithLZW(File inputFile) {
+    private void compress(Compressor compressor, String algorithm, ProgressListener listener, File inputFile, File outputFile) {
+        PhaseTimer phases = new PhaseTimer();
+        long start = System.nanoTime();
         try {
-            logger.info("Starting LZW compression for file: {}", inputFile.getPath());
-            LzwCompressor compressor = new LzwCompressor(inputFile.getPath());
+            compressor.setProgressListener(listener);
+            compressor.setPhaseTimer(phases);
             compressor.compress();
-
-            File outputFile = new File(inputFile.getPath() + Constants.LZW_FILE_EXTENSION);
-            logger.info("LZW compression completed successfully. Output: {}", outputFile.getPath());
-
-            showSuccessDialog("File compressed successfully!\nOutput: " + outputFile.getName());
-            return outputFile;
-
-        } catch (Exception ex) {
-            logger.error("LZW compression failed for file: {}", inputFile.getPath(), ex);
-            showErrorDialog("Compression failed: " + ex.getMessage());
-            return null;
+            metrics.recordCompression(algorithm, inputFile.length(), outputFile.length(), System.nanoTime() - start, phases);
+        } catch (RuntimeException ex) {
+            metrics.recordFailure(algorithm, CompressionMetrics.COMPRESS, ex);
+            // compress() has closed the output file, so it can be deleted
+            if (outputFile.delete()) {
+                logger.info("Deleted partial output: {}", outputFile.getPath());
+            }
+            throw ex;
+        } finally {
+            compressor.cleanup();
         }
     }
 
@@ -81,6 +105,20 @@ public class CompressionHandler {
         return ratio;
     }
 
+    /**
+     * Tells the user where the compressed file was written.
+     */
+    public void showSuccess(File outputFile) {
+        showSuccessDialog("File compressed successfully!\nOutput: " + outputFile.getName());
+    }
+
+    /**
+     * Tells the user why the compression failed.
+     */
+    public void showFailure(Exception ex) {
+        showErrorDialog("Compression failed: " + ex.getMessage());
+    }
+
     private void showSuccessDialog(String message) {
         JOptionPane.showMessageDialog(null,
                 message,
@@ -3,75 +3,106 @@ package prog.handler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import prog.compression.Decompressor;
+import prog.compression.ProgressListener;
 import prog.huffman.HuffmanDecompressor;
 import prog.lzw.LzwDecompressor;
-import prog.util.Constants;
+import prog.metrics.CompressionMetrics;
+import prog.metrics.PhaseTimer;
 
 import javax.swing.*;
 import java.io.File;
 
 /**
  * Handles decompression operations for both Huffman and LZW algorithms.
+ * The decompress methods run on the caller's thread, usually a BackgroundTask;
+ * the dialogs must be shown on the Event Dispatch Thread.
+ * Every decompression is recorded in the metrics once its decompressor is created, whether it succeeds or not.
  */
 public class DecompressionHandler {
     private static final Logger logger = LoggerFactory.getLogger(DecompressionHandler.class);
 
+    private final CompressionMetrics metrics;
+
+    public DecompressionHandler() {
+        this(CompressionMetrics.getDefault());
+    }
+
+    /**
+     * @param metrics Records every decompression
+     */
+    public DecompressionHandler(CompressionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Decompresses a Huffman-compressed file.
      *
      * @param compressedFile The compressed file to decompress
-     * @return The decompressed output file, or null if decompression failed
+     * @param listener Receives the progress of the decompression, or null
+     * @return The decompressed output file, numbered if the original name was taken
+     * @throws RuntimeException if decompression fails or the listener stops it; no output file is left behind
      */
-    public File decompressHuffman(File compressedFile) {
-        try {
-            logger.info("Starting Huffman decompression for file: {}", compressedFile.getPath());
-            HuffmanDecompressor decompressor = new HuffmanDecompressor(compressedFile.getPath());
-            decompressor.decompress();
-
-            // Calculate output file path
-            String outputPath = compressedFile.getPath();
-            outputPath = outputPath.substring(0, outputPath.length() - Constants.HUFFMAN_FILE_EXTENSION.length());
-            File outputFile = new File(outputPath);
-
-            logger.info("Huffman decompression completed successfully. Output: {}", outputFile.getPath());
-
-            showSuccessDialog("File decompressed successfully!\nOutput: " + outputFile.getName());
-            return outputFile;
-
-        } catch (Exception ex) {
-            logger.error("Huffman decompression failed for file: {}", compressedFile.getPath(), ex);
-            showErrorDialog("Decompression failed: " + ex.getMessage());
-            return null;
-        }
+    public File decompressHuffman(File compressedFile, ProgressListener listener) {
+        logger.info("Starting Huffman decompression for file: {}", compressedFile.getPath());
+        HuffmanDecompressor decompressor = new HuffmanDecompressor(compressedFile.getPath());
+        File outputFile = new File(decompressor.getOutputFilePath());
+        decompress(decompressor, "huffman", listener, compressedFile, outputFile);
+        logger.info("Huffman decompression completed successfully. Output: {}", outputFile.getPath());
+        return outputFile;
     }
 
     /**
      * Decompresses an LZW-compressed file.
      *
      * @param compressedFile The compressed file to decompress
-     * @return The decompressed output file, or null if decompression failed
+     * @param listener Receives the progress of the decompression, or null
+     * @return The decompressed output file, numbered if the original name was taken
+     * @throws RuntimeException if decompression fails or the listener stops it; no output file is left behind
      */
-    public File decompressLZW(File compressedFile) {
+    public File decompressLZW(File compressedFile, ProgressListener listener) {
+        logger.info("Starting LZW decompression for file: {}", compressedFile.getPath());
+        LzwDecompressor decompressor = new LzwDecompressor(compressedFile.getPath());
+        File outputFile = new File(decompressor.getOutputFilePath());
+        decompress(decompressor, "lzw", listener, compressedFile, outputFile);
+        logger.info("LZW decompression completed successfully. Output: {}", outputFile.getPath());
+        return outputFile;
+    }
+
+    /**
+     * Runs the decompressor and records it in the metrics, deleting its partial output if it fails or is cancelled.
+     */
+    private void decompress(Decompressor decompressor, String algorithm, ProgressListener listener,
+                            File compressedFile, File outputFile) {
+        PhaseTimer phases = new PhaseTimer();
+        long start = System.nanoTime();
         try {
-            logger.info("Starting LZW decompression for file: {}", compressedFile.getPath());
-            LzwDecompressor decompressor = new LzwDecompressor(compressedFile.getPath());
+            decompressor.setProgressListener(listener);
+            decompressor.setPhaseTimer(phases);
             decompressor.decompress();
+            metrics.recordDecompression(algorithm, compressedFile.length(), outputFile.length(), System.nanoTime() - start, phases);
+        } catch (RuntimeException ex) {
+            metrics.recordFailure(algorithm, CompressionMetrics.DECOMPRESS, ex);
+            // decompress() has closed the output file, so it can be deleted
+            if (outputFile.delete()) {
+                logger.info("Deleted partial output: {}", outputFile.getPath());
+            }
+            throw ex;
+        }
+    }
 
-            // Calculate output file path
-            String outputPath = compressedFile.getPath();
-            outputPath = outputPath.substring(0, outputPath.length() - Constants.LZW_FILE_EXTENSION.length());
-            File outputFile = new File(outputPath);
-
-            logger.info("LZW decompression completed successfully. Output: {}", outputFile.getPath());
-
-            showSuccessDialog("File decompressed successfully!\nOutput: " + outputFile.getName());
-            return outputFile;
+    /**
+     * Tells the user where the decompressed file was written.
+     */
+    public void showSuccess(File outputFile) {
+        showSuccessDialog("File decompressed successfully!\nOutput: " + outputFile.getName());
+    }
 
-        } catch (Exception ex) {
-            logger.error("LZW decompression failed for file: {}", compressedFile.getPath(), ex);
-            showErrorDialog("Decompression failed: " + ex.getMessage());
-            return null;
-        }
+    /**
+     * Tells the user why the decompression failed.
+     */
+    public void showFailure(Exception ex) {
+        showErrorDialog("Decompression failed: " + ex.getMessage());
     }
 
     private void showSuccessDialog(String message) {
@@ -0,0 +1,216 @@
+package prog.huffman;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import prog.compression.CompressionPhase;
+import prog.compression.Compressor;
+import prog.compression.ProgressListener;
+import prog.compression.ProgressTracker;
+import prog.metrics.JobPhase;
+import prog.metrics.PhaseTimer;
+import prog.util.BitWriter;
+import prog.util.ByteReader;
+import prog.util.ByteWriter;
+import prog.util.Constants;
+import prog.util.FileUtils;
+import prog.util.StreamUtils;
+
+/**
+ * Compresses with adaptive Huffman codes in a single pass over the input.
+ *
+ * HuffmanCompressor counts the bytes before it can build its codes, so it reads the input twice;
+ * here the codes are updated after every byte instead (see {@link AdaptiveHuffmanTree}), so the
+ * input is read once and can be a pipe. Writes HuffmanFormat.ADAPTIVE, which HuffmanDecompressor
+ * and AdaptiveHuffmanDecompressor both read.
+ *
+ * Usage example:
+ * <pre>
+ * new AdaptiveHuffmanCompressor(System.in, System.out).compress();
+ * </pre>
+ */
+public class AdaptiveHuffmanCompressor implements Compressor {
+	private static final Logger logger = LoggerFactory.getLogger(AdaptiveHuffmanCompressor.class);
+
+	/**
+	 * Path to the input file that will be compressed
+	 * Example: "/home/user/document.txt", or Constants.STREAM_NAME when compressing a stream
+	 */
+	private final String inputFilePath;
+
+	/**
+	 * Path to the output file that will be compressed
+	 * Example: "/home/user/document.txt.huffz"
+	 */
+	private final String outputFilePath;
+
+	/**
+	 * Size of the input in bytes, reported as the total to the progress listener
+	 * ProgressListener.UNKNOWN_TOTAL when compressing a stream
+	 */
+	private long inputSize = ProgressListener.UNKNOWN_TOTAL;
+
+	/**
+	 * Reports the progress of compress() to the listener, or null when none is set
+	 */
+	private ProgressTracker progress;
+
+	/**
+	 * Times the steps of compress()
+	 */
+	private PhaseTimer phaseTimer = PhaseTimer.NONE;
+
+	/**
+	 * Byte reader for the input file
+	 */
+	private final ByteReader byteReader;
+
+	/**
+	 * Byte writer for the output file
+	 */
+	private final ByteWriter byteWriter;
+
+	/**
+	 * Constructor that takes a file path
+	 * @param inputFilePath The path to the file to be compressed
+	 * @throws IllegalArgumentException if the file is empty
+	 */
+	public AdaptiveHuffmanCompressor(String inputFilePath) {
+		logger.debug("Initializing AdaptiveHuffmanCompressor for file: {}", inputFilePath);
+		if (FileUtils.isEmptyFile(inputFilePath)) {
+			logger.error("Attempted to compress empty file: {}", inputFilePath);
+			throw new IllegalArgumentException("Cannot compress empty file: " + inputFilePath);
+		}
+		this.inputFilePath = inputFilePath;
+		this.outputFilePath = inputFilePath + Constants.HUFFMAN_FILE_EXTENSION;
+
+		try {
+			this.inputSize = Files.size(Path.of(inputFilePath));
+			this.byteReader = new ByteReader(inputFilePath);
+			this.byteWriter = new ByteWriter(outputFilePath);
+		} catch (IOException e) {
+			logger.error("Failed to initialize byte reader and writer: {}", e.getMessage());
+			throw new RuntimeException("Failed to initialize byte reader and writer: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Constructor that compresses a stream
+	 * Neither stream is closed; the output is flushed when compress() returns
+	 * Example: new AdaptiveHuffmanCompressor(System.in, System.out).compress()
+	 * @param inputStream The bytes to be compressed, read until EOF
+	 * @param outputStream Receives the compressed bytes
+	 */
+	public AdaptiveHuffmanCompressor(InputStream inputStream, OutputStream outputStream) {
+		logger.debug("Initializing AdaptiveHuffmanCompressor for a stream");
+		this.inputFilePath = Constants.STREAM_NAME;
+		this.outputFilePath = Constants.STREAM_NAME;
+		// An empty stream is valid: it compresses to the version byte and the end-of-data code
+		this.byteReader = new ByteReader(StreamUtils.keepOpen(inputStream));
+		this.byteWriter = new ByteWriter(StreamUtils.keepOpen(outputStream));
+	}
+
+	/**
+	 * Constructor that compresses a channel
+	 * Neither channel is closed
+	 * @param inputChannel The bytes to be compressed, read until EOF
+	 * @param outputChannel Receives the compressed bytes
+	 */
+	public AdaptiveHuffmanCompressor(ReadableByteChannel inputChannel, WritableByteChannel outputChannel) {
+		this(Channels.newInputStream(inputChannel), Channels.newOutputStream(outputChannel));
+	}
+
+	/**
+	 * Step 1: Write the version byte
+	 * Step 2: Code every byte with the tree as it stands, then update the tree
+	 * Step 3: Write the end-of-data code, padded with zeros up to a whole byte
+	 */
+	private void compressFile() {
+		logger.info("Compressing file: {} -> {}", inputFilePath, outputFilePath);
+		try (this.byteReader; this.byteWriter) {
+			if (progress != null) {
+				progress.setBytesOut(this.byteWriter::getBytesWritten);
+				progress.startPhase(CompressionPhase.ENCODE, inputSize);
+				progress.track(this.byteReader);
+			}
+
+			// Step1: Write the version byte
+			phaseTimer.start(JobPhase.HEADER_WRITE);
+			this.byteWriter.writeByte(HuffmanFormat.ADAPTIVE.getVersion());
+
+			// Step2: Encode the content
+			logger.debug("Encoding and writing compressed content");
+			phaseTimer.start(JobPhase.ENCODE);
+			AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree();
+			BitWriter bitWriter = new BitWriter(this.byteWriter);
+			byte[] chunk = new byte[ByteReader.DEFAULT_BUFFER_SIZE];
+			int bytesRead;
+			while ((bytesRead = this.byteReader.read(chunk, 0, chunk.length)) != -1) {
+				for (int i = 0; i < bytesRead; i++) {
+					tree.encode(chunk[i] & 0xFF, bitWriter);
+				}
+			}
+
+			// Step3: Close the data
+			tree.encodeEnd(bitWriter);
+			bitWriter.flush();
+			if (progress != null) {
+				progress.endPhase();
+			}
+			phaseTimer.start(JobPhase.FLUSH);
+			this.byteWriter.flush();
+			phaseTimer.stop();
+
+			logger.info("Compression completed successfully");
+		} catch (IOException e) {
+			logger.error("Failed to compress file: {}", inputFilePath, e);
+			throw new RuntimeException("Failed to compress file: " + inputFilePath, e);
+		}
+	}
+
+	/**
+	 * Compresses the input in a single pass
+	 * Creates a compressed file with .huffz extension, or writes to the output stream
+	 *
+	 * @throws RuntimeException if compression fails
+	 */
+	@Override
+	public void compress() {
+		compressFile();
+	}
+
+	/**
+	 * Reports the encode phase
+	 */
+	@Override
+	public void setProgressListener(ProgressListener listener, long granularity) {
+		this.progress = listener == null ? null : new ProgressTracker(listener, granularity);
+	}
+
+	@Override
+	public void setPhaseTimer(PhaseTimer timer) {
+		this.phaseTimer = timer == null ? PhaseTimer.NONE : timer;
+	}
+
+	/**
+	 * Closes the input and output files if compress() did not run
+	 */
+	@Override
+	public void cleanup() {
+		try {
+			this.byteReader.close();
+			this.byteWriter.close();
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to close files for: " + inputFilePath, e);
+		}
+	}
+}
@@ -0,0 +1,250 @@
+package prog.huffman;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import prog.compression.CompressionPhase;
+import prog.compression.Decompressor;
+import prog.compression.ProgressListener;
+import prog.compression.ProgressTracker;
+import prog.metrics.JobPhase;
+import prog.metrics.PhaseTimer;
+import prog.util.BitReader;
+import prog.util.ByteReader;
+import prog.util.ByteWriter;
+import prog.util.Constants;
+import prog.util.FileUtils;
+import prog.util.StreamUtils;
+
+/**
+ * Decompresses files written by AdaptiveHuffmanCompressor, in a single pass.
+ *
+ * Rebuilds the same adaptive tree as the compressor, one byte at a time, until the end-of-data
+ * code. HuffmanDecompressor reads these files too; this class also takes streams that hold only
+ * the adaptive format.
+ */
+public class AdaptiveHuffmanDecompressor implements Decompressor {
+	private static final Logger logger = LoggerFactory.getLogger(AdaptiveHuffmanDecompressor.class);
+
+	/**
+	 * Path to the compressed file that will be decompressed
+	 * Example: "/home/user/document.txt.huffz", or Constants.STREAM_NAME when decompressing a stream
+	 */
+	private final String compressedFilePath;
+
+	/**
+	 * Path to the output file after decompression
+	 */
+	private final String outputFilePath;
+
+	/**
+	 * Size of the compressed file in bytes, reported as the total to the progress listener
+	 * ProgressListener.UNKNOWN_TOTAL when decompressing a stream
+	 */
+	private long compressedSize = ProgressListener.UNKNOWN_TOTAL;
+
+	/**
+	 * Reports the progress of decompress() to the listener, or null when none is set
+	 */
+	private ProgressTracker progress;
+
+	/**
+	 * Times the steps of decompress()
+	 */
+	private PhaseTimer phaseTimer = PhaseTimer.NONE;
+
+	/**
+	 * Byte reader for the compressed file
+	 */
+	private final ByteReader byteReader;
+
+	/**
+	 * Byte writer for the decompressed output file
+	 */
+	private final ByteWriter byteWriter;
+
+	/**
+	 * Constructor that takes a compressed file path
+	 * @param compressedFilePath The path to the compressed file to be decompressed
+	 * @throws IllegalArgumentException if the file is not in the adaptive format
+	 */
+	public AdaptiveHuffmanDecompressor(String compressedFilePath) {
+		logger.debug("Initializing AdaptiveHuffmanDecompressor for file: {}", compressedFilePath);
+		this.compressedFilePath = compressedFilePath;
+		// Remove the .huffz extension to get the output file path
+		this.outputFilePath = FileUtils.getUniqueFilePath(compressedFilePath.substring(0,
+			compressedFilePath.length() - Constants.HUFFMAN_FILE_EXTENSION.length()));
+
+		try {
+			this.compressedSize = Files.size(Path.of(compressedFilePath));
+			this.byteReader = new ByteReader(compressedFilePath);
+		} catch (IOException e) {
+			logger.error("Failed to initialize byte reader: {}", e.getMessage());
+			throw new RuntimeException("Failed to initialize byte reader: " + e.getMessage());
+		}
+
+		try {
+			readHeader();
+		} catch (RuntimeException e) {
+			// decompress() never runs, so the reader must be closed here
+			closeReader(e);
+			throw e;
+		}
+
+		try {
+			this.byteWriter = new ByteWriter(outputFilePath);
+		} catch (IOException e) {
+			logger.error("Failed to initialize byte writer: {}", e.getMessage());
+			RuntimeException failure = new RuntimeException("Failed to initialize byte writer: " + e.getMessage());
+			closeReader(failure);
+			throw failure;
+		}
+	}
+
+	/**
+	 * Constructor that decompresses a stream
+	 * The version byte is read here, so an invalid stream fails before anything is written
+	 * Neither stream is closed; the output is flushed when decompress() returns
+	 * @param inputStream The compressed bytes
+	 * @param outputStream Receives the decompressed bytes
+	 * @throws IllegalArgumentException if the stream is not in the adaptive format
+	 */
+	public AdaptiveHuffmanDecompressor(InputStream inputStream, OutputStream outputStream) {
+		logger.debug("Initializing AdaptiveHuffmanDecompressor for a stream");
+		this.compressedFilePath = Constants.STREAM_NAME;
+		this.outputFilePath = Constants.STREAM_NAME;
+		this.byteReader = new ByteReader(StreamUtils.keepOpen(inputStream));
+		readHeader();
+		this.byteWriter = new ByteWriter(StreamUtils.keepOpen(outputStream));
+	}
+
+	/**
+	 * Constructor that decompresses a channel
+	 * Neither channel is closed
+	 * @param inputChannel The compressed bytes
+	 * @param outputChannel Receives the decompressed bytes
+	 */
+	public AdaptiveHuffmanDecompressor(ReadableByteChannel inputChannel, WritableByteChannel outputChannel) {
+		this(Channels.newInputStream(inputChannel), Channels.newOutputStream(outputChannel));
+	}
+
+	/**
+	 * Closes the reader of a constructor that fails, keeping any error as suppressed by the failure
+	 */
+	private void closeReader(RuntimeException failure) {
+		try {
+			this.byteReader.close();
+		} catch (IOException e) {
+			failure.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Step 1: Check the version byte
+	 */
+	private void readHeader() {
+		int version;
+		try {
+			version = this.byteReader.read();
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to read header from compressed file: " + compressedFilePath, e);
+		}
+		if (version == -1) {
+			throw new RuntimeException("Failed to read header from compressed file: " + compressedFilePath,
+				new EOFException("Unexpected end of compressed file: " + compressedFilePath));
+		}
+		HuffmanFormat format = HuffmanFormat.fromVersion(version);
+		if (format != HuffmanFormat.ADAPTIVE) {
+			throw new IllegalArgumentException("Not an adaptive Huffman file, format: " + format + ". Use HuffmanDecompressor");
+		}
+	}
+
+	/**
+	 * Step 2: Decode bytes until the end-of-data code, updating the tree after each one.
+	 *
+	 * @param byteReader Reader positioned after the version byte
+	 * @param byteWriter Receives the decoded bytes
+	 * @throws IOException If reading or writing fails, or the data ends before its end-of-data code
+	 */
+	static void decodeContent(ByteReader byteReader, ByteWriter byteWriter) throws IOException {
+		AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree();
+		// The end-of-data code is followed by zero padding only, so no padding count is needed
+		BitReader bitReader = new BitReader(byteReader, 0);
+		int symbol;
+		while ((symbol = tree.decode(bitReader)) != AdaptiveHuffmanTree.END_OF_DATA) {
+			byteWriter.writeByte(symbol);
+		}
+	}
+
+	/**
+	 * Starts the decode phase; bytes read ahead for the header count as read
+	 */
+	private void startDecodePhase() throws IOException {
+		phaseTimer.start(JobPhase.DECODE);
+		if (progress != null) {
+			progress.setBytesOut(this.byteWriter::getBytesWritten);
+			progress.startPhase(CompressionPhase.DECODE, compressedSize);
+			progress.track(this.byteReader);
+			progress.update(this.byteReader.getBytesRead());
+		}
+	}
+
+	private void endDecodePhase() {
+		if (progress != null) {
+			progress.endPhase();
+		}
+	}
+
+	private void decompressFile() {
+		logger.info("Decompressing file: {} -> {}", compressedFilePath, outputFilePath);
+		try (this.byteReader; this.byteWriter) {
+			// Step2: Decode the content (the version byte was read by the constructor)
+			logger.debug("Decoding compressed content");
+			startDecodePhase();
+			decodeContent(this.byteReader, this.byteWriter);
+			endDecodePhase();
+			phaseTimer.start(JobPhase.FLUSH);
+			this.byteWriter.flush();
+			phaseTimer.stop();
+			logger.info("Decompression completed successfully");
+		} catch (IOException e) {
+			logger.error("Failed to decompress file: {}", compressedFilePath, e);
+			throw new RuntimeException("Failed to decompress file: " + compressedFilePath, e);
+		}
+	}
+
+	/**
+	 * Decompresses the input in a single pass
+	 * Creates a decompressed file by removing the .huffz extension, or writes to the output stream
+	 * If a file with the same name already exists, creates a unique filename
+	 *
+	 * @throws RuntimeException if decompression fails
+	 */
+	@Override
+	public void decompress() {
+		decompressFile();
+	}
+
+	/**
+	 * Reports the decode phase, counting the compressed bytes read
+	 */
+	@Override
+	public void setProgressListener(ProgressListener listener, long granularity) {
+		this.progress = listener == null ? null : new ProgressTracker(listener, granularity);
+	}
+
+	@Override
+	public void setPhaseTimer(PhaseTimer timer) {
+		this.phaseTimer = timer == null ? PhaseTimer.NONE : timer;
+	}
+}
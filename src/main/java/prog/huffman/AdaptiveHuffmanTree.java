@@ -0,0 +1,264 @@
+package prog.huffman;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import prog.util.BitReader;
+import prog.util.BitWriter;
+import prog.util.Constants;
+
+/**
+ * Huffman tree that is updated after every symbol, for one-pass coding (FGK algorithm).
+ *
+ * Encoder and decoder start from the same tree and apply the same update after each symbol,
+ * so no frequency table is ever stored. Bytes that have not occurred yet are sent as the code
+ * of the NYT ("not yet transmitted") leaf followed by a 9-bit escape value: 0-255 is the new byte,
+ * 256 marks the end of the data.
+ *
+ * Nodes are stored by position, with weights non-decreasing in position and the two children of
+ * a node at adjacent positions (the sibling property). The root is at the highest position.
+ * After a symbol is coded, every node on its path is first swapped with the highest-positioned
+ * node of the same weight, then incremented, which keeps the sibling property and so keeps the
+ * tree a Huffman tree of the counts so far.
+ *
+ * Example: after "aab" the tree holds a (weight 2), b (weight 1) and NYT (weight 0);
+ * 'a' has a 1-bit code and 'b' a 2-bit code.
+ */
+public class AdaptiveHuffmanTree {
+    /**
+     * Escape value that marks the end of the data.
+     */
+    public static final int END_OF_DATA = Constants.BYTE_VALUES_COUNT;
+
+    /**
+     * Width of the escape value sent after the NYT code
+     */
+    private static final int ESCAPE_BITS = 9;
+
+    /**
+     * Leaf index of the NYT node, after the 256 byte values
+     */
+    private static final int NYT = Constants.BYTE_VALUES_COUNT;
+
+    /**
+     * 256 byte leaves and the NYT leaf, plus one internal node per leaf but one
+     */
+    private static final int NODE_COUNT = 2 * (Constants.BYTE_VALUES_COUNT + 1) - 1;
+
+    private static final int ROOT = NODE_COUNT - 1;
+
+    private static final int NO_POSITION = -1;
+
+    /**
+     * Number of times the symbols below each position have been coded
+     * Held as long, so the counts of inputs beyond 2 GB never overflow
+     */
+    private final long[] weight = new long[NODE_COUNT];
+
+    /**
+     * Position of the parent of each position; fixed, only the subtrees move between positions
+     */
+    private final int[] parent = new int[NODE_COUNT];
+
+    /**
+     * For an internal node, the position of its right child (the left child is just below);
+     * for a leaf, -(leaf index + 1)
+     */
+    private final int[] child = new int[NODE_COUNT];
+
+    /**
+     * Position of the leaf of every byte value and of NYT, NO_POSITION for bytes not seen yet
+     */
+    private final int[] leafPosition = new int[Constants.BYTE_VALUES_COUNT + 1];
+
+    /**
+     * Highest position not used by the tree yet
+     */
+    private int nextFree;
+
+    /**
+     * Starts with NYT as the only node.
+     */
+    public AdaptiveHuffmanTree() {
+        Arrays.fill(leafPosition, NO_POSITION);
+        leafPosition[NYT] = ROOT;
+        child[ROOT] = -(NYT + 1);
+        parent[ROOT] = NO_POSITION;
+        nextFree = ROOT - 1;
+    }
+
+    /**
+     * Writes the code of a byte and updates the tree.
+     *
+     * @param byteValue The byte to code (0-255)
+     * @param bitWriter Destination of the code
+     */
+    public void encode(int byteValue, BitWriter bitWriter) throws IOException {
+        int position = leafPosition[byteValue];
+        if (position == NO_POSITION) {
+            writePath(leafPosition[NYT], bitWriter);
+            bitWriter.writeBits(byteValue, ESCAPE_BITS);
+        } else {
+            writePath(position, bitWriter);
+        }
+        update(byteValue);
+    }
+
+    /**
+     * Writes the end-of-data marker. The tree is not updated, as nothing follows.
+     *
+     * @param bitWriter Destination of the marker
+     */
+    public void encodeEnd(BitWriter bitWriter) throws IOException {
+        writePath(leafPosition[NYT], bitWriter);
+        bitWriter.writeBits(END_OF_DATA, ESCAPE_BITS);
+    }
+
+    /**
+     * Reads the next code and updates the tree.
+     *
+     * Bits are peeked as wide as the bit reader allows and the tree is walked within them,
+     * so each code costs one or two reads instead of one per bit.
+     *
+     * @param bitReader Source of the codes
+     * @return The decoded byte (0-255), or END_OF_DATA
+     * @throws IOException If the input ends inside a code or the escape value is invalid
+     */
+    public int decode(BitReader bitReader) throws IOException {
+        int position = ROOT;
+        while (child[position] >= 0) {
+            long bits = bitReader.peekBits(BitReader.MAX_PEEK_BITS);
+            int consumed = 0;
+            while (child[position] >= 0 && consumed < BitReader.MAX_PEEK_BITS) {
+                int bit = (int) (bits >>> (BitReader.MAX_PEEK_BITS - 1 - consumed)) & 1;
+                // Bit 1 leads to the right child, bit 0 to the left child just below it
+                position = child[position] - 1 + bit;
+                consumed++;
+            }
+            // Rejects bits past the end of the input, which were peeked as zeros
+            bitReader.skipBits(consumed);
+        }
+
+        int symbol = -child[position] - 1;
+        if (symbol == NYT) {
+            symbol = (int) bitReader.readBits(ESCAPE_BITS);
+            if (symbol == END_OF_DATA) {
+                return END_OF_DATA;
+            }
+            if (symbol > END_OF_DATA || leafPosition[symbol] != NO_POSITION) {
+                throw new IOException("Invalid escape value " + symbol + " in adaptive Huffman data");
+            }
+        }
+        update(symbol);
+        return symbol;
+    }
+
+    /**
+     * Writes the path from the root to a position: 1 for a right child, 0 for a left child.
+     * The path is collected from the leaf upwards; paths longer than 64 bits write their upper part first.
+     */
+    private void writePath(int position, BitWriter bitWriter) throws IOException {
+        long code = 0;
+        int length = 0;
+        while (position != ROOT) {
+            int parentPosition = parent[position];
+            if (position == child[parentPosition]) {
+                code |= 1L << length;
+            }
+            length++;
+            position = parentPosition;
+            if (length == Long.SIZE && position != ROOT) {
+                writePath(position, bitWriter);
+                break;
+            }
+        }
+        bitWriter.writeBits(code, length);
+    }
+
+    /**
+     * Counts one more occurrence of the byte, adding its leaf first if it is new.
+     */
+    private void update(int byteValue) {
+        int position = leafPosition[byteValue];
+        if (position == NO_POSITION) {
+            // The NYT leaf becomes the parent of the new NYT (left) and the new byte (right)
+            int oldNyt = leafPosition[NYT];
+            int right = nextFree;
+            int left = nextFree - 1;
+            nextFree -= 2;
+            child[oldNyt] = right;
+            parent[right] = oldNyt;
+            parent[left] = oldNyt;
+            setLeaf(right, byteValue);
+            setLeaf(left, NYT);
+            position = right;
+        }
+
+        if (position != ROOT && parent[position] == parent[leafPosition[NYT]]) {
+            // The parent has the same weight as its leaf next to NYT, so only leaves may be swapped with it
+            position = swap(position, findLeader(position, true));
+            weight[position]++;
+            position = parent[position];
+        }
+        while (position != ROOT) {
+            position = swap(position, findLeader(position, false));
+            weight[position]++;
+            position = parent[position];
+        }
+        weight[ROOT]++;
+    }
+
+    /**
+     * Finds the highest position below the root holding the same weight.
+     *
+     * @param position Position to start from
+     * @param leavesOnly Whether only leaves qualify
+     * @return The leader, or the position itself if none is higher
+     */
+    private int findLeader(int position, boolean leavesOnly) {
+        long positionWeight = weight[position];
+        int leader = position;
+        for (int candidate = position + 1; candidate < ROOT && weight[candidate] == positionWeight; candidate++) {
+            if (!leavesOnly || child[candidate] < 0) {
+                leader = candidate;
+            }
+        }
+        return leader;
+    }
+
+    /**
+     * Exchanges the subtrees at two positions of the same weight.
+     *
+     * @return The second position, where the first subtree now is
+     */
+    private int swap(int first, int second) {
+        if (first == second) {
+            return first;
+        }
+        int firstChild = child[first];
+        child[first] = child[second];
+        child[second] = firstChild;
+        attach(first);
+        attach(second);
+        return second;
+    }
+
+    /**
+     * Points the children or the leaf index of a position back at it.
+     */
+    private void attach(int position) {
+        int node = child[position];
+        if (node < 0) {
+            leafPosition[-node - 1] = position;
+        } else {
+            parent[node] = position;
+            parent[node - 1] = position;
+        }
+    }
+
+    private void setLeaf(int position, int leafIndex) {
+        child[position] = -(leafIndex + 1);
+        weight[position] = 0;
+        leafPosition[leafIndex] = position;
+    }
+}
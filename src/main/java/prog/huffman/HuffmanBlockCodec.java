@@ -0,0 +1,137 @@
+package prog.huffman;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import prog.util.BitReader;
+import prog.util.BitWriter;
+import prog.util.ByteReader;
+import prog.util.ByteWriter;
+import prog.util.Constants;
+
+/**
+ * Encodes and decodes the blocks of the {@link HuffmanFormat#BLOCKS} container.
+ *
+ * Every block is compressed on its own: it gets a frequency count, canonical code lengths
+ * and a bitstream of its own, so blocks share no state and can be processed on any thread.
+ *
+ * Container layout:
+ * <pre>
+ * [1 byte: version 2] [4 bytes: block size]
+ * then for every block:
+ * [4 bytes: original length] [4 bytes: payload length] [payload]
+ * </pre>
+ *
+ * Payload layout: [code lengths, as in the canonical format] [data, zero-padded to a whole byte]
+ *
+ * The original length tells the decoder when to stop, so the payload needs no padding count.
+ */
+public class HuffmanBlockCodec {
+    private HuffmanBlockCodec() {
+    }
+
+    /**
+     * Compresses one block.
+     *
+     * @param data Array holding the block
+     * @param length Number of bytes of the block, starting at index 0
+     * @param maxCodeLength Longest allowed code, or Constants.UNLIMITED_CODE_LENGTH
+     * @return The payload of the block
+     */
+    public static byte[] encode(byte[] data, int length, int maxCodeLength) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(length / 2 + Constants.BYTE_VALUES_COUNT);
+        try (ByteWriter writer = new ByteWriter(payload)) {
+            encode(data, 0, length, maxCodeLength, writer);
+        }
+        return payload.toByteArray();
+    }
+
+    /**
+     * Compresses one block into a writer, which is left unflushed.
+     *
+     * @param data Array holding the block
+     * @param offset Index of the first byte of the block
+     * @param length Number of bytes of the block
+     * @param maxCodeLength Longest allowed code, or Constants.UNLIMITED_CODE_LENGTH
+     * @param writer Receives the payload of the block
+     */
+    public static void encode(byte[] data, int offset, int length, int maxCodeLength, ByteWriter writer) throws IOException {
+        int end = offset + length;
+        int[] frequency = new int[Constants.BYTE_VALUES_COUNT];
+        for (int i = offset; i < end; i++) {
+            frequency[data[i] & 0xFF]++;
+        }
+        int[] codeLengths = maxCodeLength == Constants.UNLIMITED_CODE_LENGTH
+            ? HuffmanUtils.calculateCodeLengths(HuffmanUtils.buildHuffmanTree(frequency))
+            : HuffmanUtils.calculateLengthLimitedCodeLengths(frequency, maxCodeLength);
+        long[] codes = HuffmanUtils.generateCanonicalCodes(codeLengths);
+
+        HuffmanUtils.writeCodeLengths(writer, codeLengths);
+        BitWriter bitWriter = new BitWriter(writer, bitBufferSize(length));
+        for (int i = offset; i < end; i++) {
+            int byteValue = data[i] & 0xFF;
+            bitWriter.writeBits(codes[byteValue], codeLengths[byteValue]);
+        }
+        bitWriter.flush();
+    }
+
+    /**
+     * Decompresses one block.
+     *
+     * @param payload The payload written by {@link #encode}
+     * @param originalLength Number of bytes the block decodes to
+     * @return The original bytes of the block
+     * @throws IOException If the payload is truncated or contains an invalid code
+     */
+    public static byte[] decode(byte[] payload, int originalLength) throws IOException {
+        byte[] output = new byte[originalLength];
+        decode(new ByteReader(ByteBuffer.wrap(payload)), payload.length, output, 0, originalLength);
+        return output;
+    }
+
+    /**
+     * Decompresses one block into an array.
+     *
+     * @param reader Reader positioned at the payload written by {@link #encode}; the payload must end the input
+     * @param payloadLength Size of the payload in bytes, used to size the read buffer
+     * @param output Receives the original bytes of the block
+     * @param offset Index in output of the first byte of the block
+     * @param originalLength Number of bytes the block decodes to
+     * @throws IOException If the payload is truncated or contains an invalid code
+     */
+    public static void decode(ByteReader reader, int payloadLength, byte[] output, int offset, int originalLength)
+            throws IOException {
+        int[] codeLengths = HuffmanUtils.readCodeLengths(reader);
+        HuffmanDecodingTable table = new HuffmanDecodingTable(HuffmanUtils.generateCanonicalCodes(codeLengths), codeLengths);
+        BitReader bitReader = new BitReader(reader, 0, bitBufferSize(payloadLength));
+
+        int end = offset + originalLength;
+        int tableOffset = 0;
+        int tableBits = table.getRootBits();
+        int count = offset;
+        while (count < end) {
+            // Bits past the end of the payload are peeked as zeros; skipBits rejects using them
+            int entry = table.getEntry(tableOffset + (int) bitReader.peekBits(tableBits));
+            if (HuffmanDecodingTable.isLeaf(entry)) {
+                bitReader.skipBits(HuffmanDecodingTable.getBitsConsumed(entry));
+                output[count++] = (byte) HuffmanDecodingTable.getSymbol(entry);
+                tableOffset = 0;
+                tableBits = table.getRootBits();
+            } else if (HuffmanDecodingTable.isSubTable(entry)) {
+                bitReader.skipBits(tableBits);
+                tableOffset = HuffmanDecodingTable.getSubTableOffset(entry);
+                tableBits = HuffmanDecodingTable.getSubTableBits(entry);
+            } else {
+                throw new IOException("Invalid Huffman code in block");
+            }
+        }
+    }
+
+    /**
+     * Sizes the bit buffers by the block, so small blocks do not allocate the full default buffer.
+     */
+    private static int bitBufferSize(int length) {
+        return Math.max(Long.BYTES, Math.min(BitWriter.DEFAULT_BUFFER_SIZE, length));
+    }
+}
@@ -1,23 +1,37 @@
 package prog.huffman;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import prog.compression.CompressionPhase;
 import prog.compression.Compressor;
+import prog.compression.ProgressListener;
+import prog.compression.ProgressTracker;
+import prog.metrics.JobPhase;
+import prog.metrics.PhaseTimer;
+import prog.util.BitWriter;
+import prog.util.BlockPipeline;
 import prog.util.ByteReader;
 import prog.util.ByteWriter;
-import prog.util.CommonUtil;
 import prog.util.Constants;
+import prog.util.FileInputSource;
+import prog.util.InputSource;
+import prog.util.StreamUtils;
 
-//if the frequency of a byte is more than 2^32 then there will be problem
 public class HuffmanCompressor implements Compressor {
 	private static final Logger logger = LoggerFactory.getLogger(HuffmanCompressor.class);
 
 	/**
 	 * Path to the input file that will be compressed
-	 * Example: "/home/user/document.txt"
+	 * Example: "/home/user/document.txt", or Constants.STREAM_NAME when compressing a stream
 	 */
 	private final String inputFilePath;
 
@@ -27,21 +41,55 @@ public class HuffmanCompressor implements Compressor {
 	 */
 	private final String outputFilePath;
 
+	/**
+	 * Source of the input bytes, read once to count frequencies and once to encode
+	 * Null when compressing a stream
+	 */
+	private final InputSource inputSource;
+
+	/**
+	 * Header layout written to the compressed file
+	 * Example: HuffmanFormat.CANONICAL stores only code lengths instead of frequencies
+	 * FREQUENCY_TABLE is replaced by FREQUENCY_TABLE_64 when a count does not fit in 4 bytes
+	 */
+	private HuffmanFormat format;
+
+	/**
+	 * Longest allowed code in bits, or Constants.UNLIMITED_CODE_LENGTH
+	 */
+	private final int maxCodeLength;
+
+	/**
+	 * Number of input bytes per block of the block format
+	 * Example: 1048576 splits a 10 MB file into 10 blocks
+	 */
+	private final int blockSize;
+
 	/**
 	 * Array storing the frequency of each byte value (0-255) in the input file
 	 * Index represents the byte value, value represents the count
 	 * Example: frequency[65] = 10 means byte 'A' (ASCII 65) appears 10 times
+	 * Not used by the block format, where every block counts its own frequencies
+	 * Held as long because a byte of a multi-GB file can occur more than Integer.MAX_VALUE times
+	 * Counted by compress(), so the scan can be followed by a progress listener
 	 */
-	private final int[] frequency;
+	private long[] frequency;
 
 	/**
 	 * Array storing the Huffman code for each byte value
-	 * Index represents the byte value, value is the binary string code
-	 * Example: huffmanCodes[65] = "101" means byte 'A' is encoded as "101"
+	 * Index represents the byte value, value is the code bits right-aligned (length in codeLengths)
+	 * Example: huffmanCodes[65] = 0b101 with codeLengths[65] = 3 means byte 'A' is encoded as "101"
 	 * More frequent bytes get shorter codes (e.g., "0" or "10")
 	 * Less frequent bytes get longer codes (e.g., "110101")
+	 * Held as long because codes of the unlimited tree can be longer than 32 bits
+	 */
+	private long[] huffmanCodes;
+
+	/**
+	 * Array storing the length in bits of each byte value's Huffman code
+	 * Example: codeLengths[65] = 3 means byte 'A' is encoded with 3 bits, 0 means the byte never occurs
 	 */
-	private final String[] huffmanCodes;
+	private int[] codeLengths;
 
 	/**
 	 * Root node of the Huffman tree used for generating the codes
@@ -50,46 +98,248 @@ public class HuffmanCompressor implements Compressor {
 	 */
 	private HuffmanNode huffmanTree;
 
+	/**
+	 * Size of the input in bytes, reported as the total to the progress listener
+	 * ProgressListener.UNKNOWN_TOTAL when compressing a stream
+	 */
+	private long inputSize = ProgressListener.UNKNOWN_TOTAL;
+
+	/**
+	 * Reports the progress of compress() to the listener, or null when none is set
+	 */
+	private ProgressTracker progress;
+
+	/**
+	 * Times the steps of compress()
+	 */
+	private PhaseTimer phaseTimer = PhaseTimer.NONE;
 
 	/**
 	 * Byte reader for the input file
 	 */
-	private ByteReader byteReader;
+	private final ByteReader byteReader;
 
 	/**
 	 * Byte writer for the output file
 	 */
-	private ByteWriter byteWriter;
+	private final ByteWriter byteWriter;
 
 	/**
-	 * Constructor that takes a file path and generates Huffman codes and frequency
+	 * Constructor that takes a file path
+	 * Uses the original frequency table header
 	 * @param inputFilePath The path to the file to be compressed
 	 */
 	public HuffmanCompressor(String inputFilePath) {
-		logger.debug("Initializing HuffmanCompressor for file: {}", inputFilePath);
+		this(inputFilePath, HuffmanFormat.FREQUENCY_TABLE);
+	}
+
+	/**
+	 * Constructor that takes a file path and the header layout to write
+	 * Canonical and block codes are limited to Constants.DEFAULT_MAX_CODE_LENGTH bits
+	 * @param inputFilePath The path to the file to be compressed
+	 * @param format The header layout of the compressed file
+	 */
+	public HuffmanCompressor(String inputFilePath, HuffmanFormat format) {
+		this(inputFilePath, format, defaultMaxCodeLength(format));
+	}
+
+	/**
+	 * Constructor that takes a file path, the header layout and the longest allowed code
+	 * @param inputFilePath The path to the file to be compressed
+	 * @param format The header layout of the compressed file
+	 * @param maxCodeLength Longest code in bits, or Constants.UNLIMITED_CODE_LENGTH to use the plain Huffman tree
+	 * @throws IllegalArgumentException if a limit is requested for the frequency table layout,
+	 *         whose decoder always rebuilds the unlimited tree
+	 */
+	public HuffmanCompressor(String inputFilePath, HuffmanFormat format, int maxCodeLength) {
+		this(new FileInputSource(inputFilePath), format, maxCodeLength);
+	}
+
+	/**
+	 * Constructor that reads the input through the given source
+	 * Example: new HuffmanCompressor(new MappedFileInputSource(path)) memory-maps the file for both passes
+	 * @param inputSource The file to be compressed
+	 */
+	public HuffmanCompressor(InputSource inputSource) {
+		this(inputSource, HuffmanFormat.FREQUENCY_TABLE);
+	}
+
+	/**
+	 * Constructor that reads the input through the given source and writes the given header layout
+	 * @param inputSource The file to be compressed
+	 * @param format The header layout of the compressed file
+	 */
+	public HuffmanCompressor(InputSource inputSource, HuffmanFormat format) {
+		this(inputSource, format, defaultMaxCodeLength(format));
+	}
+
+	/**
+	 * Constructor that reads the input through the given source, with the header layout and longest allowed code
+	 * @param inputSource The file to be compressed
+	 * @param format The header layout of the compressed file
+	 * @param maxCodeLength Longest code in bits, or Constants.UNLIMITED_CODE_LENGTH to use the plain Huffman tree
+	 */
+	public HuffmanCompressor(InputSource inputSource, HuffmanFormat format, int maxCodeLength) {
+		this(inputSource, format, maxCodeLength, Constants.DEFAULT_HUFFMAN_BLOCK_SIZE);
+	}
+
+	/**
+	 * Constructor that also takes the block size of the block format
+	 * Example: new HuffmanCompressor(source, HuffmanFormat.BLOCKS, 15, 4 << 20) uses 4 MB blocks
+	 * @param inputSource The file to be compressed
+	 * @param format The header layout of the compressed file
+	 * @param maxCodeLength Longest code in bits, or Constants.UNLIMITED_CODE_LENGTH to use the plain Huffman tree
+	 * @param blockSize Number of input bytes per block, only used by HuffmanFormat.BLOCKS
+	 * @throws IllegalArgumentException if a limit is requested for the frequency table layout,
+	 *         the block size is not positive, or the format is HuffmanFormat.ADAPTIVE
+	 */
+	public HuffmanCompressor(InputSource inputSource, HuffmanFormat format, int maxCodeLength, int blockSize) {
+		String inputFilePath = inputSource.getPath();
+		logger.debug("Initializing HuffmanCompressor for file: {} (format: {}, max code length: {})",
+			inputFilePath, format, maxCodeLength);
+		if (format == HuffmanFormat.ADAPTIVE) {
+			throw new IllegalArgumentException("The adaptive format is written by AdaptiveHuffmanCompressor");
+		}
+		if (format.hasFrequencyTable() && maxCodeLength != Constants.UNLIMITED_CODE_LENGTH) {
+			throw new IllegalArgumentException("Code length limit requires the canonical format, got: " + format);
+		}
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Block size must be positive, got: " + blockSize);
+		}
 		this.inputFilePath = inputFilePath;
 		this.outputFilePath = inputFilePath + Constants.HUFFMAN_FILE_EXTENSION;
-		this.frequency = HuffmanUtils.calculateFrequencyOfBytesInFile(inputFilePath);
+		this.inputSource = inputSource;
+		this.format = format;
+		this.maxCodeLength = maxCodeLength;
+		this.blockSize = blockSize;
 
-		if (HuffmanUtils.isEmptyFile(frequency)) {
+		if (isEmptyInput(inputSource)) {
 			logger.error("Attempted to compress empty file: {}", inputFilePath);
 			throw new IllegalArgumentException("Cannot compress empty file: " + inputFilePath);
 		}
-
-		logger.debug("Building Huffman tree");
-		this.huffmanTree = HuffmanUtils.buildHuffmanTree(frequency);
-		this.huffmanCodes = HuffmanUtils.generateHuffmanCodes(huffmanTree);
-
+		// The frequencies are counted by compress(); blocks are counted one by one while compressing
 		try {
-			this.byteReader = new ByteReader(inputFilePath);
+			this.inputSize = inputSource.size();
+			this.byteReader = inputSource.openReader();
 			this.byteWriter = new ByteWriter(outputFilePath);
 		} catch (IOException e) {
 			logger.error("Failed to initialize byte reader and writer: {}", e.getMessage());
 			throw new RuntimeException("Failed to initialize byte reader and writer: " + e.getMessage());
 		}
+	}
 
+	/**
+	 * Constructor that compresses a stream in a single pass
+	 * The stream cannot be read twice, so it is always written in the block format
+	 * Neither stream is closed; the output is flushed when compress() returns
+	 * Example: new HuffmanCompressor(request.getInputStream(), response.getOutputStream()).compress()
+	 * @param inputStream The bytes to be compressed, read until EOF
+	 * @param outputStream Receives the compressed bytes
+	 */
+	public HuffmanCompressor(InputStream inputStream, OutputStream outputStream) {
+		this(inputStream, outputStream, Constants.DEFAULT_MAX_CODE_LENGTH, Constants.DEFAULT_HUFFMAN_BLOCK_SIZE);
+	}
+
+	/**
+	 * Constructor that compresses a stream in a single pass, with the longest allowed code and the block size
+	 * @param inputStream The bytes to be compressed, read until EOF
+	 * @param outputStream Receives the compressed bytes
+	 * @param maxCodeLength Longest code in bits, or Constants.UNLIMITED_CODE_LENGTH to use the plain Huffman tree
+	 * @param blockSize Number of input bytes per block
+	 * @throws IllegalArgumentException if the block size is not positive
+	 */
+	public HuffmanCompressor(InputStream inputStream, OutputStream outputStream, int maxCodeLength, int blockSize) {
+		logger.debug("Initializing HuffmanCompressor for a stream (max code length: {})", maxCodeLength);
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Block size must be positive, got: " + blockSize);
+		}
+		this.inputFilePath = Constants.STREAM_NAME;
+		this.outputFilePath = Constants.STREAM_NAME;
+		this.inputSource = null;
+		this.format = HuffmanFormat.BLOCKS;
+		this.maxCodeLength = maxCodeLength;
+		this.blockSize = blockSize;
+		// An empty stream is valid: it compresses to the container header alone
+		this.byteReader = new ByteReader(StreamUtils.keepOpen(inputStream));
+		this.byteWriter = new ByteWriter(StreamUtils.keepOpen(outputStream));
+	}
+
+	/**
+	 * Constructor that compresses a channel in a single pass, in the block format
+	 * Neither channel is closed
+	 * Example: new HuffmanCompressor(FileChannel.open(in), socketChannel).compress()
+	 * @param inputChannel The bytes to be compressed, read until EOF
+	 * @param outputChannel Receives the compressed bytes
+	 */
+	public HuffmanCompressor(ReadableByteChannel inputChannel, WritableByteChannel outputChannel) {
+		this(Channels.newInputStream(inputChannel), Channels.newOutputStream(outputChannel));
+	}
+
+	private static int defaultMaxCodeLength(HuffmanFormat format) {
+		return format.hasFrequencyTable() ? Constants.UNLIMITED_CODE_LENGTH : Constants.DEFAULT_MAX_CODE_LENGTH;
+	}
+
+	private boolean isEmptyInput(InputSource inputSource) {
+		try {
+			return inputSource.size() == 0;
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to read size of file: " + inputFilePath, e);
+		}
+	}
+
+	/**
+	 * Step 0: Count the frequency of every byte and generate the Huffman codes
+	 * Reads the whole input once, in parallel ranges
+	 */
+	private void generateCodes() {
+		phaseTimer.start(JobPhase.FREQUENCY_COUNT);
+		if (progress != null) {
+			progress.startPhase(CompressionPhase.FREQUENCY_SCAN, inputSize);
+			this.frequency = HuffmanUtils.calculateFrequencyOfBytesInParallel(inputSource, progress::update);
+			progress.endPhase();
+		} else {
+			this.frequency = HuffmanUtils.calculateFrequencyOfBytesInParallel(inputSource);
+		}
+
+		if (format == HuffmanFormat.FREQUENCY_TABLE && Arrays.stream(frequency).anyMatch(f -> f > Integer.MAX_VALUE)) {
+			logger.info("Byte counts exceed 4 bytes, writing {} instead of {}", HuffmanFormat.FREQUENCY_TABLE_64, format);
+			this.format = HuffmanFormat.FREQUENCY_TABLE_64;
+		}
+
+		logger.debug("Building Huffman tree");
+		phaseTimer.start(JobPhase.TREE_BUILD);
+		// The original layout keeps the int sums of its tree, so earlier versions read the same codes
+		this.huffmanTree = format == HuffmanFormat.FREQUENCY_TABLE
+			? HuffmanUtils.buildHuffmanTree(Arrays.stream(frequency).mapToInt(f -> (int) f).toArray())
+			: HuffmanUtils.buildHuffmanTree(frequency);
+		this.codeLengths = maxCodeLength == Constants.UNLIMITED_CODE_LENGTH
+			? HuffmanUtils.calculateCodeLengths(huffmanTree)
+			: HuffmanUtils.calculateLengthLimitedCodeLengths(frequency, maxCodeLength);
+		if (format == HuffmanFormat.CANONICAL) {
+			this.huffmanCodes = HuffmanUtils.generateCanonicalCodes(codeLengths);
+		} else {
+			this.huffmanCodes = new long[Constants.BYTE_VALUES_COUNT];
+			HuffmanUtils.generateNumericCodes(huffmanTree, 0, 0, huffmanCodes, new int[Constants.BYTE_VALUES_COUNT]);
+		}
 		logger.debug("Huffman codes generated successfully");
 	}
+
+	/**
+	 * Starts the encode phase: the input is read again from the start
+	 */
+	private void startEncodePhase() {
+		if (progress != null) {
+			progress.setBytesOut(this.byteWriter::getBytesWritten);
+			progress.startPhase(CompressionPhase.ENCODE, inputSize);
+			progress.track(this.byteReader);
+		}
+	}
+
+	private void endEncodePhase() {
+		if (progress != null) {
+			progress.endPhase();
+		}
+	}
 	/**********************************************************************************/
 
 	/**
@@ -107,66 +357,182 @@ public class HuffmanCompressor implements Compressor {
 			if (this.frequency[i] != 0) {
 				byte currentByte = (byte) i;
 				this.byteWriter.writeByte(currentByte);
-				this.byteWriter.writeInt(this.frequency[i]);
+				this.byteWriter.writeInt((int) this.frequency[i]);
 			}
 		}
 	}
 
 	/**
-	 * Step 3: Calculate and write extra bits needed for padding
+	 * 64-bit Step 1: Write the version byte and the table size
+	 * The table has 1 to 256 entries, so its size minus one fits in a byte
 	 */
-	private void writeExtraBits() throws IOException {
-		int totalBinaryDigitsMod8 = 0;
+	private void writeTableSize64() throws IOException {
+		this.byteWriter.writeByte(this.format.getVersion());
+		this.byteWriter.writeByte(HuffmanUtils.calculateUniqueByteCount(this.frequency) - 1);
+	}
+
+	/**
+	 * 64-bit Step 2: Write the frequency table with variable-length counts
+	 * Example: byte 'A' occurring 300 times is written as [41] [AC 02]
+	 */
+	private void writeFrequencyTable64() throws IOException {
+		for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+			if (this.frequency[i] != 0) {
+				this.byteWriter.writeByte(i);
+				this.byteWriter.writeVarLong(this.frequency[i]);
+			}
+		}
+	}
+
+	/**
+	 * Calculates the number of padding bits needed to fill the last byte
+	 * Example: 2 codes of 1 bit each give 2 bits of data, so 6 padding bits are needed
+	 */
+	private int calculateExtraBits() {
+		long totalBinaryDigitsMod8 = 0;
 		for(int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
-			if (this.huffmanCodes[i] != null) {
-				totalBinaryDigitsMod8 += this.huffmanCodes[i].length() * this.frequency[i];
+			if (this.codeLengths[i] != 0) {
+				// Reduced before multiplying, so the product never overflows
+				totalBinaryDigitsMod8 += this.codeLengths[i] * (this.frequency[i] % Constants.BITS_PER_BYTE);
 				totalBinaryDigitsMod8 %= Constants.BITS_PER_BYTE;
 			}
 		}
-		int extraBits = (Constants.BITS_PER_BYTE - totalBinaryDigitsMod8) % Constants.BITS_PER_BYTE;
-		this.byteWriter.writeInt(extraBits);
+		return (int) ((Constants.BITS_PER_BYTE - totalBinaryDigitsMod8) % Constants.BITS_PER_BYTE);
+	}
+
+	/**
+	 * Step 3: Calculate and write extra bits needed for padding
+	 */
+	private void writeExtraBits() throws IOException {
+		this.byteWriter.writeInt(calculateExtraBits());
+	}
+
+	/**
+	 * Canonical Step 1: Write the version byte and the padding bits
+	 */
+	private void writeCanonicalHeader() throws IOException {
+		this.byteWriter.writeByte(this.format.getVersion());
+		this.byteWriter.writeByte(calculateExtraBits());
+	}
+
+	/**
+	 * Canonical Step 2: Write the code lengths in the smallest layout
+	 */
+	private void writeCodeLengths() throws IOException {
+		HuffmanUtils.writeCodeLengths(this.byteWriter, this.codeLengths);
 	}
 
 	/**
 	 * Step 4: Encode and write the compressed content using Huffman codes
-	 * Reads each byte from input, converts to its Huffman code, and writes compressed output
+	 * Reads the input in chunks and packs the Huffman code of each byte into the bit writer,
+	 * which pads the last byte with zero bits
 	 */
 	private void encodeAndWriteContent() throws IOException {
-		StringBuilder bitBuffer = new StringBuilder();
-		Byte currentByte;
+		BitWriter bitWriter = new BitWriter(this.byteWriter);
+		byte[] chunk = new byte[ByteReader.DEFAULT_BUFFER_SIZE];
+		int bytesRead;
 
-		while ((currentByte = this.byteReader.readNextByte()) != null) {
-			String huffmanCodeOfCurrentByte = this.huffmanCodes[CommonUtil.byteToUnsignedInt(currentByte)];
-			bitBuffer.append(huffmanCodeOfCurrentByte);
-
-			while(bitBuffer.length() >= Constants.BITS_PER_BYTE) {
-				this.byteWriter.writeByte(CommonUtil.stringToByte(bitBuffer.substring(0, Constants.BITS_PER_BYTE)));
-				bitBuffer.delete(0, Constants.BITS_PER_BYTE);
+		while ((bytesRead = this.byteReader.read(chunk, 0, chunk.length)) != -1) {
+			for (int i = 0; i < bytesRead; i++) {
+				int byteValue = chunk[i] & 0xFF;
+				bitWriter.writeBits(this.huffmanCodes[byteValue], this.codeLengths[byteValue]);
 			}
 		}
 
-		if (bitBuffer.length() != 0) {
-			this.byteWriter.writeByte(CommonUtil.stringToByte(bitBuffer.toString()));
+		bitWriter.flush();
+	}
+
+	/**
+	 * Blocks Step: Write the container header, then encode the blocks in parallel and write them in input order
+	 *
+	 * Blocks are read sequentially and handed to a BlockPipeline, which encodes them on the common
+	 * ForkJoinPool and writes the payloads in input order.
+	 */
+	private void encodeAndWriteBlocks() throws IOException {
+		this.byteWriter.writeByte(this.format.getVersion());
+		this.byteWriter.writeInt(this.blockSize);
+
+		BlockPipeline pipeline = new BlockPipeline((originalLength, payload) -> {
+			this.byteWriter.writeInt(originalLength);
+			this.byteWriter.writeInt(payload.length);
+			this.byteWriter.write(payload, 0, payload.length);
+		});
+		int blockCount = 0;
+
+		while (true) {
+			byte[] block = new byte[this.blockSize];
+			int length = this.byteReader.readNBytes(block, 0, block.length);
+			if (length > 0) {
+				pipeline.submit(length, () -> HuffmanBlockCodec.encode(block, length, this.maxCodeLength));
+				blockCount++;
+			}
+			if (length < block.length) {
+				break;
+			}
 		}
+		pipeline.finish();
+		logger.debug("Wrote {} blocks", blockCount);
 	}
 
 	private void compressFile() {
 		logger.info("Compressing file: {} -> {}", inputFilePath, outputFilePath);
-		try {
-			// Step1: Write the table size
-			logger.debug("Writing frequency table");
-			writeTableSize();
+		try (this.byteReader; this.byteWriter) {
+			if (this.format == HuffmanFormat.BLOCKS) {
+				logger.debug("Encoding and writing blocks");
+				startEncodePhase();
+				phaseTimer.start(JobPhase.ENCODE);
+				encodeAndWriteBlocks();
+				endEncodePhase();
+				phaseTimer.start(JobPhase.FLUSH);
+				this.byteWriter.flush();
+				phaseTimer.stop();
+				logger.info("Compression completed successfully");
+				return;
+			}
+
+			// Step0: Count the frequencies and generate the codes
+			generateCodes();
+			startEncodePhase();
+
+			phaseTimer.start(JobPhase.HEADER_WRITE);
+			if (this.format == HuffmanFormat.CANONICAL) {
+				// Canonical Step1: Write version and padding bits
+				logger.debug("Writing canonical header");
+				writeCanonicalHeader();
+
+				// Canonical Step2: Write the code lengths
+				writeCodeLengths();
+			} else if (this.format == HuffmanFormat.FREQUENCY_TABLE_64) {
+				// 64-bit Step1: Write version and table size
+				logger.debug("Writing 64-bit frequency table");
+				writeTableSize64();
+
+				// 64-bit Step2: Write the table
+				writeFrequencyTable64();
 
-			// Step2: Write the table
-			writeFrequencyTable();
+				// 64-bit Step3: Write extra bits needed for padding
+				this.byteWriter.writeByte(calculateExtraBits());
+			} else {
+				// Step1: Write the table size
+				logger.debug("Writing frequency table");
+				writeTableSize();
 
-			// Step3: Write extra bits needed for padding
-			logger.debug("Writing padding information");
-			writeExtraBits();
+				// Step2: Write the table
+				writeFrequencyTable();
+
+				// Step3: Write extra bits needed for padding
+				logger.debug("Writing padding information");
+				writeExtraBits();
+			}
 
 			// Step4: Encode and write the compressed content
 			logger.debug("Encoding and writing compressed content");
+			phaseTimer.start(JobPhase.ENCODE);
 			encodeAndWriteContent();
+			endEncodePhase();
+			phaseTimer.start(JobPhase.FLUSH);
+			this.byteWriter.flush();
+			phaseTimer.stop();
 
 			logger.info("Compression completed successfully");
 		} catch (IOException e) {
@@ -176,8 +542,8 @@ public class HuffmanCompressor implements Compressor {
 	}
 
 	/**
-	 * Compresses the file using the pre-calculated Huffman codes
-	 * Creates a compressed file with .huffz extension
+	 * Counts the byte frequencies, then compresses the file using the Huffman codes built from them
+	 * Creates a compressed file with .huffz extension, or writes to the output stream
 	 *
 	 * @throws RuntimeException if compression fails
 	 */
@@ -186,13 +552,34 @@ public class HuffmanCompressor implements Compressor {
 		compressFile();
 	}
 
+	/**
+	 * Reports the frequency scan, except in the block format, then the encode phase
+	 * The frequency scan reads 64 KB at a time, so it reports at most that often
+	 */
+	@Override
+	public void setProgressListener(ProgressListener listener, long granularity) {
+		this.progress = listener == null ? null : new ProgressTracker(listener, granularity);
+	}
+
+	@Override
+	public void setPhaseTimer(PhaseTimer timer) {
+		this.phaseTimer = timer == null ? PhaseTimer.NONE : timer;
+	}
+
 	/**
 	 * Clean up resources by freeing the Huffman tree from memory
+	 * Also closes the input and output files if compress() did not run
 	 */
 	@Override
 	public void cleanup() {
 		if (huffmanTree != null) {
 			HuffmanUtils.freeHuffmanTree(huffmanTree);
 		}
+		try {
+			this.byteReader.close();
+			this.byteWriter.close();
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to close files for: " + inputFilePath, e);
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package prog.huffman;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import prog.util.Constants;
+
+/**
+ * Multi-level lookup table for decoding Huffman codes without walking the tree bit by bit.
+ *
+ * The decoder peeks a fixed-width window of the bitstream and uses it as an index into the
+ * root table. Codes that fit in the window resolve in a single lookup; longer codes point to
+ * a secondary table indexed by the following bits, and so on until a leaf is reached.
+ *
+ * Example (codes A="0", B="10", C="11", root window of 2 bits):
+ * <pre>
+ * index | entry
+ * ------|---------------------
+ *  00   | A, consumes 1 bit
+ *  01   | A, consumes 1 bit
+ *  10   | B, consumes 2 bits
+ *  11   | C, consumes 2 bits
+ * </pre>
+ *
+ * Entry layout (packed into an int):
+ * <ul>
+ *   <li>Leaf: (symbol &lt;&lt; 8) | bitsConsumed, always positive</li>
+ *   <li>Sub-table: SUBTABLE_FLAG | (offset &lt;&lt; 5) | subTableBits</li>
+ *   <li>Invalid: 0 (no code starts with these bits)</li>
+ * </ul>
+ */
+public class HuffmanDecodingTable {
+    /**
+     * Maximum index width of the root table.
+     * 2^10 entries keeps the root table in L1 cache while resolving most codes in one lookup.
+     */
+    public static final int MAX_ROOT_BITS = 10;
+
+    /**
+     * Maximum index width of a secondary table.
+     */
+    public static final int MAX_SUBTABLE_BITS = 8;
+
+    private static final int SUBTABLE_FLAG = 0x80000000;
+    private static final int INVALID_ENTRY = 0;
+
+    private final int[] entries;
+    private final int rootBits;
+    private final int maxCodeLength;
+
+    /**
+     * Builds the lookup table from numeric Huffman codes.
+     *
+     * @param codes Code value for each byte value (right-aligned, most significant bit first on the wire)
+     * @param codeLengths Code length in bits for each byte value, 0 if the byte value does not occur
+     */
+    public HuffmanDecodingTable(long[] codes, int[] codeLengths) {
+        List<Integer> symbols = new ArrayList<>();
+        int longest = 0;
+        for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+            if (codeLengths[i] > 0) {
+                symbols.add(i);
+                longest = Math.max(longest, codeLengths[i]);
+            }
+        }
+        if (symbols.isEmpty()) {
+            throw new IllegalArgumentException("Cannot build a decoding table without any codes");
+        }
+        this.maxCodeLength = longest;
+        this.rootBits = Math.min(longest, MAX_ROOT_BITS);
+
+        List<int[]> tables = new ArrayList<>();
+        int[] size = {0};
+        buildTable(codes, codeLengths, symbols, 0, rootBits, tables, size);
+
+        this.entries = new int[size[0]];
+        int offset = 0;
+        for (int[] table : tables) {
+            System.arraycopy(table, 0, entries, offset, table.length);
+            offset += table.length;
+        }
+    }
+
+    /**
+     * Recursively fills a table for all symbols whose codes share the first {@code prefixLength} bits.
+     * Tables are laid out in creation order, so the root table always starts at offset 0.
+     *
+     * @return Offset of the created table within the final entries array
+     */
+    private static int buildTable(long[] codes, int[] codeLengths, List<Integer> symbols, int prefixLength,
+                                  int tableBits, List<int[]> tables, int[] size) {
+        int[] table = new int[1 << tableBits];
+        int tableOffset = size[0];
+        tables.add(table);
+        size[0] += table.length;
+
+        List<List<Integer>> longerCodes = new ArrayList<>(table.length);
+        for (int i = 0; i < table.length; i++) {
+            longerCodes.add(null);
+        }
+
+        for (int symbol : symbols) {
+            int remainingLength = codeLengths[symbol] - prefixLength;
+            long remainingCode = codes[symbol] & ((1L << remainingLength) - 1);
+            if (remainingLength <= tableBits) {
+                // Every index that starts with this code resolves to it
+                int first = (int) (remainingCode << (tableBits - remainingLength));
+                int count = 1 << (tableBits - remainingLength);
+                int leaf = (symbol << 8) | remainingLength;
+                for (int i = first; i < first + count; i++) {
+                    table[i] = leaf;
+                }
+            } else {
+                int index = (int) (remainingCode >>> (remainingLength - tableBits));
+                if (longerCodes.get(index) == null) {
+                    longerCodes.set(index, new ArrayList<>());
+                }
+                longerCodes.get(index).add(symbol);
+            }
+        }
+
+        for (int i = 0; i < table.length; i++) {
+            List<Integer> group = longerCodes.get(i);
+            if (group == null) continue;
+            int subPrefixLength = prefixLength + tableBits;
+            int longest = 0;
+            for (int symbol : group) {
+                longest = Math.max(longest, codeLengths[symbol] - subPrefixLength);
+            }
+            int subTableBits = Math.min(longest, MAX_SUBTABLE_BITS);
+            int subTableOffset = buildTable(codes, codeLengths, group, subPrefixLength, subTableBits, tables, size);
+            table[i] = SUBTABLE_FLAG | (subTableOffset << 5) | subTableBits;
+        }
+
+        return tableOffset;
+    }
+
+    /**
+     * Number of bits used to index the root table.
+     */
+    public int getRootBits() {
+        return rootBits;
+    }
+
+    /**
+     * Length in bits of the longest code in the table.
+     */
+    public int getMaxCodeLength() {
+        return maxCodeLength;
+    }
+
+    /**
+     * Returns the raw entry at the given absolute index.
+     * Use {@link #isLeaf}, {@link #isSubTable} and the accessors below to interpret it.
+     */
+    public int getEntry(int index) {
+        return entries[index];
+    }
+
+    public static boolean isLeaf(int entry) {
+        return entry > 0;
+    }
+
+    public static boolean isSubTable(int entry) {
+        return (entry & SUBTABLE_FLAG) != 0;
+    }
+
+    public static boolean isInvalid(int entry) {
+        return entry == INVALID_ENTRY;
+    }
+
+    /**
+     * Decoded byte value of a leaf entry.
+     */
+    public static int getSymbol(int entry) {
+        return entry >>> 8;
+    }
+
+    /**
+     * Number of bits a leaf entry consumes from the current table's window.
+     */
+    public static int getBitsConsumed(int entry) {
+        return entry & 0xFF;
+    }
+
+    /**
+     * Offset of the secondary table a sub-table entry points to.
+     */
+    public static int getSubTableOffset(int entry) {
+        return (entry & ~SUBTABLE_FLAG) >>> 5;
+    }
+
+    /**
+     * Index width of the secondary table a sub-table entry points to.
+     */
+    public static int getSubTableBits(int entry) {
+        return entry & 0x1F;
+    }
+}
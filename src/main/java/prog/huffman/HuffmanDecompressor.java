@@ -1,55 +1,96 @@
 package prog.huffman;
 
+import java.io.EOFException;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import prog.compression.CompressionPhase;
 import prog.compression.Decompressor;
+import prog.compression.ProgressListener;
+import prog.compression.ProgressTracker;
+import prog.metrics.JobPhase;
+import prog.metrics.PhaseTimer;
+import prog.util.BitReader;
+import prog.util.BlockPipeline;
 import prog.util.ByteReader;
 import prog.util.ByteWriter;
-import prog.util.CommonUtil;
 import prog.util.Constants;
 import prog.util.FileUtils;
+import prog.util.StreamUtils;
 
 public class HuffmanDecompressor implements Decompressor {
 	private static final Logger logger = LoggerFactory.getLogger(HuffmanDecompressor.class);
 
 	/**
 	 * Path to the compressed file that will be decompressed
-	 * Example: "/home/user/document.txt.huffz"
+	 * Example: "/home/user/document.txt.huffz", or Constants.STREAM_NAME when decompressing a stream
 	 */
 	private final String compressedFilePath;
 
 	/**
-	 * Map from Huffman code strings to their corresponding byte values
-	 * Key: Binary string code (e.g., "101", "0", "110")
-	 * Value: The original byte value (0-255) that the code represents
-	 * Example: {"101" -> 65, "0" -> 32} means "101" decodes to 'A', "0" to space
+	 * Lookup table from bitstream windows to their corresponding byte values
+	 * Short codes resolve with a single lookup in the root table,
+	 * longer codes continue through secondary tables
+	 * Example: with codes {"0" -> 32, "101" -> 65}, any window starting with "101" decodes to 'A'
+	 * Null for the block format, where every block carries its own code lengths
+	 * and for the adaptive format, where the codes change after every byte
 	 */
-	private final Map<String, Integer> huffmancodeToByteMap;
+	private final HuffmanDecodingTable decodingTable;
 
 	/**
 	 * Path to the output file after decompression
 	 */
 	private final String outputFilePath;
 
+	/**
+	 * Size of the compressed file in bytes, reported as the total to the progress listener
+	 * ProgressListener.UNKNOWN_TOTAL when decompressing a stream
+	 */
+	private long compressedSize = ProgressListener.UNKNOWN_TOTAL;
+
+	/**
+	 * Reports the progress of decompress() to the listener, or null when none is set
+	 */
+	private ProgressTracker progress;
+
+	/**
+	 * Times the steps of decompress()
+	 */
+	private PhaseTimer phaseTimer = PhaseTimer.NONE;
+
 	/**
 	 * Byte reader for the compressed file
 	 */
-	private ByteReader byteReader;
+	private final ByteReader byteReader;
 
 	/**
 	 * Byte writer for the decompressed output file
 	 */
-	private ByteWriter byteWriter;
+	private final ByteWriter byteWriter;
+
+	/**
+	 * Header layout of the compressed file, detected from its first byte
+	 */
+	private HuffmanFormat format;
 
 	/**
-	 * Root node of the Huffman tree
+	 * Number of padding bits (0-7) at the end of the compressed data
 	 */
-	private HuffmanNode huffmanTreeRoot;
+	private int extraBits;
+
+	/**
+	 * Largest original length of a block of the block format
+	 */
+	private int blockSize;
 
 	/**
 	 * Constructor that takes a compressed file path and generates the Huffman code mapping
@@ -61,111 +102,264 @@ public class HuffmanDecompressor implements Decompressor {
 		// Remove the .huffz extension to get the output file path
 		this.outputFilePath = FileUtils.getUniqueFilePath(compressedFilePath.substring(0,
 			compressedFilePath.length() - Constants.HUFFMAN_FILE_EXTENSION.length()));
-		this.huffmancodeToByteMap = generateHuffmanCodesFromZipFile(compressedFilePath);
 
 		try {
+			this.compressedSize = Files.size(Path.of(compressedFilePath));
 			this.byteReader = new ByteReader(compressedFilePath);
+		} catch (IOException e) {
+			logger.error("Failed to initialize byte reader: {}", e.getMessage());
+			throw new RuntimeException("Failed to initialize byte reader: " + e.getMessage());
+		}
+
+		try {
+			this.decodingTable = readHeader();
+		} catch (RuntimeException e) {
+			// decompress() never runs, so the reader must be closed here
+			closeReader(e);
+			throw e;
+		}
+
+		try {
 			this.byteWriter = new ByteWriter(outputFilePath);
 		} catch (IOException e) {
-			logger.error("Failed to initialize byte reader and writer: {}", e.getMessage());
-			throw new RuntimeException("Failed to initialize byte reader and writer: " + e.getMessage());
+			logger.error("Failed to initialize byte writer: {}", e.getMessage());
+			RuntimeException failure = new RuntimeException("Failed to initialize byte writer: " + e.getMessage());
+			closeReader(failure);
+			throw failure;
+		}
+
+		logger.debug("Huffman decoding table generated successfully (format: {})", format);
+	}
+
+	/**
+	 * Constructor that decompresses a stream of any Huffman format
+	 * The header is read here, so an invalid stream fails before anything is written
+	 * Neither stream is closed; the output is flushed when decompress() returns
+	 * Example: new HuffmanDecompressor(blob.getInputStream(), response.getOutputStream()).decompress()
+	 * @param inputStream The compressed bytes, read until EOF
+	 * @param outputStream Receives the decompressed bytes
+	 */
+	public HuffmanDecompressor(InputStream inputStream, OutputStream outputStream) {
+		logger.debug("Initializing HuffmanDecompressor for a stream");
+		this.compressedFilePath = Constants.STREAM_NAME;
+		this.outputFilePath = Constants.STREAM_NAME;
+		this.byteReader = new ByteReader(StreamUtils.keepOpen(inputStream));
+		this.decodingTable = readHeader();
+		this.byteWriter = new ByteWriter(StreamUtils.keepOpen(outputStream));
+		logger.debug("Huffman decoding table generated successfully (format: {})", format);
+	}
+
+	/**
+	 * Constructor that decompresses a channel of any Huffman format
+	 * Neither channel is closed
+	 * @param inputChannel The compressed bytes, read until EOF
+	 * @param outputChannel Receives the decompressed bytes
+	 */
+	public HuffmanDecompressor(ReadableByteChannel inputChannel, WritableByteChannel outputChannel) {
+		this(Channels.newInputStream(inputChannel), Channels.newOutputStream(outputChannel));
+	}
+
+	/**
+	 * Closes the reader of a constructor that fails, keeping any error as suppressed by the failure
+	 */
+	private void closeReader(RuntimeException failure) {
+		try {
+			this.byteReader.close();
+		} catch (IOException e) {
+			failure.addSuppressed(e);
 		}
+	}
 
-		logger.debug("Huffman code mapping generated successfully");
+	private HuffmanDecodingTable readHeader() {
+		try {
+			return generateHuffmanCodesFromZipFile();
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to read header from compressed file: " + compressedFilePath, e);
+		}
 	}
 	/*******************************************************************************
-	 * Reads frequency table from compressed file and builds Huffman tree
+	 * Reads the header from compressed file and builds the decoding table
+	 * Leaves the byte reader positioned at the start of the compressed content
 	 ******************************************************************************/
-	private Map<String, Integer> generateHuffmanCodesFromZipFile(String compressedFilePath) {
-		int frequencyValue, i;
-		Byte byteValue;
-		int[] frequency = new int[Constants.BYTE_VALUES_COUNT];
-		Map<String, Integer> huffmancodeToByteMap = new HashMap<>(); // Fast lookup for Huffman code to byte
-		try (ByteReader reader = new ByteReader(compressedFilePath)) {
-			int uniqueCharCount = reader.readInt();
-			for (i = 0; i < uniqueCharCount; i++) {
-				byteValue = reader.readNextByte();
-				frequencyValue = reader.readInt();
-				frequency[CommonUtil.byteToUnsignedInt(byteValue)] = frequencyValue;
+	private HuffmanDecodingTable generateHuffmanCodesFromZipFile() throws IOException {
+		// Step1: Detect the header layout from the version byte
+		this.format = HuffmanFormat.fromVersion(readUnsignedByte());
+
+		if (this.format == HuffmanFormat.BLOCKS) {
+			// Step2: Read the block size; the blocks carry their own code lengths
+			this.blockSize = this.byteReader.readInt();
+			if (this.blockSize <= 0) {
+				throw new IOException("Invalid block size " + this.blockSize + " in compressed file: " + compressedFilePath);
 			}
-		} catch (IOException e) {
-			throw new RuntimeException("Failed to read frequency table from compressed file: " + compressedFilePath, e);
+			return null;
+		}
+		if (this.format == HuffmanFormat.ADAPTIVE) {
+			// The codes are rebuilt while decoding, so there is nothing more to read
+			return null;
 		}
-		huffmanTreeRoot = HuffmanUtils.buildHuffmanTree(frequency);
-		String[] huffmanCodes = HuffmanUtils.generateHuffmanCodes(huffmanTreeRoot);
-		for(i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
-			if(huffmanCodes[i] != null && huffmanCodes[i].length() > 0) {
-				huffmancodeToByteMap.put(huffmanCodes[i], i);
+
+		int[] codeLengths;
+		long[] codes;
+		if (this.format == HuffmanFormat.CANONICAL) {
+			// Step2: Read padding bits and code lengths, then derive the codes
+			this.extraBits = readUnsignedByte();
+			codeLengths = HuffmanUtils.readCodeLengths(this.byteReader);
+			codes = HuffmanUtils.generateCanonicalCodes(codeLengths);
+		} else {
+			// Step2: Read frequency table and padding bits, then rebuild the tree
+			HuffmanNode huffmanTreeRoot;
+			if (this.format == HuffmanFormat.FREQUENCY_TABLE_64) {
+				huffmanTreeRoot = HuffmanUtils.buildHuffmanTree(readFrequencyTable64());
+				this.extraBits = readUnsignedByte();
+			} else {
+				huffmanTreeRoot = HuffmanUtils.buildHuffmanTree(readFrequencyTable());
+				this.extraBits = this.byteReader.readInt();
 			}
+			codes = new long[Constants.BYTE_VALUES_COUNT];
+			codeLengths = new int[Constants.BYTE_VALUES_COUNT];
+			HuffmanUtils.generateNumericCodes(huffmanTreeRoot, 0, 0, codes, codeLengths);
 		}
-		return huffmancodeToByteMap;
+		return new HuffmanDecodingTable(codes, codeLengths);
 	}
 
 	/**
-	 * Step 1: Read the number of unique characters from the compressed file header.
+	 * Reads one byte of the header as an unsigned value.
 	 *
-	 * @return The number of unique byte values in the original file
-	 * @throws IOException If reading fails
+	 * @return The byte value (0-255)
+	 * @throws IOException If reading fails or the file ends inside the header
 	 */
-	private int getUniqueCharCount() throws IOException {
-		return this.byteReader.readInt();
+	private int readUnsignedByte() throws IOException {
+		int value = this.byteReader.read();
+		if (value == -1) {
+			throw new EOFException("Unexpected end of compressed file: " + compressedFilePath);
+		}
+		return value;
 	}
 
 	/**
-	 * Step 2: Skip frequency table and read the number of extra padding bits.
+	 * Reads the frequency table of the original layout.
 	 *
-	 * This method skips over the frequency table entries and reads the padding bits value
-	 * that indicates how many bits were added to make the compressed data byte-aligned.
+	 * The table starts with a 4-byte count whose first byte doubles as the (zero) version byte,
+	 * so only its remaining 3 bytes are read here.
 	 *
-	 * @param uniqueCharCount Number of unique characters to skip in the frequency table
-	 * @return The number of padding bits (0-7) used in compression
+	 * @return Frequency of every byte value
 	 * @throws IOException If reading fails
 	 */
-	private int getExtraBits(int uniqueCharCount) throws IOException {
-		int i;
-		for (i = 0; i < uniqueCharCount; i++) {
-			this.byteReader.readNextByte();
-			this.byteReader.readInt();
+	private int[] readFrequencyTable() throws IOException {
+		int[] frequency = new int[Constants.BYTE_VALUES_COUNT];
+		int uniqueCharCount = (readUnsignedByte() << 16) | (readUnsignedByte() << 8) | readUnsignedByte();
+		for (int i = 0; i < uniqueCharCount; i++) {
+			int byteValue = readUnsignedByte();
+			frequency[byteValue] = this.byteReader.readInt();
+		}
+		return frequency;
+	}
+
+	/**
+	 * Reads the frequency table of the 64-bit layout: the table size minus one,
+	 * then every symbol with its variable-length count.
+	 *
+	 * @return Frequency of every byte value
+	 * @throws IOException If reading fails or a count is not positive
+	 */
+	private long[] readFrequencyTable64() throws IOException {
+		long[] frequency = new long[Constants.BYTE_VALUES_COUNT];
+		int uniqueCharCount = readUnsignedByte() + 1;
+		for (int i = 0; i < uniqueCharCount; i++) {
+			int byteValue = readUnsignedByte();
+			frequency[byteValue] = this.byteReader.readVarLong();
+			if (frequency[byteValue] <= 0) {
+				throw new IOException("Invalid frequency in compressed file: " + compressedFilePath);
+			}
 		}
-		return this.byteReader.readInt();
+		return frequency;
 	}
 
 	/**
-	 * Step 3: Process compressed bytes and decode them using Huffman codes.
+	 * Step 3: Process compressed bytes and decode them using the decoding table.
 	 *
-	 * This method reads compressed bytes, converts them to bits, and decodes them
-	 * using the Huffman code mapping to reconstruct the original data.
+	 * Each step peeks the next root-table-width bits, looks them up, and either emits a byte
+	 * (consuming only the bits of its code) or descends into a secondary table for longer codes.
+	 * The bit reader never reports the last {@code extraBits} bits as available, so padding is never decoded.
 	 *
-	 * @param bitReader Buffer for accumulating and processing bits
-	 * @throws IOException If reading or writing fails
+	 * @param extraBits Number of padding bits at the end of the compressed data
+	 * @throws IOException If reading or writing fails, or the data contains an invalid code
 	 */
-	private void processCompressedBytes(BitReader bitReader) throws IOException {
-		String[] byteToBinaryStrings = HuffmanUtils.createBinaryStringsForBytes();
-		HuffmanNode currentNode = huffmanTreeRoot;
+	private void processCompressedBytes(int extraBits) throws IOException {
+		BitReader bitReader = new BitReader(this.byteReader, extraBits);
+		int tableOffset = 0;
+		int tableBits = this.decodingTable.getRootBits();
+
 		while (true) {
-			Byte currentByte = this.byteReader.readNextByte();
-			if (currentByte == null) break;
-
-			int byteAsInt = CommonUtil.byteToUnsignedInt(currentByte);
-			bitReader.append(CommonUtil.padToEightBits(byteToBinaryStrings[byteAsInt]));
-
-			while (true) {
-				boolean codeFound = false;
-				int i;
-				StringBuilder codeBuilder = new StringBuilder();
-				for (i = 0; i < bitReader.getAvailableBits(); i++) {
-					codeBuilder.append(bitReader.charAt(i));
-					String currentCode = codeBuilder.toString();
-					Integer decodedByte = this.huffmancodeToByteMap.get(currentCode);
-					if (decodedByte != null) {
-						this.byteWriter.writeByte(decodedByte);
-						codeFound = true;
-						bitReader.consume(currentCode.length());
-						break;
-					}
-				}
-				if (!codeFound) break;
+			int availableBits = bitReader.getAvailableBits();
+			if (availableBits == 0) break;
+
+			// Bits past the end of the input are peeked as zeros
+			int entry = this.decodingTable.getEntry(tableOffset + (int) bitReader.peekBits(tableBits));
+
+			if (HuffmanDecodingTable.isLeaf(entry)) {
+				int codeBits = HuffmanDecodingTable.getBitsConsumed(entry);
+				if (codeBits > availableBits) break;
+				bitReader.skipBits(codeBits);
+				this.byteWriter.writeByte(HuffmanDecodingTable.getSymbol(entry));
+				tableOffset = 0;
+				tableBits = this.decodingTable.getRootBits();
+			} else if (HuffmanDecodingTable.isSubTable(entry) && tableBits <= availableBits) {
+				bitReader.skipBits(tableBits);
+				tableOffset = HuffmanDecodingTable.getSubTableOffset(entry);
+				tableBits = HuffmanDecodingTable.getSubTableBits(entry);
+			} else if (tableBits > availableBits) {
+				// Only padding left
+				break;
+			} else {
+				throw new IOException("Invalid Huffman code in compressed file: " + compressedFilePath);
+			}
+		}
+	}
+
+	/**
+	 * Blocks Step: Read the blocks, decode them in parallel and write them in order.
+	 *
+	 * Every block starts on a byte boundary with its original and payload lengths, so the next
+	 * block can be read and handed to the BlockPipeline before the previous ones are decoded.
+	 *
+	 * @throws IOException If reading or writing fails, or a block is truncated or corrupt
+	 */
+	private void processBlocks() throws IOException {
+		BlockPipeline pipeline = new BlockPipeline((originalLength, block) -> this.byteWriter.write(block, 0, block.length));
+
+		int firstByte;
+		while ((firstByte = this.byteReader.read()) != -1) {
+			int originalLength = (firstByte << 24) | (readUnsignedByte() << 16) | (readUnsignedByte() << 8) | readUnsignedByte();
+			int payloadLength = this.byteReader.readInt();
+			if (originalLength <= 0 || originalLength > this.blockSize || payloadLength < 0) {
+				throw new IOException("Invalid block header in compressed file: " + compressedFilePath);
 			}
+			byte[] payload = new byte[payloadLength];
+			if (this.byteReader.readNBytes(payload, 0, payloadLength) < payloadLength) {
+				throw new EOFException("Unexpected end of compressed file: " + compressedFilePath);
+			}
+			pipeline.submit(originalLength, () -> HuffmanBlockCodec.decode(payload, originalLength));
+		}
+		pipeline.finish();
+	}
+
+	/**
+	 * Starts the decode phase; bytes read ahead for the header count as read
+	 */
+	private void startDecodePhase() throws IOException {
+		phaseTimer.start(JobPhase.DECODE);
+		if (progress != null) {
+			progress.setBytesOut(this.byteWriter::getBytesWritten);
+			progress.startPhase(CompressionPhase.DECODE, compressedSize);
+			progress.track(this.byteReader);
+			progress.update(this.byteReader.getBytesRead());
+		}
+	}
+
+	private void endDecodePhase() {
+		if (progress != null) {
+			progress.endPhase();
 		}
 	}
 
@@ -174,16 +368,21 @@ public class HuffmanDecompressor implements Decompressor {
 	 **************************************************************************************/
 	private void decompressFile() {
 		logger.info("Decompressing file: {} -> {}", compressedFilePath, outputFilePath);
-		try {
-			// Step1: Read the unique char count
-			logger.debug("Reading frequency table");
-			int uniqueCharCount = getUniqueCharCount();
-			// Step2: Read the extra padding bits
-			int extraBits = getExtraBits(uniqueCharCount);
-			BitReader bitReader = new BitReader(extraBits);
-			// Step3: Process the compressed bytes
+		try (this.byteReader; this.byteWriter) {
+			// Step3: Process the compressed bytes (the header was read by the constructor)
 			logger.debug("Decoding compressed content");
-			processCompressedBytes(bitReader);
+			startDecodePhase();
+			if (this.format == HuffmanFormat.BLOCKS) {
+				processBlocks();
+			} else if (this.format == HuffmanFormat.ADAPTIVE) {
+				AdaptiveHuffmanDecompressor.decodeContent(this.byteReader, this.byteWriter);
+			} else {
+				processCompressedBytes(this.extraBits);
+			}
+			endDecodePhase();
+			phaseTimer.start(JobPhase.FLUSH);
+			this.byteWriter.flush();
+			phaseTimer.stop();
 			logger.info("Decompression completed successfully");
 		} catch (IOException e) {
 			logger.error("Failed to decompress file: {}", compressedFilePath, e);
@@ -192,8 +391,8 @@ public class HuffmanDecompressor implements Decompressor {
 	}
 
 	/**
-	 * Decompresses the file using the pre-calculated Huffman codes
-	 * Creates a decompressed file by removing the .huffz extension
+	 * Decompresses the file using the pre-calculated decoding table
+	 * Creates a decompressed file by removing the .huffz extension, or writes to the output stream
 	 * If a file with the same name already exists, creates a unique filename
 	 *
 	 * @throws RuntimeException if decompression fails
@@ -202,4 +401,25 @@ public class HuffmanDecompressor implements Decompressor {
 	public void decompress() {
 		decompressFile();
 	}
+
+	/**
+	 * Reports the decode phase, counting the compressed bytes read; the header read by the constructor counts as read
+	 */
+	@Override
+	public void setProgressListener(ProgressListener listener, long granularity) {
+		this.progress = listener == null ? null : new ProgressTracker(listener, granularity);
+	}
+
+	@Override
+	public void setPhaseTimer(PhaseTimer timer) {
+		this.phaseTimer = timer == null ? PhaseTimer.NONE : timer;
+	}
+
+	/**
+	 * Returns the path of the decompressed file, numbered if the original name was taken
+	 * Example: "/home/user/document (1).txt", or Constants.STREAM_NAME when decompressing a stream
+	 */
+	public String getOutputFilePath() {
+		return outputFilePath;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package prog.huffman;
+
+/**
+ * Layouts of the .huffz file header.
+ *
+ * Files written before versioning start with a 4-byte table size (1-256), so their first byte
+ * is always 0. Every newer layout starts with a non-zero version byte, which lets the
+ * decompressor tell them apart without any extra marker in old files.
+ *
+ * Examples:
+ * - FREQUENCY_TABLE: [00 00 00 02] [41 00 00 00 03] [42 00 00 00 01] [00 00 00 04] [data...]
+ * - CANONICAL:       [01] [04] [00] [01] [41 01] [42 01] [data...]
+ * - BLOCKS:          [02] [00 10 00 00] [00 10 00 00] [00 00 3A 10] [00] [...] [data...] [next block...]
+ * - FREQUENCY_TABLE_64: [03] [01] [41 03] [42 01] [04] [data...]
+ * - ADAPTIVE:        [04] [data..., ending with the end-of-data code]
+ */
+public enum HuffmanFormat {
+    /**
+     * Original layout: symbol + 4-byte frequency for every distinct byte.
+     * The decompressor rebuilds the Huffman tree from the frequencies.
+     */
+    FREQUENCY_TABLE(0),
+
+    /**
+     * Canonical Huffman codes: only the code length of every byte is stored,
+     * and both sides derive the codes arithmetically from the lengths.
+     */
+    CANONICAL(1),
+
+    /**
+     * Container of independent blocks, each with its own canonical code lengths.
+     * Blocks are byte-aligned and prefixed with their lengths, so they can be
+     * encoded and decoded in parallel. See {@link HuffmanBlockCodec}.
+     */
+    BLOCKS(2),
+
+    /**
+     * Frequency table with counts of any size: [version] [1 byte: table size - 1],
+     * then symbol + variable-length count for every distinct byte, then [1 byte: padding bits].
+     * Written instead of FREQUENCY_TABLE when a byte occurs more than Integer.MAX_VALUE times,
+     * e.g. the zeros of a multi-GB disk image.
+     */
+    FREQUENCY_TABLE_64(3),
+
+    /**
+     * Adaptive Huffman codes: no header beyond the version byte. Encoder and decoder update
+     * the same tree after every byte, and an end-of-data code closes the data, so the input
+     * is read only once and its length never needs to be known.
+     * See {@link AdaptiveHuffmanTree}.
+     */
+    ADAPTIVE(4);
+
+    private final int version;
+
+    HuffmanFormat(int version) {
+        this.version = version;
+    }
+
+    /**
+     * Version byte written at the start of the file (0 means no version byte is written).
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Whether the header stores byte frequencies, from which the decompressor rebuilds the Huffman tree.
+     * Such formats cannot limit the code length.
+     */
+    public boolean hasFrequencyTable() {
+        return this == FREQUENCY_TABLE || this == FREQUENCY_TABLE_64;
+    }
+
+    /**
+     * Finds the format for the first byte of a compressed file.
+     *
+     * @param firstByte The first byte of the file (0-255)
+     * @return The matching format
+     * @throws IllegalArgumentException if the version is not supported
+     */
+    public static HuffmanFormat fromVersion(int firstByte) {
+        for (HuffmanFormat format : values()) {
+            if (format.version == firstByte) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported .huffz format version: " + firstByte);
+    }
+}
@@ -13,7 +13,7 @@ public class HuffmanNode implements Comparable<HuffmanNode> {
     private HuffmanNode rightChild;
     private String code;
     private int byteValue;
-    private int frequency;
+    private long frequency;
 
     /**
      * Default constructor for creating an empty node
@@ -27,7 +27,7 @@ public class HuffmanNode implements Comparable<HuffmanNode> {
      * @param byteValue The byte value this leaf represents (0-255)
      * @param frequency How many times this byte appears in the input
      */
-    public HuffmanNode(int byteValue, int frequency) {
+    public HuffmanNode(int byteValue, long frequency) {
         this.byteValue = byteValue;
         this.frequency = frequency;
     }
@@ -63,7 +63,7 @@ public class HuffmanNode implements Comparable<HuffmanNode> {
         return byteValue;
     }
 
-    public int getFrequency() {
+    public long getFrequency() {
         return frequency;
     }
 
@@ -84,7 +84,7 @@ public class HuffmanNode implements Comparable<HuffmanNode> {
         this.byteValue = byteValue;
     }
 
-    void setFrequency(int frequency) {
+    void setFrequency(long frequency) {
         this.frequency = frequency;
     }
 
@@ -96,7 +96,7 @@ public class HuffmanNode implements Comparable<HuffmanNode> {
      * @return -1 if this node has lower frequency, 1 if higher, 0 if equal
      */
     public int compareTo(HuffmanNode other) {
-        return Integer.compare(this.frequency, other.frequency);
+        return Long.compare(this.frequency, other.frequency);
     }
 
     /**
@@ -1,18 +1,34 @@
 package prog.huffman;
 
 import prog.util.ByteReader;
+import prog.util.ByteWriter;
 import prog.util.CommonUtil;
 import prog.util.Constants;
+import prog.util.FileInputSource;
+import prog.util.InputSource;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 
 public class HuffmanUtils {
+    /**
+     * Number of interleaved histograms used to count bytes.
+     */
+    private static final int HISTOGRAM_COUNT = 4;
+
     /**
      * Calculates the frequency of each byte value in the given file.
      *
-     * This method reads the entire file byte by byte and counts how many times
+     * This method reads the entire file and counts how many times
      * each unique byte value (0-255) appears in the file. This frequency data
      * is essential for building the Huffman tree, as more frequent bytes will
      * be assigned shorter codes.
@@ -22,19 +38,177 @@ public class HuffmanUtils {
      * @throws RuntimeException if an IO error occurs while reading the file
      */
     public static int[] calculateFrequencyOfBytesInFile(String filename) {
+        return calculateFrequencyOfBytes(new FileInputSource(filename));
+    }
+
+    /**
+     * Calculates the frequency of each byte value in one pass over the input source.
+     *
+     * @param inputSource Source of the bytes to count
+     * @return An array of 256 integers where index i contains the frequency of byte value i
+     * @throws RuntimeException if an IO error occurs while reading the input
+     * @throws IllegalArgumentException if a byte value occurs more than Integer.MAX_VALUE times
+     */
+    public static int[] calculateFrequencyOfBytes(InputSource inputSource) {
+        long[] counts = calculateFrequencyOfBytesInParallel(inputSource);
         int[] frequency = new int[Constants.BYTE_VALUES_COUNT];
-        Byte currentByte;
+        for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+            if (counts[i] > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Byte value " + i + " occurs " + counts[i]
+                    + " times, more than the Huffman format can count, in file: " + inputSource.getPath());
+            }
+            frequency[i] = (int) counts[i];
+        }
+        return frequency;
+    }
 
-        try (ByteReader reader = new ByteReader(filename)) {
-            while ((currentByte = reader.readNextByte()) != null) {
-                frequency[CommonUtil.byteToUnsignedInt(currentByte)]++;
+    /**
+     * Calculates the frequency of each byte value, counting separate ranges of the input in parallel.
+     *
+     * The input is split into one range per worker of the common ForkJoinPool (ranges are at least
+     * Constants.MIN_FREQUENCY_RANGE_SIZE bytes, so small files are counted on the calling thread).
+     * Each range is counted with its own reader and histograms, then the histograms are added up.
+     *
+     * Example: a 1 GB file on 8 cores is counted as 8 ranges of 128 MB
+     *
+     * @param inputSource Source of the bytes to count
+     * @return An array of 256 counts where index i contains the frequency of byte value i
+     * @throws RuntimeException if an IO error occurs while reading the input
+     */
+    public static long[] calculateFrequencyOfBytesInParallel(InputSource inputSource) {
+        return calculateFrequencyOfBytesInParallel(inputSource, null);
+    }
+
+    /**
+     * Calculates the frequency of each byte value in parallel, telling how many bytes were counted as it goes.
+     *
+     * @param inputSource Source of the bytes to count
+     * @param bytesCounted Told the bytes counted so far by all ranges after every chunk, from the counting
+     *                     threads and possibly at the same time; null to count silently
+     * @return An array of 256 counts where index i contains the frequency of byte value i
+     * @throws RuntimeException if an IO error occurs while reading the input
+     */
+    public static long[] calculateFrequencyOfBytesInParallel(InputSource inputSource, LongConsumer bytesCounted) {
+        long size;
+        try {
+            size = inputSource.size();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read size of file: " + inputSource.getPath(), e);
+        }
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+        int rangeCount = (int) Math.max(1, Math.min(parallelism, size / Constants.MIN_FREQUENCY_RANGE_SIZE));
+        return calculateFrequencyOfBytes(inputSource, size, rangeCount, bytesCounted);
+    }
+
+    /**
+     * Splits the input into ranges of equal size and counts them on the common ForkJoinPool.
+     *
+     * @param inputSource Source of the bytes to count
+     * @param size Size of the input in bytes
+     * @param rangeCount Number of ranges; 1 counts the input on the calling thread
+     * @return An array of 256 counts where index i contains the frequency of byte value i
+     */
+    static long[] calculateFrequencyOfBytes(InputSource inputSource, long size, int rangeCount) {
+        return calculateFrequencyOfBytes(inputSource, size, rangeCount, null);
+    }
+
+    private static long[] calculateFrequencyOfBytes(InputSource inputSource, long size, int rangeCount,
+                                                    LongConsumer bytesCounted) {
+        AtomicLong counted = new AtomicLong();
+        try {
+            if (rangeCount <= 1) {
+                return countBytes(inputSource, 0, size, counted, bytesCounted);
+            }
+            long rangeSize = (size + rangeCount - 1) / rangeCount;
+            List<ForkJoinTask<long[]>> tasks = new ArrayList<>();
+            for (long offset = 0; offset < size; offset += rangeSize) {
+                long start = offset;
+                long length = Math.min(rangeSize, size - offset);
+                tasks.add(ForkJoinPool.commonPool().submit(() -> countBytes(inputSource, start, length, counted, bytesCounted)));
+            }
+            long[] frequency = new long[Constants.BYTE_VALUES_COUNT];
+            for (ForkJoinTask<long[]> task : tasks) {
+                long[] counts = task.join();
+                for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+                    frequency[i] += counts[i];
+                }
+            }
+            return frequency;
+        } catch (UncheckedIOException e) {
+            throw new RuntimeException("Failed to calculate frequency for file: " + inputSource.getPath(), e.getCause());
+        }
+    }
+
+    /**
+     * Counts the bytes of one range of the input.
+     *
+     * The int histograms are added to the long result before they can overflow.
+     *
+     * @param inputSource Source of the bytes to count
+     * @param offset Position of the first byte of the range
+     * @param length Number of bytes in the range
+     * @param counted Bytes counted so far by all ranges
+     * @param bytesCounted Told the new value of counted after every chunk, or null
+     * @return An array of 256 counts for the range
+     */
+    private static long[] countBytes(InputSource inputSource, long offset, long length,
+                                     AtomicLong counted, LongConsumer bytesCounted) {
+        long[] frequency = new long[Constants.BYTE_VALUES_COUNT];
+        int[] histograms = new int[HISTOGRAM_COUNT * Constants.BYTE_VALUES_COUNT];
+        byte[] chunk = new byte[ByteReader.DEFAULT_BUFFER_SIZE];
+        long bytesSinceMerge = 0;
+        int bytesRead;
+
+        try (ByteReader reader = inputSource.openReader(offset, length)) {
+            while ((bytesRead = reader.read(chunk, 0, chunk.length)) != -1) {
+                countChunk(chunk, bytesRead, histograms);
+                if (bytesCounted != null) {
+                    bytesCounted.accept(counted.addAndGet(bytesRead));
+                }
+                bytesSinceMerge += bytesRead;
+                if (bytesSinceMerge > Integer.MAX_VALUE - chunk.length) {
+                    mergeHistograms(histograms, frequency);
+                    bytesSinceMerge = 0;
+                }
             }
         } catch (IOException e) {
-            throw new RuntimeException("Failed to calculate frequency for file: " + filename, e);
+            throw new UncheckedIOException(e);
         }
+        mergeHistograms(histograms, frequency);
         return frequency;
     }
 
+    /**
+     * Adds the bytes of a chunk to four interleaved histograms stored back to back.
+     *
+     * Consecutive bytes go to different histograms. A run of the same byte then increments four
+     * different counters in turn, instead of each increment waiting for the previous store to
+     * the same counter.
+     *
+     * Example: "aaaa" increments histograms[97], histograms[256 + 97], histograms[512 + 97] and histograms[768 + 97]
+     */
+    private static void countChunk(byte[] chunk, int length, int[] histograms) {
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            histograms[chunk[i] & 0xFF]++;
+            histograms[Constants.BYTE_VALUES_COUNT + (chunk[i + 1] & 0xFF)]++;
+            histograms[2 * Constants.BYTE_VALUES_COUNT + (chunk[i + 2] & 0xFF)]++;
+            histograms[3 * Constants.BYTE_VALUES_COUNT + (chunk[i + 3] & 0xFF)]++;
+        }
+        for (; i < length; i++) {
+            histograms[chunk[i] & 0xFF]++;
+        }
+    }
+
+    /**
+     * Adds the interleaved histograms to the total and clears them.
+     */
+    private static void mergeHistograms(int[] histograms, long[] frequency) {
+        for (int i = 0; i < histograms.length; i++) {
+            frequency[i % Constants.BYTE_VALUES_COUNT] += histograms[i];
+        }
+        Arrays.fill(histograms, 0);
+    }
 
     /**
      * Counts the number of unique byte values with non-zero frequency.
@@ -48,10 +222,20 @@ public class HuffmanUtils {
      * @param frequency Array of byte frequencies
      * @return Number of unique bytes
      */
-    public static int calculateUniqueByteCount(int[] frequency) {
+    public static int calculateUniqueByteCount(long[] frequency) {
         return (int) Arrays.stream(frequency).filter(f -> f != 0).count();
     }
 
+    /**
+     * Counts the number of unique byte values with non-zero frequency.
+     *
+     * @param frequency Array of byte frequencies
+     * @return Number of unique bytes
+     */
+    public static int calculateUniqueByteCount(int[] frequency) {
+        return calculateUniqueByteCount(toLongCounts(frequency));
+    }
+
     /**
      * Checks if the frequency array represents an empty file.
      *
@@ -64,10 +248,27 @@ public class HuffmanUtils {
      * @param frequency Array of byte frequencies
      * @return true if file is empty, false otherwise
      */
-    public static boolean isEmptyFile(int[] frequency) {
+    public static boolean isEmptyFile(long[] frequency) {
         return calculateUniqueByteCount(frequency) == 0;
     }
 
+    /**
+     * Checks if the frequency array represents an empty file.
+     *
+     * @param frequency Array of byte frequencies
+     * @return true if file is empty, false otherwise
+     */
+    public static boolean isEmptyFile(int[] frequency) {
+        return isEmptyFile(toLongCounts(frequency));
+    }
+
+    /**
+     * Widens a frequency array to the long counts the tree building methods work with.
+     */
+    private static long[] toLongCounts(int[] frequency) {
+        return Arrays.stream(frequency).asLongStream().toArray();
+    }
+
     /**
      * Recursively frees memory by traversing the Huffman tree.
      *
@@ -96,10 +297,29 @@ public class HuffmanUtils {
      * - [3,2,0,...] returns tree with 2 leaf nodes
      * - [5,9,12,13,...] returns balanced tree based on frequencies
      *
+     * Node frequencies are summed as ints, so past Integer.MAX_VALUE they wrap just as they always
+     * have. The FREQUENCY_TABLE layout stores only the counts, so the decompressor must rebuild
+     * this exact tree, wrapped sums included, to read files written by earlier versions.
+     *
      * @param frequency Array of byte frequencies
      * @return Root of Huffman tree or null if empty
      */
     public static HuffmanNode buildHuffmanTree(int[] frequency) {
+        return buildHuffmanTree(toLongCounts(frequency), true);
+    }
+
+    /**
+     * Builds Huffman tree from 64-bit frequency data, for inputs with more than Integer.MAX_VALUE
+     * occurrences of a byte. Node frequencies are summed as longs, so they never overflow.
+     *
+     * @param frequency Array of byte frequencies
+     * @return Root of Huffman tree or null if empty
+     */
+    public static HuffmanNode buildHuffmanTree(long[] frequency) {
+        return buildHuffmanTree(frequency, false);
+    }
+
+    private static HuffmanNode buildHuffmanTree(long[] frequency, boolean intSums) {
         int i;
         PriorityQueue<HuffmanNode> priorityQueue = new PriorityQueue<HuffmanNode>();
 
@@ -124,12 +344,116 @@ public class HuffmanUtils {
             leftNode = priorityQueue.poll();
             rightNode = priorityQueue.poll();
             HuffmanNode parentNode = new HuffmanNode(leftNode, rightNode);
+            if (intSums) parentNode.setFrequency((int) parentNode.getFrequency());
             priorityQueue.add(parentNode);
         }
         HuffmanNode root = priorityQueue.poll();
         return root;
     }
 
+    /**
+     * Calculates optimal code lengths with no code longer than maxCodeLength bits (package-merge).
+     *
+     * {@link #buildHuffmanTree} has no depth limit, so skewed frequencies (e.g. Fibonacci-like counts)
+     * can produce codes far longer than 32 bits. Package-merge finds the lengths with the smallest
+     * total encoded size among all prefix codes that respect the limit.
+     *
+     * How it works:
+     * <ol>
+     *   <li>Sort the distinct bytes by frequency (coins of width 2^-1 ... 2^-maxCodeLength)</li>
+     *   <li>From the deepest level up: merge the sorted leaves with the packages of the level below,
+     *       then pair neighbours into packages for the level above</li>
+     *   <li>Select the cheapest 2n-2 items at the top level and follow the selected packages down;
+     *       every time a byte's leaf is selected at a level, its code gets one bit longer</li>
+     * </ol>
+     *
+     * Examples:
+     * - [A=1, B=1, C=2, D=4] unlimited gives lengths D=1, C=2, A=3, B=3
+     * - Same frequencies with maxCodeLength=2 give A=2, B=2, C=2, D=2
+     * - [A=5] gives A=1 (a single byte still needs a 1-bit code)
+     *
+     * @param frequency Array of byte frequencies
+     * @param maxCodeLength Longest allowed code in bits
+     * @return Code length of every byte value, 0 for bytes that do not occur
+     * @throws IllegalArgumentException if the distinct bytes cannot fit in maxCodeLength bits
+     */
+    public static int[] calculateLengthLimitedCodeLengths(int[] frequency, int maxCodeLength) {
+        return calculateLengthLimitedCodeLengths(toLongCounts(frequency), maxCodeLength);
+    }
+
+    /**
+     * Calculates length-limited code lengths from 64-bit frequency data.
+     *
+     * @param frequency Array of byte frequencies
+     * @param maxCodeLength Longest allowed code in bits
+     * @return Code length of every byte value, 0 for bytes that do not occur
+     * @throws IllegalArgumentException if the distinct bytes cannot fit in maxCodeLength bits
+     */
+    public static int[] calculateLengthLimitedCodeLengths(long[] frequency, int maxCodeLength) {
+        int[] codeLengths = new int[Constants.BYTE_VALUES_COUNT];
+        int uniqueByteCount = calculateUniqueByteCount(frequency);
+        if (uniqueByteCount == 0) return codeLengths;
+        if (maxCodeLength < Long.SIZE - 1 && (1L << maxCodeLength) < uniqueByteCount) {
+            throw new IllegalArgumentException(uniqueByteCount + " distinct bytes cannot be coded in "
+                + maxCodeLength + " bits");
+        }
+
+        // Distinct bytes sorted by frequency, ties broken by byte value for deterministic output
+        int[] symbols = new int[uniqueByteCount];
+        int count = 0;
+        for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+            if (frequency[i] != 0) symbols[count++] = i;
+        }
+        symbols = Arrays.stream(symbols).boxed()
+            .sorted((a, b) -> frequency[a] != frequency[b] ? Long.compare(frequency[a], frequency[b]) : Integer.compare(a, b))
+            .mapToInt(Integer::intValue).toArray();
+
+        if (uniqueByteCount == 1) {
+            codeLengths[symbols[0]] = 1;
+            return codeLengths;
+        }
+
+        // isLeafAtLevel[level][i]: whether the i-th cheapest item at that level is a leaf (otherwise a package)
+        boolean[][] isLeafAtLevel = new boolean[maxCodeLength + 1][];
+        long[] packages = new long[0];
+        for (int level = maxCodeLength; level >= 1; level--) {
+            int itemCount = uniqueByteCount + packages.length;
+            long[] items = new long[itemCount];
+            boolean[] isLeaf = new boolean[itemCount];
+            int leafIndex = 0, packageIndex = 0;
+            for (int i = 0; i < itemCount; i++) {
+                // Prefer the leaf on equal weight
+                if (packageIndex >= packages.length
+                        || (leafIndex < uniqueByteCount && frequency[symbols[leafIndex]] <= packages[packageIndex])) {
+                    items[i] = frequency[symbols[leafIndex++]];
+                    isLeaf[i] = true;
+                } else {
+                    items[i] = packages[packageIndex++];
+                }
+            }
+            isLeafAtLevel[level] = isLeaf;
+
+            packages = new long[itemCount / 2];
+            for (int i = 0; i < packages.length; i++) {
+                packages[i] = items[2 * i] + items[2 * i + 1];
+            }
+        }
+
+        int selected = 2 * uniqueByteCount - 2;
+        for (int level = 1; level <= maxCodeLength && selected > 0; level++) {
+            int leavesSelected = 0;
+            for (int i = 0; i < selected; i++) {
+                if (isLeafAtLevel[level][i]) leavesSelected++;
+            }
+            // Leaves are merged in frequency order, so the selected ones are always the cheapest
+            for (int i = 0; i < leavesSelected; i++) {
+                codeLengths[symbols[i]]++;
+            }
+            selected = 2 * (selected - leavesSelected);
+        }
+        return codeLengths;
+    }
+
     /**
      * DFS traversal to generate Huffman codes for each byte value.
      *
@@ -161,6 +485,242 @@ public class HuffmanUtils {
         return huffmanCodes;
     }
 
+    /**
+     * DFS traversal to generate numeric Huffman codes for each byte value.
+     * Same codes as {@link #generateHuffmanCodes(HuffmanNode, String, String[])}, but held as
+     * right-aligned bit patterns plus lengths instead of strings.
+     *
+     * Examples:
+     * - Code "01" is stored as codes[b]=1, codeLengths[b]=2
+     * - Code "110" is stored as codes[b]=6, codeLengths[b]=3
+     * - Bytes not present in the tree keep codeLengths[b]=0
+     *
+     * A tree built without a length limit can be deeper than 64 levels: long counts such as
+     * Fibonacci numbers reach about 90, and the wrapped int sums of the original layout up to 255.
+     * Such codes do not fit in a long, so they are rejected rather than silently truncated.
+     *
+     * @param node Current node in traversal
+     * @param currentCode Code accumulated from root to current node
+     * @param currentLength Number of bits in currentCode
+     * @param codes Output array to store code values
+     * @param codeLengths Output array to store code lengths
+     * @throws IllegalArgumentException if a code is longer than 64 bits
+     */
+    public static void generateNumericCodes(HuffmanNode node, long currentCode, int currentLength,
+                                            long[] codes, int[] codeLengths) {
+        if (currentLength > Long.SIZE) {
+            throw new IllegalArgumentException("Huffman code of " + currentLength + " bits does not fit in "
+                + Long.SIZE + " bits");
+        }
+        if (node.isLeaf()) {
+            codes[node.getByteValue()] = currentCode;
+            codeLengths[node.getByteValue()] = currentLength;
+            return;
+        }
+        if (node.getLeftChild() != null)
+            generateNumericCodes(node.getLeftChild(), currentCode << 1, currentLength + 1, codes, codeLengths);
+        if (node.getRightChild() != null)
+            generateNumericCodes(node.getRightChild(), (currentCode << 1) | 1, currentLength + 1, codes, codeLengths);
+    }
+
+    /**
+     * Calculates the code length of every byte value from its depth in the Huffman tree.
+     *
+     * Examples:
+     * - Single-byte tree (root with one leaf) gives that byte length 1
+     * - Tree for A=3, B=2, C=1 gives lengths A=1, B=2, C=2
+     * - Bytes not present in the tree get length 0
+     *
+     * @param root Root of the Huffman tree
+     * @return Array of Constants.BYTE_VALUES_COUNT code lengths
+     */
+    public static int[] calculateCodeLengths(HuffmanNode root) {
+        long[] codes = new long[Constants.BYTE_VALUES_COUNT];
+        int[] codeLengths = new int[Constants.BYTE_VALUES_COUNT];
+        generateNumericCodes(root, 0, 0, codes, codeLengths);
+        return codeLengths;
+    }
+
+    /**
+     * Derives canonical Huffman codes from code lengths alone.
+     *
+     * Codes are assigned in order of (length, byte value): the first code of each length
+     * follows the last code of the previous length, shifted left by one bit. Because the
+     * assignment only depends on the lengths, the decompressor can rebuild exactly the same
+     * codes without the frequency table or the tree.
+     *
+     * Example (lengths A=2, B=1, C=3, D=3):
+     * <pre>
+     * B = 0
+     * A = 10
+     * C = 110
+     * D = 111
+     * </pre>
+     *
+     * @param codeLengths Code length of every byte value, 0 if the byte does not occur
+     * @return Array of Constants.BYTE_VALUES_COUNT right-aligned code values
+     */
+    public static long[] generateCanonicalCodes(int[] codeLengths) {
+        int maxLength = Arrays.stream(codeLengths).max().orElse(0);
+        int[] lengthCount = new int[maxLength + 1];
+        for (int length : codeLengths) {
+            if (length > 0) lengthCount[length]++;
+        }
+
+        long[] nextCode = new long[maxLength + 1];
+        long code = 0;
+        for (int length = 1; length <= maxLength; length++) {
+            code = (code + lengthCount[length - 1]) << 1;
+            nextCode[length] = code;
+        }
+
+        long[] codes = new long[Constants.BYTE_VALUES_COUNT];
+        for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+            if (codeLengths[i] > 0) {
+                codes[i] = nextCode[codeLengths[i]]++;
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Writes the code lengths of the canonical layout in the smallest packing.
+     *
+     * Examples:
+     * - 3 distinct bytes: pairs layout, 1 + 3 * 2 = 7 bytes
+     * - 200 distinct bytes, codes up to 12 bits: nibble layout, 128 bytes
+     * - 200 distinct bytes, a code longer than 15 bits: byte layout, 256 bytes
+     *
+     * @param writer Destination of the table
+     * @param codeLengths Code length of every byte value, 0 if the byte does not occur
+     */
+    public static void writeCodeLengths(ByteWriter writer, int[] codeLengths) throws IOException {
+        int uniqueByteCount = calculateUniqueByteCount(codeLengths);
+        int maxCodeLength = Arrays.stream(codeLengths).max().orElse(0);
+        int pairsSize = 1 + 2 * uniqueByteCount;
+        int tableSize = maxCodeLength <= 15 ? Constants.BYTE_VALUES_COUNT / 2 : Constants.BYTE_VALUES_COUNT;
+
+        if (pairsSize <= tableSize) {
+            writer.writeByte(Constants.CODE_LENGTHS_AS_PAIRS);
+            writer.writeByte(uniqueByteCount - 1);
+            for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+                if (codeLengths[i] != 0) {
+                    writer.writeByte(i);
+                    writer.writeByte(codeLengths[i]);
+                }
+            }
+        } else if (maxCodeLength <= 15) {
+            writer.writeByte(Constants.CODE_LENGTHS_AS_NIBBLES);
+            for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i += 2) {
+                writer.writeByte((codeLengths[i] << 4) | codeLengths[i + 1]);
+            }
+        } else {
+            writer.writeByte(Constants.CODE_LENGTHS_AS_BYTES);
+            for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+                writer.writeByte(codeLengths[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads the code lengths of the canonical layout in whichever packing the compressor chose.
+     *
+     * The lengths are checked before any code is derived from them, so a corrupt table cannot
+     * decode to garbage: every code is 1 to 64 bits long, at least one byte has a code, and the
+     * codes are not over-subscribed (e.g. three 1-bit codes).
+     *
+     * @param reader Source positioned at the layout byte
+     * @return Code length of every byte value, 0 for bytes that do not occur
+     * @throws IOException If reading fails, the input ends inside the table, the layout is unknown
+     *                     or the lengths do not form a prefix code
+     */
+    public static int[] readCodeLengths(ByteReader reader) throws IOException {
+        int[] codeLengths = new int[Constants.BYTE_VALUES_COUNT];
+        int layout = readUnsignedByte(reader);
+        if (layout == Constants.CODE_LENGTHS_AS_PAIRS) {
+            int uniqueCharCount = readUnsignedByte(reader) + 1;
+            for (int i = 0; i < uniqueCharCount; i++) {
+                int byteValue = readUnsignedByte(reader);
+                codeLengths[byteValue] = readUnsignedByte(reader);
+                if (codeLengths[byteValue] == 0) {
+                    throw new IOException("Byte " + byteValue + " is listed without a code length");
+                }
+            }
+        } else if (layout == Constants.CODE_LENGTHS_AS_NIBBLES) {
+            for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i += 2) {
+                int packed = readUnsignedByte(reader);
+                codeLengths[i] = packed >>> 4;
+                codeLengths[i + 1] = packed & 0x0F;
+            }
+        } else if (layout == Constants.CODE_LENGTHS_AS_BYTES) {
+            for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+                codeLengths[i] = readUnsignedByte(reader);
+            }
+        } else {
+            throw new IOException("Unknown code length layout " + layout);
+        }
+        checkCodeLengths(codeLengths);
+        return codeLengths;
+    }
+
+    /**
+     * Checks that the code lengths form a prefix code (Kraft sum at most 1).
+     *
+     * Walks the lengths from short to long, counting the codes still free at each length;
+     * once more are free than there are byte values, no later length can run out.
+     */
+    private static void checkCodeLengths(int[] codeLengths) throws IOException {
+        int[] lengthCount = new int[Long.SIZE + 1];
+        int uniqueByteCount = 0;
+        for (int length : codeLengths) {
+            if (length > Long.SIZE) {
+                throw new IOException("Code length " + length + " is longer than " + Long.SIZE + " bits");
+            }
+            if (length > 0) {
+                lengthCount[length]++;
+                uniqueByteCount++;
+            }
+        }
+        if (uniqueByteCount == 0) {
+            throw new IOException("Code length table has no codes");
+        }
+
+        long freeCodes = 1;
+        for (int length = 1; length <= Long.SIZE; length++) {
+            freeCodes = Math.min(2 * freeCodes, Constants.BYTE_VALUES_COUNT) - lengthCount[length];
+            if (freeCodes < 0) {
+                throw new IOException("Code lengths are over-subscribed at " + length + " bits");
+            }
+        }
+    }
+
+    private static int readUnsignedByte(ByteReader reader) throws IOException {
+        int value = reader.read();
+        if (value == -1) {
+            throw new EOFException("Unexpected end of code length table");
+        }
+        return value;
+    }
+
+    /**
+     * Converts numeric codes back to their binary string form.
+     *
+     * Example: codes[b]=6, codeLengths[b]=3 gives "110"
+     *
+     * @param codes Right-aligned code values
+     * @param codeLengths Code lengths, 0 for bytes without a code
+     * @return Array of binary strings, null for bytes without a code
+     */
+    public static String[] convertCodesToStrings(long[] codes, int[] codeLengths) {
+        String[] huffmanCodes = new String[Constants.BYTE_VALUES_COUNT];
+        for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+            if (codeLengths[i] > 0) {
+                huffmanCodes[i] = CommonUtil.padBinaryString(Long.toBinaryString(codes[i]), codeLengths[i]);
+            }
+        }
+        return huffmanCodes;
+    }
+
     /**
      * Creates an array of binary string representations for all byte values (0-255).
      *
@@ -0,0 +1,153 @@
+package prog.lzw;
+
+import prog.util.BitReader;
+import prog.util.BitWriter;
+import prog.util.ByteReader;
+import prog.util.ByteWriter;
+import prog.util.Constants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes and decodes the blocks of the {@link LzwFormat#BLOCKS} container.
+ *
+ * Every block starts from the 256 single-byte entries and builds a dictionary of its own, so blocks
+ * share no state and can be compressed and decompressed on any thread. Codes are variable-width,
+ * as in {@link LzwFormat#VARIABLE_WIDTH}.
+ *
+ * Container layout:
+ * <pre>
+ * [1 byte: version 3] [4 bytes: block size]
+ * [payload of every block, back to back]
+ * [index: for every block, 4 bytes original length + 4 bytes payload length]
+ * [4 bytes: block count]
+ * </pre>
+ *
+ * Example: a 3 MB file with 1 MB blocks has 3 payloads followed by a 24-byte index and the count 3.
+ */
+public class LzwBlockCodec {
+	private LzwBlockCodec() {
+	}
+
+	/**
+	 * Compresses one block.
+	 *
+	 * @param data Array holding the block
+	 * @param length Number of bytes of the block, starting at index 0 (at least 1)
+	 * @return The variable-width codes of the block, zero-padded to a whole byte
+	 */
+	public static byte[] encode(byte[] data, int length) throws IOException {
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(length / 2 + 16);
+		try (ByteWriter writer = new ByteWriter(payload)) {
+			encode(data, 0, length, writer);
+		}
+		return payload.toByteArray();
+	}
+
+	/**
+	 * Compresses one block into a writer, which is left unflushed.
+	 *
+	 * @param data Array holding the block
+	 * @param offset Index of the first byte of the block
+	 * @param length Number of bytes of the block (at least 1)
+	 * @param writer Receives the variable-width codes of the block, zero-padded to a whole byte
+	 */
+	public static void encode(byte[] data, int offset, int length, ByteWriter writer) throws IOException {
+		LzwCompressionDictionary dictionary = new LzwCompressionDictionary();
+		BitWriter bitWriter = new BitWriter(writer, bitBufferSize(length));
+		int end = offset + length;
+		int currentCode = data[offset] & 0xFF;
+		for (int i = offset + 1; i < end; i++) {
+			int unsignedByteValue = data[i] & 0xFF;
+			// The width must be taken before getOrAdd assigns the next code
+			int codeWidth = LzwUtils.calculateVariableCodeWidth(dictionary.size());
+			int nextCode = dictionary.getOrAdd(currentCode, unsignedByteValue);
+			if (nextCode != -1) {
+				currentCode = nextCode;
+			} else {
+				bitWriter.writeBits(currentCode, codeWidth);
+				currentCode = unsignedByteValue;
+			}
+		}
+		bitWriter.writeBits(currentCode, LzwUtils.calculateVariableCodeWidth(dictionary.size()));
+		bitWriter.flush();
+	}
+
+	/**
+	 * Decompresses one block.
+	 *
+	 * @param payload The payload written by {@link #encode}
+	 * @param originalLength Number of bytes the block decodes to
+	 * @return The original bytes of the block
+	 * @throws IOException If the payload is truncated or contains an invalid code
+	 */
+	public static byte[] decode(byte[] payload, int originalLength) throws IOException {
+		byte[] output = new byte[originalLength];
+		decode(new ByteReader(ByteBuffer.wrap(payload)), payload.length, output, 0, originalLength);
+		return output;
+	}
+
+	/**
+	 * Decompresses one block into an array.
+	 *
+	 * @param reader Reader positioned at the payload written by {@link #encode}
+	 * @param payloadLength Size of the payload in bytes, used to size the read buffer
+	 * @param output Receives the original bytes of the block
+	 * @param offset Index in output of the first byte of the block
+	 * @param originalLength Number of bytes the block decodes to
+	 * @throws IOException If the payload is truncated or contains an invalid code
+	 */
+	public static void decode(ByteReader reader, int payloadLength, byte[] output, int offset, int originalLength)
+			throws IOException {
+		LzwDecompressionDictionary dictionary = new LzwDecompressionDictionary();
+		BitReader bitReader = new BitReader(reader, 0, bitBufferSize(payloadLength));
+		int end = offset + originalLength;
+		int count = offset;
+		int previousCode = -1;
+
+		while (count < end) {
+			// See LzwDecompressor.getCodeWidth: the code may refer to the entry about to be added
+			int codeWidth = LzwUtils.calculateVariableCodeWidth(dictionary.size() + (dictionary.canGrow() ? 1 : 0));
+			if (bitReader.getAvailableBits() < codeWidth) {
+				throw new IOException("Truncated LZW block");
+			}
+			int code = (int) bitReader.readBits(codeWidth);
+
+			int length;
+			if (previousCode == -1 ? code < Constants.BYTE_VALUES_COUNT : code < dictionary.size()) {
+				length = dictionary.getLength(code);
+				checkFits(end - count, length, originalLength);
+				dictionary.writePhrase(code, output, count);
+			} else if (previousCode != -1 && code == dictionary.size() && dictionary.canGrow()) {
+				// The code being added right now: previous phrase + its own first byte
+				length = dictionary.getLength(previousCode) + 1;
+				checkFits(end - count, length, originalLength);
+				dictionary.writePhrase(previousCode, output, count);
+				output[count + length - 1] = output[count];
+			} else {
+				throw new IOException("Invalid code " + code + " in LZW block");
+			}
+
+			if (previousCode != -1) {
+				dictionary.add(previousCode, output[count]);
+			}
+			previousCode = code;
+			count += length;
+		}
+	}
+
+	private static void checkFits(int remaining, int length, int originalLength) throws IOException {
+		if (length > remaining) {
+			throw new IOException("LZW block decodes to more than " + originalLength + " bytes");
+		}
+	}
+
+	/**
+	 * Sizes the bit buffers by the block, so small blocks do not allocate the full default buffer.
+	 */
+	private static int bitBufferSize(int length) {
+		return Math.max(Long.BYTES, Math.min(BitWriter.DEFAULT_BUFFER_SIZE, length));
+	}
+}
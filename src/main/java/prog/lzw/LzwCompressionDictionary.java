@@ -0,0 +1,156 @@
+package prog.lzw;
+
+import java.util.Arrays;
+
+import prog.util.Constants;
+
+/**
+ * LZW compression dictionary stored as a trie of codes in primitive arrays.
+ *
+ * Every phrase is identified by its code, and a longer phrase is its parent's code extended by one byte.
+ * The child links live in an open-addressed hash table keyed by (parent code, next byte), so extending
+ * the current phrase costs one probe and no allocation, whatever the phrase length.
+ *
+ * Example (input "ABAB"):
+ * <pre>
+ * (65 'A', 66 'B') -> 256  "AB"
+ * (66 'B', 65 'A') -> 257  "BA"
+ * </pre>
+ *
+ * Growth stops at whichever limit is reached first:
+ * <ul>
+ *   <li>maxCodeCount: the table never holds more codes than this</li>
+ *   <li>maxMemorySize: total length of all phrases, the limit both sides of the .LmZWp format agree on</li>
+ * </ul>
+ */
+public class LzwCompressionDictionary {
+	/**
+	 * Most codes the phrase memory limit can produce: 256 single bytes, then phrases of at least
+	 * 2 bytes added while the memory is below {@link Constants#MAX_DICTIONARY_MEMORY_SIZE}.
+	 */
+	public static final int MAX_CODE_COUNT = Constants.BYTE_VALUES_COUNT
+		+ (Constants.MAX_DICTIONARY_MEMORY_SIZE - Constants.BYTE_VALUES_COUNT) / 2 + 1;
+
+	private static final int EMPTY_SLOT = -1;
+
+	/**
+	 * Packed (parent code, next byte) keys; EMPTY_SLOT marks a free slot
+	 */
+	private final int[] keys;
+
+	/**
+	 * Child code stored in the same slot as its key
+	 */
+	private final int[] children;
+
+	/**
+	 * Phrase length of every code, used for the memory limit
+	 */
+	private final int[] phraseLengths;
+
+	private final int mask;
+	private final int hashShift;
+	private final int maxCodeCount;
+	private final int maxMemorySize;
+	private final int firstCode;
+	private int size;
+	private int memorySize;
+
+	/**
+	 * Dictionary with the limits of the .LmZWp format
+	 */
+	public LzwCompressionDictionary() {
+		this(MAX_CODE_COUNT, Constants.MAX_DICTIONARY_MEMORY_SIZE);
+	}
+
+	/**
+	 * Creates a dictionary holding the 256 single-byte phrases.
+	 *
+	 * @param maxCodeCount Maximum number of codes, including the 256 single bytes
+	 * @param maxMemorySize No phrase is added once the phrases hold this many bytes
+	 */
+	public LzwCompressionDictionary(int maxCodeCount, int maxMemorySize) {
+		this(maxCodeCount, maxMemorySize, Constants.BYTE_VALUES_COUNT);
+	}
+
+	/**
+	 * Creates a dictionary holding the 256 single-byte phrases, with codes below {@code firstCode} reserved.
+	 * Example: firstCode = 257 keeps 256 free for the clear code
+	 *
+	 * @param maxCodeCount Maximum number of codes, including the single bytes and reserved codes
+	 * @param maxMemorySize No phrase is added once the phrases hold this many bytes
+	 * @param firstCode Code of the first phrase added
+	 */
+	public LzwCompressionDictionary(int maxCodeCount, int maxMemorySize, int firstCode) {
+		if (maxCodeCount < firstCode || firstCode < Constants.BYTE_VALUES_COUNT) {
+			throw new IllegalArgumentException("Dictionary needs room for the 256 single bytes, got: " + maxCodeCount);
+		}
+		this.maxCodeCount = maxCodeCount;
+		this.maxMemorySize = maxMemorySize;
+		this.firstCode = firstCode;
+		// At most half full, so probe sequences stay short
+		int tableSize = Integer.highestOneBit(Math.max(maxCodeCount - Constants.BYTE_VALUES_COUNT, 1) * 2) * 2;
+		this.keys = new int[tableSize];
+		this.children = new int[tableSize];
+		this.mask = tableSize - 1;
+		this.hashShift = Integer.SIZE - Integer.numberOfTrailingZeros(tableSize);
+		this.phraseLengths = new int[maxCodeCount];
+		Arrays.fill(phraseLengths, 0, Constants.BYTE_VALUES_COUNT, 1);
+		reset();
+	}
+
+	/**
+	 * Drops every phrase longer than one byte; the next phrase added gets the first code again.
+	 */
+	public void reset() {
+		Arrays.fill(keys, EMPTY_SLOT);
+		this.size = firstCode;
+		this.memorySize = Constants.BYTE_VALUES_COUNT;
+	}
+
+	/**
+	 * Whether a missing phrase passed to {@link #getOrAdd} will be assigned a new code.
+	 */
+	public boolean canGrow() {
+		return memorySize < maxMemorySize && size < maxCodeCount;
+	}
+
+	/**
+	 * Looks up the phrase {@code parentCode} + {@code byteValue}. If it is missing, adds it as the next code
+	 * (unless the dictionary is full) and returns -1, which tells the caller to emit {@code parentCode}.
+	 *
+	 * Example: with "AB" = 256, getOrAdd(256, 'A') returns -1 and adds "ABA" = 258 on the first call,
+	 * then returns 258 on the next one.
+	 *
+	 * @param parentCode Code of the current phrase
+	 * @param byteValue Next input byte (0-255)
+	 * @return Code of the extended phrase, or -1 if it was not in the dictionary
+	 */
+	public int getOrAdd(int parentCode, int byteValue) {
+		int key = (parentCode << Constants.BITS_PER_BYTE) | byteValue;
+		// Fibonacci hashing: the top bits of the product mix both the parent code and the byte
+		int slot = (key * 0x9E3779B1) >>> hashShift;
+		while (keys[slot] != EMPTY_SLOT) {
+			if (keys[slot] == key) {
+				return children[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if (canGrow()) {
+			int phraseLength = phraseLengths[parentCode] + 1;
+			keys[slot] = key;
+			children[slot] = size;
+			phraseLengths[size++] = phraseLength;
+			memorySize += phraseLength;
+		}
+		return -1;
+	}
+
+	/**
+	 * Number of codes assigned so far, including the 256 single bytes and reserved codes.
+	 */
+	public int size() {
+		return size;
+	}
+}
@@ -3,25 +3,50 @@ package prog.lzw;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import prog.compression.CompressionPhase;
 import prog.compression.Compressor;
+import prog.compression.ProgressListener;
+import prog.compression.ProgressTracker;
+import prog.metrics.JobPhase;
+import prog.metrics.PhaseTimer;
+import prog.util.BitWriter;
+import prog.util.BlockPipeline;
 import prog.util.ByteReader;
 import prog.util.ByteWriter;
-import prog.util.CommonUtil;
 import prog.util.Constants;
-import prog.util.FileUtils;
+import prog.util.FileInputSource;
+import prog.util.InputSource;
+import prog.util.StreamUtils;
 
 import java.io.IOException;
-import java.util.Map;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
 
 public class LzwCompressor implements Compressor {
 	private static final Logger logger = LoggerFactory.getLogger(LzwCompressor.class);
 
 	/**
 	 * Path to the input file that will be compressed
-	 * Example: "/home/user/document.txt"
+	 * Example: "/home/user/document.txt", or Constants.STREAM_NAME when compressing a stream
 	 */
 	private final String inputFilePath;
 
+	/**
+	 * Source of the input bytes, read once to size fixed-width codes and once to encode
+	 * Null when compressing a stream
+	 */
+	private final InputSource inputSource;
+
+	/**
+	 * Size of the input in bytes, reported as the total to the progress listener
+	 * ProgressListener.UNKNOWN_TOTAL when compressing a stream
+	 */
+	private final long inputSize;
 
 	/**
 	 * Path to the output file that will be compressed
@@ -30,47 +55,107 @@ public class LzwCompressor implements Compressor {
 	private final String outputFilePath;
 
 	/**
-	 * Number of bits required to encode dictionary entries
-	 * Calculated based on the final dictionary size after a preliminary scan
+	 * Layout of the compressed file
+	 * Example: VARIABLE_WIDTH grows the codes from 9 bits as the dictionary grows
+	 */
+	private final LzwFormat format;
+
+	/**
+	 * Number of input bytes per block, used by the BLOCKS format only
+	 * Example: 1048576 cuts a 5 MB file into 5 independently compressed blocks
+	 */
+	private final int blockSize;
+
+	/**
+	 * Number of bits required to encode dictionary entries in the fixed-width format
+	 * Calculated based on the final dictionary size after a preliminary scan, run by compress()
 	 * Example: If dictionary grows to 512 entries, bitSize = 9
 	 */
 	private int bitSize;
 
 	/**
-	 * Buffer to accumulate bits before writing complete bytes
-	 * Example: "101011" (6 bits accumulated, need 2 more for a complete byte)
+	 * Reports the progress of compress() to the listener, or null when none is set
+	 */
+	private ProgressTracker progress;
+
+	/**
+	 * Times the steps of compress()
 	 */
-	private String bitBuffer;
+	private PhaseTimer phaseTimer = PhaseTimer.NONE;
 
 	/**
 	 * Byte reader for the input file
 	 */
-	private ByteReader byteReader;
+	private final ByteReader byteReader;
 
 	/**
 	 * Byte writer for the output file
 	 */
-	private ByteWriter byteWriter;
+	private final ByteWriter byteWriter;
 
 	/**
-	 * Constructor that takes a file path and calculates the required bit size
+	 * Constructor that takes a file path; the required bit size is calculated by compress()
 	 * @param inputFilePath The path to the file to be compressed
 	 */
 	public LzwCompressor(String inputFilePath) {
-		this.inputFilePath = inputFilePath;
+		this(new FileInputSource(inputFilePath));
+	}
+
+	/**
+	 * Constructor that takes a file path and the layout of the compressed file
+	 * Example: new LzwCompressor(path, LzwFormat.VARIABLE_WIDTH) compresses in a single pass
+	 * @param inputFilePath The path to the file to be compressed
+	 * @param format The layout of the compressed file
+	 */
+	public LzwCompressor(String inputFilePath, LzwFormat format) {
+		this(new FileInputSource(inputFilePath), format);
+	}
+
+	/**
+	 * Constructor that reads the input through the given source
+	 * Example: new LzwCompressor(new MappedFileInputSource(path)) memory-maps the file for both passes
+	 * @param inputSource The file to be compressed
+	 */
+	public LzwCompressor(InputSource inputSource) {
+		this(inputSource, LzwFormat.FIXED_WIDTH);
+	}
+
+	/**
+	 * Constructor that reads the input through the given source and takes the layout of the compressed file
+	 * @param inputSource The file to be compressed
+	 * @param format The layout of the compressed file
+	 */
+	public LzwCompressor(InputSource inputSource, LzwFormat format) {
+		this(inputSource, format, Constants.DEFAULT_LZW_BLOCK_SIZE);
+	}
+
+	/**
+	 * Constructor that also takes the block size of the BLOCKS format
+	 * Example: new LzwCompressor(source, LzwFormat.BLOCKS, 4 << 20) compresses 4 MB blocks in parallel
+	 * @param inputSource The file to be compressed
+	 * @param format The layout of the compressed file
+	 * @param blockSize Number of input bytes per block (ignored by the other formats)
+	 */
+	public LzwCompressor(InputSource inputSource, LzwFormat format, int blockSize) {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Block size must be positive, got: " + blockSize);
+		}
+		this.inputSource = inputSource;
+		this.inputFilePath = inputSource.getPath();
 		this.outputFilePath = inputFilePath + Constants.LZW_FILE_EXTENSION;
-		logger.debug("Initializing LzwCompressor for file: {}", inputFilePath);
-		if (FileUtils.isEmptyFile(inputFilePath)) {
+		this.format = format;
+		this.blockSize = blockSize;
+		logger.debug("Initializing LzwCompressor for file: {} (format: {})", inputFilePath, format);
+		this.inputSize = readInputSize();
+		if (inputSize == 0) {
 			logger.error("Attempted to compress empty file: {}", inputFilePath);
 			throw new IllegalArgumentException("Cannot compress empty file: " + inputFilePath);
 		}
+		// The bit size of the fixed-width format is calculated by compress()
 		this.bitSize = 0;
-		this.bitBuffer = "";
-		calculateBitSize();
-		logger.debug("Required bit size calculated: {} bits", bitSize);
 
 		try {
-			this.byteReader = new ByteReader(inputFilePath);
+			this.byteReader = inputSource.openReader();
 			this.byteWriter = new ByteWriter(outputFilePath);
 		} catch (IOException e) {
 			logger.error("Failed to initialize byte reader and writer: {}", e.getMessage());
@@ -78,6 +163,85 @@ public class LzwCompressor implements Compressor {
 		}
 	}
 
+	/**
+	 * Constructor that compresses a stream in a single pass
+	 * Uses the adaptive-reset format, whose dictionary keeps adapting however long the stream runs
+	 * Neither stream is closed; the output is flushed when compress() returns
+	 * Example: new LzwCompressor(request.getInputStream(), response.getOutputStream()).compress()
+	 * @param inputStream The bytes to be compressed, read until EOF
+	 * @param outputStream Receives the compressed bytes
+	 */
+	public LzwCompressor(InputStream inputStream, OutputStream outputStream) {
+		this(inputStream, outputStream, LzwFormat.ADAPTIVE_RESET);
+	}
+
+	/**
+	 * Constructor that compresses a stream in a single pass, in the given layout
+	 * @param inputStream The bytes to be compressed, read until EOF
+	 * @param outputStream Receives the compressed bytes
+	 * @param format The layout of the compressed bytes
+	 * @throws IllegalArgumentException if the format is FIXED_WIDTH, which sizes its codes in a first pass over the input
+	 */
+	public LzwCompressor(InputStream inputStream, OutputStream outputStream, LzwFormat format) {
+		this(inputStream, outputStream, format, Constants.DEFAULT_LZW_BLOCK_SIZE);
+	}
+
+	/**
+	 * Constructor that compresses a stream in a single pass, with the block size of the BLOCKS format
+	 * BLOCKS output ends with its block index, so it can only be decompressed from a file or a seekable channel
+	 * @param inputStream The bytes to be compressed, read until EOF
+	 * @param outputStream Receives the compressed bytes
+	 * @param format The layout of the compressed bytes
+	 * @param blockSize Number of input bytes per block (ignored by the other formats)
+	 * @throws IllegalArgumentException if the format is FIXED_WIDTH or the block size is not positive
+	 */
+	public LzwCompressor(InputStream inputStream, OutputStream outputStream, LzwFormat format, int blockSize) {
+		if (format == LzwFormat.FIXED_WIDTH) {
+			throw new IllegalArgumentException("Fixed-width codes need a first pass over the input, use a file");
+		}
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Block size must be positive, got: " + blockSize);
+		}
+		this.inputSource = null;
+		this.inputSize = ProgressListener.UNKNOWN_TOTAL;
+		this.inputFilePath = Constants.STREAM_NAME;
+		this.outputFilePath = Constants.STREAM_NAME;
+		this.format = format;
+		this.blockSize = blockSize;
+		logger.debug("Initializing LzwCompressor for a stream (format: {})", format);
+		// An empty stream is valid: it compresses to the header alone
+		this.byteReader = new ByteReader(StreamUtils.keepOpen(inputStream));
+		this.byteWriter = new ByteWriter(StreamUtils.keepOpen(outputStream));
+	}
+
+	/**
+	 * Constructor that compresses a channel in a single pass, in the adaptive-reset format
+	 * Neither channel is closed
+	 * @param inputChannel The bytes to be compressed, read until EOF
+	 * @param outputChannel Receives the compressed bytes
+	 */
+	public LzwCompressor(ReadableByteChannel inputChannel, WritableByteChannel outputChannel) {
+		this(inputChannel, outputChannel, LzwFormat.ADAPTIVE_RESET);
+	}
+
+	/**
+	 * Constructor that compresses a channel in a single pass, in the given layout
+	 * @param inputChannel The bytes to be compressed, read until EOF
+	 * @param outputChannel Receives the compressed bytes
+	 * @param format The layout of the compressed bytes, anything but FIXED_WIDTH
+	 */
+	public LzwCompressor(ReadableByteChannel inputChannel, WritableByteChannel outputChannel, LzwFormat format) {
+		this(Channels.newInputStream(inputChannel), Channels.newOutputStream(outputChannel), format);
+	}
+
+	private long readInputSize() {
+		try {
+			return inputSource.size();
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to read size of file: " + inputFilePath, e);
+		}
+	}
+
 	/**
 	 * Calculates the required bit size for encoding the dictionary.
 	 *
@@ -87,33 +251,47 @@ public class LzwCompressor implements Compressor {
 	 * with the smallest possible bit width.
 	 */
 	private void calculateBitSize() {
-		Map<String, Integer> dictionary = LzwUtils.initializeCompressionDictionary();
-		int dictionarySize = Constants.BYTE_VALUES_COUNT;
-		int dictionaryMemorySize = Constants.BYTE_VALUES_COUNT;
-		String currentSequence = "";
+		LzwCompressionDictionary dictionary = new LzwCompressionDictionary();
 
-		try (ByteReader reader = new ByteReader(inputFilePath)) {
-			Byte currentByte;
+		try (ByteReader reader = inputSource.openReader()) {
+			if (progress != null) {
+				progress.startPhase(CompressionPhase.DICTIONARY_SCAN, inputSize);
+				progress.track(reader);
+			}
+			int currentCode = reader.read();
 			int unsignedByteValue;
-			while ((currentByte = reader.readNextByte()) != null) {
-				unsignedByteValue = CommonUtil.byteToUnsignedInt(currentByte);
-				String nextSequence = currentSequence + (char) unsignedByteValue;
-				if (dictionary.containsKey(nextSequence))
-					currentSequence = nextSequence;
-				else {
-					if (dictionaryMemorySize < Constants.MAX_DICTIONARY_MEMORY_SIZE) {
-						dictionary.put(nextSequence, dictionarySize++);
-						dictionaryMemorySize += nextSequence.length();
-					}
-					currentSequence = "" + (char) unsignedByteValue;
-				}
+			while ((unsignedByteValue = reader.read()) != -1) {
+				int nextCode = dictionary.getOrAdd(currentCode, unsignedByteValue);
+				currentCode = nextCode != -1 ? nextCode : unsignedByteValue;
 			}
 		} catch (IOException e) {
 			throw new RuntimeException("Failed to calculate bit size for file: " + inputFilePath, e);
 		}
+		if (progress != null) {
+			progress.endPhase();
+		}
+
+		this.bitSize = LzwUtils.calculateRequiredBits(dictionary.size());
+		logger.debug("Required bit size calculated: {} bits", bitSize);
+	}
+
+	/**
+	 * Starts the encode phase: the input is read from the start
+	 */
+	private void startEncodePhase() {
+		if (progress != null) {
+			progress.setBytesOut(this.byteWriter::getBytesWritten);
+			progress.startPhase(CompressionPhase.ENCODE, inputSize);
+			progress.track(this.byteReader);
+		}
+	}
 
-		this.bitSize = LzwUtils.calculateRequiredBits(dictionarySize);
+	private void endEncodePhase() {
+		if (progress != null) {
+			progress.endPhase();
+		}
 	}
+
 	/**
 	 * Compresses the file using the LZW algorithm.
 	 *
@@ -125,7 +303,7 @@ public class LzwCompressor implements Compressor {
 	 * <ol>
 	 *   <li><b>Initialize dictionary</b>: Start with all single-byte sequences (0-255)</li>
 	 *   <li><b>Read input</b>: Process each byte from the input file</li>
-	 *   <li><b>Build sequences</b>: Extend current sequence with each new byte</li>
+	 *   <li><b>Build sequences</b>: Extend current sequence with each new byte (one trie lookup per byte)</li>
 	 *   <li><b>Output codes</b>: When sequence not in dictionary, output code for previous sequence</li>
 	 *   <li><b>Update dictionary</b>: Add new sequence to dictionary for future use</li>
 	 *   <li><b>Write output</b>: Pack codes into bytes and write to compressed file</li>
@@ -133,7 +311,10 @@ public class LzwCompressor implements Compressor {
 	 *
 	 * <h3>File Format:</h3>
 	 * <pre>
-	 * [4 bytes: bit size] [variable: compressed codes packed into bytes]
+	 * FIXED_WIDTH:    [4 bytes: bit size] [variable: compressed codes packed into bytes]
+	 * VARIABLE_WIDTH: [1 byte: version] [variable: codes of growing width packed into bytes]
+	 * ADAPTIVE_RESET: [1 byte: version] [variable: codes of growing width, clear codes restart at 9 bits]
+	 * BLOCKS:         [1 byte: version] [4 bytes: block size] [block payloads] [block index] [4 bytes: block count]
 	 * </pre>
 	 *
 	 * <h3>Example:</h3>
@@ -150,43 +331,43 @@ public class LzwCompressor implements Compressor {
 	 * @throws RuntimeException if an IO error occurs during compression
 	 */
 	private void compressFile() {
-		Map<String, Integer> dictionary = LzwUtils.initializeCompressionDictionary();
-		int dictionarySize = Constants.BYTE_VALUES_COUNT;
-		bitBuffer = "";
-		int dictionaryMemorySize = Constants.BYTE_VALUES_COUNT;
-		String currentSequence = "";
-
 		logger.info("Compressing file: {} -> {}", this.inputFilePath, this.outputFilePath);
-		try {
-			logger.debug("Writing bit size: {}", bitSize);
-			this.byteWriter.writeInt(bitSize);
-			Byte currentByte;
-			int unsignedByteValue;
-			while ((currentByte = this.byteReader.readNextByte()) != null) {
-				unsignedByteValue = CommonUtil.byteToUnsignedInt(currentByte);
-
-				String nextSequence = currentSequence + (char) unsignedByteValue;
-				if (dictionary.containsKey(nextSequence))
-					currentSequence = nextSequence;
-				else {
-					bitBuffer += CommonUtil.integerToBinaryStringWithFixedLength(dictionary.get(currentSequence), bitSize);
-					flushCompleteBytesFromBuffer();
-
-					if (dictionaryMemorySize < Constants.MAX_DICTIONARY_MEMORY_SIZE) {
-						dictionary.put(nextSequence, dictionarySize++);
-						dictionaryMemorySize += nextSequence.length();
-					}
-					currentSequence = "" + (char) unsignedByteValue;
-				}
+		try (this.byteReader; this.byteWriter) {
+			if (format == LzwFormat.BLOCKS) {
+				startEncodePhase();
+				phaseTimer.start(JobPhase.ENCODE);
+				compressBlocks();
+				endEncodePhase();
+				phaseTimer.start(JobPhase.FLUSH);
+				this.byteWriter.flush();
+				phaseTimer.stop();
+				logger.info("Compression completed successfully");
+				return;
 			}
-
-			if (!currentSequence.equals("")) {
-				bitBuffer += CommonUtil.integerToBinaryStringWithFixedLength(dictionary.get(currentSequence), bitSize);
-				flushCompleteBytesFromBuffer();
-				if (bitBuffer.length() >= 1) {
-					this.byteWriter.writeByte(CommonUtil.stringToByte(bitBuffer));
-				}
+			if (format == LzwFormat.FIXED_WIDTH) {
+				phaseTimer.start(JobPhase.DICTIONARY_SCAN);
+				calculateBitSize();
+				startEncodePhase();
+				logger.debug("Writing bit size: {}", bitSize);
+				phaseTimer.start(JobPhase.HEADER_WRITE);
+				this.byteWriter.writeInt(bitSize);
+			} else {
+				startEncodePhase();
+				phaseTimer.start(JobPhase.HEADER_WRITE);
+				this.byteWriter.writeByte(format.getVersion());
 			}
+			phaseTimer.start(JobPhase.ENCODE);
+			LzwEncoder encoder = new LzwEncoder(new BitWriter(this.byteWriter), format, bitSize);
+			int unsignedByteValue;
+			while ((unsignedByteValue = this.byteReader.read()) != -1) {
+				encoder.write(unsignedByteValue);
+			}
+			// Writes the last code, padded with zeros up to a whole byte
+			encoder.finish();
+			endEncodePhase();
+			phaseTimer.start(JobPhase.FLUSH);
+			this.byteWriter.flush();
+			phaseTimer.stop();
 
 			logger.info("Compression completed successfully");
 		} catch (IOException e) {
@@ -196,19 +377,45 @@ public class LzwCompressor implements Compressor {
 	}
 
 	/**
-	 * Flushes complete bytes from the bit buffer to the output writer.
-	 * Extracts and writes all complete 8-bit sequences from the buffer.
+	 * Blocks Step: Write the container header, compress the blocks in parallel, then write the block index
+	 *
+	 * Blocks are read sequentially and handed to a BlockPipeline, which compresses them on the common
+	 * ForkJoinPool and writes the payloads in input order. The lengths of every block are kept until
+	 * the end, where they form the index the decompressor reads first.
 	 */
-	private void flushCompleteBytesFromBuffer() throws IOException {
-		while (bitBuffer.length() >= Constants.BITS_PER_BYTE) {
-			this.byteWriter.writeByte(CommonUtil.stringToByte(bitBuffer.substring(0, Constants.BITS_PER_BYTE)));
-			bitBuffer = bitBuffer.substring(Constants.BITS_PER_BYTE);
+	private void compressBlocks() throws IOException {
+		this.byteWriter.writeByte(format.getVersion());
+		this.byteWriter.writeInt(this.blockSize);
+
+		List<int[]> blockIndex = new ArrayList<>();
+		BlockPipeline pipeline = new BlockPipeline((originalLength, payload) -> {
+			this.byteWriter.write(payload, 0, payload.length);
+			blockIndex.add(new int[] {originalLength, payload.length});
+		});
+
+		while (true) {
+			byte[] block = new byte[this.blockSize];
+			int length = this.byteReader.readNBytes(block, 0, block.length);
+			if (length > 0) {
+				pipeline.submit(length, () -> LzwBlockCodec.encode(block, length));
+			}
+			if (length < block.length) {
+				break;
+			}
+		}
+		pipeline.finish();
+
+		for (int[] entry : blockIndex) {
+			this.byteWriter.writeInt(entry[0]);
+			this.byteWriter.writeInt(entry[1]);
 		}
+		this.byteWriter.writeInt(blockIndex.size());
+		logger.debug("Wrote {} blocks", blockIndex.size());
 	}
 
 	/**
-	 * Compresses the file using the pre-calculated bit size
-	 * Creates a compressed file with .LmZWp extension
+	 * Compresses the file in the chosen format, after a dictionary scan for the fixed-width format
+	 * Creates a compressed file with .LmZWp extension, or writes to the output stream
 	 *
 	 * @throws RuntimeException if compression fails
 	 */
@@ -216,4 +423,17 @@ public class LzwCompressor implements Compressor {
 	public void compress() {
 		compressFile();
 	}
+
+	/**
+	 * Reports the dictionary scan of the fixed-width format, then the encode phase
+	 */
+	@Override
+	public void setProgressListener(ProgressListener listener, long granularity) {
+		this.progress = listener == null ? null : new ProgressTracker(listener, granularity);
+	}
+
+	@Override
+	public void setPhaseTimer(PhaseTimer timer) {
+		this.phaseTimer = timer == null ? PhaseTimer.NONE : timer;
+	}
 }
\ No newline at end of file
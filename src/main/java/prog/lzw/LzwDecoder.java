@@ -0,0 +1,143 @@
+package prog.lzw;
+
+import prog.util.BitReader;
+import prog.util.Constants;
+
+import java.io.IOException;
+
+/**
+ * Decodes the codes of the formats without blocks, one phrase at a time.
+ *
+ * The dictionary and the previous code live here between calls, so the caller pulls phrases
+ * at its own pace: LzwDecompressor writes them all to a file, an LzwInputStream hands them out
+ * as the application reads.
+ *
+ * Example:
+ * <pre>
+ * LzwDecoder decoder = new LzwDecoder(bitReader, LzwFormat.VARIABLE_WIDTH, 0);
+ * int length;
+ * while ((length = decoder.decodePhrase()) != -1) {
+ *     output.write(decoder.getPhrase(), 0, length);
+ * }
+ * </pre>
+ */
+public class LzwDecoder {
+	private final BitReader bitReader;
+	private final LzwFormat format;
+
+	/**
+	 * Width of every code of the FIXED_WIDTH format
+	 */
+	private final int fixedCodeWidth;
+
+	private final LzwDecompressionDictionary dictionary;
+
+	/**
+	 * Code of the previous phrase; -1 at the start and after a clear code, when the next code is a single byte
+	 */
+	private int previousCode = -1;
+
+	/**
+	 * Scratch space the current phrase is rebuilt in before it is handed out
+	 */
+	private byte[] phraseBuffer = new byte[256];
+
+	/**
+	 * @param bitReader Source of the codes, positioned after the header
+	 * @param format Layout of the codes; BLOCKS is decoded by LzwBlockCodec instead
+	 * @param fixedCodeWidth Width of every code of the FIXED_WIDTH format, ignored by the others
+	 */
+	public LzwDecoder(BitReader bitReader, LzwFormat format, int fixedCodeWidth) {
+		if (format == LzwFormat.BLOCKS) {
+			throw new IllegalArgumentException("Blocks are decoded by LzwBlockCodec");
+		}
+		this.bitReader = bitReader;
+		this.format = format;
+		this.fixedCodeWidth = fixedCodeWidth;
+		this.dictionary = new LzwDecompressionDictionary(LzwCompressionDictionary.MAX_CODE_COUNT,
+			Constants.MAX_DICTIONARY_MEMORY_SIZE, format.getFirstCode());
+	}
+
+	/**
+	 * Reads the next code and rebuilds its phrase in the phrase buffer.
+	 * Codes are packed without padding information; a partial code at the end is padding.
+	 *
+	 * @return Length of the phrase, or -1 once every code has been read
+	 * @throws IOException If reading fails or the code is not valid at this point
+	 */
+	public int decodePhrase() throws IOException {
+		while (true) {
+			int codeWidth = getCodeWidth();
+			if (bitReader.getAvailableBits() < codeWidth) {
+				return -1;
+			}
+			int code = (int) bitReader.readBits(codeWidth);
+
+			if (format == LzwFormat.ADAPTIVE_RESET && code == Constants.LZW_CLEAR_CODE) {
+				dictionary.reset();
+				previousCode = -1;
+				continue;
+			}
+
+			int length;
+			if (previousCode == -1) {
+				if (code >= Constants.BYTE_VALUES_COUNT) {
+					throw new IOException("Invalid first code " + code + " in LZW data");
+				}
+				length = loadPhrase(code);
+			} else if (code < dictionary.size()) {
+				length = loadPhrase(code);
+			} else if (code == dictionary.size() && dictionary.canGrow()) {
+				// The code being added right now: previous phrase + its own first byte
+				length = loadPhrase(previousCode);
+				phraseBuffer[length++] = phraseBuffer[0];
+			} else {
+				throw new IOException("Invalid code " + code + " in LZW data");
+			}
+
+			if (previousCode != -1) {
+				dictionary.add(previousCode, phraseBuffer[0]);
+			}
+			previousCode = code;
+			return length;
+		}
+	}
+
+	/**
+	 * Returns the buffer holding the phrase of the last decodePhrase() call, from index 0.
+	 * The buffer is reused, and replaced when a longer phrase does not fit.
+	 */
+	public byte[] getPhrase() {
+		return phraseBuffer;
+	}
+
+	/**
+	 * Returns the width of the next code.
+	 *
+	 * The compressor adds each dictionary entry right after writing a code, while the decompressor
+	 * only adds it after reading the following code. So a variable-width code may already refer to
+	 * the entry that is about to be added, and the width counts it whenever the dictionary still grows.
+	 */
+	private int getCodeWidth() {
+		if (format == LzwFormat.FIXED_WIDTH) {
+			return fixedCodeWidth;
+		}
+		int pendingEntries = dictionary.canGrow() ? 1 : 0;
+		return LzwUtils.calculateVariableCodeWidth(dictionary.size() + pendingEntries);
+	}
+
+	/**
+	 * Rebuilds the phrase of a code in the phrase buffer, growing the buffer if the phrase does not fit.
+	 * One spare byte is kept for the phrase + first byte case.
+	 *
+	 * @param code Code of the phrase
+	 * @return The phrase length
+	 */
+	private int loadPhrase(int code) {
+		int length = dictionary.getLength(code);
+		if (length + 1 > phraseBuffer.length) {
+			phraseBuffer = new byte[Math.max(length + 1, phraseBuffer.length * 2)];
+		}
+		return dictionary.writePhrase(code, phraseBuffer, 0);
+	}
+}
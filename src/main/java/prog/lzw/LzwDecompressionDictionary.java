@@ -0,0 +1,137 @@
+package prog.lzw;
+
+import prog.util.Constants;
+
+/**
+ * LZW decompression dictionary stored as parallel primitive arrays.
+ *
+ * Every phrase is its prefix phrase plus one suffix byte, so a code only needs the prefix code,
+ * the suffix byte and the phrase length. A phrase is rebuilt by walking the prefixes backwards
+ * from its last byte, which writes it without allocating and keeps the memory proportional to
+ * the number of codes instead of the total length of all phrases.
+ *
+ * Example (after decoding "ABAB"):
+ * <pre>
+ * code | prefix | suffix | length | phrase
+ * -----|--------|--------|--------|-------
+ *  256 |   65   |  'B'   |   2    | "AB"
+ *  257 |   66   |  'A'   |   3    | "BA"
+ * </pre>
+ *
+ * Growth follows the same limits as {@link LzwCompressionDictionary}, so both sides assign the same codes.
+ */
+public class LzwDecompressionDictionary {
+	private final int[] prefixes;
+	private final byte[] suffixes;
+	private final int[] lengths;
+	private final int maxMemorySize;
+	private final int firstCode;
+	private int size;
+	private int memorySize;
+
+	/**
+	 * Dictionary with the limits of the .LmZWp format
+	 */
+	public LzwDecompressionDictionary() {
+		this(LzwCompressionDictionary.MAX_CODE_COUNT, Constants.MAX_DICTIONARY_MEMORY_SIZE);
+	}
+
+	/**
+	 * Creates a dictionary holding the 256 single-byte phrases.
+	 *
+	 * @param maxCodeCount Maximum number of codes, including the 256 single bytes
+	 * @param maxMemorySize No phrase is added once the phrases hold this many bytes
+	 */
+	public LzwDecompressionDictionary(int maxCodeCount, int maxMemorySize) {
+		this(maxCodeCount, maxMemorySize, Constants.BYTE_VALUES_COUNT);
+	}
+
+	/**
+	 * Creates a dictionary holding the 256 single-byte phrases, with codes below {@code firstCode} reserved.
+	 *
+	 * @param maxCodeCount Maximum number of codes, including the single bytes and reserved codes
+	 * @param maxMemorySize No phrase is added once the phrases hold this many bytes
+	 * @param firstCode Code of the first phrase added
+	 */
+	public LzwDecompressionDictionary(int maxCodeCount, int maxMemorySize, int firstCode) {
+		if (maxCodeCount < firstCode || firstCode < Constants.BYTE_VALUES_COUNT) {
+			throw new IllegalArgumentException("Dictionary needs room for the 256 single bytes, got: " + maxCodeCount);
+		}
+		this.prefixes = new int[maxCodeCount];
+		this.suffixes = new byte[maxCodeCount];
+		this.lengths = new int[maxCodeCount];
+		this.maxMemorySize = maxMemorySize;
+		this.firstCode = firstCode;
+		for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+			prefixes[i] = -1;
+			suffixes[i] = (byte) i;
+			lengths[i] = 1;
+		}
+		reset();
+	}
+
+	/**
+	 * Drops every phrase longer than one byte; the next phrase added gets the first code again.
+	 */
+	public void reset() {
+		this.size = firstCode;
+		this.memorySize = Constants.BYTE_VALUES_COUNT;
+	}
+
+	/**
+	 * Whether the next {@link #add} call will assign a new code.
+	 */
+	public boolean canGrow() {
+		return memorySize < maxMemorySize && size < prefixes.length;
+	}
+
+	/**
+	 * Adds the phrase {@code prefixCode} + {@code suffix} as the next code, if the dictionary can still grow.
+	 *
+	 * @param prefixCode Code of the phrase being extended
+	 * @param suffix Byte appended to it
+	 */
+	public void add(int prefixCode, byte suffix) {
+		if (!canGrow()) {
+			return;
+		}
+		prefixes[size] = prefixCode;
+		suffixes[size] = suffix;
+		lengths[size] = lengths[prefixCode] + 1;
+		memorySize += lengths[size];
+		size++;
+	}
+
+	/**
+	 * Length in bytes of the phrase of {@code code}.
+	 */
+	public int getLength(int code) {
+		return lengths[code];
+	}
+
+	/**
+	 * Writes the phrase of {@code code} into {@code buffer}, last byte first.
+	 *
+	 * Example: code 257 ("BA") writes 'A' at offset + 1, then 'B' at offset
+	 *
+	 * @param code Code of the phrase
+	 * @param buffer Destination with room for {@link #getLength} bytes after offset
+	 * @param offset Position of the first byte of the phrase
+	 * @return The phrase length
+	 */
+	public int writePhrase(int code, byte[] buffer, int offset) {
+		int length = lengths[code];
+		for (int i = offset + length - 1; i >= offset; i--) {
+			buffer[i] = suffixes[code];
+			code = prefixes[code];
+		}
+		return length;
+	}
+
+	/**
+	 * Number of codes assigned so far, including the 256 single bytes and reserved codes.
+	 */
+	public int size() {
+		return size;
+	}
+}
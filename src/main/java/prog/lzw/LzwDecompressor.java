@@ -3,24 +3,53 @@ package prog.lzw;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import prog.compression.CompressionPhase;
 import prog.compression.Decompressor;
+import prog.compression.ProgressListener;
+import prog.compression.ProgressTracker;
+import prog.metrics.JobPhase;
+import prog.metrics.PhaseTimer;
+import prog.util.BitReader;
+import prog.util.BlockPipeline;
 import prog.util.ByteReader;
 import prog.util.ByteWriter;
-import prog.util.CommonUtil;
 import prog.util.Constants;
 import prog.util.FileUtils;
+import prog.util.StreamUtils;
+import java.io.EOFException;
 import java.io.IOException;
-import java.util.Map;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 
 public class LzwDecompressor implements Decompressor {
 	private static final Logger logger = LoggerFactory.getLogger(LzwDecompressor.class);
 
 	/**
 	 * Path to the compressed file that will be decompressed
-	 * Example: "/home/user/document.txt.LmZWp"
+	 * Example: "/home/user/document.txt.LmZWp", or Constants.STREAM_NAME when decompressing a stream
 	 */
 	private final String compressedFilePath;
 
+	/**
+	 * The compressed bytes when they can be read out of order: the compressed file, or a seekable channel
+	 * Null when decompressing a plain stream
+	 * The block index of the BLOCKS format is read through it
+	 */
+	private final SeekableByteChannel seekableInput;
+
+	/**
+	 * Position of the first compressed byte in seekableInput
+	 * Example: 0 for a file, 100 for a channel that holds a 100-byte prefix before the compressed bytes
+	 */
+	private final long inputStart;
+
 	/**
 	 * Path to the output file that will be decompressed
 	 * Example: "/home/user/document.txt"
@@ -28,33 +57,42 @@ public class LzwDecompressor implements Decompressor {
 	private final String outputFilePath;
 
 	/**
-	 * Number of bits used to encode dictionary entries
+	 * Layout of the compressed file, detected from its first byte
+	 */
+	private LzwFormat format;
+
+	/**
+	 * Number of bits used to encode dictionary entries in the fixed-width format
 	 * Read from the compressed file header
 	 * Example: 9 bits can represent dictionary entries 0-511
 	 */
 	private int bitSize;
 
 	/**
-	 * Lookup table for fast conversion of bytes to 8-bit binary strings
-	 * Example: byteToBinaryLookup[65] = "01000001" (byte 65 = 'A')
+	 * Number of input bytes per block in the BLOCKS format, read from the header
+	 * No block of the file decodes to more bytes than this
+	 */
+	private int blockSize;
+
+	/**
+	 * Reports the progress of decompress() to the listener, or null when none is set
 	 */
-	private String[] byteToBinaryLookup;
+	private ProgressTracker progress;
 
 	/**
-	 * Buffer to accumulate bits while reading compressed data
-	 * Example: "1010110" (7 bits accumulated from reading compressed bytes)
+	 * Times the steps of decompress()
 	 */
-	private String bitBuffer;
+	private PhaseTimer phaseTimer = PhaseTimer.NONE;
 
 	/**
 	 * Byte reader for the compressed file
 	 */
-	private ByteReader byteReader;
+	private final ByteReader byteReader;
 
 	/**
 	 * Byte writer for the decompressed output file
 	 */
-	private ByteWriter byteWriter;
+	private final ByteWriter byteWriter;
 
 	/**
 	 * Constructor that takes a compressed file path
@@ -66,11 +104,12 @@ public class LzwDecompressor implements Decompressor {
 		this.outputFilePath = FileUtils.getUniqueFilePath(compressedFilePath.substring(0,
 			compressedFilePath.length() - Constants.LZW_FILE_EXTENSION.length()));
 		this.bitSize = 0;
-		this.bitBuffer = "";
-		this.byteToBinaryLookup = CommonUtil.createByteToBinaryLookupTable();
+		this.inputStart = 0;
 
 		try {
-			this.byteReader = new ByteReader(compressedFilePath);
+			// The file is read like a seekable channel, so the block index can be found at its end
+			this.seekableInput = FileChannel.open(Path.of(compressedFilePath));
+			this.byteReader = new ByteReader(Channels.newInputStream(seekableInput));
 			this.byteWriter = new ByteWriter(outputFilePath);
 		} catch (IOException e) {
 			logger.error("Failed to initialize byte reader and writer: {}", e.getMessage());
@@ -79,14 +118,189 @@ public class LzwDecompressor implements Decompressor {
 	}
 
 	/**
-	 * Writes a string to the output as individual bytes.
+	 * Constructor that decompresses a stream
+	 * Reads every format but BLOCKS, whose block index is at the end of the compressed bytes
+	 * Neither stream is closed; the output is flushed when decompress() returns
+	 * Example: new LzwDecompressor(blob.getInputStream(), response.getOutputStream()).decompress()
+	 * @param inputStream The compressed bytes, read until EOF
+	 * @param outputStream Receives the decompressed bytes
+	 */
+	public LzwDecompressor(InputStream inputStream, OutputStream outputStream) {
+		this(inputStream, outputStream, null, 0);
+	}
+
+	/**
+	 * Constructor that decompresses a channel
+	 * A SeekableByteChannel, e.g. a FileChannel, can also hold the BLOCKS format: the compressed bytes
+	 * must then run from the channel's current position to its end
+	 * Neither channel is closed
+	 * @param inputChannel The compressed bytes, read until EOF
+	 * @param outputChannel Receives the decompressed bytes
+	 */
+	public LzwDecompressor(ReadableByteChannel inputChannel, WritableByteChannel outputChannel) {
+		this(Channels.newInputStream(inputChannel), Channels.newOutputStream(outputChannel),
+			inputChannel instanceof SeekableByteChannel seekable ? seekable : null,
+			inputChannel instanceof SeekableByteChannel seekable ? currentPosition(seekable) : 0);
+	}
+
+	private LzwDecompressor(InputStream inputStream, OutputStream outputStream, SeekableByteChannel seekableInput, long inputStart) {
+		logger.debug("Initializing LzwDecompressor for a stream");
+		this.compressedFilePath = Constants.STREAM_NAME;
+		this.outputFilePath = Constants.STREAM_NAME;
+		this.seekableInput = seekableInput;
+		this.inputStart = inputStart;
+		this.bitSize = 0;
+		this.byteReader = new ByteReader(StreamUtils.keepOpen(inputStream));
+		this.byteWriter = new ByteWriter(StreamUtils.keepOpen(outputStream));
+	}
+
+	private static long currentPosition(SeekableByteChannel channel) {
+		try {
+			return channel.position();
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to read position of input channel", e);
+		}
+	}
+
+	/**
+	 * Reads the format from the first byte and, for fixed-width files, the bit size.
+	 * Fixed-width files have no version byte: their first byte is the top byte of the bit size, which is always 0.
+	 */
+	private void readHeader() throws IOException {
+		int firstByte = this.byteReader.read();
+		if (firstByte == -1) {
+			throw new EOFException("Unexpected end of compressed file: " + compressedFilePath);
+		}
+		this.format = LzwFormat.fromVersion(firstByte);
+		if (format == LzwFormat.FIXED_WIDTH) {
+			for (int i = 1; i < Integer.BYTES; i++) {
+				int nextByte = this.byteReader.read();
+				if (nextByte == -1) {
+					throw new EOFException("Unexpected end of compressed file: " + compressedFilePath);
+				}
+				bitSize = (bitSize << Constants.BITS_PER_BYTE) | nextByte;
+			}
+			logger.debug("Reading compressed data with bit size: {}", bitSize);
+		} else if (format == LzwFormat.BLOCKS) {
+			this.blockSize = this.byteReader.readInt();
+			if (blockSize <= 0) {
+				throw new IOException("Invalid block size " + blockSize + " in compressed file: " + compressedFilePath);
+			}
+			logger.debug("Reading compressed blocks of {} bytes", blockSize);
+		} else {
+			logger.debug("Reading compressed data in format: {}", format);
+		}
+	}
+
+	/**
+	 * Blocks Step1: Read the block index from the end of the file.
+	 *
+	 * The index must account for every byte between the header and itself, so a truncated
+	 * or padded file is rejected before anything is decoded. The input is left at the position
+	 * it had, so the payloads are then read in order.
+	 *
+	 * @return For every block, its original length and its payload length
+	 * @throws IOException If the file cannot be read or the index does not match the file
+	 */
+	private int[][] readBlockIndex() throws IOException {
+		if (seekableInput == null) {
+			throw new IOException("The block index is at the end of the compressed data, "
+				+ "so blocks can only be decompressed from a file or a seekable channel");
+		}
+		long headerLength = 1 + Integer.BYTES;
+		long position = seekableInput.position();
+		try {
+			long fileLength = seekableInput.size() - inputStart;
+			if (fileLength < headerLength + Integer.BYTES) {
+				throw new EOFException("Unexpected end of compressed file: " + compressedFilePath);
+			}
+			int blockCount = readIndexBytes(fileLength - Integer.BYTES, Integer.BYTES).getInt();
+			long indexLength = (long) blockCount * 2 * Integer.BYTES;
+			if (blockCount < 0 || headerLength + indexLength + Integer.BYTES > fileLength) {
+				throw new IOException("Invalid block count " + blockCount + " in compressed file: " + compressedFilePath);
+			}
+
+			ByteBuffer indexBuffer = readIndexBytes(fileLength - Integer.BYTES - indexLength, (int) indexLength);
+			int[][] blockIndex = new int[blockCount][];
+			long payloadsLength = 0;
+			for (int i = 0; i < blockCount; i++) {
+				int originalLength = indexBuffer.getInt();
+				int payloadLength = indexBuffer.getInt();
+				if (originalLength <= 0 || originalLength > blockSize || payloadLength < 0) {
+					throw new IOException("Invalid block index entry in compressed file: " + compressedFilePath);
+				}
+				blockIndex[i] = new int[] {originalLength, payloadLength};
+				payloadsLength += payloadLength;
+			}
+			if (headerLength + payloadsLength + indexLength + Integer.BYTES != fileLength) {
+				throw new IOException("Block index does not match the size of compressed file: " + compressedFilePath);
+			}
+			return blockIndex;
+		} finally {
+			seekableInput.position(position);
+		}
+	}
+
+	/**
+	 * Reads part of the block index.
 	 *
-	 * @param text The text to write
-	 * @throws IOException If writing fails
+	 * @param offset Position of the first byte, counted from the start of the compressed data
+	 * @param length Number of bytes to read
+	 * @return The bytes, ready to be read
+	 * @throws IOException If reading fails or the input ends first
 	 */
-	private void writeString(String text) throws IOException {
-		for (char ch : text.toCharArray()) {
-			this.byteWriter.writeByte((byte) ch);
+	private ByteBuffer readIndexBytes(long offset, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		seekableInput.position(inputStart + offset);
+		while (buffer.hasRemaining()) {
+			if (seekableInput.read(buffer) == -1) {
+				throw new EOFException("Unexpected end of compressed file: " + compressedFilePath);
+			}
+		}
+		return buffer.flip();
+	}
+
+	/**
+	 * Blocks Step2: Read the payloads, decompress them in parallel and write them in order.
+	 *
+	 * Every block has a dictionary of its own, so a block can be handed to the BlockPipeline as soon
+	 * as its payload is read, before the previous ones are decoded.
+	 *
+	 * @throws IOException If reading or writing fails, or a block is corrupt
+	 */
+	private void decompressBlocks() throws IOException {
+		int[][] blockIndex = readBlockIndex();
+		logger.debug("Decompressing {} blocks", blockIndex.length);
+		BlockPipeline pipeline = new BlockPipeline((originalLength, block) -> this.byteWriter.write(block, 0, block.length));
+
+		for (int[] entry : blockIndex) {
+			int originalLength = entry[0];
+			byte[] payload = new byte[entry[1]];
+			if (this.byteReader.readNBytes(payload, 0, payload.length) < payload.length) {
+				throw new EOFException("Unexpected end of compressed file: " + compressedFilePath);
+			}
+			pipeline.submit(originalLength, () -> LzwBlockCodec.decode(payload, originalLength));
+		}
+		pipeline.finish();
+	}
+
+	/**
+	 * Starts the decode phase
+	 * The total is known for a file or a seekable channel, and unknown for a plain stream
+	 */
+	private void startDecodePhase() throws IOException {
+		phaseTimer.start(JobPhase.DECODE);
+		if (progress != null) {
+			progress.setBytesOut(this.byteWriter::getBytesWritten);
+			progress.startPhase(CompressionPhase.DECODE, seekableInput != null ? seekableInput.size() - inputStart : ProgressListener.UNKNOWN_TOTAL);
+			progress.track(this.byteReader);
+			progress.update(this.byteReader.getBytesRead());
+		}
+	}
+
+	private void endDecodePhase() {
+		if (progress != null) {
+			progress.endPhase();
 		}
 	}
 
@@ -100,7 +314,7 @@ public class LzwDecompressor implements Decompressor {
 	 *
 	 * <h3>Decompression Steps:</h3>
 	 * <ol>
-	 *   <li><b>Read bit size</b>: Determine how many bits are used for each code</li>
+	 *   <li><b>Read header</b>: Detect the format and, for fixed-width files, the bit size of every code</li>
 	 *   <li><b>Initialize dictionary</b>: Start with all single-byte sequences (0-255)</li>
 	 *   <li><b>Read first code</b>: Output the corresponding character</li>
 	 *   <li><b>Process codes</b>: For each subsequent code:
@@ -115,7 +329,10 @@ public class LzwDecompressor implements Decompressor {
 	 *
 	 * <h3>File Format:</h3>
 	 * <pre>
-	 * [4 bytes: bit size] [variable: compressed codes packed into bytes]
+	 * FIXED_WIDTH:    [4 bytes: bit size] [variable: compressed codes packed into bytes]
+	 * VARIABLE_WIDTH: [1 byte: version] [variable: codes of growing width packed into bytes]
+	 * ADAPTIVE_RESET: [1 byte: version] [variable: codes of growing width, clear codes restart at 9 bits]
+	 * BLOCKS:         [1 byte: version] [4 bytes: block size] [block payloads] [block index] [4 bytes: block count]
 	 * </pre>
 	 *
 	 * <h3>Example:</h3>
@@ -138,65 +355,30 @@ public class LzwDecompressor implements Decompressor {
 	 */
 	private void decompressFile() {
 		logger.info("Decompressing file: {} -> {}", compressedFilePath, outputFilePath);
-		int code;
-		int dictionarySize = Constants.BYTE_VALUES_COUNT;
-		int dictionaryMemorySize = Constants.BYTE_VALUES_COUNT;
-		String newEntry;
-		Map<Integer, String> dictionary = LzwUtils.initializeDecompressionDictionary();
-
-		try {
-			Byte currentByte;
-			bitSize = this.byteReader.readInt();
-			logger.debug("Reading compressed data with bit size: {}", bitSize);
 
-			// Read initial bits to get first code
-			while ((currentByte = this.byteReader.readNextByte()) != null) {
-				bitBuffer += byteToBinaryLookup[CommonUtil.byteToUnsignedInt(currentByte)];
-				if (bitBuffer.length() >= bitSize)
-					break;
-			}
-
-			if (bitBuffer.length() >= bitSize) {
-				code = CommonUtil.binaryStringToInt(bitBuffer.substring(0, bitSize));
-				bitBuffer = bitBuffer.substring(bitSize);
-			} else {
+		try (this.byteReader; this.byteWriter) {
+			startDecodePhase();
+			readHeader();
+			if (format == LzwFormat.BLOCKS) {
+				decompressBlocks();
+				endDecodePhase();
+				phaseTimer.start(JobPhase.FLUSH);
+				this.byteWriter.flush();
+				phaseTimer.stop();
+				logger.info("Decompression completed successfully");
 				return;
 			}
-
-			String previousEntry = "" + (char) code;
-			writeString(previousEntry);
-
-			// Process remaining codes
-			while (true) {
-				// Fill buffer with enough bits for next code
-				while (bitBuffer.length() < bitSize) {
-					currentByte = this.byteReader.readNextByte();
-					if (currentByte == null) break;
-					bitBuffer += byteToBinaryLookup[CommonUtil.byteToUnsignedInt(currentByte)];
-				}
-
-				if (bitBuffer.length() < bitSize) break;
-
-				code = CommonUtil.binaryStringToInt(bitBuffer.substring(0, bitSize));
-				bitBuffer = bitBuffer.substring(bitSize);
-
-				String currentEntry = "";
-				if (dictionary.containsKey(code)) {
-					currentEntry = dictionary.get(code);
-				} else if (code == dictionarySize) {
-					currentEntry = previousEntry + previousEntry.charAt(0);
-				}
-
-				writeString(currentEntry);
-
-				if (dictionaryMemorySize < Constants.MAX_DICTIONARY_MEMORY_SIZE) {
-					newEntry = previousEntry + currentEntry.charAt(0);
-					dictionary.put(dictionarySize++, newEntry);
-					dictionaryMemorySize += newEntry.length();
-				}
-				previousEntry = currentEntry;
+			// Codes are packed without padding information; a partial code at the end is padding
+			LzwDecoder decoder = new LzwDecoder(new BitReader(this.byteReader, 0), format, bitSize);
+			int length;
+			while ((length = decoder.decodePhrase()) != -1) {
+				this.byteWriter.write(decoder.getPhrase(), 0, length);
 			}
 
+			endDecodePhase();
+			phaseTimer.start(JobPhase.FLUSH);
+			this.byteWriter.flush();
+			phaseTimer.stop();
 			logger.info("Decompression completed successfully");
 		} catch (IOException e) {
 			logger.error("Failed to decompress file: {}", compressedFilePath, e);
@@ -206,7 +388,7 @@ public class LzwDecompressor implements Decompressor {
 
 	/**
 	 * Decompresses the file using the LZW algorithm
-	 * Creates a decompressed file by removing the .LmZWp extension
+	 * Creates a decompressed file by removing the .LmZWp extension, or writes to the output stream
 	 * If a file with the same name already exists, creates a unique filename
 	 *
 	 * @throws RuntimeException if decompression fails
@@ -215,4 +397,26 @@ public class LzwDecompressor implements Decompressor {
 	public void decompress() {
 		decompressFile();
 	}
+
+	/**
+	 * Reports the decode phase, counting the compressed bytes read
+	 * The block index at the end of the block format is read directly, and not counted
+	 */
+	@Override
+	public void setProgressListener(ProgressListener listener, long granularity) {
+		this.progress = listener == null ? null : new ProgressTracker(listener, granularity);
+	}
+
+	@Override
+	public void setPhaseTimer(PhaseTimer timer) {
+		this.phaseTimer = timer == null ? PhaseTimer.NONE : timer;
+	}
+
+	/**
+	 * Returns the path of the decompressed file, numbered if the original name was taken
+	 * Example: "/home/user/document (1).txt", or Constants.STREAM_NAME when decompressing a stream
+	 */
+	public String getOutputFilePath() {
+		return outputFilePath;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+package prog.lzw;
+
+import prog.util.BitWriter;
+import prog.util.Constants;
+
+import java.io.IOException;
+
+/**
+ * Encodes bytes into the codes of the formats without blocks, one byte at a time.
+ *
+ * The dictionary, the current phrase and the ratio counters of ADAPTIVE_RESET live here between
+ * calls, so the input can arrive in pieces of any size: a whole file from LzwCompressor, or every
+ * write of an LzwOutputStream. The dictionary limits bound the memory, however long the input.
+ *
+ * Example:
+ * <pre>
+ * LzwEncoder encoder = new LzwEncoder(bitWriter, LzwFormat.VARIABLE_WIDTH);
+ * encoder.write('A'); encoder.write('B'); encoder.write('A'); encoder.write('B');
+ * encoder.finish(); // Writes the codes of 'A', 'B' and "AB"
+ * </pre>
+ */
+public class LzwEncoder {
+	private final BitWriter bitWriter;
+	private final LzwFormat format;
+
+	/**
+	 * Width of every code of the FIXED_WIDTH format
+	 */
+	private final int fixedCodeWidth;
+
+	private final LzwCompressionDictionary dictionary;
+
+	/**
+	 * Code of the phrase read so far, -1 before the first byte
+	 */
+	private int currentCode = -1;
+
+	/**
+	 * Input bytes and output bits since the last ratio check, counted once the dictionary is full
+	 */
+	private long windowInputBytes;
+	private long windowOutputBits;
+	private double bestRatio;
+
+	/**
+	 * @param bitWriter Destination of the codes, positioned after the header
+	 * @param format VARIABLE_WIDTH or ADAPTIVE_RESET
+	 */
+	public LzwEncoder(BitWriter bitWriter, LzwFormat format) {
+		this(bitWriter, format, 0);
+	}
+
+	/**
+	 * @param bitWriter Destination of the codes, positioned after the header
+	 * @param format Layout of the codes; BLOCKS is encoded by LzwBlockCodec instead
+	 * @param fixedCodeWidth Width of every code of the FIXED_WIDTH format, ignored by the others
+	 */
+	public LzwEncoder(BitWriter bitWriter, LzwFormat format, int fixedCodeWidth) {
+		if (format == LzwFormat.BLOCKS) {
+			throw new IllegalArgumentException("Blocks are encoded by LzwBlockCodec");
+		}
+		if (format == LzwFormat.FIXED_WIDTH && fixedCodeWidth <= 0) {
+			throw new IllegalArgumentException("Fixed code width must be positive, got: " + fixedCodeWidth);
+		}
+		this.bitWriter = bitWriter;
+		this.format = format;
+		this.fixedCodeWidth = fixedCodeWidth;
+		this.dictionary = new LzwCompressionDictionary(LzwCompressionDictionary.MAX_CODE_COUNT,
+			Constants.MAX_DICTIONARY_MEMORY_SIZE, format.getFirstCode());
+	}
+
+	/**
+	 * Extends the current phrase with the next byte, writing the code of the phrase when
+	 * the extended one is not in the dictionary.
+	 *
+	 * @param unsignedByteValue The next input byte (0-255)
+	 */
+	public void write(int unsignedByteValue) throws IOException {
+		if (currentCode == -1) {
+			// A single byte is always in the dictionary, so the first phrase is the first byte
+			currentCode = unsignedByteValue;
+			return;
+		}
+		// The width must be taken before getOrAdd assigns the next code
+		int codeWidth = getCodeWidth(dictionary.size());
+		int nextCode = dictionary.getOrAdd(currentCode, unsignedByteValue);
+		if (nextCode != -1) {
+			currentCode = nextCode;
+		} else {
+			bitWriter.writeBits(currentCode, codeWidth);
+			currentCode = unsignedByteValue;
+			windowOutputBits += codeWidth;
+		}
+
+		if (format != LzwFormat.ADAPTIVE_RESET) {
+			return;
+		}
+		if (dictionary.canGrow()) {
+			windowInputBytes = 0;
+			windowOutputBits = 0;
+			return;
+		}
+		if (++windowInputBytes >= Constants.LZW_RESET_CHECK_INTERVAL && nextCode == -1) {
+			double ratio = (double) windowInputBytes / windowOutputBits;
+			bestRatio = Math.max(bestRatio, ratio);
+			if (ratio < bestRatio * Constants.LZW_RESET_RATIO_THRESHOLD) {
+				// The current phrase is a single byte, so it is valid in the new dictionary
+				bitWriter.writeBits(Constants.LZW_CLEAR_CODE, getCodeWidth(dictionary.size()));
+				dictionary.reset();
+				bestRatio = 0;
+			}
+			windowInputBytes = 0;
+			windowOutputBits = 0;
+		}
+	}
+
+	/**
+	 * Writes the code of the last phrase and pads it with zeros up to a whole byte.
+	 * No more bytes can be written afterwards.
+	 */
+	public void finish() throws IOException {
+		if (currentCode != -1) {
+			bitWriter.writeBits(currentCode, getCodeWidth(dictionary.size()));
+		}
+		bitWriter.flush();
+	}
+
+	/**
+	 * Returns the width of the next code.
+	 * Fixed-width files use the pre-calculated bit size; variable-width files use the narrowest
+	 * width that holds every code of the current dictionary.
+	 *
+	 * @param dictionarySize Number of codes assigned so far
+	 */
+	private int getCodeWidth(int dictionarySize) {
+		if (format == LzwFormat.FIXED_WIDTH) {
+			return fixedCodeWidth;
+		}
+		return LzwUtils.calculateVariableCodeWidth(dictionarySize);
+	}
+}
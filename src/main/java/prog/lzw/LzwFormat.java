@@ -0,0 +1,83 @@
+package prog.lzw;
+
+import prog.util.Constants;
+
+/**
+ * Layouts of the .LmZWp file.
+ *
+ * Files written before versioning start with a 4-byte code width (at most 32), so their first byte
+ * is always 0. Every newer layout starts with a non-zero version byte, which lets the
+ * decompressor tell them apart without any extra marker in old files.
+ *
+ * Examples:
+ * - FIXED_WIDTH:    [00 00 00 0A] [codes, all 10 bits...]
+ * - VARIABLE_WIDTH: [01] [codes, 9 bits growing to 10 bits...]
+ * - ADAPTIVE_RESET: [02] [codes, 9 bits growing to 17 bits...] [256] [codes, 9 bits again...]
+ * - BLOCKS:         [03] [00 10 00 00] [block payloads...] [block index] [block count]
+ */
+public enum LzwFormat {
+	/**
+	 * Original layout: every code has the width of the final dictionary.
+	 * The compressor needs a preliminary pass over the input to learn that width.
+	 */
+	FIXED_WIDTH(0, Constants.BYTE_VALUES_COUNT),
+
+	/**
+	 * Codes start at 9 bits and grow by one bit whenever the dictionary outgrows the current width,
+	 * as in UNIX compress. Both sides track the width from the dictionary size, so the compressor
+	 * makes a single pass and early codes stay narrow.
+	 */
+	VARIABLE_WIDTH(1, Constants.BYTE_VALUES_COUNT),
+
+	/**
+	 * Variable-width codes plus a clear code (256). Once the dictionary is full, the compressor watches
+	 * the compression ratio and emits the clear code when it drops, so both sides start a fresh dictionary
+	 * that fits the data at hand. Helps on large files whose content changes along the way.
+	 */
+	ADAPTIVE_RESET(2, Constants.LZW_CLEAR_CODE + 1),
+
+	/**
+	 * The input is cut into fixed-size blocks that each start from the 256 single-byte entries, so
+	 * blocks are compressed and decompressed in parallel. An index at the end of the file lists the
+	 * length of every block. See {@link LzwBlockCodec} for the layout.
+	 */
+	BLOCKS(3, Constants.BYTE_VALUES_COUNT);
+
+	private final int version;
+	private final int firstCode;
+
+	LzwFormat(int version, int firstCode) {
+		this.version = version;
+		this.firstCode = firstCode;
+	}
+
+	/**
+	 * Version byte written at the start of the file (0 means no version byte is written).
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Code of the first dictionary entry; codes between 255 and this one are reserved.
+	 */
+	public int getFirstCode() {
+		return firstCode;
+	}
+
+	/**
+	 * Finds the format for the first byte of a compressed file.
+	 *
+	 * @param firstByte The first byte of the file (0-255)
+	 * @return The matching format
+	 * @throws IllegalArgumentException if the version is not supported
+	 */
+	public static LzwFormat fromVersion(int firstByte) {
+		for (LzwFormat format : values()) {
+			if (format.version == firstByte) {
+				return format;
+			}
+		}
+		throw new IllegalArgumentException("Unsupported .LmZWp format version: " + firstByte);
+	}
+}
@@ -78,4 +78,22 @@ public class LzwUtils {
 		}
 		return bits;
 	}
+
+	/**
+	 * Calculates the code width of a variable-width LZW file for the given dictionary size.
+	 *
+	 * The width is just wide enough for every code below {@code dictionarySize}, and never
+	 * narrower than {@link Constants#LZW_INITIAL_CODE_WIDTH}.
+	 *
+	 * Examples:
+	 * - dictionarySize = 256 -> 9 bits
+	 * - dictionarySize = 512 -> 9 bits
+	 * - dictionarySize = 513 -> 10 bits
+	 *
+	 * @param dictionarySize Number of codes that may appear next
+	 * @return The number of bits of the next code
+	 */
+	public static int calculateVariableCodeWidth(int dictionarySize) {
+		return Math.max(Constants.LZW_INITIAL_CODE_WIDTH, calculateRequiredBits(dictionarySize));
+	}
 }
@@ -0,0 +1,148 @@
+package prog.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Records compression and decompression jobs as metrics, tagged by algorithm and operation.
+ *
+ * Every job adds to:
+ * - compression_jobs_total: jobs by outcome (success, failure or cancelled)
+ * - compression_bytes_in_total and compression_bytes_out_total: bytes read and written by successful jobs
+ * - compression_duration_seconds: time of successful jobs
+ * - compression_phase_duration_seconds: time of each JobPhase, tagged with the phase
+ * - compression_ratio: compressed size / original size of successful compressions, so values above 1
+ *   are inputs that grew, e.g. already compressed or encrypted files
+ *
+ * The default instance records into MetricsRegistry.getDefault(). If the system property
+ * prog.metrics.file names a file, it also writes a snapshot there after every job, e.g.
+ * -Dprog.metrics.file=/var/lib/node_exporter/compression.prom (or a .json file).
+ *
+ * Usage example:
+ * <pre>
+ * PhaseTimer phases = new PhaseTimer();
+ * compressor.setPhaseTimer(phases);
+ * long start = System.nanoTime();
+ * compressor.compress();
+ * metrics.recordCompression("lzw", originalSize, compressedSize, System.nanoTime() - start, phases);
+ * </pre>
+ */
+public class CompressionMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(CompressionMetrics.class);
+
+    /**
+     * System property naming the file the default instance writes a snapshot to after every job
+     */
+    public static final String SNAPSHOT_FILE_PROPERTY = "prog.metrics.file";
+
+    /**
+     * Upper bounds of the compression ratio buckets; the last ones catch inputs that did not shrink
+     */
+    public static final double[] RATIO_BUCKETS = {0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0, 1.1, 1.5};
+
+    public static final String COMPRESS = "compress";
+    public static final String DECOMPRESS = "decompress";
+
+    private static final CompressionMetrics DEFAULT = new CompressionMetrics(MetricsRegistry.getDefault(),
+        System.getProperty(SNAPSHOT_FILE_PROPERTY) != null ? Path.of(System.getProperty(SNAPSHOT_FILE_PROPERTY)) : null);
+
+    private final MetricsRegistry registry;
+    private final Path snapshotFile;
+
+    /**
+     * @param registry Registry to record into
+     */
+    public CompressionMetrics(MetricsRegistry registry) {
+        this(registry, null);
+    }
+
+    /**
+     * @param registry Registry to record into
+     * @param snapshotFile File to write a snapshot of the registry to after every job, or null for none
+     */
+    public CompressionMetrics(MetricsRegistry registry, Path snapshotFile) {
+        this.registry = registry;
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Returns the instance shared by the GUI handlers.
+     */
+    public static CompressionMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Records a successful compression.
+     *
+     * @param algorithm Algorithm tag, e.g. "huffman"
+     * @param originalSize Bytes read
+     * @param compressedSize Bytes written
+     * @param elapsedNanos Time of the whole job
+     * @param phases Times of the steps, or PhaseTimer.NONE
+     */
+    public void recordCompression(String algorithm, long originalSize, long compressedSize, long elapsedNanos, PhaseTimer phases) {
+        recordSuccess(algorithm, COMPRESS, originalSize, compressedSize, elapsedNanos, phases);
+        if (originalSize > 0) {
+            registry.histogram("compression_ratio", RATIO_BUCKETS, "algorithm", algorithm)
+                .record((double) compressedSize / originalSize);
+        }
+        exportSnapshot();
+    }
+
+    /**
+     * Records a successful decompression.
+     *
+     * @param compressedSize Bytes read
+     * @param originalSize Bytes written
+     */
+    public void recordDecompression(String algorithm, long compressedSize, long originalSize, long elapsedNanos, PhaseTimer phases) {
+        recordSuccess(algorithm, DECOMPRESS, compressedSize, originalSize, elapsedNanos, phases);
+        exportSnapshot();
+    }
+
+    /**
+     * Records a job that failed, or was cancelled if the exception is a CancellationException.
+     *
+     * @param operation COMPRESS or DECOMPRESS
+     */
+    public void recordFailure(String algorithm, String operation, Exception exception) {
+        String outcome = exception instanceof CancellationException ? "cancelled" : "failure";
+        registry.counter("compression_jobs_total", "algorithm", algorithm, "operation", operation, "outcome", outcome).increment();
+        exportSnapshot();
+    }
+
+    private void recordSuccess(String algorithm, String operation, long bytesIn, long bytesOut, long elapsedNanos, PhaseTimer phases) {
+        registry.counter("compression_jobs_total", "algorithm", algorithm, "operation", operation, "outcome", "success").increment();
+        registry.counter("compression_bytes_in_total", "algorithm", algorithm, "operation", operation).increment(bytesIn);
+        registry.counter("compression_bytes_out_total", "algorithm", algorithm, "operation", operation).increment(bytesOut);
+        registry.timer("compression_duration_seconds", "algorithm", algorithm, "operation", operation).record(elapsedNanos);
+        for (Map.Entry<JobPhase, Long> phase : phases.getDurations().entrySet()) {
+            registry.timer("compression_phase_duration_seconds", "algorithm", algorithm, "operation", operation,
+                "phase", phase.getKey().getLabel()).record(phase.getValue());
+        }
+    }
+
+    /**
+     * Writes the snapshot file, if there is one; a metrics file that cannot be written never fails a job.
+     */
+    private void exportSnapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            registry.writeSnapshot(snapshotFile);
+        } catch (IOException e) {
+            logger.warn("Failed to write metrics snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+}
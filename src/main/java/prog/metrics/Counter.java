@@ -0,0 +1,35 @@
+package prog.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up, such as jobs run or bytes read.
+ * Safe to increment from any number of threads at once.
+ */
+public class Counter extends Meter {
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name, Map<String, String> tags) {
+        super(name, tags);
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * @param amount Amount to add
+     * @throws IllegalArgumentException if the amount is negative
+     */
+    public void increment(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("A counter cannot go down, got: " + amount);
+        }
+        count.add(amount);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,71 @@
+package prog.metrics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts values into buckets with fixed upper bounds, such as the compression ratios of jobs.
+ * A last bucket without a bound takes the values above every bound.
+ * Safe to record from any number of threads at once.
+ *
+ * Example: with the bounds {0.5, 1.0}, the values 0.3, 0.8 and 1.2 land in one bucket each.
+ */
+public class Histogram extends Meter {
+    private final double[] bucketBounds;
+    private final LongAdder[] bucketCounts;
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+
+    /**
+     * @param bucketBounds Upper bounds of the buckets, included in them, in increasing order
+     */
+    Histogram(String name, Map<String, String> tags, double[] bucketBounds) {
+        super(name, tags);
+        for (int i = 0; i < bucketBounds.length; i++) {
+            if (!Double.isFinite(bucketBounds[i]) || i > 0 && bucketBounds[i] <= bucketBounds[i - 1]) {
+                throw new IllegalArgumentException("Bucket bounds must be finite and increasing: " + Arrays.toString(bucketBounds));
+            }
+        }
+        this.bucketBounds = bucketBounds.clone();
+        this.bucketCounts = new LongAdder[bucketBounds.length + 1];
+        for (int i = 0; i < bucketCounts.length; i++) {
+            bucketCounts[i] = new LongAdder();
+        }
+    }
+
+    public void record(double value) {
+        int bucket = Arrays.binarySearch(bucketBounds, value);
+        // Not found: binarySearch returns -(first bound above the value) - 1
+        bucketCounts[bucket >= 0 ? bucket : -bucket - 1].increment();
+        count.increment();
+        sum.add(value);
+    }
+
+    public double[] getBucketBounds() {
+        return bucketBounds.clone();
+    }
+
+    /**
+     * Returns the number of values at or below each bound, then the number of all values.
+     * Example: after recording 0.3, 0.8 and 1.2 with the bounds {0.5, 1.0}: {1, 2, 3}
+     */
+    public long[] getCumulativeCounts() {
+        long[] cumulative = new long[bucketCounts.length];
+        long total = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            total += bucketCounts[i].sum();
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSum() {
+        return sum.sum();
+    }
+}
@@ -0,0 +1,60 @@
+package prog.metrics;
+
+/**
+ * Step of a compression or decompression timed by a PhaseTimer.
+ *
+ * Finer than the progress phases: it also covers the steps that read no input, such as building the
+ * Huffman tree or flushing the output. A job runs only the steps of its format, e.g. a Huffman
+ * compression runs FREQUENCY_COUNT, TREE_BUILD, HEADER_WRITE, ENCODE and FLUSH, an LZW one
+ * HEADER_WRITE, ENCODE and FLUSH.
+ */
+public enum JobPhase {
+    /**
+     * Counting how often each byte occurs (Huffman)
+     */
+    FREQUENCY_COUNT("frequency_count"),
+
+    /**
+     * Building the dictionary once to find the width of fixed-width codes (LZW)
+     */
+    DICTIONARY_SCAN("dictionary_scan"),
+
+    /**
+     * Building the Huffman tree and codes from the frequencies
+     */
+    TREE_BUILD("tree_build"),
+
+    /**
+     * Writing the header: version, frequency table or code lengths, padding information
+     */
+    HEADER_WRITE("header_write"),
+
+    /**
+     * Reading the input and writing the compressed bytes
+     */
+    ENCODE("encode"),
+
+    /**
+     * Reading the compressed bytes and writing the original ones
+     */
+    DECODE("decode"),
+
+    /**
+     * Writing the last buffered bytes to the output
+     */
+    FLUSH("flush");
+
+    private final String label;
+
+    JobPhase(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the value of the "phase" tag in metrics.
+     * Example: "tree_build"
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,29 @@
+package prog.metrics;
+
+import java.util.Map;
+
+/**
+ * A named measurement with tags, created and kept by a MetricsRegistry.
+ *
+ * Example: the counter "compression_jobs_total" with the tags algorithm=lzw and outcome=success.
+ */
+public abstract class Meter {
+    private final String name;
+    private final Map<String, String> tags;
+
+    Meter(String name, Map<String, String> tags) {
+        this.name = name;
+        this.tags = tags;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The tags sorted by key; the map cannot be modified
+     */
+    public Map<String, String> getTags() {
+        return tags;
+    }
+}
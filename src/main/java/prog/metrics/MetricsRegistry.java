@@ -0,0 +1,162 @@
+package prog.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Creates and keeps the meters of an application, and writes them out as a snapshot.
+ *
+ * A meter is identified by its name and tags: asking twice for the same ones returns the same meter,
+ * so callers can look meters up on every use instead of keeping them. Names and tag keys follow
+ * the Prometheus rules (letters, digits and underscores), so a snapshot can be scraped as it is.
+ *
+ * Usage example:
+ * <pre>
+ * MetricsRegistry registry = MetricsRegistry.getDefault();
+ * registry.counter("compression_jobs_total", "algorithm", "lzw").increment();
+ * registry.writeSnapshot(Path.of("/var/lib/node_exporter/compression.prom"));
+ * </pre>
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern TAG_KEY = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+    /**
+     * Meters by name and tags, e.g. "compression_jobs_total{algorithm=\"lzw\"}", so a snapshot lists them in order
+     */
+    private final ConcurrentSkipListMap<String, Meter> meters = new ConcurrentSkipListMap<>();
+
+    /**
+     * Kind of meter of every name; the tags cannot turn a counter into a timer
+     */
+    private final ConcurrentMap<String, Class<? extends Meter>> meterTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the registry shared by the whole application.
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the counter with the given name and tags, creating it if needed.
+     *
+     * @param name Name of the counter, e.g. "compression_jobs_total"
+     * @param tags Tag keys and values, alternating, e.g. "algorithm", "lzw"
+     * @throws IllegalArgumentException if the name or tags are invalid, or the name belongs to another kind of meter
+     */
+    public Counter counter(String name, String... tags) {
+        return register(Counter.class, name, tags, Counter::new);
+    }
+
+    /**
+     * Returns the timer with the given name and tags, creating it if needed.
+     * Timer names should end in "_seconds", the unit of snapshots.
+     *
+     * @throws IllegalArgumentException if the name or tags are invalid, or the name belongs to another kind of meter
+     */
+    public Timer timer(String name, String... tags) {
+        return register(Timer.class, name, tags, Timer::new);
+    }
+
+    /**
+     * Returns the histogram with the given name and tags, creating it with the given buckets if needed.
+     *
+     * @param bucketBounds Upper bounds of the buckets, in increasing order; ignored if the histogram exists
+     * @throws IllegalArgumentException if the name, tags or bounds are invalid, or the name belongs to another kind of meter
+     */
+    public Histogram histogram(String name, double[] bucketBounds, String... tags) {
+        return register(Histogram.class, name, tags, (meterName, tagMap) -> new Histogram(meterName, tagMap, bucketBounds));
+    }
+
+    private <T extends Meter> T register(Class<T> type, String name, String[] tags,
+                                         BiFunction<String, Map<String, String>, T> factory) {
+        Map<String, String> tagMap = toTagMap(name, tags);
+        Class<? extends Meter> registeredType = meterTypes.putIfAbsent(name, type);
+        if (registeredType != null && registeredType != type) {
+            throw new IllegalArgumentException(name + " is a " + registeredType.getSimpleName() + ", not a " + type.getSimpleName());
+        }
+        Meter meter = meters.computeIfAbsent(SnapshotFormat.prometheusId(name, tagMap), id -> factory.apply(name, tagMap));
+        return type.cast(meter);
+    }
+
+    private static Map<String, String> toTagMap(String name, String[] tags) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags must be key and value pairs for " + name);
+        }
+        Map<String, String> tagMap = new TreeMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            if (!TAG_KEY.matcher(tags[i]).matches() || tags[i + 1] == null) {
+                throw new IllegalArgumentException("Invalid tag for " + name + ": " + tags[i] + "=" + tags[i + 1]);
+            }
+            tagMap.put(tags[i], tags[i + 1]);
+        }
+        return Collections.unmodifiableMap(tagMap);
+    }
+
+    /**
+     * Returns every meter, sorted by name and then tags.
+     */
+    public List<Meter> getMeters() {
+        return new ArrayList<>(meters.values());
+    }
+
+    /**
+     * Returns the meters in the Prometheus text exposition format.
+     * Timers are written as summaries in seconds, with a "_max" gauge next to them.
+     */
+    public String toPrometheusText() {
+        return SnapshotFormat.toPrometheusText(getMeters());
+    }
+
+    /**
+     * Returns the meters as a JSON document with the time of the snapshot.
+     */
+    public String toJson() {
+        return SnapshotFormat.toJson(getMeters());
+    }
+
+    /**
+     * Writes a snapshot of the meters to a file: JSON if its name ends in ".json", Prometheus text otherwise.
+     *
+     * The snapshot is written next to the file and then moved over it, so a collector reading the file
+     * (e.g. the node_exporter textfile collector) never sees half of it.
+     *
+     * @param file File to create or replace
+     * @throws IOException If the file cannot be written
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        String snapshot = file.getFileName().toString().endsWith(".json") ? toJson() : toPrometheusText();
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temporaryFile, snapshot, StandardCharsets.UTF_8);
+            try {
+                Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+}
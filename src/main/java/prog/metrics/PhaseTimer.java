@@ -0,0 +1,79 @@
+package prog.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Measures how long each step of one job takes.
+ *
+ * An engine calls start() at the beginning of every step, which also ends the previous one, and
+ * stop() after the last. The engines hold PhaseTimer.NONE unless a timer is set, so a job that
+ * nobody measures only makes a few calls that do nothing.
+ *
+ * Usage example:
+ * <pre>
+ * PhaseTimer phases = new PhaseTimer();
+ * compressor.setPhaseTimer(phases);
+ * compressor.compress();
+ * long encodeNanos = phases.getDurations().get(JobPhase.ENCODE);
+ * </pre>
+ *
+ * Note: A timer belongs to one job on one thread; it is not thread-safe.
+ */
+public class PhaseTimer {
+    /**
+     * Timer that measures nothing
+     */
+    public static final PhaseTimer NONE = new PhaseTimer(false);
+
+    private final boolean enabled;
+    private final Map<JobPhase, Long> durations = new EnumMap<>(JobPhase.class);
+    private JobPhase current;
+    private long currentStartNanos;
+
+    public PhaseTimer() {
+        this(true);
+    }
+
+    private PhaseTimer(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Ends the running step, if any, and starts the given one.
+     * A step started twice adds up, e.g. the encode step of every block.
+     */
+    public void start(JobPhase phase) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        endCurrent(now);
+        current = phase;
+        currentStartNanos = now;
+    }
+
+    /**
+     * Ends the running step, if any.
+     */
+    public void stop() {
+        if (enabled) {
+            endCurrent(System.nanoTime());
+        }
+    }
+
+    private void endCurrent(long now) {
+        if (current != null) {
+            durations.merge(current, now - currentStartNanos, Long::sum);
+            current = null;
+        }
+    }
+
+    /**
+     * Returns the time spent in every step that ran, in nanoseconds, in the order of JobPhase.
+     * A step still running is not included.
+     */
+    public Map<JobPhase, Long> getDurations() {
+        return new EnumMap<>(durations);
+    }
+}
@@ -0,0 +1,169 @@
+package prog.metrics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes meters as Prometheus text or JSON.
+ *
+ * Prometheus wants every line of a metric family together, after one "# TYPE" line,
+ * so the meters are grouped by name first; the registry lists them sorted, so groups stay in order.
+ */
+final class SnapshotFormat {
+    private SnapshotFormat() {
+    }
+
+    /**
+     * Returns the Prometheus form of a name with tags, which also identifies a meter in the registry.
+     * Example: compression_jobs_total{algorithm="lzw",outcome="success"}
+     */
+    static String prometheusId(String name, Map<String, String> tags) {
+        StringBuilder id = new StringBuilder(name);
+        appendLabels(id, tags, null, null);
+        return id.toString();
+    }
+
+    static String toPrometheusText(List<Meter> meters) {
+        StringBuilder text = new StringBuilder();
+        for (List<Meter> family : groupByName(meters).values()) {
+            String name = family.get(0).getName();
+            Meter first = family.get(0);
+            if (first instanceof Counter) {
+                text.append("# TYPE ").append(name).append(" counter\n");
+                for (Meter meter : family) {
+                    appendSample(text, name, meter.getTags(), null, null, ((Counter) meter).getCount());
+                }
+            } else if (first instanceof Timer) {
+                text.append("# TYPE ").append(name).append(" summary\n");
+                for (Meter meter : family) {
+                    Timer timer = (Timer) meter;
+                    appendSample(text, name + "_count", timer.getTags(), null, null, timer.getCount());
+                    appendSample(text, name + "_sum", timer.getTags(), null, null, timer.getTotalSeconds());
+                }
+                text.append("# TYPE ").append(name).append("_max gauge\n");
+                for (Meter meter : family) {
+                    appendSample(text, name + "_max", meter.getTags(), null, null, ((Timer) meter).getMaxSeconds());
+                }
+            } else if (first instanceof Histogram) {
+                text.append("# TYPE ").append(name).append(" histogram\n");
+                for (Meter meter : family) {
+                    Histogram histogram = (Histogram) meter;
+                    double[] bounds = histogram.getBucketBounds();
+                    long[] counts = histogram.getCumulativeCounts();
+                    for (int i = 0; i < counts.length; i++) {
+                        String bound = i < bounds.length ? Double.toString(bounds[i]) : "+Inf";
+                        appendSample(text, name + "_bucket", histogram.getTags(), "le", bound, counts[i]);
+                    }
+                    appendSample(text, name + "_sum", histogram.getTags(), null, null, histogram.getSum());
+                    // The last bucket holds every value, and matches the buckets even while values are recorded
+                    appendSample(text, name + "_count", histogram.getTags(), null, null, counts[counts.length - 1]);
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    private static Map<String, List<Meter>> groupByName(List<Meter> meters) {
+        Map<String, List<Meter>> families = new LinkedHashMap<>();
+        for (Meter meter : meters) {
+            families.computeIfAbsent(meter.getName(), name -> new ArrayList<>()).add(meter);
+        }
+        return families;
+    }
+
+    private static void appendSample(StringBuilder text, String name, Map<String, String> tags,
+                                     String extraKey, String extraValue, Number value) {
+        text.append(name);
+        appendLabels(text, tags, extraKey, extraValue);
+        text.append(' ').append(value).append('\n');
+    }
+
+    private static void appendLabels(StringBuilder text, Map<String, String> tags, String extraKey, String extraValue) {
+        if (tags.isEmpty() && extraKey == null) {
+            return;
+        }
+        text.append('{');
+        String separator = "";
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            text.append(separator).append(tag.getKey()).append("=\"").append(escapeLabel(tag.getValue())).append('"');
+            separator = ",";
+        }
+        if (extraKey != null) {
+            text.append(separator).append(extraKey).append("=\"").append(extraValue).append('"');
+        }
+        text.append('}');
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    static String toJson(List<Meter> meters) {
+        StringBuilder json = new StringBuilder("{\n  \"timestamp\": ");
+        appendJsonString(json, Instant.now().toString());
+        json.append(",\n  \"metrics\": [");
+        String separator = "\n";
+        for (Meter meter : meters) {
+            json.append(separator).append("    {\"name\": ");
+            appendJsonString(json, meter.getName());
+            json.append(", \"tags\": {");
+            String tagSeparator = "";
+            for (Map.Entry<String, String> tag : meter.getTags().entrySet()) {
+                json.append(tagSeparator);
+                appendJsonString(json, tag.getKey());
+                json.append(": ");
+                appendJsonString(json, tag.getValue());
+                tagSeparator = ", ";
+            }
+            json.append("}, ");
+
+            if (meter instanceof Counter counter) {
+                json.append("\"type\": \"counter\", \"value\": ").append(counter.getCount());
+            } else if (meter instanceof Timer timer) {
+                json.append("\"type\": \"timer\", \"count\": ").append(timer.getCount())
+                    .append(", \"totalSeconds\": ").append(timer.getTotalSeconds())
+                    .append(", \"maxSeconds\": ").append(timer.getMaxSeconds());
+            } else if (meter instanceof Histogram histogram) {
+                double[] bounds = histogram.getBucketBounds();
+                long[] counts = histogram.getCumulativeCounts();
+                json.append("\"type\": \"histogram\", \"count\": ").append(counts[counts.length - 1])
+                    .append(", \"sum\": ").append(histogram.getSum())
+                    .append(", \"buckets\": [");
+                for (int i = 0; i < counts.length; i++) {
+                    json.append(i > 0 ? ", " : "").append("{\"le\": ")
+                        .append(i < bounds.length ? Double.toString(bounds[i]) : "\"+Inf\"")
+                        .append(", \"count\": ").append(counts[i]).append('}');
+                }
+                json.append(']');
+            }
+            json.append('}');
+            separator = ",\n";
+        }
+        return json.append(meters.isEmpty() ? "]\n}\n" : "\n  ]\n}\n").toString();
+    }
+
+    private static void appendJsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,54 @@
+package prog.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The number, total and longest of a kind of duration, such as the encode phase of LZW jobs.
+ * Safe to record from any number of threads at once.
+ */
+public class Timer extends Meter {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    Timer(String name, Map<String, String> tags) {
+        super(name, tags);
+    }
+
+    /**
+     * @param nanos Duration to record
+     * @throws IllegalArgumentException if the duration is negative
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Duration cannot be negative, got: " + nanos);
+        }
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public double getTotalSeconds() {
+        return getTotalNanos() / NANOS_PER_SECOND;
+    }
+
+    public double getMaxSeconds() {
+        return getMaxNanos() / NANOS_PER_SECOND;
+    }
+}
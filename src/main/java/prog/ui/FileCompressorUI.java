@@ -23,6 +23,9 @@ public class FileCompressorUI {
     private JButton lzwDecompressButton;
     private JButton exitButton;
     private JButton browseButton;
+    private JProgressBar progressBar;
+    private JLabel progressDetailsLabel;
+    private JButton cancelButton;
 
     /**
      * Creates file information display panel
@@ -96,6 +99,36 @@ public class FileCompressorUI {
         return mainPanel;
     }
 
+    /**
+     * Creates the progress panel: progress bar, cancel button, and throughput and time left below
+     */
+    private JPanel createProgressPanel(ActionListener listener) {
+        JPanel panel = new JPanel(new BorderLayout(10, 5));
+        panel.setOpaque(false);
+        panel.setBorder(new EmptyBorder(0, 0, 10, 0));
+
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+
+        cancelButton = new JButton("⏹ Cancel");
+        cancelButton.setFont(new Font("Arial", Font.PLAIN, 11));
+        cancelButton.setPreferredSize(new Dimension(100, 25));
+        cancelButton.addActionListener(listener);
+        cancelButton.setToolTipText("Stop the running operation and delete its partial output");
+        cancelButton.setEnabled(false);
+
+        progressDetailsLabel = new JLabel(" ", SwingConstants.CENTER);
+        progressDetailsLabel.setFont(new Font("Arial", Font.PLAIN, 11));
+        progressDetailsLabel.setForeground(Color.DARK_GRAY);
+
+        panel.add(progressBar, BorderLayout.CENTER);
+        panel.add(cancelButton, BorderLayout.EAST);
+        panel.add(progressDetailsLabel, BorderLayout.SOUTH);
+
+        return panel;
+    }
+
     /**
      * Main content pane creation with modern layout
      */
@@ -119,7 +152,7 @@ public class FileCompressorUI {
         JPanel centerSection = createActionButtonsPanel(buttonListener);
         centerSection.setOpaque(false);
 
-        // Bottom section: Status and exit
+        // Bottom section: Progress, status and exit
         JPanel bottomSection = new JPanel(new BorderLayout());
         bottomSection.setOpaque(false);
 
@@ -133,6 +166,7 @@ public class FileCompressorUI {
         exitButton.addActionListener(buttonListener);
         exitButton.setToolTipText("Close the application");
 
+        bottomSection.add(createProgressPanel(buttonListener), BorderLayout.NORTH);
         bottomSection.add(statusLabel, BorderLayout.CENTER);
         bottomSection.add(exitButton, BorderLayout.EAST);
 
@@ -155,4 +189,7 @@ public class FileCompressorUI {
     public JButton getLzwDecompressButton() { return lzwDecompressButton; }
     public JButton getExitButton() { return exitButton; }
     public JButton getBrowseButton() { return browseButton; }
+    public JProgressBar getProgressBar() { return progressBar; }
+    public JLabel getProgressDetailsLabel() { return progressDetailsLabel; }
+    public JButton getCancelButton() { return cancelButton; }
 }
@@ -0,0 +1,174 @@
+package prog.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads variable-length bit codes, most significant bit first.
+ *
+ * Bytes are shifted into a 64-bit register from a ByteBuffer, which is either the caller's buffer
+ * or a chunk refilled from a ByteReader. Codes are peeked and skipped as plain numbers, so decoding
+ * allocates nothing per code.
+ *
+ * The last {@code extraBits} bits of the input are padding written by the compressor to fill the
+ * final byte. They never count as available.
+ *
+ * Example (bytes 0b11010110, extraBits=2):
+ * - getAvailableBits() returns 6
+ * - peekBits(3) returns 0b110, skipBits(3), then peekBits(3) returns 0b101
+ * - after skipBits(3), getAvailableBits() returns 0
+ */
+public class BitReader {
+    /**
+     * Size of the chunks read from a ByteReader.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Longest code that can be peeked at once: the register is refilled a whole byte at a time,
+     * so it always holds at least this many bits before the end of the input.
+     */
+    public static final int MAX_PEEK_BITS = Long.SIZE - Constants.BITS_PER_BYTE + 1;
+
+    private final ByteReader byteReader;
+    private final ByteBuffer buffer;
+    private final int extraBits;
+
+    /**
+     * Bits not yet consumed, left-aligned: the next bit is the most significant one
+     */
+    private long register;
+    private int bitCount;
+    private boolean endOfInput;
+
+    /**
+     * Reads bits from a byte array.
+     * @param bytes Data to read, the last byte ending with extraBits padding bits
+     * @param extraBits Number of padding bits (0-7) at the end of the data
+     */
+    public BitReader(byte[] bytes, int extraBits) {
+        this(ByteBuffer.wrap(bytes), extraBits);
+    }
+
+    /**
+     * Reads bits from the remaining bytes of a buffer (between its position and limit).
+     * @param buffer Data to read, the last byte ending with extraBits padding bits
+     * @param extraBits Number of padding bits (0-7) at the end of the data
+     */
+    public BitReader(ByteBuffer buffer, int extraBits) {
+        this.byteReader = null;
+        this.buffer = buffer.slice();
+        this.extraBits = extraBits;
+        this.endOfInput = !this.buffer.hasRemaining();
+    }
+
+    /**
+     * Reads bits from the rest of a file, in chunks of DEFAULT_BUFFER_SIZE bytes.
+     * @param byteReader Reader positioned at the first byte of the bit stream
+     * @param extraBits Number of padding bits (0-7) at the end of the file
+     */
+    public BitReader(ByteReader byteReader, int extraBits) throws IOException {
+        this(byteReader, extraBits, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Reads bits from the rest of a file, in chunks of bufferSize bytes.
+     * Small inputs read with a small buffer, so decoding a short message allocates little.
+     * @param byteReader Reader positioned at the first byte of the bit stream
+     * @param extraBits Number of padding bits (0-7) at the end of the file
+     * @param bufferSize Size of the chunks, at least 1 byte
+     */
+    public BitReader(ByteReader byteReader, int extraBits, int bufferSize) throws IOException {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive, got: " + bufferSize);
+        }
+        this.byteReader = byteReader;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.extraBits = extraBits;
+        readChunk();
+    }
+
+    /**
+     * Refills the buffer from the ByteReader, if any, and detects the end of the input.
+     * The end is detected as soon as the last byte is taken, so the padding is known
+     * before it reaches the register.
+     */
+    private void readChunk() throws IOException {
+        if (byteReader != null) {
+            int bytesRead = byteReader.read(buffer.array(), 0, buffer.capacity());
+            buffer.clear();
+            buffer.limit(Math.max(bytesRead, 0));
+        }
+        endOfInput = !buffer.hasRemaining();
+    }
+
+    private void refill() throws IOException {
+        while (bitCount <= Long.SIZE - Constants.BITS_PER_BYTE && !endOfInput) {
+            register |= (long) (buffer.get() & 0xFF) << (Long.SIZE - Constants.BITS_PER_BYTE - bitCount);
+            bitCount += Constants.BITS_PER_BYTE;
+            if (!buffer.hasRemaining()) {
+                readChunk();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bits that can be peeked or skipped right now, excluding padding.
+     * At least MAX_PEEK_BITS until the end of the input comes close; 0 once every data bit is consumed.
+     */
+    public int getAvailableBits() throws IOException {
+        refill();
+        return endOfInput ? Math.max(0, bitCount - extraBits) : bitCount;
+    }
+
+    /**
+     * Returns the next {@code length} bits without consuming them, right-aligned.
+     * Bits past the end of the input read as zero; check getAvailableBits() to tell them apart.
+     *
+     * @param length Number of bits (1 to MAX_PEEK_BITS)
+     */
+    public long peekBits(int length) throws IOException {
+        if (length < 1 || length > MAX_PEEK_BITS) {
+            throw new IllegalArgumentException("Can peek 1 to " + MAX_PEEK_BITS + " bits, got: " + length);
+        }
+        if (bitCount < length) {
+            refill();
+        }
+        return register >>> (Long.SIZE - length);
+    }
+
+    /**
+     * Consumes the next {@code length} bits.
+     *
+     * @param length Number of bits, may exceed MAX_PEEK_BITS
+     * @throws EOFException if the input ends (or only padding is left) before that many bits
+     */
+    public void skipBits(int length) throws IOException {
+        while (length > 0) {
+            int availableBits = getAvailableBits();
+            if (availableBits == 0) {
+                throw new EOFException("Cannot skip " + length + " more bits past the end of the input");
+            }
+            int step = Math.min(length, availableBits);
+            register = step == Long.SIZE ? 0 : register << step;
+            bitCount -= step;
+            length -= step;
+        }
+    }
+
+    /**
+     * Consumes the next {@code length} bits and returns them, right-aligned.
+     *
+     * @param length Number of bits (1 to MAX_PEEK_BITS)
+     * @throws EOFException if fewer than {@code length} bits are available
+     */
+    public long readBits(int length) throws IOException {
+        long value = peekBits(length);
+        if (getAvailableBits() < length) {
+            throw new EOFException("Cannot read " + length + " bits past the end of the input");
+        }
+        skipBits(length);
+        return value;
+    }
+}
@@ -0,0 +1,122 @@
+package prog.util;
+
+import java.io.IOException;
+
+/**
+ * Packs variable-length bit codes into bytes, most significant bit first.
+ *
+ * Codes are shifted into a 64-bit accumulator; whenever it holds a full 32-bit word, the word is
+ * copied into a byte buffer, and the buffer is handed to the ByteWriter in one call when it fills up.
+ * No intermediate Strings or per-byte writes are involved.
+ *
+ * Example: writeBits(0b1, 1), writeBits(0b01, 2), flush() writes the single byte 0b10100000
+ */
+public class BitWriter {
+    /**
+     * Default size of the byte buffer handed to the ByteWriter.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int WORD_BITS = Integer.SIZE;
+
+    private final ByteWriter byteWriter;
+    private final byte[] buffer;
+    private int bufferPosition;
+
+    /**
+     * Pending bits, right-aligned: the oldest bit is at position bitCount - 1
+     */
+    private long accumulator;
+    private int bitCount;
+
+    public BitWriter(ByteWriter byteWriter) {
+        this(byteWriter, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param byteWriter Destination of the packed bytes
+     * @param bufferSize Size of the byte buffer, at least 4 bytes (one word)
+     */
+    public BitWriter(ByteWriter byteWriter, int bufferSize) {
+        if (bufferSize < WORD_BITS / Constants.BITS_PER_BYTE) {
+            throw new IllegalArgumentException("Buffer must hold at least one word, got: " + bufferSize);
+        }
+        this.byteWriter = byteWriter;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Appends the lowest {@code length} bits of {@code value}, most significant bit first.
+     *
+     * Examples:
+     * - writeBits(0b110, 3) appends "110"
+     * - writeBits(0b1, 4) appends "0001"
+     *
+     * @param value Code value, right-aligned; bits above {@code length} are ignored
+     * @param length Number of bits to append (0-64)
+     */
+    public void writeBits(long value, int length) throws IOException {
+        if (length > WORD_BITS) {
+            // Split so the accumulator never holds more than 63 bits
+            writeBits(value >>> WORD_BITS, length - WORD_BITS);
+            length = WORD_BITS;
+        }
+        if (length == 0) return;
+        accumulator = (accumulator << length) | (value & (-1L >>> (Long.SIZE - length)));
+        bitCount += length;
+        if (bitCount >= WORD_BITS) {
+            bitCount -= WORD_BITS;
+            writeWord((int) (accumulator >>> bitCount));
+        }
+    }
+
+    private void writeWord(int word) throws IOException {
+        if (bufferPosition > buffer.length - 4) {
+            flushBuffer();
+        }
+        buffer[bufferPosition] = (byte) (word >>> 24);
+        buffer[bufferPosition + 1] = (byte) (word >>> 16);
+        buffer[bufferPosition + 2] = (byte) (word >>> 8);
+        buffer[bufferPosition + 3] = (byte) word;
+        bufferPosition += 4;
+    }
+
+    private void flushBuffer() throws IOException {
+        byteWriter.write(buffer, 0, bufferPosition);
+        bufferPosition = 0;
+    }
+
+    /**
+     * Writes the pending bits that fill whole bytes, without padding.
+     * Up to 7 bits stay pending, so the bit stream continues exactly where it was.
+     *
+     * Example: after writeBits(0b1010110011, 10), writes the byte 0b10101100 and keeps "11"
+     */
+    public void flushWholeBytes() throws IOException {
+        while (bitCount >= Constants.BITS_PER_BYTE) {
+            if (bufferPosition == buffer.length) {
+                flushBuffer();
+            }
+            bitCount -= Constants.BITS_PER_BYTE;
+            buffer[bufferPosition++] = (byte) (accumulator >>> bitCount);
+        }
+        flushBuffer();
+    }
+
+    /**
+     * Writes all pending bits, padding the last byte with zero bits.
+     * Further bits start on a fresh byte boundary.
+     */
+    public void flush() throws IOException {
+        while (bitCount > 0) {
+            if (bufferPosition == buffer.length) {
+                flushBuffer();
+            }
+            int shift = bitCount - Constants.BITS_PER_BYTE;
+            buffer[bufferPosition++] = (byte) (shift >= 0 ? accumulator >>> shift : accumulator << -shift);
+            bitCount = Math.max(shift, 0);
+        }
+        accumulator = 0;
+        flushBuffer();
+    }
+}
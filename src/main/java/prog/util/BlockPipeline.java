@@ -0,0 +1,112 @@
+package prog.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runs block tasks in parallel and hands their results to a writer in submission order.
+ *
+ * Used by the block formats: blocks are read sequentially, compressed or decompressed on a
+ * ForkJoinPool, and written in the order they appear in the input. At most two tasks per worker
+ * thread are in flight; submitting beyond that first writes the oldest result, which keeps
+ * every core busy while bounding memory to a few blocks per core.
+ *
+ * Example:
+ * <pre>
+ * BlockPipeline pipeline = new BlockPipeline((length, data) -> writer.write(data, 0, data.length));
+ * pipeline.submit(length, () -> encode(block, length));
+ * pipeline.finish();
+ * </pre>
+ */
+public class BlockPipeline {
+    /**
+     * Receives the result of every block, in submission order.
+     */
+    @FunctionalInterface
+    public interface BlockWriter {
+        /**
+         * @param originalLength Uncompressed length of the block, as passed to submit
+         * @param data Result of the block's task
+         */
+        void write(int originalLength, byte[] data) throws IOException;
+    }
+
+    private final ForkJoinPool pool;
+    private final BlockWriter writer;
+    private final int maxBlocksInFlight;
+    private final Deque<Future<byte[]>> pendingTasks = new ArrayDeque<>();
+    private final Deque<Integer> pendingLengths = new ArrayDeque<>();
+
+    /**
+     * Runs the tasks on the common ForkJoinPool.
+     */
+    public BlockPipeline(BlockWriter writer) {
+        this(ForkJoinPool.commonPool(), writer);
+    }
+
+    public BlockPipeline(ForkJoinPool pool, BlockWriter writer) {
+        this.pool = pool;
+        this.writer = writer;
+        this.maxBlocksInFlight = 2 * pool.getParallelism();
+    }
+
+    /**
+     * Starts the task of the next block, first writing the oldest result if too many blocks are in flight.
+     *
+     * @param originalLength Uncompressed length of the block, passed on to the writer
+     * @param task Produces the bytes to write for the block
+     * @throws IOException If an earlier task or the writer failed
+     */
+    public void submit(int originalLength, Callable<byte[]> task) throws IOException {
+        if (pendingTasks.size() >= maxBlocksInFlight) {
+            writeOldest();
+        }
+        pendingTasks.add(pool.submit(task));
+        pendingLengths.add(originalLength);
+    }
+
+    /**
+     * Waits for every remaining task and writes the results in order.
+     *
+     * @throws IOException If a task or the writer failed
+     */
+    public void finish() throws IOException {
+        while (!pendingTasks.isEmpty()) {
+            writeOldest();
+        }
+    }
+
+    private void writeOldest() throws IOException {
+        Future<byte[]> task = pendingTasks.poll();
+        int originalLength = pendingLengths.poll();
+        byte[] data;
+        try {
+            data = task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelPending();
+            throw new InterruptedIOException("Interrupted while waiting for a block");
+        } catch (ExecutionException e) {
+            cancelPending();
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to process block", e.getCause());
+        }
+        writer.write(originalLength, data);
+    }
+
+    private void cancelPending() {
+        for (Future<byte[]> task : pendingTasks) {
+            task.cancel(false);
+        }
+        pendingTasks.clear();
+        pendingLengths.clear();
+    }
+}
@@ -1,21 +1,286 @@
 package prog.util;
 
-import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.function.LongConsumer;
 
 /**
- * Wrapper for reading bytes sequentially from a file.
- * Provides cleaner iteration over byte streams.
+ * Wrapper for reading bytes sequentially from a file or any input stream.
+ * Reads the file in large chunks into an internal buffer, so single-byte reads
+ * cost an array access instead of a system call.
+ * Can also read straight from a sequence of in-memory or memory-mapped buffers.
  */
 public class ByteReader implements AutoCloseable {
-    private final DataInputStream dataInputStream;
-    private final FileInputStream fileInputStream;
+    /**
+     * Default size of the internal buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Source of the chunks in file mode, null when reading from buffers
+     * Example: a FileInputStream, or the body of an HTTP request
+     */
+    private final InputStream inputStream;
+
+    /**
+     * Bytes of the file left to read in file mode
+     */
+    private long fileBytesRemaining;
+
+    /**
+     * Buffers read in order when not reading from a file
+     */
+    private final ByteBuffer[] segments;
+    private int segmentIndex;
+
+    /**
+     * Bytes between position and limit have not been read yet
+     */
+    private ByteBuffer current;
+
+    /**
+     * Bytes handed out so far, counted a chunk at a time
+     * Example: 131072 after the second 64 KB chunk of a file was loaded
+     */
+    private long bytesRead;
+
+    /**
+     * Told the new total after every chunk, or null
+     */
+    private LongConsumer readListener;
+
+    /**
+     * Longest chunk in bytes, shorter than the buffer only when a listener asked for finer reports
+     */
+    private int maxChunkSize = Integer.MAX_VALUE;
 
     public ByteReader(String filePath) throws IOException {
-        this.fileInputStream = new FileInputStream(filePath);
-        this.dataInputStream = new DataInputStream(fileInputStream);
+        this(filePath, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param filePath File to read
+     * @param bufferSize Size of the internal buffer in bytes
+     */
+    public ByteReader(String filePath, int bufferSize) throws IOException {
+        this(openFile(filePath, bufferSize), bufferSize);
+    }
+
+    public ByteReader(InputStream inputStream) {
+        this(inputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Reads the stream as if it were a file.
+     *
+     * @param inputStream Stream to read; closing the reader closes it
+     * @param bufferSize Size of the internal buffer in bytes
+     */
+    public ByteReader(InputStream inputStream, int bufferSize) {
+        checkBufferSize(bufferSize);
+        this.inputStream = inputStream;
+        this.fileBytesRemaining = Long.MAX_VALUE;
+        this.segments = null;
+        this.current = ByteBuffer.allocate(bufferSize).limit(0);
+    }
+
+    /**
+     * Reads only a range of the file.
+     *
+     * Example: new ByteReader(path, 1 << 20, 1 << 20) reads the second megabyte of the file
+     *
+     * @param filePath File to read
+     * @param offset Position of the first byte to read
+     * @param length Maximum number of bytes to read
+     */
+    public ByteReader(String filePath, long offset, long length) throws IOException {
+        this(openRange(filePath, offset, length), DEFAULT_BUFFER_SIZE);
+        this.fileBytesRemaining = length;
+    }
+
+    /**
+     * Validates the buffer size before the file is opened, so a bad size leaves no file open.
+     */
+    private static FileInputStream openFile(String filePath, int bufferSize) throws IOException {
+        checkBufferSize(bufferSize);
+        return new FileInputStream(filePath);
+    }
+
+    private static FileInputStream openRange(String filePath, long offset, long length) throws IOException {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Invalid range: offset " + offset + ", length " + length);
+        }
+        FileInputStream fileInputStream = new FileInputStream(filePath);
+        try {
+            fileInputStream.getChannel().position(offset);
+        } catch (IOException e) {
+            fileInputStream.close();
+            throw e;
+        }
+        return fileInputStream;
+    }
+
+    private static void checkBufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive, got: " + bufferSize);
+        }
+    }
+
+    /**
+     * Reads the remaining bytes of the given buffers, one after another.
+     * The buffers' own positions are left untouched, so the same buffers can be read again.
+     *
+     * Example: the memory-mapped windows of a file larger than 2 GB
+     *
+     * @param segments Buffers to read in order
+     */
+    public ByteReader(ByteBuffer... segments) {
+        this.inputStream = null;
+        this.segments = segments;
+        this.segmentIndex = -1;
+        this.current = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Moves to the next chunk: refills the buffer from the file, or switches to the next segment.
+     * Returns false if EOF is reached.
+     */
+    private boolean nextChunk() throws IOException {
+        if (inputStream != null) {
+            int count = readFile(current.array(), 0, Math.min(current.capacity(), maxChunkSize));
+            current.clear().limit(Math.max(count, 0));
+            return count > 0;
+        }
+        ByteBuffer segment = segmentIndex >= 0 ? segments[segmentIndex] : null;
+        // The chunk just read ends where the rest of a segment cut by maxChunkSize starts
+        int nextPosition = current.limit();
+        if (segment == null || nextPosition == segment.limit()) {
+            do {
+                if (segmentIndex + 1 == segments.length) {
+                    return false;
+                }
+                segment = segments[++segmentIndex];
+            } while (!segment.hasRemaining());
+            nextPosition = segment.position();
+        }
+        int count = Math.min(segment.limit() - nextPosition, maxChunkSize);
+        current = segment.duplicate().limit(nextPosition + count).position(nextPosition);
+        chunkRead(count);
+        return true;
+    }
+
+    /**
+     * Reads from the file, stopping at the end of the range.
+     * Returns -1 if the end of the file or of the range is reached.
+     */
+    private int readFile(byte[] bytes, int offset, int length) throws IOException {
+        if (fileBytesRemaining == 0) {
+            return -1;
+        }
+        int count = inputStream.read(bytes, offset, (int) Math.min(length, fileBytesRemaining));
+        if (count > 0) {
+            fileBytesRemaining -= count;
+            chunkRead(count);
+        }
+        return count;
+    }
+
+    private void chunkRead(int count) {
+        bytesRead += count;
+        if (readListener != null) {
+            readListener.accept(bytesRead);
+        }
+    }
+
+    /**
+     * Sets a listener told the number of bytes read so far each time a chunk is loaded.
+     * Single-byte reads are not reported one by one, so a listener costs nothing per byte.
+     * The count starts at the first chunk, not when the listener is set.
+     *
+     * Example: reader.setReadListener(total -> progressBar.setValue((int) (total * 100 / fileSize)))
+     *
+     * @param readListener Called on the reading thread, or null to stop reporting;
+     *                     an exception it throws is thrown by the read that loaded the chunk
+     */
+    public void setReadListener(LongConsumer readListener) {
+        setReadListener(readListener, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Sets a listener told the number of bytes read so far at least every {@code maxChunkSize} bytes.
+     * Chunks are cut to that size, so a size smaller than the buffer costs more reads from the source.
+     *
+     * Example: reader.setReadListener(tracker::update, 4096) reports every 4 KB of a file
+     *
+     * @param readListener Called on the reading thread after every chunk, or null to stop reporting
+     * @param maxChunkSize Longest chunk in bytes; Integer.MAX_VALUE keeps the chunks as they are
+     */
+    public void setReadListener(LongConsumer readListener, int maxChunkSize) {
+        if (maxChunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive, got: " + maxChunkSize);
+        }
+        this.readListener = readListener;
+        this.maxChunkSize = readListener != null ? maxChunkSize : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the number of bytes loaded from the source so far.
+     * This is ahead of the bytes returned by the read methods by at most one chunk.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Reads the next byte as an unsigned value (0-255).
+     * Returns -1 if EOF is reached.
+     */
+    public int read() throws IOException {
+        if (!current.hasRemaining() && !nextChunk()) {
+            return -1;
+        }
+        return current.get() & 0xFF;
+    }
+
+    /**
+     * Reads up to {@code length} bytes into the array, starting at {@code offset}.
+     * Returns the number of bytes read, or -1 if EOF is reached.
+     * Requests at least as large as the internal buffer bypass it once it is drained.
+     */
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!current.hasRemaining()) {
+            if (inputStream != null && length >= current.capacity()) {
+                return readFile(bytes, offset, Math.min(length, maxChunkSize));
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+        }
+        int count = Math.min(length, current.remaining());
+        current.get(bytes, offset, count);
+        return count;
+    }
+
+    /**
+     * Reads exactly {@code length} bytes into the array, unless EOF comes first.
+     * Returns the number of bytes read, which is less than {@code length} only at EOF.
+     */
+    public int readNBytes(byte[] bytes, int offset, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int count = read(bytes, offset + total, length - total);
+            if (count == -1) {
+                break;
+            }
+            total += count;
+        }
+        return total;
     }
 
     /**
@@ -23,30 +288,54 @@ public class ByteReader implements AutoCloseable {
      * Returns null if EOF is reached.
      */
     public Byte readNextByte() throws IOException {
-        try {
-            return dataInputStream.readByte();
-        } catch (EOFException e) {
-            return null;
-        }
+        int value = read();
+        return value == -1 ? null : (byte) value;
     }
 
     /**
-     * Reads an integer from the stream.
+     * Reads a big-endian integer from the stream.
+     * @throws EOFException if the file ends before 4 bytes are read
      */
     public int readInt() throws IOException {
-        return dataInputStream.readInt();
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            int nextByte = read();
+            if (nextByte == -1) {
+                throw new EOFException("Unexpected end of file while reading an integer");
+            }
+            value = (value << Constants.BITS_PER_BYTE) | nextByte;
+        }
+        return value;
     }
 
     /**
-     * Closes the underlying streams.
+     * Reads a long written by {@link ByteWriter#writeVarLong}.
+     * @throws EOFException if the file ends inside the value
+     * @throws IOException if the value takes more than 9 bytes (63 bits)
+     */
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE - 1; shift += 7) {
+            int nextByte = read();
+            if (nextByte == -1) {
+                throw new EOFException("Unexpected end of file while reading a variable-length integer");
+            }
+            value |= (long) (nextByte & 0x7F) << shift;
+            if ((nextByte & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Variable-length integer does not fit in 63 bits");
+    }
+
+    /**
+     * Closes the underlying file or stream, if any.
+     * Buffers passed to the constructor are owned by the caller.
      */
     @Override
     public void close() throws IOException {
-        if (dataInputStream != null) {
-            dataInputStream.close();
-        }
-        if (fileInputStream != null) {
-            fileInputStream.close();
+        if (inputStream != null) {
+            inputStream.close();
         }
     }
 }
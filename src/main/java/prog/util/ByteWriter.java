@@ -1,46 +1,163 @@
 package prog.util;
 
-import java.io.DataOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * Wrapper for writing bytes sequentially to a file.
- * Provides cleaner output stream operations.
+ * Collects bytes in an internal buffer and writes it to the file in large chunks.
+ * Buffered bytes reach the file on flush() or close(), so the writer must be closed.
+ * Can also write to any output stream, e.g. a ByteArrayOutputStream for in-memory output.
  */
 public class ByteWriter implements AutoCloseable {
-    private final DataOutputStream dataOutputStream;
-    private final FileOutputStream fileOutputStream;
+    /**
+     * Default size of the internal buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream outputStream;
+    private final byte[] buffer;
+
+    /**
+     * Number of bytes waiting in the buffer
+     */
+    private int position;
+
+    /**
+     * Bytes handed to the stream so far, not counting those still in the buffer
+     */
+    private long bytesFlushed;
+
+    private boolean closed;
 
     public ByteWriter(String filePath) throws IOException {
-        this.fileOutputStream = new FileOutputStream(filePath);
-        this.dataOutputStream = new DataOutputStream(fileOutputStream);
+        this(filePath, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param filePath File to create or overwrite
+     * @param bufferSize Size of the internal buffer in bytes
+     */
+    public ByteWriter(String filePath, int bufferSize) throws IOException {
+        this(openFile(filePath, bufferSize), bufferSize);
+    }
+
+    public ByteWriter(OutputStream outputStream) {
+        this(outputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param outputStream Stream to write to; closing the writer closes it
+     * @param bufferSize Size of the internal buffer in bytes
+     */
+    public ByteWriter(OutputStream outputStream, int bufferSize) {
+        checkBufferSize(bufferSize);
+        this.outputStream = outputStream;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Validates the buffer size before the file is created, so a bad size leaves no file behind.
+     */
+    private static FileOutputStream openFile(String filePath, int bufferSize) throws IOException {
+        checkBufferSize(bufferSize);
+        return new FileOutputStream(filePath);
+    }
+
+    private static void checkBufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive, got: " + bufferSize);
+        }
     }
 
     /**
      * Writes a single byte to the stream.
      */
     public void writeByte(int byteValue) throws IOException {
-        dataOutputStream.write(byteValue);
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = (byte) byteValue;
+    }
+
+    /**
+     * Writes {@code length} bytes of the array, starting at {@code offset}.
+     * Arrays at least as large as the internal buffer are written straight to the stream.
+     */
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length >= buffer.length) {
+            flush();
+            outputStream.write(bytes, offset, length);
+            bytesFlushed += length;
+            return;
+        }
+        if (length > buffer.length - position) {
+            flush();
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
     }
 
     /**
-     * Writes an integer to the stream.
+     * Writes a big-endian integer to the stream.
      */
     public void writeInt(int value) throws IOException {
-        dataOutputStream.writeInt(value);
+        writeByte(value >>> 24);
+        writeByte(value >>> 16);
+        writeByte(value >>> 8);
+        writeByte(value);
+    }
+
+    /**
+     * Writes a non-negative long in as few bytes as needed: 7 bits per byte, low bits first,
+     * with the high bit set on every byte but the last.
+     *
+     * Example: 300 is written as [AC 02], 5 as [05]
+     */
+    public void writeVarLong(long value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative, got: " + value);
+        }
+        while (value >= 0x80) {
+            writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    /**
+     * Writes all buffered bytes to the stream.
+     */
+    public void flush() throws IOException {
+        if (position > 0) {
+            outputStream.write(buffer, 0, position);
+            bytesFlushed += position;
+            position = 0;
+        }
+    }
+
+    /**
+     * Returns the number of bytes written so far, including those still in the buffer.
+     */
+    public long getBytesWritten() {
+        return bytesFlushed + position;
     }
 
     /**
-     * Closes the underlying streams.
+     * Flushes the buffered bytes and closes the stream.
+     * Calling it again has no effect.
      */
     @Override
     public void close() throws IOException {
-        if (dataOutputStream != null) {
-            dataOutputStream.close();
+        if (closed) {
+            return;
         }
-        if (fileOutputStream != null) {
-            fileOutputStream.close();
+        closed = true;
+        try {
+            flush();
+        } finally {
+            outputStream.close();
         }
     }
 }
@@ -32,14 +32,88 @@ public final class Constants {
      */
     public static final String LZW_FILE_EXTENSION = ".LmZWp";
 
+    /**
+     * Stands in for the file path in log and error messages when compressing or decompressing a stream.
+     */
+    public static final String STREAM_NAME = "<stream>";
+
     /**
      * Number of bits in a byte.
      */
     public static final int BITS_PER_BYTE = 8;
 
+    /**
+     * Canonical Huffman header layout: symbol count, then (symbol, length) byte pairs.
+     * Smallest layout for files with few distinct bytes.
+     */
+    public static final int CODE_LENGTHS_AS_PAIRS = 0;
+
+    /**
+     * Canonical Huffman header layout: 256 code lengths packed two per byte (high nibble first).
+     * Only usable when every code is at most 15 bits long.
+     */
+    public static final int CODE_LENGTHS_AS_NIBBLES = 1;
+
+    /**
+     * Canonical Huffman header layout: 256 code lengths, one byte each.
+     */
+    public static final int CODE_LENGTHS_AS_BYTES = 2;
+
+    /**
+     * Longest canonical Huffman code the compressor produces by default.
+     * 15 bits lets the code lengths be packed as nibbles and every code fit in a small decoding window.
+     */
+    public static final int DEFAULT_MAX_CODE_LENGTH = 15;
+
+    /**
+     * Maximum code length value meaning "no limit": code lengths come straight from the Huffman tree.
+     */
+    public static final int UNLIMITED_CODE_LENGTH = 0;
+
+    /**
+     * Default number of input bytes per block of the block-based Huffman format.
+     * Large enough that the code length table of each block costs well under 0.1%.
+     */
+    public static final int DEFAULT_HUFFMAN_BLOCK_SIZE = 1 << 20;
+
+    /**
+     * Smallest range of the input counted by one thread when byte frequencies are counted in parallel.
+     * Inputs under twice this size are counted on the calling thread.
+     */
+    public static final long MIN_FREQUENCY_RANGE_SIZE = 8L << 20;
+
     /**
      * Maximum memory size limit for LZW dictionary (in characters).
      * Used to prevent excessive memory usage during compression/decompression.
      */
     public static final int MAX_DICTIONARY_MEMORY_SIZE = 100000;
+
+    /**
+     * Width in bits of the first codes of a variable-width LZW file.
+     * 9 bits cover the 256 single-byte codes plus the first 256 dictionary entries.
+     */
+    public static final int LZW_INITIAL_CODE_WIDTH = 9;
+
+    /**
+     * Code that tells the LZW decompressor to start over with an empty dictionary.
+     * Only used by the adaptive-reset format, where dictionary entries start at 257.
+     */
+    public static final int LZW_CLEAR_CODE = 256;
+
+    /**
+     * Number of input bytes between two compression ratio checks once the LZW dictionary is full.
+     */
+    public static final int LZW_RESET_CHECK_INTERVAL = 32 * 1024;
+
+    /**
+     * The LZW dictionary is cleared when the ratio of the last check interval falls below this
+     * fraction of the best ratio seen since the dictionary filled up.
+     */
+    public static final double LZW_RESET_RATIO_THRESHOLD = 0.9;
+
+    /**
+     * Default number of input bytes per block of the block-based LZW format.
+     * Smaller blocks restart the dictionary more often, larger ones keep it after it has stopped growing.
+     */
+    public static final int DEFAULT_LZW_BLOCK_SIZE = 1 << 20;
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package prog.util;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Input source that reads the file through a buffered ByteReader on every pass.
+ */
+public class FileInputSource implements InputSource {
+    private final String filePath;
+
+    public FileInputSource(String filePath) {
+        this.filePath = filePath;
+    }
+
+    @Override
+    public String getPath() {
+        return filePath;
+    }
+
+    @Override
+    public long size() {
+        return new File(filePath).length();
+    }
+
+    @Override
+    public ByteReader openReader() throws IOException {
+        return new ByteReader(filePath);
+    }
+
+    @Override
+    public ByteReader openReader(long offset, long length) throws IOException {
+        return new ByteReader(filePath, offset, length);
+    }
+}
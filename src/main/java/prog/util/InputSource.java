@@ -0,0 +1,40 @@
+package prog.util;
+
+import java.io.IOException;
+
+/**
+ * Input file of a compressor that can be read from the start any number of times.
+ *
+ * Compressors make two passes over their input (e.g. Huffman counts byte frequencies, then encodes),
+ * and each pass opens its own reader. Implementations decide how the bytes get there:
+ * <ul>
+ *   <li>{@link FileInputSource}: buffered stream reads, a new file handle per pass</li>
+ *   <li>{@link MappedFileInputSource}: the file is memory-mapped once and every pass reads the mapping</li>
+ * </ul>
+ */
+public interface InputSource {
+    /**
+     * Path of the input file; output file names are derived from it.
+     * Example: "/home/user/document.txt"
+     */
+    String getPath();
+
+    /**
+     * Size of the input in bytes.
+     */
+    long size() throws IOException;
+
+    /**
+     * Opens a reader positioned at the first byte of the input.
+     * The caller closes it when the pass is done.
+     */
+    ByteReader openReader() throws IOException;
+
+    /**
+     * Opens a reader over {@code length} bytes of the input, starting at {@code offset}.
+     * Lets several threads read separate ranges of the same input at once.
+     *
+     * Example: openReader(size / 2, size - size / 2) reads the second half
+     */
+    ByteReader openReader(long offset, long length) throws IOException;
+}
@@ -0,0 +1,99 @@
+package prog.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Input source that memory-maps the file once and serves every pass from the mapping.
+ *
+ * A single mapping is limited to 2 GB, so the file is mapped as consecutive windows and
+ * readers move from one window to the next. The second pass of a compressor reads pages the
+ * first pass already brought into the page cache, without another round of read() system calls.
+ *
+ * Example: a 5 GB file with the default 1 GB window is mapped as 5 windows
+ *
+ * The mappings stay valid after the file channel is closed and are released when this
+ * source is garbage collected.
+ */
+public class MappedFileInputSource implements InputSource {
+    /**
+     * Default size of each mapped window.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    private final String filePath;
+    private final long size;
+    private final MappedByteBuffer[] windows;
+    private final int windowSize;
+
+    public MappedFileInputSource(String filePath) throws IOException {
+        this(filePath, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Maps the whole file up front.
+     * @param filePath File to map
+     * @param windowSize Size of each mapped window in bytes
+     */
+    public MappedFileInputSource(String filePath, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive, got: " + windowSize);
+        }
+        this.filePath = filePath;
+        this.windowSize = windowSize;
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            this.size = channel.size();
+            int windowCount = (int) ((size + windowSize - 1) / windowSize);
+            this.windows = new MappedByteBuffer[windowCount];
+            for (int i = 0; i < windowCount; i++) {
+                long start = (long) i * windowSize;
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+            }
+        }
+    }
+
+    @Override
+    public String getPath() {
+        return filePath;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Opens a reader over the mapped windows; readers do not share positions.
+     */
+    @Override
+    public ByteReader openReader() {
+        return new ByteReader(windows);
+    }
+
+    /**
+     * Opens a reader over slices of the windows that hold the range.
+     */
+    @Override
+    public ByteReader openReader(long offset, long length) {
+        if (offset < 0 || length < 0 || offset + length > size) {
+            throw new IllegalArgumentException("Invalid range: offset " + offset + ", length " + length + ", size " + size);
+        }
+        if (length == 0) {
+            return new ByteReader();
+        }
+        int firstWindow = (int) (offset / windowSize);
+        int lastWindow = (int) ((offset + length - 1) / windowSize);
+        ByteBuffer[] slices = new ByteBuffer[lastWindow - firstWindow + 1];
+        for (int i = firstWindow; i <= lastWindow; i++) {
+            long windowStart = (long) i * windowSize;
+            int from = (int) (Math.max(offset, windowStart) - windowStart);
+            int to = (int) (Math.min(offset + length, windowStart + windows[i].capacity()) - windowStart);
+            slices[i - firstWindow] = windows[i].slice(from, to - from);
+        }
+        return new ByteReader(slices);
+    }
+}
@@ -0,0 +1,82 @@
+package prog.util;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Helpers for compressing to and from streams owned by the caller.
+ */
+public class StreamUtils {
+    private StreamUtils() {
+    }
+
+    /**
+     * Wraps a stream so that closing the wrapper leaves the stream open.
+     *
+     * Example: a ByteReader over keepOpen(request.getInputStream()) can be closed as usual
+     * without closing the request
+     *
+     * @param inputStream Stream owned by the caller
+     * @return A stream reading from inputStream whose close() does nothing
+     */
+    public static InputStream keepOpen(InputStream inputStream) {
+        return new FilterInputStream(inputStream) {
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Wraps a stream so that closing the wrapper flushes the stream instead of closing it.
+     *
+     * Example: a ByteWriter over keepOpen(response.getOutputStream()) can be closed as usual;
+     * the compressed bytes are flushed and the response stays open
+     *
+     * @param outputStream Stream owned by the caller
+     * @return A stream writing to outputStream whose close() only flushes
+     */
+    public static OutputStream keepOpen(OutputStream outputStream) {
+        return new FilterOutputStream(outputStream) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                // FilterOutputStream would write the array one byte at a time
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.flush();
+            }
+        };
+    }
+
+    /**
+     * Wraps a buffer as a stream, for writing compressed bytes straight into caller memory.
+     * Heap and direct buffers both work; the bytes go between the buffer's position and limit.
+     *
+     * Example: a ByteWriter over toBuffer(dst) fills dst and advances its position
+     *
+     * @param buffer Buffer to fill, from its position
+     * @return A stream whose writes put bytes into the buffer
+     * @throws BufferOverflowException From the writes, once the buffer is full; nothing of that write is put
+     */
+    public static OutputStream toBuffer(ByteBuffer buffer) {
+        return new OutputStream() {
+            @Override
+            public void write(int byteValue) {
+                buffer.put((byte) byteValue);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                buffer.put(bytes, offset, length);
+            }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package prog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import prog.huffman.HuffmanCompressor;
+import prog.huffman.HuffmanDecompressor;
+import prog.huffman.HuffmanFormat;
+import prog.util.Constants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the compressed size of length-limited canonical Huffman codes against the unlimited tree.
+ * Uses the same 50KB corpora as LargeFileCompressionIntegrationTest plus a synthetic skewed file
+ * whose unlimited tree has codes far longer than 15 bits.
+ */
+class HuffmanCodeLengthLimitBenchmarkTest {
+    private static final String[] CORPORA = {
+        "test_repetitive_50kb.txt", "test_random_50kb.txt", "test_structured_50kb.txt", "test_code_50kb.txt",
+        "test_mixed_50kb.txt", "test_unicode_50kb.txt", "test_multilingual_50kb.txt", "test_xml_50kb.txt",
+        "test_logs_50kb.txt", "test_base64_50kb.txt"
+    };
+
+    private static final int[] LIMITS = {Constants.UNLIMITED_CODE_LENGTH, Constants.DEFAULT_MAX_CODE_LENGTH, 12, 10};
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Compresses the content with the given limit, checks the round trip and returns the compressed size
+     */
+    private long compressedSize(byte[] content, int maxCodeLength) throws IOException {
+        File inputFile = tempDir.resolve("benchmark.bin").toFile();
+        File compressedFile = new File(inputFile.getAbsolutePath() + Constants.HUFFMAN_FILE_EXTENSION);
+        Files.write(inputFile.toPath(), content);
+
+        HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath(), HuffmanFormat.CANONICAL, maxCodeLength);
+        compressor.compress();
+        compressor.cleanup();
+        Files.delete(inputFile.toPath());
+        long size = Files.size(compressedFile.toPath());
+
+        HuffmanDecompressor decompressor = new HuffmanDecompressor(compressedFile.getAbsolutePath());
+        decompressor.decompress();
+        assertArrayEquals(content, Files.readAllBytes(inputFile.toPath()),
+            "Round trip with max code length " + maxCodeLength + " should restore the content");
+
+        Files.delete(inputFile.toPath());
+        Files.delete(compressedFile.toPath());
+        return size;
+    }
+
+    /**
+     * Prints one row of compressed sizes and returns the cost of each limit relative to the unlimited tree
+     */
+    private double[] benchmark(String name, byte[] content) throws IOException {
+        long[] sizes = new long[LIMITS.length];
+        StringBuilder row = new StringBuilder(String.format("%-28s %8d", name, content.length));
+        for (int i = 0; i < LIMITS.length; i++) {
+            sizes[i] = compressedSize(content, LIMITS[i]);
+            row.append(String.format(" %8d", sizes[i]));
+        }
+        double[] costs = new double[LIMITS.length];
+        for (int i = 0; i < LIMITS.length; i++) {
+            costs[i] = ((double) sizes[i] / sizes[0] - 1.0) * 100;
+            if (i > 0) row.append(String.format(" %+7.3f%%", costs[i]));
+        }
+        System.out.println(row);
+        return costs;
+    }
+
+    @Test
+    void testCompressionRatioCostOfLengthLimit() throws IOException {
+        System.out.println("\n=== Canonical Huffman: unlimited vs length-limited codes (compressed bytes) ===");
+        System.out.println(String.format("%-28s %8s %8s %8s %8s %8s %9s %9s %9s",
+            "file", "original", "unlim", "max15", "max12", "max10", "cost15", "cost12", "cost10"));
+
+        for (String corpus : CORPORA) {
+            byte[] content = Files.readAllBytes(Path.of("src/test/resources/" + corpus));
+            double[] costs = benchmark(corpus, content);
+            assertTrue(costs[1] < 0.5, corpus + ": 15-bit limit should cost under 0.5%");
+        }
+
+        // Sparse telemetry-like data: a few dominant bytes and a long Fibonacci tail of rare ones
+        ByteArrayOutputStream skewed = new ByteArrayOutputStream();
+        int previous = 1, current = 1;
+        for (int i = 0; i < 24; i++) {
+            for (int j = 0; j < current; j++) {
+                skewed.write(i);
+            }
+            int next = previous + current;
+            previous = current;
+            current = next;
+        }
+        double[] costs = benchmark("skewed (fibonacci, 24 bytes)", skewed.toByteArray());
+        assertTrue(costs[1] < 1.0, "Skewed data: 15-bit limit should cost under 1%");
+    }
+}
@@ -2,14 +2,17 @@ package prog;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.junit.jupiter.api.io.TempDir;
 import prog.huffman.HuffmanCompressor;
 import prog.huffman.HuffmanDecompressor;
+import prog.huffman.HuffmanFormat;
 import prog.lzw.LzwCompressor;
 import prog.lzw.LzwDecompressor;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
@@ -43,6 +46,39 @@ class LargeFileCompressionIntegrationTest {
         huffmanDecompressedFile = new File(originalFile.getAbsolutePath());
     }
 
+    /**
+     * Compresses a sparse file of more than 4 GB whose zero byte occurs more often than an int can count.
+     * Needs about 5 GB of free disk space and a few minutes, so it only runs with -DlargeFileTests=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "largeFileTests", matches = "true")
+    void testHuffmanSparseFileOver4Gb() throws IOException {
+        long size = (4L << 30) + 2;
+        try (RandomAccessFile file = new RandomAccessFile(originalFile, "rw")) {
+            // Everything before the last byte is a hole that reads as zeros
+            file.setLength(size - 1);
+            file.seek(size - 1);
+            file.write('x');
+        }
+
+        new HuffmanCompressor(originalFile.getAbsolutePath()).compress();
+        try (RandomAccessFile compressed = new RandomAccessFile(huffmanCompressedFile, "r")) {
+            assertEquals(HuffmanFormat.FREQUENCY_TABLE_64.getVersion(), compressed.read());
+        }
+        Files.delete(originalFile.toPath());
+        new HuffmanDecompressor(huffmanCompressedFile.getAbsolutePath()).decompress();
+
+        assertEquals(size, Files.size(huffmanDecompressedFile.toPath()));
+        try (RandomAccessFile decompressed = new RandomAccessFile(huffmanDecompressedFile, "r")) {
+            byte[] tail = new byte[4096];
+            decompressed.seek(size - tail.length);
+            decompressed.readFully(tail);
+            byte[] expected = new byte[tail.length];
+            expected[tail.length - 1] = 'x';
+            assertArrayEquals(expected, tail);
+        }
+    }
+
     /**
      * Copy a pre-generated test file from resources to the temp directory
      */
@@ -112,4 +112,18 @@ class MainPanelTest {
         assertNotNull(mainApp.getLzwDecompressButton().getToolTipText(), "LZW decompress button should have tooltip");
         assertNotNull(mainApp.getExitButton().getToolTipText(), "Exit button should have tooltip");
     }
+
+    @Test
+    void testProgressComponents() {
+        assertNotNull(mainApp.getProgressBar(), "Progress bar should be created");
+        assertEquals(0, mainApp.getProgressBar().getValue(), "Progress bar should start empty");
+        assertFalse(mainApp.getProgressBar().isIndeterminate(), "Progress bar should be idle initially");
+        assertNotNull(mainApp.getProgressDetailsLabel(), "Progress details label should be created");
+
+        assertNotNull(mainApp.getCancelButton(), "Cancel button should be created");
+        assertTrue(mainApp.getCancelButton().getText().contains("Cancel"), "Cancel button should have Cancel in text");
+        assertFalse(mainApp.getCancelButton().isEnabled(), "Cancel button should be disabled while nothing runs");
+        assertTrue(mainApp.getCancelButton().getActionListeners().length > 0, "Cancel button should have action listener");
+        assertNotNull(mainApp.getCancelButton().getToolTipText(), "Cancel button should have tooltip");
+    }
 }
\ No newline at end of file
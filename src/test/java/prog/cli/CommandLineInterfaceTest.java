@@ -0,0 +1,199 @@
+package prog.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for CommandLineInterface, CommandLineOptions and BatchProcessor.
+ */
+class CommandLineInterfaceTest {
+    @TempDir
+    Path tempDir;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    private int run(byte[] input, String... args) {
+        return new CommandLineInterface(new ByteArrayInputStream(input), out, new PrintStream(err, true)).run(args);
+    }
+
+    private int run(String... args) {
+        return run(new byte[0], args);
+    }
+
+    /**
+     * Creates a directory tree with text and binary files, and returns the files' contents by path.
+     */
+    private Map<Path, byte[]> createTree(Path root, int fileCount) throws IOException {
+        Map<Path, byte[]> contents = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < fileCount; i++) {
+            Path directory = root.resolve("dir" + i % 3).resolve("sub" + i % 2);
+            Files.createDirectories(directory);
+            byte[] content = i % 2 == 0
+                ? ("line " + i + " of some repetitive text\n").repeat(200 + i).getBytes()
+                : new byte[1000 + i * 37];
+            if (i % 2 == 1) {
+                random.nextBytes(content);
+            }
+            Path file = directory.resolve("file" + i + ".dat");
+            Files.write(file, content);
+            contents.put(file, content);
+        }
+        return contents;
+    }
+
+    @Test
+    void testRecursiveRoundTripOnWorkerPool() throws IOException {
+        for (String algorithm : new String[] {"huffman", "lzw"}) {
+            Path root = tempDir.resolve(algorithm);
+            Map<Path, byte[]> contents = createTree(root, 20);
+
+            assertEquals(CommandLineInterface.EXIT_SUCCESS, run("compress", "-a", algorithm, "-r", "-j", "4", root.toString()));
+            for (Path file : contents.keySet()) {
+                Files.delete(file);
+            }
+            assertEquals(CommandLineInterface.EXIT_SUCCESS, run("decompress", "-r", "-j", "3", root.toString()));
+
+            for (Map.Entry<Path, byte[]> entry : contents.entrySet()) {
+                assertArrayEquals(entry.getValue(), Files.readAllBytes(entry.getKey()), "File: " + entry.getKey());
+            }
+        }
+        String summary = err.toString();
+        assertTrue(summary.contains("Compressed 20 files"), summary);
+        assertTrue(summary.contains("Decompressed 20 files"), summary);
+        assertTrue(summary.contains("MB/s"), summary);
+    }
+
+    @Test
+    void testDecompressKeepsExistingFiles() throws IOException {
+        Path file = tempDir.resolve("notes.txt");
+        Files.writeString(file, "keep the original, write notes (1).txt");
+
+        assertEquals(CommandLineInterface.EXIT_SUCCESS, run("compress", file.toString()));
+        assertEquals(CommandLineInterface.EXIT_SUCCESS, run("decompress", file + ".huffz"));
+
+        assertEquals("keep the original, write notes (1).txt", Files.readString(tempDir.resolve("notes (1).txt")));
+    }
+
+    @Test
+    void testStandardInputRoundTrip() {
+        byte[] content = "standard input goes to standard output. ".repeat(500).getBytes();
+        for (String algorithm : new String[] {"huffman", "lzw"}) {
+            out.reset();
+            assertEquals(CommandLineInterface.EXIT_SUCCESS, run(content, "compress", "-a", algorithm));
+            byte[] compressed = out.toByteArray();
+            assertTrue(compressed.length < content.length);
+
+            out.reset();
+            assertEquals(CommandLineInterface.EXIT_SUCCESS, run(compressed, "decompress", "-a", algorithm));
+            assertArrayEquals(content, out.toByteArray());
+        }
+    }
+
+    @Test
+    void testFailedAndSkippedFilesAreCounted() throws IOException {
+        Path root = tempDir.resolve("mixed");
+        Files.createDirectories(root);
+        Files.writeString(root.resolve("good.txt"), "good content, good content");
+        Files.write(root.resolve("empty.txt"), new byte[0]);
+        Files.write(root.resolve("broken.txt.huffz"), new byte[] {2, 0, 0, 0});
+
+        assertEquals(CommandLineInterface.EXIT_SUCCESS, run("compress", "-r", root.toString()));
+        assertTrue(err.toString().contains("Compressed 1 files"), err.toString());
+        assertTrue(err.toString().contains("1 skipped, 0 failed"), err.toString());
+        assertFalse(Files.exists(root.resolve("empty.txt.huffz")));
+
+        err.reset();
+        Files.delete(root.resolve("good.txt"));
+        assertEquals(CommandLineInterface.EXIT_FAILURE, run("decompress", "-r", root.toString()));
+        assertTrue(err.toString().contains("broken.txt.huffz"), err.toString());
+        assertTrue(err.toString().contains("Decompressed 1 files"), err.toString());
+        assertTrue(err.toString().contains("1 failed"), err.toString());
+        // The partial output of the broken file is removed
+        assertFalse(Files.exists(root.resolve("broken.txt")));
+        assertEquals("good content, good content", Files.readString(root.resolve("good.txt")));
+    }
+
+    @Test
+    void testMetricsFileCoversTheRun() throws IOException {
+        Path root = tempDir.resolve("tree");
+        createTree(root, 6);
+        Path metricsFile = tempDir.resolve("metrics.prom");
+
+        assertEquals(CommandLineInterface.EXIT_SUCCESS, run("compress", "-a", "lzw", "-r", "-m", metricsFile.toString(), root.toString()));
+
+        String metrics = Files.readString(metricsFile);
+        assertTrue(metrics.contains("compression_jobs_total{algorithm=\"lzw\",operation=\"compress\",outcome=\"success\"} 6"), metrics);
+        assertTrue(metrics.contains("compression_ratio_count{algorithm=\"lzw\"} 6"), metrics);
+        assertTrue(metrics.contains("phase=\"encode\""), metrics);
+
+        Path jsonFile = tempDir.resolve("metrics.json");
+        byte[] content = "metrics of standard input. ".repeat(100).getBytes();
+        assertEquals(CommandLineInterface.EXIT_SUCCESS, run(content, "compress", "-m", jsonFile.toString()));
+        String json = Files.readString(jsonFile);
+        assertTrue(json.contains("\"name\": \"compression_bytes_in_total\", \"tags\": {\"algorithm\": \"huffman\", "
+            + "\"operation\": \"compress\"}, \"type\": \"counter\", \"value\": " + content.length), json);
+
+        assertEquals(CommandLineInterface.EXIT_FAILURE,
+            run(content, "compress", "-m", tempDir.resolve("missing").resolve("metrics.prom").toString()));
+        assertTrue(err.toString().contains("cannot write metrics"), err.toString());
+    }
+
+    @Test
+    void testDirectoryNeedsRecursiveOption() throws IOException {
+        Files.writeString(tempDir.resolve("a.txt"), "a");
+
+        assertEquals(CommandLineInterface.EXIT_FAILURE, run("compress", tempDir.toString()));
+        assertTrue(err.toString().contains("is a directory (use -r)"), err.toString());
+
+        err.reset();
+        assertEquals(CommandLineInterface.EXIT_FAILURE, run("compress", tempDir.resolve("missing.txt").toString()));
+        assertTrue(err.toString().contains("no such file"), err.toString());
+    }
+
+    @Test
+    void testUsageErrors() {
+        assertEquals(CommandLineInterface.EXIT_USAGE, run());
+        assertEquals(CommandLineInterface.EXIT_USAGE, run("squash", "file"));
+        assertEquals(CommandLineInterface.EXIT_USAGE, run("compress", "-a", "zip", "file"));
+        assertEquals(CommandLineInterface.EXIT_USAGE, run("compress", "-j", "0", "file"));
+        assertEquals(CommandLineInterface.EXIT_USAGE, run("compress", "-j"));
+        assertEquals(CommandLineInterface.EXIT_USAGE, run("compress", "--fast", "file"));
+        assertTrue(err.toString().contains("Usage:"));
+
+        assertEquals(CommandLineInterface.EXIT_SUCCESS, run("--help"));
+        assertTrue(out.toString().contains("Usage:"));
+    }
+
+    @Test
+    void testOptionsParsing() {
+        CommandLineOptions options = CommandLineOptions.parse("decompress", "a.LmZWp", "-j", "5", "-r", "dir", "-m", "run.prom");
+
+        assertFalse(options.isCompress());
+        assertNull(options.getAlgorithm());
+        assertTrue(options.isRecursive());
+        assertEquals(5, options.getJobs());
+        assertEquals(List.of("a.LmZWp", "dir"), options.getPaths());
+        assertEquals(Path.of("run.prom"), options.getMetricsFile());
+
+        options = CommandLineOptions.parse("compress", "--algorithm", "LZW");
+        assertEquals(Algorithm.LZW, options.getAlgorithm());
+        assertNull(options.getMetricsFile());
+        assertTrue(options.getPaths().isEmpty());
+        assertEquals(Algorithm.HUFFMAN, CommandLineOptions.parse("compress", "x").getAlgorithm());
+    }
+}
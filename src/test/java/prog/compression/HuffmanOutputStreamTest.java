@@ -0,0 +1,175 @@
+package prog.compression;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import prog.huffman.HuffmanDecompressor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for HuffmanOutputStream and HuffmanInputStream.
+ */
+class HuffmanOutputStreamTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        byte[] content = new byte[100000];
+        Random random = new Random(11);
+        for (int i = 0; i < content.length; i++) {
+            // Skewed towards a few letters, so Huffman codes pay off
+            content[i] = (byte) ('a' + Math.min(random.nextInt(8), random.nextInt(8)));
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream output = new HuffmanOutputStream(compressed, 16 * 1024, false)) {
+            // Uneven writes, so writes cross block boundaries
+            int offset = 0;
+            int length = 1;
+            while (offset < content.length) {
+                int count = Math.min(length, content.length - offset);
+                output.write(content, offset, count);
+                offset += count;
+                length = length * 3 % 7919;
+            }
+        }
+        assertTrue(compressed.size() < content.length / 2);
+
+        try (InputStream input = new HuffmanInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(content, input.readAllBytes());
+        }
+    }
+
+    @Test
+    void testEmptyStreamRoundTrip() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new HuffmanOutputStream(compressed).close();
+
+        assertEquals(5, compressed.size());
+        try (InputStream input = new HuffmanInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    void testSingleByteWrites() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream output = new HuffmanOutputStream(compressed, 4, false)) {
+            for (byte value : "single bytes".getBytes()) {
+                output.write(value);
+            }
+        }
+
+        try (InputStream input = new HuffmanInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            StringBuilder text = new StringBuilder();
+            int value;
+            while ((value = input.read()) != -1) {
+                text.append((char) value);
+            }
+            assertEquals("single bytes", text.toString());
+        }
+    }
+
+    @Test
+    void testSyncFlushMakesWrittenBytesReadable() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        HuffmanOutputStream output = new HuffmanOutputStream(compressed, 1 << 20, true);
+        output.write("first line\n".getBytes());
+        output.flush();
+
+        // The stream is still open, but the first line is already a complete block
+        try (InputStream input = new HuffmanInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertEquals("first line\n", new String(input.readAllBytes()));
+        }
+
+        output.write("second line\n".getBytes());
+        output.close();
+        try (InputStream input = new HuffmanInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertEquals("first line\nsecond line\n", new String(input.readAllBytes()));
+        }
+    }
+
+    @Test
+    void testWithoutSyncFlushBytesWaitForTheBlock() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        HuffmanOutputStream output = new HuffmanOutputStream(compressed);
+        output.write("waiting".getBytes());
+        output.flush();
+        assertEquals(5, compressed.size());
+
+        output.finish();
+        assertThrows(IOException.class, () -> output.write(1));
+        output.close();
+        try (InputStream input = new HuffmanInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertEquals("waiting", new String(input.readAllBytes()));
+        }
+    }
+
+    @Test
+    void testOutputDecompressesAsFile() throws IOException {
+        byte[] content = "Blocks of 32 KB, read back by HuffmanDecompressor.\n".repeat(2000).getBytes();
+        Path compressedFile = tempDir.resolve("sample.bin.huffz");
+        try (OutputStream output = new HuffmanOutputStream(Files.newOutputStream(compressedFile), 32 * 1024, false)) {
+            output.write(content);
+        }
+
+        new HuffmanDecompressor(compressedFile.toString()).decompress();
+
+        assertArrayEquals(content, Files.readAllBytes(tempDir.resolve("sample.bin")));
+    }
+
+    @Test
+    void testSkipAndAvailable() throws IOException {
+        byte[] content = "0123456789abcdefghijklmnopqrstuvwxyz".repeat(100).getBytes();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream output = new HuffmanOutputStream(compressed, 1000, false)) {
+            output.write(content);
+        }
+
+        try (InputStream input = new HuffmanInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertEquals(0, input.available());
+            assertEquals(content[0] & 0xFF, input.read());
+            assertEquals(999, input.available());
+
+            assertEquals(2500, input.skip(2500));
+            assertEquals(content[2501] & 0xFF, input.read());
+            assertFalse(input.markSupported());
+        }
+    }
+
+    @Test
+    void testTruncatedStreamThrowsException() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream output = new HuffmanOutputStream(compressed, 16 * 1024, false)) {
+            output.write("cut off before the end of the last block. ".repeat(1000).getBytes());
+        }
+        byte[] truncated = Arrays.copyOf(compressed.toByteArray(), compressed.size() - 10);
+
+        try (InputStream input = new HuffmanInputStream(new ByteArrayInputStream(truncated))) {
+            assertThrows(IOException.class, input::readAllBytes);
+        }
+    }
+
+    @Test
+    void testOtherFormatThrowsException() {
+        // The first byte of the frequency table layout
+        ByteArrayInputStream input = new ByteArrayInputStream(new byte[] {0, 0, 0, 1});
+        assertThrows(IOException.class, () -> new HuffmanInputStream(input));
+    }
+
+    @Test
+    void testInvalidBlockSizeThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new HuffmanOutputStream(new ByteArrayOutputStream(), 0, false));
+    }
+}
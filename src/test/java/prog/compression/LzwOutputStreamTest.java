@@ -0,0 +1,159 @@
+package prog.compression;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import prog.lzw.LzwCompressor;
+import prog.lzw.LzwDecompressor;
+import prog.lzw.LzwFormat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for LzwOutputStream and LzwInputStream.
+ */
+class LzwOutputStreamTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        // Text, then noise that fills the dictionary, then text again
+        byte[] content = new byte[400000];
+        new Random(5).nextBytes(content);
+        byte[] text = "to be or not to be, that is the question. ".repeat(2000).getBytes();
+        System.arraycopy(text, 0, content, 0, text.length);
+        System.arraycopy(text, 0, content, content.length - text.length, text.length);
+
+        for (LzwFormat format : new LzwFormat[] {LzwFormat.VARIABLE_WIDTH, LzwFormat.ADAPTIVE_RESET}) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream output = new LzwOutputStream(compressed, format)) {
+                // Uneven writes, so phrases cross write boundaries
+                int offset = 0;
+                int length = 1;
+                while (offset < content.length) {
+                    int count = Math.min(length, content.length - offset);
+                    output.write(content, offset, count);
+                    offset += count;
+                    length = length * 5 % 4099;
+                }
+            }
+            assertEquals(format.getVersion(), compressed.toByteArray()[0], "Format: " + format);
+
+            try (InputStream input = new LzwInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+                assertArrayEquals(content, input.readAllBytes(), "Format: " + format);
+            }
+        }
+    }
+
+    @Test
+    void testSameBytesAsCompressor() throws IOException {
+        byte[] content = "the stream and the file compressor write the same codes. ".repeat(3000).getBytes();
+        Path file = tempDir.resolve("sample.bin");
+        Files.write(file, content);
+
+        new LzwCompressor(file.toString(), LzwFormat.ADAPTIVE_RESET).compress();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream output = new LzwOutputStream(compressed, LzwFormat.ADAPTIVE_RESET)) {
+            output.write(content);
+        }
+        assertArrayEquals(Files.readAllBytes(tempDir.resolve("sample.bin.LmZWp")), compressed.toByteArray());
+    }
+
+    @Test
+    void testOutputDecompressesAsFile() throws IOException {
+        byte[] content = "written by the stream, read by LzwDecompressor. ".repeat(3000).getBytes();
+        Path compressedFile = tempDir.resolve("sample.bin.LmZWp");
+        try (OutputStream output = new LzwOutputStream(Files.newOutputStream(compressedFile), LzwFormat.VARIABLE_WIDTH)) {
+            output.write(content);
+        }
+
+        new LzwDecompressor(compressedFile.toString()).decompress();
+
+        assertArrayEquals(content, Files.readAllBytes(tempDir.resolve("sample.bin")));
+    }
+
+    @Test
+    void testReadsFixedWidthFile() throws IOException {
+        Path file = tempDir.resolve("fixed.txt");
+        Files.writeString(file, "ABABABA fixed width codes ABABABA");
+        new LzwCompressor(file.toString()).compress();
+
+        try (InputStream input = Files.newInputStream(tempDir.resolve("fixed.txt.LmZWp"));
+             InputStream decompressed = new LzwInputStream(input)) {
+            assertEquals("ABABABA fixed width codes ABABABA", new String(decompressed.readAllBytes()));
+        }
+    }
+
+    @Test
+    void testEmptyStreamRoundTrip() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new LzwOutputStream(compressed).close();
+
+        assertEquals(1, compressed.size());
+        try (InputStream input = new LzwInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    void testFlushWritesWholeBytesOfFinishedCodes() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        LzwOutputStream output = new LzwOutputStream(compressed);
+        output.write("abcdef".getBytes());
+        assertEquals(0, compressed.size());
+
+        // Header + five 9-bit codes (a-e) = 1 + 45 bits; 'f' is still the current phrase
+        output.flush();
+        assertEquals(1 + 5, compressed.size());
+
+        output.close();
+        try (InputStream input = new LzwInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertEquals("abcdef", new String(input.readAllBytes()));
+        }
+        assertThrows(IOException.class, () -> output.write(1));
+    }
+
+    @Test
+    void testBlocksAndFixedWidthAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new LzwOutputStream(new ByteArrayOutputStream(), LzwFormat.FIXED_WIDTH));
+        assertThrows(IllegalArgumentException.class,
+            () -> new LzwOutputStream(new ByteArrayOutputStream(), LzwFormat.BLOCKS));
+
+        ByteArrayInputStream blocks = new ByteArrayInputStream(new byte[] {3, 0, 0, 1, 0});
+        assertThrows(IOException.class, () -> new LzwInputStream(blocks));
+    }
+
+    @Test
+    void testBulkReadFillsBuffer() throws IOException {
+        byte[] content = "the reader keeps going while decoded phrases are at hand. ".repeat(700).getBytes();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream output = new LzwOutputStream(compressed, LzwFormat.VARIABLE_WIDTH)) {
+            output.write(content);
+        }
+
+        try (InputStream input = new LzwInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            byte[] buffer = new byte[8192];
+            assertEquals(buffer.length, input.read(buffer));
+            assertArrayEquals(Arrays.copyOf(content, buffer.length), buffer);
+        }
+    }
+
+    @Test
+    void testInvalidCodeThrowsException() {
+        // Version 1, then the 9-bit code 511 where only single bytes are valid
+        ByteArrayInputStream compressed = new ByteArrayInputStream(new byte[] {1, (byte) 0xFF, (byte) 0x80});
+        assertThrows(IOException.class, () -> new LzwInputStream(compressed).readAllBytes());
+    }
+}
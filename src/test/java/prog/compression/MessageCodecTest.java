@@ -0,0 +1,192 @@
+package prog.compression;
+
+import org.junit.jupiter.api.Test;
+import prog.util.Constants;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MessageCodec, HuffmanMessageCodec and LzwMessageCodec.
+ */
+class MessageCodecTest {
+    private static final List<MessageCodec> CODECS = List.of(new HuffmanMessageCodec(), new LzwMessageCodec());
+
+    private static byte[] text(int repeat) {
+        return "{\"user\": 42, \"items\": [\"apple\", \"banana\"], \"status\": \"ok\"}\n".repeat(repeat).getBytes();
+    }
+
+    private static byte[] noise(int length) {
+        byte[] noise = new byte[length];
+        new Random(11).nextBytes(noise);
+        return noise;
+    }
+
+    @Test
+    void testByteArrayRoundTrip() {
+        for (MessageCodec codec : CODECS) {
+            for (byte[] content : new byte[][] {text(1), text(2000), noise(5000), {7}, new byte[300]}) {
+                byte[] compressed = codec.compress(content);
+                assertTrue(compressed.length <= codec.maxCompressedLength(content.length));
+                assertEquals(content.length, codec.getDecompressedLength(ByteBuffer.wrap(compressed)));
+                assertArrayEquals(content, codec.decompress(compressed), codec.getClass().getSimpleName());
+            }
+            byte[] text = text(2000);
+            assertTrue(codec.compress(text).length < text.length * 3 / 4, codec.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void testDirectBufferRoundTrip() {
+        byte[] content = text(500);
+        for (MessageCodec codec : CODECS) {
+            ByteBuffer src = ByteBuffer.allocateDirect(content.length + 10);
+            src.position(10);
+            src.put(content).position(10);
+            ByteBuffer compressed = ByteBuffer.allocateDirect(codec.maxCompressedLength(content.length) + 3);
+            compressed.position(3);
+
+            int written = codec.compress(src, compressed);
+            assertFalse(src.hasRemaining());
+            assertEquals(3 + written, compressed.position());
+
+            compressed.flip().position(3);
+            ByteBuffer output = ByteBuffer.allocateDirect(content.length);
+            assertEquals(content.length, codec.decompress(compressed, output));
+            assertFalse(compressed.hasRemaining());
+            assertFalse(output.hasRemaining());
+
+            byte[] decompressed = new byte[content.length];
+            output.flip().get(decompressed);
+            assertArrayEquals(content, decompressed);
+        }
+    }
+
+    @Test
+    void testHeapSlicesRespectOffsets() {
+        byte[] content = text(100);
+        byte[] backing = new byte[content.length + 20];
+        System.arraycopy(content, 0, backing, 15, content.length);
+        for (MessageCodec codec : CODECS) {
+            ByteBuffer src = ByteBuffer.wrap(backing, 15, content.length).slice();
+            ByteBuffer compressed = ByteBuffer.allocate(codec.maxCompressedLength(content.length) + 8);
+            compressed.position(8);
+            codec.compress(src, compressed);
+
+            compressed.flip().position(8);
+            byte[] output = new byte[content.length + 4];
+            ByteBuffer dst = ByteBuffer.wrap(output, 4, content.length).slice();
+            codec.decompress(compressed.slice(), dst);
+            assertArrayEquals(content, Arrays.copyOfRange(output, 4, output.length));
+        }
+    }
+
+    @Test
+    void testIncompressibleDataIsStoredWithinBound() {
+        for (MessageCodec codec : CODECS) {
+            for (int length : new int[] {1, 2, 127, 128, 20000}) {
+                byte[] content = noise(length);
+                byte[] compressed = codec.compress(content);
+                assertEquals(codec.maxCompressedLength(length), compressed.length);
+                assertArrayEquals(content, codec.decompress(compressed));
+            }
+        }
+        MessageCodec codec = new LzwMessageCodec();
+        assertEquals(2, codec.maxCompressedLength(0));
+        assertEquals(129, codec.maxCompressedLength(127));
+        assertEquals(1003, codec.maxCompressedLength(1000));
+        assertThrows(IllegalArgumentException.class, () -> codec.maxCompressedLength(-1));
+        assertThrows(IllegalArgumentException.class, () -> codec.maxCompressedLength(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testEmptyMessage() {
+        for (MessageCodec codec : CODECS) {
+            byte[] compressed = codec.compress(new byte[0]);
+            assertEquals(2, compressed.length);
+            assertEquals(0, codec.decompress(compressed).length);
+        }
+    }
+
+    @Test
+    void testSmallDestinationOverflows() {
+        byte[] content = noise(1000);
+        for (MessageCodec codec : CODECS) {
+            ByteBuffer src = ByteBuffer.wrap(content);
+            ByteBuffer dst = ByteBuffer.allocate(codec.maxCompressedLength(content.length) - 1);
+            assertThrows(BufferOverflowException.class, () -> codec.compress(src, dst));
+            assertEquals(0, src.position());
+            assertEquals(0, dst.position());
+
+            byte[] compressed = codec.compress(text(50));
+            ByteBuffer message = ByteBuffer.wrap(compressed);
+            assertThrows(BufferOverflowException.class, () -> codec.decompress(message, ByteBuffer.allocate(10)));
+            assertEquals(0, message.position());
+        }
+    }
+
+    @Test
+    void testCorruptMessageThrows() {
+        for (MessageCodec codec : CODECS) {
+            byte[] compressed = codec.compress(text(200));
+            byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+            assertThrows(RuntimeException.class, () -> codec.decompress(truncated));
+            assertThrows(RuntimeException.class, () -> codec.decompress(new byte[] {5, 9, 1}));
+            assertThrows(RuntimeException.class, () -> codec.decompress(new byte[] {(byte) 0x80}));
+        }
+    }
+
+    @Test
+    void testInvalidHuffmanCodeLengthsThrow() {
+        MessageCodec codec = new HuffmanMessageCodec();
+
+        // Three 1-bit codes: 'c' would share its code with 'a' or 'b'
+        byte[] overSubscribed = {4, 1, Constants.CODE_LENGTHS_AS_PAIRS, 2, 'a', 1, 'b', 1, 'c', 1, (byte) 0xFF};
+
+        byte[] empty = new byte[3 + Constants.BYTE_VALUES_COUNT / 2];
+        empty[0] = 4;
+        empty[1] = 1;
+        empty[2] = Constants.CODE_LENGTHS_AS_NIBBLES;
+
+        byte[] tooLong = new byte[3 + Constants.BYTE_VALUES_COUNT];
+        tooLong[0] = 4;
+        tooLong[1] = 1;
+        tooLong[2] = Constants.CODE_LENGTHS_AS_BYTES;
+        tooLong[3 + 'a'] = 1;
+        tooLong[3 + 'b'] = 65;
+
+        for (byte[] message : new byte[][] {overSubscribed, empty, tooLong}) {
+            RuntimeException exception = assertThrows(RuntimeException.class, () -> codec.decompress(message));
+            assertTrue(exception.getCause() instanceof IOException, exception.toString());
+        }
+    }
+
+    @Test
+    void testLengthBeyondPayloadIsRejected() {
+        // Integer.MAX_VALUE as a varint, then the method and a single payload byte
+        byte[] encoded = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 1, 0};
+        byte[] stored = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0, 0};
+        for (MessageCodec codec : CODECS) {
+            for (byte[] message : new byte[][] {encoded, stored}) {
+                assertThrows(RuntimeException.class, () -> codec.getDecompressedLength(ByteBuffer.wrap(message)));
+                assertThrows(RuntimeException.class, () -> codec.decompress(message));
+                ByteBuffer src = ByteBuffer.wrap(message);
+                assertThrows(RuntimeException.class, () -> codec.decompress(src, ByteBuffer.allocate(10)));
+                assertEquals(0, src.position());
+            }
+
+            // A stored message must hold exactly its length
+            byte[] compressed = codec.compress(new byte[] {1, 2, 3});
+            assertThrows(RuntimeException.class, () -> codec.decompress(Arrays.copyOf(compressed, compressed.length + 1)));
+        }
+        // Ten bytes of 9-bit codes hold at most 8 codes: 1 + 2 + ... + 8 bytes
+        assertEquals(36, new LzwMessageCodec().maxDecodedLength(10));
+        assertEquals(80, new HuffmanMessageCodec().maxDecodedLength(10));
+    }
+}
@@ -0,0 +1,251 @@
+package prog.compression;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import prog.huffman.AdaptiveHuffmanCompressor;
+import prog.huffman.AdaptiveHuffmanDecompressor;
+import prog.huffman.HuffmanCompressor;
+import prog.huffman.HuffmanDecompressor;
+import prog.huffman.HuffmanFormat;
+import prog.lzw.LzwCompressor;
+import prog.lzw.LzwDecompressor;
+import prog.lzw.LzwFormat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the progress reported by the engines, and for stopping them from the listener.
+ */
+class ProgressListenerTest {
+    @TempDir
+    Path tempDir;
+    private Path inputFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // 16 symbols at random: compressed files are still several chunks long
+        byte[] content = new byte[400_000];
+        Random random = new Random(3);
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + random.nextInt(16));
+        }
+        inputFile = tempDir.resolve("input.txt");
+        Files.write(inputFile, content);
+    }
+
+    /**
+     * Records every event, checking that within a phase the counts only grow and the total stays the same.
+     */
+    private static class RecordingListener implements ProgressListener {
+        final List<ProgressEvent> events = new ArrayList<>();
+
+        @Override
+        public void onProgress(ProgressEvent event) {
+            if (!events.isEmpty()) {
+                ProgressEvent previous = last();
+                assertTrue(event.getElapsedNanos() >= previous.getElapsedNanos(), "Time should only grow");
+                assertTrue(event.getBytesOut() >= previous.getBytesOut(), "Output should only grow");
+                if (event.getPhase() == previous.getPhase()) {
+                    assertTrue(event.getBytesIn() > previous.getBytesIn(), "Progress should only grow");
+                    assertEquals(previous.getTotalBytes(), event.getTotalBytes(), "Total should not change");
+                } else {
+                    assertEquals(0, event.getBytesIn(), "A phase should start from zero");
+                }
+            }
+            events.add(event);
+        }
+
+        ProgressEvent last() {
+            return events.get(events.size() - 1);
+        }
+
+        List<CompressionPhase> phases() {
+            return events.stream().map(ProgressEvent::getPhase).distinct().toList();
+        }
+    }
+
+    /**
+     * Creates the compressors one at a time, as those of a kind write to the same output file.
+     */
+    private List<Supplier<Compressor>> fileCompressors() {
+        String path = inputFile.toString();
+        return List.of(
+            () -> new HuffmanCompressor(path),
+            () -> new HuffmanCompressor(path, HuffmanFormat.BLOCKS),
+            () -> new LzwCompressor(path),
+            () -> new LzwCompressor(path, LzwFormat.BLOCKS),
+            () -> new AdaptiveHuffmanCompressor(path));
+    }
+
+    /**
+     * Compresses with the given compressor and returns the compressed file, renamed so the next one does not overwrite it.
+     */
+    private Path compressToOwnFile(Compressor compressor, String extension, int index) throws IOException {
+        compressor.compress();
+        compressor.cleanup();
+        return Files.move(Path.of(inputFile + extension), tempDir.resolve("copy" + index + ".txt" + extension));
+    }
+
+    @Test
+    void testCompressorsReportPhasesUpToTheFileSize() throws IOException {
+        long size = Files.size(inputFile);
+        List<List<CompressionPhase>> expectedPhases = List.of(
+            List.of(CompressionPhase.FREQUENCY_SCAN, CompressionPhase.ENCODE),
+            List.of(CompressionPhase.ENCODE),
+            List.of(CompressionPhase.DICTIONARY_SCAN, CompressionPhase.ENCODE),
+            List.of(CompressionPhase.ENCODE),
+            List.of(CompressionPhase.ENCODE));
+        List<Supplier<Compressor>> compressors = fileCompressors();
+        for (int i = 0; i < compressors.size(); i++) {
+            Compressor compressor = compressors.get(i).get();
+            RecordingListener listener = new RecordingListener();
+            compressor.setProgressListener(listener);
+            compressor.compress();
+            compressor.cleanup();
+
+            String name = compressor.getClass().getSimpleName();
+            assertEquals(expectedPhases.get(i), listener.phases(), name);
+            for (ProgressEvent event : listener.events) {
+                assertEquals(size, event.getTotalBytes(), name);
+            }
+            // Every phase ends with a report of the whole input
+            for (int j = 1; j < listener.events.size(); j++) {
+                if (listener.events.get(j).getPhase() != listener.events.get(j - 1).getPhase()) {
+                    assertEquals(size, listener.events.get(j - 1).getBytesIn(), name);
+                }
+            }
+            assertEquals(size, listener.last().getBytesIn(), name);
+            assertTrue(listener.last().getBytesOut() > 0, name + " should report output");
+            assertTrue(listener.last().getBytesOut() <= Files.size(Path.of(inputFile + (i < 2 || i == 4 ? ".huffz" : ".LmZWp"))), name);
+        }
+    }
+
+    @Test
+    void testGranularityLimitsReports() {
+        RecordingListener everyChunk = new RecordingListener();
+        Compressor compressor = new LzwCompressor(inputFile.toString(), LzwFormat.VARIABLE_WIDTH);
+        compressor.setProgressListener(everyChunk, 10_000);
+        compressor.compress();
+        compressor.cleanup();
+
+        RecordingListener coarse = new RecordingListener();
+        compressor = new LzwCompressor(inputFile.toString(), LzwFormat.VARIABLE_WIDTH);
+        compressor.setProgressListener(coarse, 150_000);
+        compressor.compress();
+        compressor.cleanup();
+
+        // The start of the phase, then every 10 KB of the 400 KB input
+        assertEquals(41, everyChunk.events.size());
+        // Larger than a chunk: reports come at the first chunk past every 150 KB, then at the end of the phase
+        List<Long> bytesIn = coarse.events.stream().map(ProgressEvent::getBytesIn).toList();
+        assertEquals(4, bytesIn.size(), bytesIn.toString());
+        for (int i = 1; i < bytesIn.size() - 1; i++) {
+            assertTrue(bytesIn.get(i) - bytesIn.get(i - 1) >= 150_000, bytesIn.toString());
+        }
+        assertEquals(400_000, bytesIn.get(bytesIn.size() - 1));
+        assertThrows(IllegalArgumentException.class, () -> new LzwCompressor(inputFile.toString()).setProgressListener(coarse, 0));
+    }
+
+    @Test
+    void testDecompressorsReportCompressedBytesRead() throws IOException {
+        List<Path> compressedFiles = List.of(
+            compressToOwnFile(new HuffmanCompressor(inputFile.toString(), HuffmanFormat.CANONICAL), ".huffz", 0),
+            compressToOwnFile(new HuffmanCompressor(inputFile.toString(), HuffmanFormat.BLOCKS), ".huffz", 1),
+            compressToOwnFile(new AdaptiveHuffmanCompressor(inputFile.toString()), ".huffz", 2),
+            compressToOwnFile(new LzwCompressor(inputFile.toString(), LzwFormat.VARIABLE_WIDTH), ".LmZWp", 3),
+            compressToOwnFile(new LzwCompressor(inputFile.toString(), LzwFormat.BLOCKS), ".LmZWp", 4));
+        List<Function<String, Decompressor>> decompressors = List.of(
+            HuffmanDecompressor::new, HuffmanDecompressor::new, AdaptiveHuffmanDecompressor::new,
+            LzwDecompressor::new, LzwDecompressor::new);
+
+        for (int i = 0; i < compressedFiles.size(); i++) {
+            Path compressedFile = compressedFiles.get(i);
+            RecordingListener listener = new RecordingListener();
+            Decompressor decompressor = decompressors.get(i).apply(compressedFile.toString());
+            decompressor.setProgressListener(listener);
+            decompressor.decompress();
+
+            assertEquals(List.of(CompressionPhase.DECODE), listener.phases(), compressedFile.toString());
+            // The block index at the end of the LZW block format is read directly, not through the reader
+            assertTrue(listener.last().getBytesIn() > Files.size(compressedFile) - 64, compressedFile.toString());
+            assertTrue(listener.last().getBytesIn() <= Files.size(compressedFile), compressedFile.toString());
+            assertEquals(Files.size(compressedFile), listener.last().getTotalBytes(), compressedFile.toString());
+            assertEquals(Files.size(inputFile), listener.last().getBytesOut(), compressedFile.toString());
+            Path outputFile = Path.of(compressedFile.toString().substring(0, compressedFile.toString().lastIndexOf('.')));
+            assertEquals(-1L, Files.mismatch(inputFile, outputFile), "Round trip of " + compressedFile);
+        }
+    }
+
+    @Test
+    void testStreamTotalIsUnknown() {
+        RecordingListener listener = new RecordingListener();
+        Compressor compressor = new LzwCompressor(new ByteArrayInputStream(new byte[300_000]), new ByteArrayOutputStream());
+        compressor.setProgressListener(listener);
+        compressor.compress();
+
+        assertEquals(300_000, listener.last().getBytesIn());
+        assertEquals(ProgressListener.UNKNOWN_TOTAL, listener.last().getTotalBytes());
+        assertEquals(-1, listener.last().getPercent());
+    }
+
+    @Test
+    void testListenerExceptionStopsTheEngine() throws IOException {
+        ProgressListener cancelAfterFirstChunk = event -> {
+            if (event.getBytesIn() > 100_000) {
+                throw new CancellationException("Cancelled");
+            }
+        };
+        for (Supplier<Compressor> supplier : fileCompressors()) {
+            Compressor compressor = supplier.get();
+            compressor.setProgressListener(cancelAfterFirstChunk);
+            assertThrows(CancellationException.class, compressor::compress, compressor.getClass().getSimpleName());
+            compressor.cleanup();
+        }
+
+        Path compressedFile = compressToOwnFile(new LzwCompressor(inputFile.toString(), LzwFormat.VARIABLE_WIDTH), ".LmZWp", 0);
+        Decompressor decompressor = new LzwDecompressor(compressedFile.toString());
+        decompressor.setProgressListener(cancelAfterFirstChunk);
+        assertThrows(CancellationException.class, decompressor::decompress);
+    }
+
+    @Test
+    void testRemovingTheListener() throws IOException {
+        RecordingListener listener = new RecordingListener();
+        Compressor compressor = new LzwCompressor(inputFile.toString(), LzwFormat.VARIABLE_WIDTH);
+        compressor.setProgressListener(listener);
+        compressor.setProgressListener(null);
+        compressor.compress();
+
+        assertTrue(listener.events.isEmpty());
+    }
+
+    @Test
+    void testProgressEventEstimates() {
+        ProgressEvent event = new ProgressEvent(CompressionPhase.ENCODE, 25_000_000, 100_000_000, 9_000_000,
+            900_000_000, 500_000_000);
+
+        assertEquals(25, event.getPercent());
+        assertEquals(50_000_000, event.getBytesPerSecond(), 1e-6, "Speed is measured over the phase");
+        assertEquals(2, event.getRemainingSeconds());
+        assertEquals("encode: 25000000/100000000 bytes in, 9000000 bytes out", event.toString());
+
+        ProgressEvent unknownTotal = new ProgressEvent(CompressionPhase.DECODE, 1000, -1, 0, 1_000_000, 1_000_000);
+        assertEquals(-1, unknownTotal.getPercent());
+        assertEquals(-1, unknownTotal.getRemainingSeconds());
+        assertEquals(1_000_000, unknownTotal.getBytesPerSecond(), 1e-6);
+        assertEquals(-1, new ProgressEvent(CompressionPhase.ENCODE, 0, 100, 0, 0, 0).getRemainingSeconds());
+    }
+}
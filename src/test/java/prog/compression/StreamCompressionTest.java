@@ -0,0 +1,198 @@
+package prog.compression;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import prog.huffman.HuffmanCompressor;
+import prog.huffman.HuffmanDecompressor;
+import prog.huffman.HuffmanFormat;
+import prog.lzw.LzwCompressor;
+import prog.lzw.LzwDecompressor;
+import prog.lzw.LzwFormat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for compressing and decompressing streams and channels instead of files.
+ */
+class StreamCompressionTest {
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Output stream that records whether it was closed.
+     */
+    private static class TrackingOutputStream extends ByteArrayOutputStream {
+        boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    void testHuffmanStreamRoundTrip() {
+        byte[] content = "The quick brown fox jumps over the lazy dog. ".repeat(2000).getBytes();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new HuffmanCompressor(new ByteArrayInputStream(content), compressed).compress();
+
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        new HuffmanDecompressor(new ByteArrayInputStream(compressed.toByteArray()), decompressed).decompress();
+
+        assertArrayEquals(content, decompressed.toByteArray());
+    }
+
+    @Test
+    void testHuffmanEmptyStreamRoundTrip() {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new HuffmanCompressor(new ByteArrayInputStream(new byte[0]), compressed).compress();
+
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        new HuffmanDecompressor(new ByteArrayInputStream(compressed.toByteArray()), decompressed).decompress();
+
+        assertEquals(0, decompressed.size());
+    }
+
+    @Test
+    void testStreamsAreFlushedButNotClosed() {
+        TrackingOutputStream compressed = new TrackingOutputStream();
+        new HuffmanCompressor(new ByteArrayInputStream("stays open".getBytes()), compressed).compress();
+        assertFalse(compressed.closed);
+        assertTrue(compressed.size() > 0);
+
+        ByteArrayOutputStream lzwCompressed = new ByteArrayOutputStream();
+        new LzwCompressor(new ByteArrayInputStream("stays open".getBytes()), lzwCompressed).compress();
+        TrackingOutputStream decompressed = new TrackingOutputStream();
+        new LzwDecompressor(new ByteArrayInputStream(lzwCompressed.toByteArray()), decompressed).decompress();
+        assertFalse(decompressed.closed);
+        assertEquals("stays open", decompressed.toString());
+    }
+
+    @Test
+    void testHuffmanStreamOutputDecompressesFromFile() throws IOException {
+        byte[] content = "written to a file by the stream compressor\n".repeat(500).getBytes();
+        Path compressedFile = tempDir.resolve("sample.bin.huffz");
+        try (var output = Files.newOutputStream(compressedFile)) {
+            new HuffmanCompressor(new ByteArrayInputStream(content), output).compress();
+        }
+
+        new HuffmanDecompressor(compressedFile.toString()).decompress();
+
+        assertArrayEquals(content, Files.readAllBytes(tempDir.resolve("sample.bin")));
+    }
+
+    @Test
+    void testHuffmanFileOutputDecompressesFromStream() throws IOException {
+        byte[] content = "compressed as a file, read back as a stream\n".repeat(500).getBytes();
+        Path file = tempDir.resolve("sample.bin");
+        Files.write(file, content);
+        for (HuffmanFormat format : new HuffmanFormat[] {HuffmanFormat.FREQUENCY_TABLE, HuffmanFormat.CANONICAL}) {
+            HuffmanCompressor compressor = new HuffmanCompressor(file.toString(), format);
+            compressor.compress();
+            compressor.cleanup();
+
+            ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+            byte[] compressed = Files.readAllBytes(tempDir.resolve("sample.bin.huffz"));
+            new HuffmanDecompressor(new ByteArrayInputStream(compressed), decompressed).decompress();
+
+            assertArrayEquals(content, decompressed.toByteArray(), "Format: " + format);
+        }
+    }
+
+    @Test
+    void testHuffmanInvalidStreamHeaderThrowsException() {
+        ByteArrayInputStream input = new ByteArrayInputStream(new byte[] {2});
+        assertThrows(RuntimeException.class, () -> new HuffmanDecompressor(input, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void testLzwStreamRoundTrip() {
+        // Text, then random bytes that grow the dictionary quickly
+        byte[] content = new byte[100000];
+        new Random(7).nextBytes(content);
+        byte[] text = "The quick brown fox jumps over the lazy dog. ".repeat(1000).getBytes();
+        System.arraycopy(text, 0, content, 0, text.length);
+        for (LzwFormat format : new LzwFormat[] {LzwFormat.VARIABLE_WIDTH, LzwFormat.ADAPTIVE_RESET}) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            new LzwCompressor(new ByteArrayInputStream(content), compressed, format).compress();
+            assertEquals(format.getVersion(), compressed.toByteArray()[0], "Format: " + format);
+
+            ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+            new LzwDecompressor(new ByteArrayInputStream(compressed.toByteArray()), decompressed).decompress();
+            assertArrayEquals(content, decompressed.toByteArray(), "Format: " + format);
+        }
+    }
+
+    @Test
+    void testLzwEmptyStreamRoundTrip() {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new LzwCompressor(new ByteArrayInputStream(new byte[0]), compressed, LzwFormat.VARIABLE_WIDTH).compress();
+
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        new LzwDecompressor(new ByteArrayInputStream(compressed.toByteArray()), decompressed).decompress();
+
+        assertEquals(0, decompressed.size());
+    }
+
+    @Test
+    void testLzwFixedWidthStreamThrowsException() {
+        ByteArrayInputStream input = new ByteArrayInputStream("abc".getBytes());
+        assertThrows(IllegalArgumentException.class,
+            () -> new LzwCompressor(input, new ByteArrayOutputStream(), LzwFormat.FIXED_WIDTH));
+    }
+
+    @Test
+    void testLzwBlocksNeedSeekableInput() throws IOException {
+        byte[] content = "Several 16 KB blocks of text. ".repeat(2000).getBytes();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new LzwCompressor(new ByteArrayInputStream(content), output, LzwFormat.BLOCKS, 16 * 1024).compress();
+        byte[] compressed = output.toByteArray();
+
+        // A plain stream cannot reach the block index at the end
+        assertThrows(RuntimeException.class, () -> new LzwDecompressor(new ByteArrayInputStream(compressed),
+            new ByteArrayOutputStream()).decompress());
+
+        // A file channel can, also when the compressed bytes start after a prefix
+        Path file = tempDir.resolve("prefixed.bin");
+        byte[] prefixed = new byte[compressed.length + 100];
+        System.arraycopy(compressed, 0, prefixed, 100, compressed.length);
+        Files.write(file, prefixed);
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        try (FileChannel channel = FileChannel.open(file)) {
+            channel.position(100);
+            new LzwDecompressor(channel, Channels.newChannel(decompressed)).decompress();
+            assertTrue(channel.isOpen());
+        }
+        assertArrayEquals(content, decompressed.toByteArray());
+    }
+
+    @Test
+    void testChannelRoundTrip() {
+        byte[] content = "Channels in, channels out. ".repeat(3000).getBytes();
+
+        ByteArrayOutputStream huffmanCompressed = new ByteArrayOutputStream();
+        new HuffmanCompressor(Channels.newChannel(new ByteArrayInputStream(content)),
+            Channels.newChannel(huffmanCompressed)).compress();
+        ByteArrayOutputStream huffmanDecompressed = new ByteArrayOutputStream();
+        new HuffmanDecompressor(Channels.newChannel(new ByteArrayInputStream(huffmanCompressed.toByteArray())),
+            Channels.newChannel(huffmanDecompressed)).decompress();
+        assertArrayEquals(content, huffmanDecompressed.toByteArray());
+
+        ByteArrayOutputStream lzwCompressed = new ByteArrayOutputStream();
+        new LzwCompressor(Channels.newChannel(new ByteArrayInputStream(content)),
+            Channels.newChannel(lzwCompressed)).compress();
+        ByteArrayOutputStream lzwDecompressed = new ByteArrayOutputStream();
+        new LzwDecompressor(Channels.newChannel(new ByteArrayInputStream(lzwCompressed.toByteArray())),
+            Channels.newChannel(lzwDecompressed)).decompress();
+        assertArrayEquals(content, lzwDecompressed.toByteArray());
+    }
+}
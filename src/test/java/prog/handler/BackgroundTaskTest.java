@@ -0,0 +1,167 @@
+package prog.handler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import prog.compression.CompressionPhase;
+import prog.compression.ProgressEvent;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for BackgroundTask and the handlers run as background tasks.
+ */
+class BackgroundTaskTest {
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Records the callbacks of a task and lets the test wait for the last one.
+     */
+    private static class RecordingCallback implements BackgroundTask.Callback {
+        final CountDownLatch finished = new CountDownLatch(1);
+        final List<ProgressEvent> progress = new ArrayList<>();
+        volatile String outcome;
+        volatile File outputFile;
+        volatile Exception exception;
+        volatile boolean onEventDispatchThread = true;
+
+        @Override
+        public void onProgress(ProgressEvent event) {
+            checkThread();
+            this.progress.add(event);
+        }
+
+        @Override
+        public void onSuccess(File outputFile) {
+            this.outputFile = outputFile;
+            finish("success");
+        }
+
+        @Override
+        public void onFailure(Exception exception) {
+            this.exception = exception;
+            finish("failure");
+        }
+
+        @Override
+        public void onCancel() {
+            finish("cancel");
+        }
+
+        private void finish(String outcome) {
+            checkThread();
+            this.outcome = outcome;
+            finished.countDown();
+        }
+
+        private void checkThread() {
+            onEventDispatchThread &= SwingUtilities.isEventDispatchThread();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(finished.await(30, TimeUnit.SECONDS), "Task did not finish");
+            assertTrue(onEventDispatchThread, "Callbacks should run on the Event Dispatch Thread");
+        }
+    }
+
+    private Path writeRandomText(int size) throws IOException {
+        byte[] content = new byte[size];
+        Random random = new Random(11);
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + random.nextInt(20));
+        }
+        Path file = tempDir.resolve("input.txt");
+        Files.write(file, content);
+        return file;
+    }
+
+    @Test
+    void testCompressionReportsProgressAndOutput() throws Exception {
+        Path input = writeRandomText(1_000_000);
+        RecordingCallback callback = new RecordingCallback();
+
+        new BackgroundTask(listener -> new CompressionHandler().compressWithLZW(input.toFile(), listener), callback).execute();
+        callback.await();
+
+        assertEquals("success", callback.outcome);
+        assertEquals(new File(input + ".LmZWp"), callback.outputFile);
+        assertTrue(callback.outputFile.exists());
+        assertFalse(callback.progress.isEmpty());
+        ProgressEvent last = callback.progress.get(callback.progress.size() - 1);
+        assertEquals(CompressionPhase.ENCODE, last.getPhase());
+        assertEquals(Files.size(input), last.getTotalBytes());
+        assertTrue(last.getPercent() > 0);
+        assertTrue(last.getBytesOut() > 0);
+    }
+
+    @Test
+    void testCancelDeletesPartialOutput() throws Exception {
+        Path input = writeRandomText(2_000_000);
+        RecordingCallback callback = new RecordingCallback();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        BackgroundTask task = new BackgroundTask(listener -> new CompressionHandler().compressWithHuffman(input.toFile(),
+            event -> {
+                started.countDown();
+                try {
+                    // Hold the engine until the cancel is requested, so it cannot finish first
+                    cancelled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                listener.onProgress(event);
+            }), callback);
+        task.execute();
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+        assertTrue(Files.exists(Path.of(input + ".huffz")), "Output should be written while compressing");
+        task.requestCancel();
+        cancelled.countDown();
+        callback.await();
+
+        assertEquals("cancel", callback.outcome);
+        assertTrue(task.isCancelRequested());
+        assertFalse(Files.exists(Path.of(input + ".huffz")), "Partial output should be deleted");
+        assertTrue(Files.exists(input));
+    }
+
+    @Test
+    void testFailedDecompressionReportsCauseAndLeavesNoOutput() throws Exception {
+        Path compressed = tempDir.resolve("broken.txt.LmZWp");
+        Files.write(compressed, new byte[] {9, 9, 9, 9});
+        RecordingCallback callback = new RecordingCallback();
+
+        new BackgroundTask(listener -> new DecompressionHandler().decompressLZW(compressed.toFile(), listener), callback).execute();
+        callback.await();
+
+        assertEquals("failure", callback.outcome);
+        assertNotNull(callback.exception.getMessage());
+        assertFalse(Files.exists(tempDir.resolve("broken.txt")));
+    }
+
+    @Test
+    void testDecompressionReturnsNumberedOutput() throws Exception {
+        Path input = writeRandomText(10_000);
+        new CompressionHandler().compressWithHuffman(input.toFile(), null);
+        RecordingCallback callback = new RecordingCallback();
+
+        new BackgroundTask(listener -> new DecompressionHandler().decompressHuffman(new File(input + ".huffz"), listener), callback).execute();
+        callback.await();
+
+        assertEquals("success", callback.outcome);
+        assertEquals(tempDir.resolve("input (1).txt").toFile(), callback.outputFile);
+        assertEquals(-1L, Files.mismatch(input, callback.outputFile.toPath()));
+    }
+}
@@ -0,0 +1,202 @@
+package prog.huffman;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import prog.util.BitWriter;
+import prog.util.ByteWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for AdaptiveHuffmanTree, AdaptiveHuffmanCompressor and AdaptiveHuffmanDecompressor.
+ */
+class AdaptiveHuffmanTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEmptyStreamRoundTrip() {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanCompressor(new ByteArrayInputStream(new byte[0]), compressed).compress();
+
+        // Version byte, then the 9-bit end-of-data escape (NYT is the root, so its code is empty)
+        assertArrayEquals(new byte[] {4, (byte) 0x80, 0}, compressed.toByteArray());
+
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanDecompressor(new ByteArrayInputStream(compressed.toByteArray()), decompressed).decompress();
+        assertEquals(0, decompressed.size());
+    }
+
+    @Test
+    void testSingleByteRoundTrip() {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanCompressor(new ByteArrayInputStream(new byte[] {'x'}), compressed).compress();
+
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanDecompressor(new ByteArrayInputStream(compressed.toByteArray()), decompressed).decompress();
+        assertEquals("x", decompressed.toString());
+    }
+
+    @Test
+    void testAllByteValuesRoundTrip() {
+        byte[] content = new byte[256 * 40];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 7 + i / 256);
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanCompressor(new ByteArrayInputStream(content), compressed).compress();
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanDecompressor(new ByteArrayInputStream(compressed.toByteArray()), decompressed).decompress();
+
+        assertArrayEquals(content, decompressed.toByteArray());
+    }
+
+    @Test
+    void testRandomBytesRoundTrip() {
+        // Near-uniform counts keep swapping nodes of equal weight
+        byte[] content = new byte[200000];
+        new Random(17).nextBytes(content);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanCompressor(new ByteArrayInputStream(content), compressed).compress();
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanDecompressor(new ByteArrayInputStream(compressed.toByteArray()), decompressed).decompress();
+
+        assertArrayEquals(content, decompressed.toByteArray());
+    }
+
+    @Test
+    void testDeepTreeRoundTrip() {
+        // Counts that double per byte value give codes longer than 64 bits
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (int value = 0; value < 20; value++) {
+            for (int i = 0; i < 1 << value; i++) {
+                content.write(value);
+            }
+        }
+        for (int value = 19; value >= 0; value--) {
+            content.write(value);
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanCompressor(new ByteArrayInputStream(content.toByteArray()), compressed).compress();
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanDecompressor(new ByteArrayInputStream(compressed.toByteArray()), decompressed).decompress();
+
+        assertArrayEquals(content.toByteArray(), decompressed.toByteArray());
+    }
+
+    @Test
+    void testSkewedContentCompresses() {
+        byte[] content = new byte[100000];
+        Random random = new Random(3);
+        for (int i = 0; i < content.length; i++) {
+            // Skewed towards a few letters, so the codes get short
+            content[i] = (byte) ('a' + Math.min(random.nextInt(16), random.nextInt(16)));
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanCompressor(new ByteArrayInputStream(content), compressed).compress();
+        assertTrue(compressed.size() < content.length * 6 / 10, "Compressed size: " + compressed.size());
+
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanDecompressor(new ByteArrayInputStream(compressed.toByteArray()), decompressed).decompress();
+        assertArrayEquals(content, decompressed.toByteArray());
+    }
+
+    @Test
+    void testRepeatedByteTakesOneBitEach() {
+        byte[] content = new byte[8000];
+        Arrays.fill(content, (byte) 'a');
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanCompressor(new ByteArrayInputStream(content), compressed).compress();
+
+        // After the first escape, 'a' and NYT are the only leaves
+        assertTrue(compressed.size() <= 1 + 1000 + 3);
+    }
+
+    @Test
+    void testFileRoundTripAndHuffmanDecompressor() throws IOException {
+        byte[] content = "adaptive codes, no table in the header\n".repeat(1000).getBytes();
+        Path inputFile = tempDir.resolve("sample.txt");
+        Files.write(inputFile, content);
+
+        new AdaptiveHuffmanCompressor(inputFile.toString()).compress();
+        Path compressedFile = tempDir.resolve("sample.txt.huffz");
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanCompressor(new ByteArrayInputStream(content), compressed).compress();
+        assertArrayEquals(compressed.toByteArray(), Files.readAllBytes(compressedFile));
+
+        Files.delete(inputFile);
+        new HuffmanDecompressor(compressedFile.toString()).decompress();
+        assertArrayEquals(content, Files.readAllBytes(inputFile));
+
+        Files.delete(inputFile);
+        new AdaptiveHuffmanDecompressor(compressedFile.toString()).decompress();
+        assertArrayEquals(content, Files.readAllBytes(inputFile));
+    }
+
+    @Test
+    void testEmptyFileThrowsException() throws IOException {
+        Path inputFile = tempDir.resolve("empty.txt");
+        Files.write(inputFile, new byte[0]);
+
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveHuffmanCompressor(inputFile.toString()));
+    }
+
+    @Test
+    void testTruncatedStreamThrowsException() {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new AdaptiveHuffmanCompressor(new ByteArrayInputStream("cut off near the end. ".repeat(500).getBytes()),
+            compressed).compress();
+        byte[] truncated = Arrays.copyOf(compressed.toByteArray(), compressed.size() - 4);
+
+        AdaptiveHuffmanDecompressor decompressor =
+            new AdaptiveHuffmanDecompressor(new ByteArrayInputStream(truncated), new ByteArrayOutputStream());
+        RuntimeException exception = assertThrows(RuntimeException.class, decompressor::decompress);
+        assertTrue(exception.getCause() instanceof IOException);
+    }
+
+    @Test
+    void testInvalidEscapeValuesThrowException() throws IOException {
+        // Escape value 257 is neither a byte nor the end of the data
+        AdaptiveHuffmanDecompressor invalidEscape = new AdaptiveHuffmanDecompressor(
+            new ByteArrayInputStream(new byte[] {4, (byte) 0x80, (byte) 0x80}), new ByteArrayOutputStream());
+        assertThrows(RuntimeException.class, invalidEscape::decompress);
+
+        // 'a' escaped twice: the second time it already has a leaf
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        compressed.write(HuffmanFormat.ADAPTIVE.getVersion());
+        ByteWriter byteWriter = new ByteWriter(compressed);
+        BitWriter bitWriter = new BitWriter(byteWriter);
+        bitWriter.writeBits('a', 9);
+        bitWriter.writeBits(0, 1);
+        bitWriter.writeBits('a', 9);
+        bitWriter.flush();
+        byteWriter.flush();
+
+        AdaptiveHuffmanDecompressor repeatedEscape = new AdaptiveHuffmanDecompressor(
+            new ByteArrayInputStream(compressed.toByteArray()), new ByteArrayOutputStream());
+        RuntimeException exception = assertThrows(RuntimeException.class, repeatedEscape::decompress);
+        assertTrue(exception.getCause() instanceof IOException);
+    }
+
+    @Test
+    void testOtherFormatsAreRejected() {
+        ByteArrayInputStream blocks = new ByteArrayInputStream(new byte[] {2, 0, 0, 1, 0});
+        assertThrows(IllegalArgumentException.class,
+            () -> new AdaptiveHuffmanDecompressor(blocks, new ByteArrayOutputStream()).decompress());
+        assertThrows(IllegalArgumentException.class,
+            () -> new HuffmanCompressor(tempDir.resolve("any.txt").toString(), HuffmanFormat.ADAPTIVE));
+    }
+}
@@ -0,0 +1,66 @@
+package prog.huffman;
+
+import org.junit.jupiter.api.Test;
+import prog.util.Constants;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HuffmanBlockCodecTest {
+
+    @Test
+    void testRoundTrip() throws IOException {
+        byte[] block = "abracadabra, abracadabra! ".repeat(20).getBytes();
+
+        byte[] payload = HuffmanBlockCodec.encode(block, block.length, Constants.DEFAULT_MAX_CODE_LENGTH);
+
+        assertTrue(payload.length < block.length);
+        assertArrayEquals(block, HuffmanBlockCodec.decode(payload, block.length));
+    }
+
+    @Test
+    void testEncodesOnlyTheGivenLength() throws IOException {
+        byte[] block = "hello world, and bytes past the length".getBytes();
+
+        byte[] payload = HuffmanBlockCodec.encode(block, 11, Constants.DEFAULT_MAX_CODE_LENGTH);
+
+        assertArrayEquals("hello world".getBytes(), HuffmanBlockCodec.decode(payload, 11));
+    }
+
+    @Test
+    void testSingleByteValue() throws IOException {
+        byte[] block = new byte[100];
+        Arrays.fill(block, (byte) 'x');
+
+        byte[] payload = HuffmanBlockCodec.encode(block, block.length, Constants.DEFAULT_MAX_CODE_LENGTH);
+
+        assertArrayEquals(block, HuffmanBlockCodec.decode(payload, block.length));
+    }
+
+    @Test
+    void testAllByteValuesWithoutLengthLimit() throws IOException {
+        byte[] block = new byte[50000];
+        Random random = new Random(11);
+        for (int i = 0; i < block.length; i++) {
+            // Skewed towards small values, so code lengths vary widely
+            block[i] = (byte) (random.nextInt(256) & random.nextInt(256) & random.nextInt(256));
+        }
+
+        byte[] payload = HuffmanBlockCodec.encode(block, block.length, Constants.UNLIMITED_CODE_LENGTH);
+
+        assertArrayEquals(block, HuffmanBlockCodec.decode(payload, block.length));
+    }
+
+    @Test
+    void testTruncatedPayloadThrowsException() throws IOException {
+        byte[] block = "a payload that loses its last bytes".getBytes();
+        byte[] payload = HuffmanBlockCodec.encode(block, block.length, Constants.DEFAULT_MAX_CODE_LENGTH);
+
+        byte[] truncated = Arrays.copyOf(payload, payload.length - 2);
+        assertThrows(EOFException.class, () -> HuffmanBlockCodec.decode(truncated, block.length));
+    }
+}
@@ -5,9 +5,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import prog.util.ByteReader;
 import prog.util.ByteWriter;
+import prog.util.Constants;
+import prog.util.MappedFileInputSource;
 
 import java.io.*;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -95,11 +98,16 @@ class HuffmanCompressorTest {
 
         // Use reflection to access private method
         HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath());
+        // The codes are generated by compress(), before the header is written
+        Method generateCodes = HuffmanCompressor.class.getDeclaredMethod("generateCodes");
+        generateCodes.setAccessible(true);
+        generateCodes.invoke(compressor);
         Method writeTableSize = HuffmanCompressor.class.getDeclaredMethod("writeTableSize");
         writeTableSize.setAccessible(true);
 
         // Invoke the method (it now uses instance fields calculated from "ABC")
         writeTableSize.invoke(compressor);
+        compressor.cleanup(); // Flushes and closes the output file
 
         // Read back the result from the output file
         String outputFile = inputFile.getAbsolutePath() + ".huffz";
@@ -120,6 +128,10 @@ class HuffmanCompressorTest {
 
         // Use reflection to access private methods
         HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath());
+        // The codes are generated by compress(), before the header is written
+        Method generateCodes = HuffmanCompressor.class.getDeclaredMethod("generateCodes");
+        generateCodes.setAccessible(true);
+        generateCodes.invoke(compressor);
         Method writeTableSize = HuffmanCompressor.class.getDeclaredMethod("writeTableSize");
         writeTableSize.setAccessible(true);
         Method writeFrequencyTable = HuffmanCompressor.class.getDeclaredMethod("writeFrequencyTable");
@@ -128,6 +140,7 @@ class HuffmanCompressorTest {
         // Invoke the methods (they now use instance fields calculated from "AB")
         writeTableSize.invoke(compressor);
         writeFrequencyTable.invoke(compressor);
+        compressor.cleanup(); // Flushes and closes the output file
 
         // Read back the result from the output file
         String outputFile = inputFile.getAbsolutePath() + ".huffz";
@@ -161,6 +174,10 @@ class HuffmanCompressorTest {
 
         // Use reflection to access private methods
         HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath());
+        // The codes are generated by compress(), before the header is written
+        Method generateCodes = HuffmanCompressor.class.getDeclaredMethod("generateCodes");
+        generateCodes.setAccessible(true);
+        generateCodes.invoke(compressor);
         Method writeTableSize = HuffmanCompressor.class.getDeclaredMethod("writeTableSize");
         writeTableSize.setAccessible(true);
         Method writeFrequencyTable = HuffmanCompressor.class.getDeclaredMethod("writeFrequencyTable");
@@ -172,6 +189,7 @@ class HuffmanCompressorTest {
         writeTableSize.invoke(compressor);
         writeFrequencyTable.invoke(compressor);
         writeExtraBits.invoke(compressor);
+        compressor.cleanup(); // Flushes and closes the output file
 
         // Read back the result from the output file
         String outputFile = inputFile.getAbsolutePath() + ".huffz";
@@ -200,6 +218,10 @@ class HuffmanCompressorTest {
 
         // Use reflection to access private methods
         HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath());
+        // The codes are generated by compress(), before the header is written
+        Method generateCodes = HuffmanCompressor.class.getDeclaredMethod("generateCodes");
+        generateCodes.setAccessible(true);
+        generateCodes.invoke(compressor);
         Method writeTableSize = HuffmanCompressor.class.getDeclaredMethod("writeTableSize");
         writeTableSize.setAccessible(true);
         Method writeFrequencyTable = HuffmanCompressor.class.getDeclaredMethod("writeFrequencyTable");
@@ -211,6 +233,7 @@ class HuffmanCompressorTest {
         writeTableSize.invoke(compressor);
         writeFrequencyTable.invoke(compressor);
         writeExtraBits.invoke(compressor);
+        compressor.cleanup(); // Flushes and closes the output file
 
         // Read back the result from the output file
         String outputFile = inputFile.getAbsolutePath() + ".huffz";
@@ -225,4 +248,71 @@ class HuffmanCompressorTest {
         assertEquals(7, extraBits); // 1 bit data + 7 padding = 8
         compressor.cleanup();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testCanonicalHeaderStoresCodeLengthPairs() throws Exception {
+        // "AAB": A and B both get 1-bit codes, 3 bits of data need 5 padding bits
+        try (FileWriter writer = new FileWriter(inputFile)) {
+            writer.write("AAB");
+        }
+
+        HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath(), HuffmanFormat.CANONICAL);
+        compressor.compress();
+        compressor.cleanup();
+
+        String outputFile = inputFile.getAbsolutePath() + ".huffz";
+        ByteReader reader = new ByteReader(outputFile);
+        assertEquals(HuffmanFormat.CANONICAL.getVersion(), (int) reader.readNextByte());
+        assertEquals(5, (int) reader.readNextByte()); // padding bits
+        assertEquals(Constants.CODE_LENGTHS_AS_PAIRS, (int) reader.readNextByte());
+        assertEquals(1, (int) reader.readNextByte()); // 2 symbols, stored as count - 1
+        assertEquals('A', (int) reader.readNextByte());
+        assertEquals(1, (int) reader.readNextByte());
+        assertEquals('B', (int) reader.readNextByte());
+        assertEquals(1, (int) reader.readNextByte());
+        // Canonical codes: A=0, B=1, so "AAB" is 001 followed by padding
+        assertEquals(0b00100000, (int) reader.readNextByte());
+        assertNull(reader.readNextByte());
+        reader.close();
+    }
+
+    @Test
+    void testCanonicalHeaderIsSmallerThanFrequencyTable() throws IOException {
+        try (FileWriter writer = new FileWriter(inputFile)) {
+            writer.write("Hello, World! This is a test file with multiple characters.");
+        }
+        File compressedFile = new File(inputFile.getAbsolutePath() + ".huffz");
+
+        HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath());
+        compressor.compress();
+        compressor.cleanup();
+        long frequencyTableSize = compressedFile.length();
+        Files.delete(compressedFile.toPath());
+
+        HuffmanCompressor canonicalCompressor = new HuffmanCompressor(inputFile.getAbsolutePath(), HuffmanFormat.CANONICAL);
+        canonicalCompressor.compress();
+        canonicalCompressor.cleanup();
+        long canonicalSize = compressedFile.length();
+
+        // 5 bytes per distinct byte shrink to 2, the 4-byte count and padding ints to 3 bytes
+        assertTrue(canonicalSize < frequencyTableSize,
+            "Canonical header should be smaller: " + canonicalSize + " vs " + frequencyTableSize);
+    }
+
+    @Test
+    void testMappedInputMatchesStreamInput() throws IOException {
+        byte[] content = new byte[10000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * i % 37);
+        }
+        Files.write(inputFile.toPath(), content);
+        File compressedFile = new File(inputFile.getAbsolutePath() + Constants.HUFFMAN_FILE_EXTENSION);
+
+        new HuffmanCompressor(inputFile.getAbsolutePath()).compress();
+        byte[] streamOutput = Files.readAllBytes(compressedFile.toPath());
+
+        // Small windows make both passes cross mapping boundaries
+        new HuffmanCompressor(new MappedFileInputSource(inputFile.getAbsolutePath(), 1000)).compress();
+        assertArrayEquals(streamOutput, Files.readAllBytes(compressedFile.toPath()));
+    }
+}
@@ -0,0 +1,134 @@
+package prog.huffman;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import prog.util.Constants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HuffmanDecodingTableTest {
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Walks the table the same way the decompressor does for a single code
+     */
+    private int decode(HuffmanDecodingTable table, long code, int length) {
+        int tableOffset = 0;
+        int tableBits = table.getRootBits();
+        int position = length;
+        while (true) {
+            long window = tableBits <= position ? code >>> (position - tableBits) : code << (tableBits - position);
+            int entry = table.getEntry(tableOffset + (int) (window & ((1L << tableBits) - 1)));
+            if (HuffmanDecodingTable.isLeaf(entry)) {
+                assertEquals(position, HuffmanDecodingTable.getBitsConsumed(entry), "Leaf should consume the rest of the code");
+                return HuffmanDecodingTable.getSymbol(entry);
+            }
+            assertTrue(HuffmanDecodingTable.isSubTable(entry), "Entry should be a leaf or a sub-table");
+            position -= tableBits;
+            tableOffset = HuffmanDecodingTable.getSubTableOffset(entry);
+            tableBits = HuffmanDecodingTable.getSubTableBits(entry);
+        }
+    }
+
+    @Test
+    void testShortCodesResolveInRootTable() {
+        long[] codes = new long[Constants.BYTE_VALUES_COUNT];
+        int[] codeLengths = new int[Constants.BYTE_VALUES_COUNT];
+        codes['A'] = 0b0;   codeLengths['A'] = 1;
+        codes['B'] = 0b10;  codeLengths['B'] = 2;
+        codes['C'] = 0b11;  codeLengths['C'] = 2;
+
+        HuffmanDecodingTable table = new HuffmanDecodingTable(codes, codeLengths);
+
+        assertEquals(2, table.getRootBits());
+        assertEquals(2, table.getMaxCodeLength());
+        // "00" and "01" both start with A's code
+        assertEquals('A', HuffmanDecodingTable.getSymbol(table.getEntry(0b00)));
+        assertEquals('A', HuffmanDecodingTable.getSymbol(table.getEntry(0b01)));
+        assertEquals(1, HuffmanDecodingTable.getBitsConsumed(table.getEntry(0b01)));
+        assertEquals('B', HuffmanDecodingTable.getSymbol(table.getEntry(0b10)));
+        assertEquals('C', HuffmanDecodingTable.getSymbol(table.getEntry(0b11)));
+        assertEquals(2, HuffmanDecodingTable.getBitsConsumed(table.getEntry(0b11)));
+    }
+
+    @Test
+    void testSingleSymbolLeavesUnusedEntriesInvalid() {
+        long[] codes = new long[Constants.BYTE_VALUES_COUNT];
+        int[] codeLengths = new int[Constants.BYTE_VALUES_COUNT];
+        codeLengths['x'] = 1;
+
+        HuffmanDecodingTable table = new HuffmanDecodingTable(codes, codeLengths);
+
+        assertEquals(1, table.getRootBits());
+        assertEquals('x', HuffmanDecodingTable.getSymbol(table.getEntry(0)));
+        assertTrue(HuffmanDecodingTable.isInvalid(table.getEntry(1)));
+    }
+
+    @Test
+    void testEmptyCodesThrowException() {
+        assertThrows(IllegalArgumentException.class, () ->
+            new HuffmanDecodingTable(new long[Constants.BYTE_VALUES_COUNT], new int[Constants.BYTE_VALUES_COUNT]));
+    }
+
+    @Test
+    void testLongCodesUseSubTables() {
+        // Fibonacci-like frequencies produce a maximally skewed tree with very long codes
+        int[] frequency = new int[Constants.BYTE_VALUES_COUNT];
+        int previous = 1, current = 1;
+        for (int i = 0; i < 30; i++) {
+            frequency[i] = current;
+            int next = previous + current;
+            previous = current;
+            current = next;
+        }
+        HuffmanNode root = HuffmanUtils.buildHuffmanTree(frequency);
+        long[] codes = new long[Constants.BYTE_VALUES_COUNT];
+        int[] codeLengths = new int[Constants.BYTE_VALUES_COUNT];
+        HuffmanUtils.generateNumericCodes(root, 0, 0, codes, codeLengths);
+
+        HuffmanDecodingTable table = new HuffmanDecodingTable(codes, codeLengths);
+
+        assertEquals(HuffmanDecodingTable.MAX_ROOT_BITS, table.getRootBits());
+        assertTrue(table.getMaxCodeLength() > HuffmanDecodingTable.MAX_ROOT_BITS + HuffmanDecodingTable.MAX_SUBTABLE_BITS,
+            "Tree should need more than one level of sub-tables");
+        for (int i = 0; i < 30; i++) {
+            assertEquals(i, decode(table, codes[i], codeLengths[i]), "Code for byte " + i + " should decode back to it");
+        }
+    }
+
+    @Test
+    void testLongCodesRoundTripThroughFiles() throws IOException {
+        // Same skewed distribution written out as a file, so decompression walks several table levels
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        int previous = 1, current = 1;
+        for (int i = 0; i < 22; i++) {
+            for (int j = 0; j < current; j++) {
+                content.write(i);
+            }
+            int next = previous + current;
+            previous = current;
+            current = next;
+        }
+        byte[] original = content.toByteArray();
+
+        File inputFile = tempDir.resolve("skewed.bin").toFile();
+        Files.write(inputFile.toPath(), original);
+
+        HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath());
+        compressor.compress();
+        compressor.cleanup();
+        Files.delete(inputFile.toPath());
+
+        HuffmanDecompressor decompressor = new HuffmanDecompressor(inputFile.getAbsolutePath() + ".huffz");
+        decompressor.decompress();
+
+        assertArrayEquals(original, Files.readAllBytes(inputFile.toPath()));
+    }
+}
@@ -3,12 +3,16 @@ package prog.huffman;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import prog.util.Constants;
+import prog.util.FileInputSource;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -135,4 +139,205 @@ class HuffmanDecompressorTest {
         String decompressedContent = Files.readString(decompressedFile.toPath());
         assertEquals(content, decompressedContent);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testLegacyFileWithoutVersionByte() throws IOException {
+        // Fixture written by the original frequency-table compressor
+        File legacyFile = tempDir.resolve("legacy.txt.huffz").toFile();
+        Files.copy(Path.of("src/test/resources/test_mixed_50kb.txt.huffz"), legacyFile.toPath());
+
+        HuffmanDecompressor decompressor = new HuffmanDecompressor(legacyFile.getAbsolutePath());
+        decompressor.decompress();
+
+        byte[] expected = Files.readAllBytes(Path.of("src/test/resources/test_mixed_50kb.original.txt"));
+        assertArrayEquals(expected, Files.readAllBytes(tempDir.resolve("legacy.txt")));
+    }
+
+    @Test
+    void testFrequencyTable64Unzipping() throws IOException {
+        try (FileWriter writer = new FileWriter(inputFile)) {
+            writer.write("AAAB");
+        }
+        new HuffmanCompressor(inputFile.getAbsolutePath()).compress();
+
+        // Rewrite the header [00 00 00 02] [41 00 00 00 03] [42 00 00 00 01] [00 00 00 xx]
+        // as [03] [01] [41 03] [42 01] [xx]; the codes and data stay the same
+        byte[] legacy = Files.readAllBytes(compressedFile.toPath());
+        ByteArrayOutputStream converted = new ByteArrayOutputStream();
+        converted.writeBytes(new byte[] {3, 1, 'A', 3, 'B', 1, legacy[17]});
+        converted.write(legacy, 18, legacy.length - 18);
+        Files.write(compressedFile.toPath(), converted.toByteArray());
+        Files.delete(inputFile.toPath());
+
+        new HuffmanDecompressor(compressedFile.getAbsolutePath()).decompress();
+
+        assertEquals("AAAB", Files.readString(decompressedFile.toPath()));
+    }
+
+    @Test
+    void testCanonicalUnzipping() throws IOException {
+        String content = "Hello, World! This is a canonical Huffman test file.";
+        try (FileWriter writer = new FileWriter(inputFile)) {
+            writer.write(content);
+        }
+
+        HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath(), HuffmanFormat.CANONICAL);
+        compressor.compress();
+        compressor.cleanup();
+        Files.delete(inputFile.toPath());
+
+        HuffmanDecompressor decompressor = new HuffmanDecompressor(compressedFile.getAbsolutePath());
+        decompressor.decompress();
+
+        assertEquals(content, Files.readString(decompressedFile.toPath()));
+    }
+
+    @Test
+    void testCanonicalUnzippingAllByteValues() throws IOException {
+        // Every byte value with varied counts forces the nibble-packed code length table
+        byte[] content = new byte[256 * 40];
+        int position = 0;
+        for (int i = 0; i < 256; i++) {
+            for (int j = 0; j < 1 + (i % 40); j++) {
+                content[position++] = (byte) i;
+            }
+        }
+        byte[] original = java.util.Arrays.copyOf(content, position);
+        Files.write(inputFile.toPath(), original);
+
+        HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath(), HuffmanFormat.CANONICAL);
+        compressor.compress();
+        compressor.cleanup();
+        Files.delete(inputFile.toPath());
+
+        HuffmanDecompressor decompressor = new HuffmanDecompressor(compressedFile.getAbsolutePath());
+        decompressor.decompress();
+
+        assertArrayEquals(original, Files.readAllBytes(decompressedFile.toPath()));
+    }
+
+    @Test
+    void testCanonicalUnzippingLongCodes() throws IOException {
+        // Many distinct bytes plus a Fibonacci tail: codes longer than 15 bits force one byte per length
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (int i = 0; i < 130; i++) {
+            for (int j = 0; j < 2000; j++) {
+                content.write(i);
+            }
+        }
+        int previous = 1, current = 1;
+        for (int i = 130; i < 150; i++) {
+            for (int j = 0; j < current; j++) {
+                content.write(i);
+            }
+            int next = previous + current;
+            previous = current;
+            current = next;
+        }
+        byte[] original = content.toByteArray();
+        Files.write(inputFile.toPath(), original);
+
+        HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath(), HuffmanFormat.CANONICAL,
+            Constants.UNLIMITED_CODE_LENGTH);
+        compressor.compress();
+        compressor.cleanup();
+        Files.delete(inputFile.toPath());
+
+        byte[] compressed = Files.readAllBytes(compressedFile.toPath());
+        assertEquals(Constants.CODE_LENGTHS_AS_BYTES, compressed[2], "Header should store one byte per code length");
+
+        HuffmanDecompressor decompressor = new HuffmanDecompressor(compressedFile.getAbsolutePath());
+        decompressor.decompress();
+
+        assertArrayEquals(original, Files.readAllBytes(decompressedFile.toPath()));
+    }
+
+    @Test
+    void testCanonicalUnzippingLengthLimitedCodes() throws IOException {
+        // Fibonacci frequencies would give a 24-bit code without the default 15-bit limit
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        int previous = 1, current = 1;
+        for (int i = 0; i < 25; i++) {
+            for (int j = 0; j < current; j++) {
+                content.write(i);
+            }
+            int next = previous + current;
+            previous = current;
+            current = next;
+        }
+        byte[] original = content.toByteArray();
+        Files.write(inputFile.toPath(), original);
+
+        HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath(), HuffmanFormat.CANONICAL);
+        compressor.compress();
+        compressor.cleanup();
+        Files.delete(inputFile.toPath());
+
+        HuffmanDecompressor decompressor = new HuffmanDecompressor(compressedFile.getAbsolutePath());
+        decompressor.decompress();
+
+        assertArrayEquals(original, Files.readAllBytes(decompressedFile.toPath()));
+    }
+
+    @Test
+    void testBlocksUnzipping() throws IOException {
+        // Each block has different statistics; the last block is partial
+        byte[] original = new byte[10500];
+        for (int i = 0; i < original.length; i++) {
+            int block = i / 1000;
+            original[i] = (byte) (block * 20 + (i * i) % (block + 2));
+        }
+        Files.write(inputFile.toPath(), original);
+
+        HuffmanCompressor compressor = new HuffmanCompressor(new FileInputSource(inputFile.getAbsolutePath()),
+            HuffmanFormat.BLOCKS, Constants.DEFAULT_MAX_CODE_LENGTH, 1000);
+        compressor.compress();
+        compressor.cleanup();
+        Files.delete(inputFile.toPath());
+
+        byte[] compressed = Files.readAllBytes(compressedFile.toPath());
+        assertEquals(HuffmanFormat.BLOCKS.getVersion(), compressed[0]);
+
+        HuffmanDecompressor decompressor = new HuffmanDecompressor(compressedFile.getAbsolutePath());
+        decompressor.decompress();
+
+        assertArrayEquals(original, Files.readAllBytes(decompressedFile.toPath()));
+    }
+
+    @Test
+    void testBlocksUnzippingFileSmallerThanBlock() throws IOException {
+        String content = "A single block holds the whole file.";
+        Files.writeString(inputFile.toPath(), content);
+
+        HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath(), HuffmanFormat.BLOCKS);
+        compressor.compress();
+        compressor.cleanup();
+        Files.delete(inputFile.toPath());
+
+        new HuffmanDecompressor(compressedFile.getAbsolutePath()).decompress();
+
+        assertEquals(content, Files.readString(decompressedFile.toPath()));
+    }
+
+    @Test
+    void testTruncatedBlockThrowsException() throws IOException {
+        Files.writeString(inputFile.toPath(), "Some text that is long enough to be cut short.");
+        HuffmanCompressor compressor = new HuffmanCompressor(inputFile.getAbsolutePath(), HuffmanFormat.BLOCKS);
+        compressor.compress();
+        compressor.cleanup();
+
+        byte[] compressed = Files.readAllBytes(compressedFile.toPath());
+        Files.write(compressedFile.toPath(), Arrays.copyOf(compressed, compressed.length - 3));
+
+        HuffmanDecompressor decompressor = new HuffmanDecompressor(compressedFile.getAbsolutePath());
+        assertThrows(RuntimeException.class, decompressor::decompress);
+    }
+
+    @Test
+    void testUnsupportedVersionByte() throws IOException {
+        Files.write(compressedFile.toPath(), new byte[] {(byte) 0x7F, 0, 0, 0});
+
+        assertThrows(IllegalArgumentException.class, () ->
+            new HuffmanDecompressor(compressedFile.getAbsolutePath()));
+    }
+}
@@ -5,12 +5,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import prog.util.CommonUtil;
 import prog.util.Constants;
+import prog.util.FileInputSource;
+import prog.util.MappedFileInputSource;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,6 +44,68 @@ class HuffmanUtilsTest {
         assertEquals(1, frequency['c']);
     }
 
+    @Test
+    void testFrequencyCalculationInRanges() throws IOException {
+        // Long runs of one byte plus random bytes, split into ranges that do not line up with the runs
+        byte[] content = new byte[100003];
+        new Random(17).nextBytes(content);
+        Arrays.fill(content, 1000, 60000, (byte) 0);
+        Path file = tempDir.resolve("ranges.bin");
+        Files.write(file, content);
+        long[] expected = new long[Constants.BYTE_VALUES_COUNT];
+        for (byte b : content) {
+            expected[b & 0xFF]++;
+        }
+
+        for (int rangeCount : new int[] {1, 3, 7}) {
+            assertArrayEquals(expected, HuffmanUtils.calculateFrequencyOfBytes(
+                new FileInputSource(file.toString()), content.length, rangeCount));
+            assertArrayEquals(expected, HuffmanUtils.calculateFrequencyOfBytes(
+                new MappedFileInputSource(file.toString(), 4096), content.length, rangeCount));
+        }
+        assertArrayEquals(expected, HuffmanUtils.calculateFrequencyOfBytesInParallel(new FileInputSource(file.toString())));
+    }
+
+    @Test
+    void testBuildHuffmanTreeWithCountsBeyondInt() {
+        long[] frequency = new long[Constants.BYTE_VALUES_COUNT];
+        frequency[0] = 5L << 32;
+        frequency['x'] = 3;
+        frequency['y'] = Integer.MAX_VALUE;
+
+        HuffmanNode root = HuffmanUtils.buildHuffmanTree(frequency);
+
+        assertEquals((5L << 32) + 3 + Integer.MAX_VALUE, root.getFrequency());
+        int[] codeLengths = HuffmanUtils.calculateCodeLengths(root);
+        assertEquals(1, codeLengths[0]);
+        assertEquals(2, codeLengths['x']);
+        assertEquals(2, codeLengths['y']);
+        assertArrayEquals(codeLengths, HuffmanUtils.calculateLengthLimitedCodeLengths(frequency, 15));
+    }
+
+    @Test
+    void testBuildHuffmanTreeKeepsIntSumsOfFrequencyTable() {
+        // Each count fits in an int, but a + b wraps to a negative sum that sorts first
+        int[] frequency = new int[Constants.BYTE_VALUES_COUNT];
+        frequency['a'] = 1_200_000_000;
+        frequency['b'] = 1_200_000_001;
+        frequency['c'] = 1_200_000_002;
+        frequency['d'] = 1_200_000_003;
+
+        int[] codeLengths = HuffmanUtils.calculateCodeLengths(HuffmanUtils.buildHuffmanTree(frequency));
+        assertEquals(3, codeLengths['a']);
+        assertEquals(3, codeLengths['b']);
+        assertEquals(2, codeLengths['c']);
+        assertEquals(1, codeLengths['d']);
+
+        // The same counts as longs never wrap, so the tree is balanced
+        long[] longFrequency = Arrays.stream(frequency).asLongStream().toArray();
+        int[] longCodeLengths = HuffmanUtils.calculateCodeLengths(HuffmanUtils.buildHuffmanTree(longFrequency));
+        for (int byteValue = 'a'; byteValue <= 'd'; byteValue++) {
+            assertEquals(2, longCodeLengths[byteValue]);
+        }
+    }
+
     @Test
     void testMakeEight() {
         // Test empty string
@@ -346,6 +412,209 @@ class HuffmanUtilsTest {
         assertEquals("1", right.getCode());
     }
 
+    @Test
+    void testGenerateNumericCodesMatchesStringCodes() {
+        int[] frequency = new int[300];
+        frequency[65] = 5; // 'A'
+        frequency[66] = 9; // 'B'
+        frequency[67] = 12; // 'C'
+        frequency[68] = 13; // 'D'
+        frequency[69] = 1; // 'E'
+
+        HuffmanNode root = HuffmanUtils.buildHuffmanTree(frequency);
+        String[] huffmanCodes = HuffmanUtils.generateHuffmanCodes(root);
+        long[] codes = new long[Constants.BYTE_VALUES_COUNT];
+        int[] codeLengths = new int[Constants.BYTE_VALUES_COUNT];
+        HuffmanUtils.generateNumericCodes(root, 0, 0, codes, codeLengths);
+
+        for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+            if (huffmanCodes[i] == null) {
+                assertEquals(0, codeLengths[i]);
+            } else {
+                assertEquals(huffmanCodes[i].length(), codeLengths[i]);
+                assertEquals(Long.parseLong(huffmanCodes[i], 2), codes[i]);
+            }
+        }
+    }
+
+    @Test
+    void testGenerateNumericCodesRejectsCodesBeyondLong() {
+        // Fibonacci counts give a chain: n distinct bytes need codes of n - 1 bits
+        long[] frequency = new long[Constants.BYTE_VALUES_COUNT];
+        frequency[0] = 1;
+        frequency[1] = 1;
+        for (int i = 2; i < 70; i++) {
+            frequency[i] = frequency[i - 1] + frequency[i - 2];
+        }
+        HuffmanNode root = HuffmanUtils.buildHuffmanTree(frequency);
+        assertThrows(IllegalArgumentException.class, () -> HuffmanUtils.calculateCodeLengths(root));
+
+        long[] fitting = Arrays.copyOf(frequency, Constants.BYTE_VALUES_COUNT);
+        Arrays.fill(fitting, 65, 70, 0);
+        int[] codeLengths = HuffmanUtils.calculateCodeLengths(HuffmanUtils.buildHuffmanTree(fitting));
+        assertEquals(64, Arrays.stream(codeLengths).max().getAsInt());
+    }
+
+    @Test
+    void testCalculateCodeLengths() {
+        int[] frequency = new int[300];
+        frequency[65] = 3; // 'A'
+        frequency[66] = 2; // 'B'
+        frequency[67] = 1; // 'C'
+
+        int[] codeLengths = HuffmanUtils.calculateCodeLengths(HuffmanUtils.buildHuffmanTree(frequency));
+
+        assertEquals(1, codeLengths[65]);
+        assertEquals(2, codeLengths[66]);
+        assertEquals(2, codeLengths[67]);
+        assertEquals(0, codeLengths[68]);
+    }
+
+    @Test
+    void testCalculateCodeLengthsSingleCharacter() {
+        int[] frequency = new int[300];
+        frequency[65] = 5;
+
+        int[] codeLengths = HuffmanUtils.calculateCodeLengths(HuffmanUtils.buildHuffmanTree(frequency));
+
+        assertEquals(1, codeLengths[65]);
+    }
+
+    @Test
+    void testCalculateLengthLimitedCodeLengths() {
+        int[] frequency = new int[Constants.BYTE_VALUES_COUNT];
+        frequency['A'] = 1;
+        frequency['B'] = 1;
+        frequency['C'] = 2;
+        frequency['D'] = 4;
+
+        int[] unlimited = HuffmanUtils.calculateLengthLimitedCodeLengths(frequency, 15);
+        assertEquals(3, unlimited['A']);
+        assertEquals(3, unlimited['B']);
+        assertEquals(2, unlimited['C']);
+        assertEquals(1, unlimited['D']);
+
+        int[] limited = HuffmanUtils.calculateLengthLimitedCodeLengths(frequency, 2);
+        assertEquals(2, limited['A']);
+        assertEquals(2, limited['B']);
+        assertEquals(2, limited['C']);
+        assertEquals(2, limited['D']);
+        assertEquals(0, limited['E']);
+    }
+
+    @Test
+    void testCalculateLengthLimitedCodeLengthsSingleCharacter() {
+        int[] frequency = new int[Constants.BYTE_VALUES_COUNT];
+        frequency[65] = 5;
+
+        int[] codeLengths = HuffmanUtils.calculateLengthLimitedCodeLengths(frequency, 15);
+
+        assertEquals(1, codeLengths[65]);
+    }
+
+    @Test
+    void testCalculateLengthLimitedCodeLengthsSkewedFrequencies() {
+        // Fibonacci frequencies give a 29-bit code in the unlimited tree
+        int[] frequency = new int[Constants.BYTE_VALUES_COUNT];
+        int previous = 1, current = 1;
+        for (int i = 0; i < 30; i++) {
+            frequency[i] = current;
+            int next = previous + current;
+            previous = current;
+            current = next;
+        }
+
+        int[] codeLengths = HuffmanUtils.calculateLengthLimitedCodeLengths(frequency, Constants.DEFAULT_MAX_CODE_LENGTH);
+
+        double kraftSum = 0;
+        for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+            assertTrue(codeLengths[i] <= Constants.DEFAULT_MAX_CODE_LENGTH, "Code for byte " + i + " exceeds the limit");
+            assertEquals(frequency[i] != 0, codeLengths[i] > 0, "Only bytes that occur should get a code");
+            if (codeLengths[i] > 0) kraftSum += Math.pow(2, -codeLengths[i]);
+        }
+        // A complete prefix code uses the whole code space
+        assertEquals(1.0, kraftSum, 1e-12);
+    }
+
+    @Test
+    void testCalculateLengthLimitedCodeLengthsMatchesTreeCost() {
+        // When the limit is not reached, package-merge is as good as the Huffman tree
+        int[] frequency = new int[Constants.BYTE_VALUES_COUNT];
+        for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+            frequency[i] = 1 + (i * 37) % 101;
+        }
+        int[] treeLengths = HuffmanUtils.calculateCodeLengths(HuffmanUtils.buildHuffmanTree(frequency));
+        int[] limitedLengths = HuffmanUtils.calculateLengthLimitedCodeLengths(frequency, Constants.DEFAULT_MAX_CODE_LENGTH);
+
+        long treeBits = 0, limitedBits = 0;
+        for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+            treeBits += (long) treeLengths[i] * frequency[i];
+            limitedBits += (long) limitedLengths[i] * frequency[i];
+        }
+        assertEquals(treeBits, limitedBits);
+    }
+
+    @Test
+    void testCalculateLengthLimitedCodeLengthsLimitTooSmall() {
+        int[] frequency = new int[Constants.BYTE_VALUES_COUNT];
+        for (int i = 0; i < 5; i++) {
+            frequency[i] = 1;
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> HuffmanUtils.calculateLengthLimitedCodeLengths(frequency, 2));
+    }
+
+    @Test
+    void testGenerateCanonicalCodes() {
+        int[] codeLengths = new int[Constants.BYTE_VALUES_COUNT];
+        codeLengths['A'] = 2;
+        codeLengths['B'] = 1;
+        codeLengths['C'] = 3;
+        codeLengths['D'] = 3;
+
+        long[] codes = HuffmanUtils.generateCanonicalCodes(codeLengths);
+
+        assertEquals(0b0, codes['B']);
+        assertEquals(0b10, codes['A']);
+        assertEquals(0b110, codes['C']);
+        assertEquals(0b111, codes['D']);
+    }
+
+    @Test
+    void testGenerateCanonicalCodesArePrefixFree() {
+        int[] frequency = new int[Constants.BYTE_VALUES_COUNT];
+        for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+            frequency[i] = 1 + (i * 37) % 101;
+        }
+        int[] codeLengths = HuffmanUtils.calculateCodeLengths(HuffmanUtils.buildHuffmanTree(frequency));
+        String[] codes = HuffmanUtils.convertCodesToStrings(HuffmanUtils.generateCanonicalCodes(codeLengths), codeLengths);
+
+        for (int i = 0; i < Constants.BYTE_VALUES_COUNT; i++) {
+            assertEquals(codeLengths[i], codes[i].length());
+            for (int j = 0; j < Constants.BYTE_VALUES_COUNT; j++) {
+                if (i != j) {
+                    assertFalse(codes[j].startsWith(codes[i]), codes[i] + " is a prefix of " + codes[j]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testConvertCodesToStrings() {
+        long[] codes = new long[Constants.BYTE_VALUES_COUNT];
+        int[] codeLengths = new int[Constants.BYTE_VALUES_COUNT];
+        codes[65] = 1;
+        codeLengths[65] = 3;
+        codes[66] = 6;
+        codeLengths[66] = 3;
+
+        String[] huffmanCodes = HuffmanUtils.convertCodesToStrings(codes, codeLengths);
+
+        assertEquals("001", huffmanCodes[65]);
+        assertEquals("110", huffmanCodes[66]);
+        assertNull(huffmanCodes[67]);
+    }
+
     @Test
     void testCreateBinaryStringsForBytesArrayLength() {
         String[] result = HuffmanUtils.createBinaryStringsForBytes();
@@ -0,0 +1,76 @@
+package prog.lzw;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LzwBlockCodecTest {
+
+	@Test
+	void testRoundTrip() throws IOException {
+		byte[] block = "abracadabra, abracadabra! ".repeat(20).getBytes();
+
+		byte[] payload = LzwBlockCodec.encode(block, block.length);
+
+		assertTrue(payload.length < block.length);
+		assertArrayEquals(block, LzwBlockCodec.decode(payload, block.length));
+	}
+
+	@Test
+	void testEncodesOnlyTheGivenLength() throws IOException {
+		byte[] block = "hello world, and bytes past the length".getBytes();
+
+		byte[] payload = LzwBlockCodec.encode(block, 11);
+
+		assertArrayEquals("hello world".getBytes(), LzwBlockCodec.decode(payload, 11));
+	}
+
+	@Test
+	void testSingleByte() throws IOException {
+		byte[] payload = LzwBlockCodec.encode(new byte[] {(byte) 0xFF}, 1);
+
+		assertArrayEquals(new byte[] {(byte) 0xFF}, LzwBlockCodec.decode(payload, 1));
+	}
+
+	@Test
+	void testRepeatedByteUsesCodesBeingAdded() throws IOException {
+		byte[] block = new byte[10000];
+		Arrays.fill(block, (byte) 'x');
+
+		byte[] payload = LzwBlockCodec.encode(block, block.length);
+
+		assertArrayEquals(block, LzwBlockCodec.decode(payload, block.length));
+	}
+
+	@Test
+	void testFullDictionary() throws IOException {
+		byte[] block = new byte[300000];
+		new Random(3).nextBytes(block);
+
+		byte[] payload = LzwBlockCodec.encode(block, block.length);
+
+		assertArrayEquals(block, LzwBlockCodec.decode(payload, block.length));
+	}
+
+	@Test
+	void testTruncatedPayloadThrowsException() throws IOException {
+		byte[] block = "a payload that loses its last bytes".getBytes();
+		byte[] payload = LzwBlockCodec.encode(block, block.length);
+
+		byte[] truncated = Arrays.copyOf(payload, payload.length - 3);
+		assertThrows(IOException.class, () -> LzwBlockCodec.decode(truncated, block.length));
+	}
+
+	@Test
+	void testPayloadLongerThanOriginalLengthThrowsException() throws IOException {
+		// Codes 'a', 'b', "ab": the third phrase does not fit in 3 bytes
+		byte[] block = "abababab".getBytes();
+		byte[] payload = LzwBlockCodec.encode(block, block.length);
+
+		assertThrows(IOException.class, () -> LzwBlockCodec.decode(payload, 3));
+	}
+}
@@ -0,0 +1,87 @@
+package prog.lzw;
+
+import org.junit.jupiter.api.Test;
+import prog.util.Constants;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LzwCompressionDictionaryTest {
+
+	@Test
+	void testAddsMissingPhraseThenFindsIt() {
+		LzwCompressionDictionary dictionary = new LzwCompressionDictionary();
+		assertEquals(Constants.BYTE_VALUES_COUNT, dictionary.size());
+
+		assertEquals(-1, dictionary.getOrAdd('A', 'B')); // "AB" is new and becomes 256
+		assertEquals(257, dictionary.size());
+		assertEquals(256, dictionary.getOrAdd('A', 'B'));
+		assertEquals(-1, dictionary.getOrAdd(256, 'A')); // "ABA" becomes 257
+		assertEquals(257, dictionary.getOrAdd(256, 'A'));
+		assertEquals(-1, dictionary.getOrAdd('B', 'A')); // Same bytes, other parent
+	}
+
+	@Test
+	void testStopsAtMaxCodeCount() {
+		LzwCompressionDictionary dictionary = new LzwCompressionDictionary(258, Constants.MAX_DICTIONARY_MEMORY_SIZE);
+		dictionary.getOrAdd('A', 'B');
+		dictionary.getOrAdd('B', 'C');
+		assertEquals(-1, dictionary.getOrAdd('C', 'D'));
+		assertEquals(258, dictionary.size());
+		assertEquals(-1, dictionary.getOrAdd('C', 'D'), "A full dictionary should not add the phrase");
+	}
+
+	@Test
+	void testStopsAtMemoryLimit() {
+		// 256 single bytes + "AB" (2) reaches 258; "ABC" (3) is added because the limit is checked first
+		LzwCompressionDictionary dictionary = new LzwCompressionDictionary(1000, 259);
+		assertEquals(-1, dictionary.getOrAdd('A', 'B'));
+		assertEquals(-1, dictionary.getOrAdd(256, 'C'));
+		assertEquals(-1, dictionary.getOrAdd('X', 'Y'));
+		assertEquals(258, dictionary.size());
+	}
+
+	@Test
+	void testResetStartsOverAtFirstCode() {
+		LzwCompressionDictionary dictionary = new LzwCompressionDictionary(LzwCompressionDictionary.MAX_CODE_COUNT,
+			Constants.MAX_DICTIONARY_MEMORY_SIZE, Constants.LZW_CLEAR_CODE + 1);
+		assertEquals(257, dictionary.size());
+		dictionary.getOrAdd('A', 'B');
+		assertEquals(257, dictionary.getOrAdd('A', 'B'));
+
+		dictionary.reset();
+		assertEquals(257, dictionary.size());
+		assertEquals(-1, dictionary.getOrAdd('C', 'D'), "Old phrases should be gone");
+		assertEquals(257, dictionary.getOrAdd('C', 'D'));
+		assertEquals(-1, dictionary.getOrAdd('A', 'B'));
+	}
+
+	@Test
+	void testMatchesStringKeyedDictionary() {
+		// Same phrases and codes as the HashMap<String, Integer> dictionary it replaces
+		Random random = new Random(3);
+		LzwCompressionDictionary dictionary = new LzwCompressionDictionary();
+		Map<String, Integer> expected = LzwUtils.initializeCompressionDictionary();
+		Map<Integer, String> phrases = new HashMap<>(LzwUtils.initializeDecompressionDictionary());
+		int memorySize = Constants.BYTE_VALUES_COUNT;
+
+		for (int i = 0; i < 200000; i++) {
+			int parentCode = random.nextInt(dictionary.size());
+			int byteValue = random.nextInt(4);
+			String phrase = phrases.get(parentCode) + (char) byteValue;
+
+			Integer expectedCode = expected.get(phrase);
+			if (expectedCode == null && memorySize < Constants.MAX_DICTIONARY_MEMORY_SIZE) {
+				expected.put(phrase, expected.size());
+				phrases.put(expected.size() - 1, phrase);
+				memorySize += phrase.length();
+			}
+			assertEquals(expectedCode == null ? -1 : expectedCode, dictionary.getOrAdd(parentCode, byteValue));
+		}
+		assertEquals(expected.size(), dictionary.size());
+		assertTrue(memorySize >= Constants.MAX_DICTIONARY_MEMORY_SIZE, "Test should reach the memory limit");
+	}
+}
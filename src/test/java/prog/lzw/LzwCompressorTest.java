@@ -3,6 +3,7 @@ package prog.lzw;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import prog.util.MappedFileInputSource;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -10,6 +11,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -141,4 +143,17 @@ class LzwCompressorTest {
         assertTrue(compressedFile.exists());
     }
 
+    @Test
+    void testMappedInputMatchesStreamInput() throws IOException {
+        byte[] content = new byte[10000];
+        new Random(7).nextBytes(content);
+        Files.write(inputFile.toPath(), content);
+
+        new LzwCompressor(inputFile.getAbsolutePath()).compress();
+        byte[] streamOutput = Files.readAllBytes(compressedFile.toPath());
+
+        // Small windows make both passes cross mapping boundaries
+        new LzwCompressor(new MappedFileInputSource(inputFile.getAbsolutePath(), 1000)).compress();
+        assertArrayEquals(streamOutput, Files.readAllBytes(compressedFile.toPath()));
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,72 @@
+package prog.lzw;
+
+import org.junit.jupiter.api.Test;
+import prog.util.Constants;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LzwDecompressionDictionaryTest {
+
+	private static String phrase(LzwDecompressionDictionary dictionary, int code) {
+		byte[] buffer = new byte[dictionary.getLength(code) + 2];
+		int length = dictionary.writePhrase(code, buffer, 1);
+		return new String(buffer, 1, length);
+	}
+
+	@Test
+	void testSingleBytePhrases() {
+		LzwDecompressionDictionary dictionary = new LzwDecompressionDictionary();
+		assertEquals(Constants.BYTE_VALUES_COUNT, dictionary.size());
+		assertEquals("A", phrase(dictionary, 'A'));
+		assertEquals(1, dictionary.getLength(255));
+	}
+
+	@Test
+	void testPhrasesAreRebuiltFromPrefixes() {
+		LzwDecompressionDictionary dictionary = new LzwDecompressionDictionary();
+		dictionary.add('A', (byte) 'B'); // 256 = "AB"
+		dictionary.add(256, (byte) 'A'); // 257 = "ABA"
+		dictionary.add(257, (byte) 'C'); // 258 = "ABAC"
+
+		assertEquals(259, dictionary.size());
+		assertEquals("AB", phrase(dictionary, 256));
+		assertEquals("ABA", phrase(dictionary, 257));
+		assertEquals("ABAC", phrase(dictionary, 258));
+		assertEquals(4, dictionary.getLength(258));
+	}
+
+	@Test
+	void testResetStartsOverAtFirstCode() {
+		LzwDecompressionDictionary dictionary = new LzwDecompressionDictionary(LzwCompressionDictionary.MAX_CODE_COUNT,
+			Constants.MAX_DICTIONARY_MEMORY_SIZE, Constants.LZW_CLEAR_CODE + 1);
+		dictionary.add('A', (byte) 'B');
+		assertEquals(258, dictionary.size());
+		assertEquals("AB", phrase(dictionary, 257));
+
+		dictionary.reset();
+		assertEquals(257, dictionary.size());
+		dictionary.add('C', (byte) 'D');
+		assertEquals("CD", phrase(dictionary, 257));
+	}
+
+	@Test
+	void testStopsAtMemoryLimit() {
+		// Same limits as LzwCompressionDictionaryTest: "ABC" is the last phrase added
+		LzwDecompressionDictionary dictionary = new LzwDecompressionDictionary(1000, 259);
+		dictionary.add('A', (byte) 'B');
+		assertTrue(dictionary.canGrow());
+		dictionary.add(256, (byte) 'C');
+		assertFalse(dictionary.canGrow());
+		dictionary.add('X', (byte) 'Y');
+		assertEquals(258, dictionary.size());
+	}
+
+	@Test
+	void testStopsAtMaxCodeCount() {
+		LzwDecompressionDictionary dictionary = new LzwDecompressionDictionary(257, Constants.MAX_DICTIONARY_MEMORY_SIZE);
+		dictionary.add('A', (byte) 'B');
+		assertFalse(dictionary.canGrow());
+		dictionary.add('B', (byte) 'C');
+		assertEquals(257, dictionary.size());
+	}
+}
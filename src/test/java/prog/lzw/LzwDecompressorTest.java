@@ -4,13 +4,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import prog.util.CommonUtil;
+import prog.util.FileInputSource;
 
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -103,4 +106,142 @@ class LzwDecompressorTest {
         assertEquals("11111111", lookupTable[255], "Conversion for 255");
     }
 
+    @Test
+    void testVariableWidthDecompression() throws IOException {
+        // Version byte, then 'A' and 'B' as 9-bit codes: 001000001 001000010 + padding
+        File compressedFile = tempDir.resolve("variable.LmZWp").toFile();
+        Files.write(compressedFile.toPath(), new byte[] {1, 0x20, (byte) 0x90, (byte) 0x80});
+
+        new LzwDecompressor(compressedFile.getAbsolutePath()).decompress();
+
+        assertArrayEquals("AB".getBytes(), Files.readAllBytes(tempDir.resolve("variable")));
+    }
+
+    @Test
+    void testVariableWidthRoundTrip() throws IOException {
+        // Random bytes fill the dictionary up to the memory limit, so the width grows
+        // from 9 bits and then stops growing with the dictionary
+        byte[] content = new byte[300000];
+        new Random(42).nextBytes(content);
+        for (int i = 0; i < 20000; i++) {
+            content[i] = (byte) ('a' + i % 7);
+        }
+        Path original = tempDir.resolve("data.bin");
+        Files.write(original, content);
+
+        new LzwCompressor(original.toString(), LzwFormat.VARIABLE_WIDTH).compress();
+        Files.delete(original);
+        new LzwDecompressor(original + ".LmZWp").decompress();
+
+        assertArrayEquals(content, Files.readAllBytes(original));
+    }
+
+    @Test
+    void testVariableWidthIsSmallerForShortInput() throws IOException {
+        Path original = tempDir.resolve("short.txt");
+        Files.writeString(original, "TOBEORNOTTOBEORTOBEORNOT".repeat(40));
+        Path compressed = tempDir.resolve("short.txt.LmZWp");
+
+        new LzwCompressor(original.toString()).compress();
+        long fixedWidthSize = Files.size(compressed);
+        new LzwCompressor(original.toString(), LzwFormat.VARIABLE_WIDTH).compress();
+        long variableWidthSize = Files.size(compressed);
+
+        assertTrue(variableWidthSize < fixedWidthSize,
+            "Early codes should be narrower: " + variableWidthSize + " vs " + fixedWidthSize);
+    }
+
+    @Test
+    void testAdaptiveResetRoundTripOnChangingContent() throws IOException {
+        // The dictionary fills up on the first half; the second half shares none of its phrases
+        Random random = new Random(5);
+        byte[] content = new byte[600000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ((i < content.length / 2 ? 'a' : 'w') + random.nextInt(4));
+        }
+        Path original = tempDir.resolve("changing.bin");
+        Files.write(original, content);
+        Path compressed = tempDir.resolve("changing.bin.LmZWp");
+
+        new LzwCompressor(original.toString(), LzwFormat.VARIABLE_WIDTH).compress();
+        long frozenSize = Files.size(compressed);
+        new LzwCompressor(original.toString(), LzwFormat.ADAPTIVE_RESET).compress();
+        long resetSize = Files.size(compressed);
+        assertTrue(resetSize < frozenSize * 0.8, "Clearing the dictionary should pay off: " + resetSize + " vs " + frozenSize);
+
+        Files.delete(original);
+        new LzwDecompressor(compressed.toString()).decompress();
+        assertArrayEquals(content, Files.readAllBytes(original));
+    }
+
+    @Test
+    void testBlocksRoundTrip() throws IOException {
+        // 10 full blocks and a partial one, each with a dictionary of its own
+        Random random = new Random(9);
+        byte[] content = new byte[10500];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + random.nextInt(3));
+        }
+        Path original = tempDir.resolve("blocks.bin");
+        Files.write(original, content);
+        Path compressed = tempDir.resolve("blocks.bin.LmZWp");
+
+        new LzwCompressor(new FileInputSource(original.toString()), LzwFormat.BLOCKS, 1000).compress();
+        byte[] compressedBytes = Files.readAllBytes(compressed);
+        assertEquals(3, compressedBytes[0]);
+        assertEquals(1000, ByteBuffer.wrap(compressedBytes, 1, 4).getInt());
+        assertEquals(11, ByteBuffer.wrap(compressedBytes, compressedBytes.length - 4, 4).getInt());
+
+        Files.delete(original);
+        new LzwDecompressor(compressed.toString()).decompress();
+        assertArrayEquals(content, Files.readAllBytes(original));
+    }
+
+    @Test
+    void testBlocksWithMissingPayloadByteThrowsException() throws IOException {
+        Path original = tempDir.resolve("short.txt");
+        Files.writeString(original, "TOBEORNOTTOBEORTOBEORNOT".repeat(40));
+        Path compressed = tempDir.resolve("short.txt.LmZWp");
+        new LzwCompressor(new FileInputSource(original.toString()), LzwFormat.BLOCKS, 100).compress();
+
+        // The index no longer matches the size of the file
+        byte[] compressedBytes = Files.readAllBytes(compressed);
+        byte[] damaged = new byte[compressedBytes.length - 1];
+        System.arraycopy(compressedBytes, 0, damaged, 0, 5);
+        System.arraycopy(compressedBytes, 6, damaged, 5, damaged.length - 5);
+        Files.write(compressed, damaged);
+
+        LzwDecompressor decompressor = new LzwDecompressor(compressed.toString());
+        assertThrows(RuntimeException.class, decompressor::decompress);
+    }
+
+    @Test
+    void testClearCodeRestartsDictionary() throws IOException {
+        // Version 2, then 9-bit codes 'A', CLEAR (256), 'B', 'B', 257 ("BB", added after the clear)
+        // 001000001 100000000 001000010 001000010 100000001 + padding
+        File compressedFile = tempDir.resolve("clear.LmZWp").toFile();
+        Files.write(compressedFile.toPath(), new byte[] {2, 0x20, (byte) 0xC0, 0x08, 0x44, 0x28, 0x08});
+
+        new LzwDecompressor(compressedFile.getAbsolutePath()).decompress();
+
+        assertArrayEquals("ABBBB".getBytes(), Files.readAllBytes(tempDir.resolve("clear")));
+    }
+
+    @Test
+    void testCodeBeyondDictionaryThrowsException() throws IOException {
+        // 'A' then code 300 with 9-bit codes, while only 256 is the next code
+        File compressedFile = createCompressedFile("invalid", 9, new byte[] {0x20, (byte) 0xCB, 0x00});
+
+        LzwDecompressor decompressor = new LzwDecompressor(compressedFile.getAbsolutePath());
+        assertThrows(RuntimeException.class, decompressor::decompress);
+    }
+
+    @Test
+    void testUnsupportedVersionThrowsException() throws IOException {
+        File compressedFile = tempDir.resolve("unknown.LmZWp").toFile();
+        Files.write(compressedFile.toPath(), new byte[] {7, 0, 0});
+
+        LzwDecompressor decompressor = new LzwDecompressor(compressedFile.getAbsolutePath());
+        assertThrows(IllegalArgumentException.class, decompressor::decompress);
+    }
 } 
\ No newline at end of file
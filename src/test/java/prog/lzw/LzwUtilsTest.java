@@ -95,4 +95,12 @@ class LzwUtilsTest {
 			assertEquals(charStr, decompressionDict.get(i));
 		}
 	}
+
+	@Test
+	void testCalculateVariableCodeWidth() {
+		assertEquals(9, LzwUtils.calculateVariableCodeWidth(256)); // Never narrower than the initial width
+		assertEquals(9, LzwUtils.calculateVariableCodeWidth(512));
+		assertEquals(10, LzwUtils.calculateVariableCodeWidth(513));
+		assertEquals(17, LzwUtils.calculateVariableCodeWidth(100000));
+	}
 }
@@ -0,0 +1,142 @@
+package prog.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import prog.compression.Compressor;
+import prog.compression.Decompressor;
+import prog.handler.CompressionHandler;
+import prog.handler.DecompressionHandler;
+import prog.huffman.AdaptiveHuffmanCompressor;
+import prog.huffman.HuffmanCompressor;
+import prog.huffman.HuffmanDecompressor;
+import prog.huffman.HuffmanFormat;
+import prog.lzw.LzwCompressor;
+import prog.lzw.LzwDecompressor;
+import prog.lzw.LzwFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for CompressionMetrics, PhaseTimer and the steps the engines time.
+ */
+class CompressionMetricsTest {
+    @TempDir
+    Path tempDir;
+    private Path inputFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        byte[] content = new byte[200_000];
+        Random random = new Random(5);
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + random.nextInt(8));
+        }
+        inputFile = tempDir.resolve("input.txt");
+        Files.write(inputFile, content);
+    }
+
+    private static PhaseTimer compress(Compressor compressor) {
+        PhaseTimer phases = new PhaseTimer();
+        compressor.setPhaseTimer(phases);
+        compressor.compress();
+        compressor.cleanup();
+        return phases;
+    }
+
+    @Test
+    void testEnginesTimeTheirSteps() throws IOException {
+        String path = inputFile.toString();
+        assertEquals(Set.of(JobPhase.FREQUENCY_COUNT, JobPhase.TREE_BUILD, JobPhase.HEADER_WRITE, JobPhase.ENCODE, JobPhase.FLUSH),
+            compress(new HuffmanCompressor(path)).getDurations().keySet());
+        assertEquals(Set.of(JobPhase.ENCODE, JobPhase.FLUSH),
+            compress(new HuffmanCompressor(path, HuffmanFormat.BLOCKS)).getDurations().keySet());
+        assertEquals(Set.of(JobPhase.HEADER_WRITE, JobPhase.ENCODE, JobPhase.FLUSH),
+            compress(new AdaptiveHuffmanCompressor(path)).getDurations().keySet());
+        assertEquals(Set.of(JobPhase.DICTIONARY_SCAN, JobPhase.HEADER_WRITE, JobPhase.ENCODE, JobPhase.FLUSH),
+            compress(new LzwCompressor(path, LzwFormat.FIXED_WIDTH)).getDurations().keySet());
+        PhaseTimer lzwPhases = compress(new LzwCompressor(path, LzwFormat.VARIABLE_WIDTH));
+        assertEquals(Set.of(JobPhase.HEADER_WRITE, JobPhase.ENCODE, JobPhase.FLUSH), lzwPhases.getDurations().keySet());
+        assertTrue(lzwPhases.getDurations().values().stream().allMatch(nanos -> nanos >= 0));
+
+        Files.delete(inputFile);
+        List<Decompressor> decompressors = List.of(new LzwDecompressor(path + ".LmZWp"), new HuffmanDecompressor(path + ".huffz"));
+        for (Decompressor decompressor : decompressors) {
+            PhaseTimer phases = new PhaseTimer();
+            decompressor.setPhaseTimer(phases);
+            decompressor.decompress();
+            assertEquals(Set.of(JobPhase.DECODE, JobPhase.FLUSH), phases.getDurations().keySet());
+        }
+    }
+
+    @Test
+    void testPhaseTimerAddsRepeatedSteps() throws InterruptedException {
+        PhaseTimer phases = new PhaseTimer();
+        phases.start(JobPhase.ENCODE);
+        Thread.sleep(2);
+        phases.start(JobPhase.FLUSH);
+        phases.start(JobPhase.ENCODE);
+        Thread.sleep(2);
+        phases.stop();
+        phases.stop();
+
+        assertTrue(phases.getDurations().get(JobPhase.ENCODE) >= 4_000_000);
+        assertEquals(Set.of(JobPhase.ENCODE, JobPhase.FLUSH), phases.getDurations().keySet());
+
+        PhaseTimer.NONE.start(JobPhase.ENCODE);
+        PhaseTimer.NONE.stop();
+        assertTrue(PhaseTimer.NONE.getDurations().isEmpty());
+    }
+
+    @Test
+    void testHandlersRecordJobs() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        Path snapshotFile = tempDir.resolve("metrics.prom");
+        CompressionMetrics metrics = new CompressionMetrics(registry, snapshotFile);
+
+        File compressed = new CompressionHandler(metrics).compressWithLZW(inputFile.toFile(), null);
+        new DecompressionHandler(metrics).decompressLZW(compressed, null);
+
+        long originalSize = Files.size(inputFile);
+        long compressedSize = Files.size(compressed.toPath());
+        assertEquals(1, registry.counter("compression_jobs_total", "algorithm", "lzw", "operation", "compress", "outcome", "success").getCount());
+        assertEquals(originalSize, registry.counter("compression_bytes_in_total", "algorithm", "lzw", "operation", "compress").getCount());
+        assertEquals(compressedSize, registry.counter("compression_bytes_out_total", "algorithm", "lzw", "operation", "compress").getCount());
+        assertEquals(compressedSize, registry.counter("compression_bytes_in_total", "algorithm", "lzw", "operation", "decompress").getCount());
+        assertEquals(1, registry.timer("compression_phase_duration_seconds", "algorithm", "lzw", "operation", "decompress", "phase", "decode").getCount());
+        Histogram ratio = registry.histogram("compression_ratio", CompressionMetrics.RATIO_BUCKETS, "algorithm", "lzw");
+        assertEquals(1, ratio.getCount());
+        assertEquals((double) compressedSize / originalSize, ratio.getSum(), 1e-9);
+
+        String snapshot = Files.readString(snapshotFile);
+        assertTrue(snapshot.contains("compression_phase_duration_seconds_count{algorithm=\"lzw\",operation=\"compress\",phase=\"encode\"} 1"), snapshot);
+        assertTrue(snapshot.contains("compression_duration_seconds_count{algorithm=\"lzw\",operation=\"decompress\"} 1"), snapshot);
+    }
+
+    @Test
+    void testFailuresAndCancelsAreCountedApart() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        CompressionMetrics metrics = new CompressionMetrics(registry);
+        Path broken = tempDir.resolve("broken.txt.LmZWp");
+        Files.write(broken, new byte[] {9, 9, 9, 9});
+
+        assertThrows(RuntimeException.class, () -> new DecompressionHandler(metrics).decompressLZW(broken.toFile(), null));
+        assertThrows(CancellationException.class, () -> new CompressionHandler(metrics).compressWithHuffman(inputFile.toFile(), event -> {
+            throw new CancellationException("Cancelled");
+        }));
+
+        assertEquals(1, registry.counter("compression_jobs_total", "algorithm", "lzw", "operation", "decompress", "outcome", "failure").getCount());
+        assertEquals(1, registry.counter("compression_jobs_total", "algorithm", "huffman", "operation", "compress", "outcome", "cancelled").getCount());
+        // Only successful jobs count bytes and durations
+        assertEquals(2, registry.getMeters().size());
+    }
+}
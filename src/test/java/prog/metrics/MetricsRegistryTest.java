@@ -0,0 +1,139 @@
+package prog.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MetricsRegistry, its meters and its snapshots.
+ */
+class MetricsRegistryTest {
+    @TempDir
+    Path tempDir;
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    @Test
+    void testSameNameAndTagsReturnSameMeter() {
+        Counter counter = registry.counter("jobs_total", "algorithm", "lzw", "outcome", "success");
+        counter.increment();
+        // Tags are identified by key, whatever their order
+        registry.counter("jobs_total", "outcome", "success", "algorithm", "lzw").increment(2);
+
+        assertSame(counter, registry.counter("jobs_total", "outcome", "success", "algorithm", "lzw"));
+        assertEquals(3, counter.getCount());
+        assertNotSame(counter, registry.counter("jobs_total", "algorithm", "huffman", "outcome", "success"));
+        assertEquals(2, registry.getMeters().size());
+    }
+
+    @Test
+    void testInvalidMetersAreRejected() {
+        registry.counter("jobs_total");
+
+        assertThrows(IllegalArgumentException.class, () -> registry.timer("jobs_total", "algorithm", "lzw"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("jobs-total"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("jobs_total", "algorithm"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("jobs_total", "bad key", "x"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("jobs_total").increment(-1));
+        assertThrows(IllegalArgumentException.class, () -> registry.timer("duration_seconds").record(-1));
+        assertThrows(IllegalArgumentException.class, () -> registry.histogram("ratio", new double[] {0.5, 0.5}));
+    }
+
+    @Test
+    void testMetersCountFromManyThreads() {
+        Counter counter = registry.counter("bytes_total");
+        Timer timer = registry.timer("duration_seconds");
+        IntStream.range(0, 10_000).parallel().forEach(i -> {
+            counter.increment(2);
+            timer.record(i);
+        });
+
+        assertEquals(20_000, counter.getCount());
+        assertEquals(10_000, timer.getCount());
+        assertEquals(9_999L * 10_000 / 2, timer.getTotalNanos());
+        assertEquals(9_999, timer.getMaxNanos());
+    }
+
+    @Test
+    void testHistogramBuckets() {
+        Histogram histogram = registry.histogram("ratio", new double[] {0.5, 1.0});
+        for (double value : new double[] {0.3, 0.5, 0.8, 1.2}) {
+            histogram.record(value);
+        }
+
+        // Bounds are included in their bucket
+        assertArrayEquals(new long[] {2, 3, 4}, histogram.getCumulativeCounts());
+        assertEquals(4, histogram.getCount());
+        assertEquals(2.8, histogram.getSum(), 1e-9);
+    }
+
+    @Test
+    void testPrometheusText() {
+        registry.counter("jobs_total", "algorithm", "lzw").increment(3);
+        registry.counter("jobs_total", "algorithm", "say \"hi\"").increment();
+        registry.timer("duration_seconds", "algorithm", "lzw").record(1_500_000_000L);
+        registry.timer("duration_seconds", "algorithm", "lzw").record(500_000_000L);
+        registry.histogram("ratio", new double[] {0.5, 1.0}).record(0.75);
+
+        assertEquals(String.join("\n",
+            "# TYPE duration_seconds summary",
+            "duration_seconds_count{algorithm=\"lzw\"} 2",
+            "duration_seconds_sum{algorithm=\"lzw\"} 2.0",
+            "# TYPE duration_seconds_max gauge",
+            "duration_seconds_max{algorithm=\"lzw\"} 1.5",
+            "# TYPE jobs_total counter",
+            "jobs_total{algorithm=\"lzw\"} 3",
+            "jobs_total{algorithm=\"say \\\"hi\\\"\"} 1",
+            "# TYPE ratio histogram",
+            "ratio_bucket{le=\"0.5\"} 0",
+            "ratio_bucket{le=\"1.0\"} 1",
+            "ratio_bucket{le=\"+Inf\"} 1",
+            "ratio_sum 0.75",
+            "ratio_count 1",
+            ""), registry.toPrometheusText());
+    }
+
+    @Test
+    void testJson() {
+        assertTrue(registry.toJson().contains("\"metrics\": []"), registry.toJson());
+
+        registry.counter("jobs_total", "algorithm", "lzw").increment(3);
+        registry.timer("duration_seconds").record(250_000_000L);
+        registry.histogram("ratio", new double[] {0.5}).record(0.75);
+        String json = registry.toJson();
+
+        assertTrue(json.startsWith("{\n  \"timestamp\": \""), json);
+        assertTrue(json.contains("{\"name\": \"duration_seconds\", \"tags\": {}, \"type\": \"timer\", \"count\": 1, "
+            + "\"totalSeconds\": 0.25, \"maxSeconds\": 0.25}"), json);
+        assertTrue(json.contains("{\"name\": \"jobs_total\", \"tags\": {\"algorithm\": \"lzw\"}, \"type\": \"counter\", \"value\": 3}"), json);
+        assertTrue(json.contains("\"buckets\": [{\"le\": 0.5, \"count\": 0}, {\"le\": \"+Inf\", \"count\": 1}]"), json);
+        assertTrue(json.endsWith("}\n  ]\n}\n"), json);
+    }
+
+    @Test
+    void testWriteSnapshotPicksFormatByExtension() throws IOException {
+        registry.counter("jobs_total").increment();
+        Path prometheusFile = tempDir.resolve("compression.prom");
+        Path jsonFile = tempDir.resolve("compression.json");
+
+        registry.writeSnapshot(prometheusFile);
+        registry.writeSnapshot(jsonFile);
+        registry.counter("jobs_total").increment();
+        registry.writeSnapshot(prometheusFile);
+
+        assertEquals("# TYPE jobs_total counter\njobs_total 2\n", Files.readString(prometheusFile));
+        assertTrue(Files.readString(jsonFile).contains("\"value\": 1"));
+        // The temporary files are moved over the snapshot, none are left behind
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of("compression.json", "compression.prom"),
+                files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package prog.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BitReader class.
+ * Tests peeking and skipping bits over byte arrays, buffers and files.
+ */
+class BitReaderTest {
+    @TempDir
+    Path tempDir;
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+
+    @Test
+    void testConstructorWithNoExtraBits() throws IOException {
+        BitReader reader = new BitReader(new byte[0], 0);
+        assertEquals(0, reader.getAvailableBits());
+    }
+
+    @Test
+    void testConstructorWithExtraBits() throws IOException {
+        BitReader reader = new BitReader(bytes(0b10101010), 3);
+        assertEquals(5, reader.getAvailableBits()); // 8 - 3 extra bits
+    }
+
+    @Test
+    void testMultipleBytes() throws IOException {
+        BitReader reader = new BitReader(bytes(0b10110000, 0b11111111), 0);
+        assertEquals(16, reader.getAvailableBits());
+        assertEquals(0b1011000011111111, reader.peekBits(16));
+    }
+
+    @Test
+    void testPeekValidLength() throws IOException {
+        BitReader reader = new BitReader(bytes(0b10101000), 3);
+        assertEquals(0b101, reader.peekBits(3));
+        // Verify peek doesn't consume
+        assertEquals(5, reader.getAvailableBits());
+        assertEquals(0b101, reader.peekBits(3));
+    }
+
+    @Test
+    void testPeekExceedsAvailableBitsReadsZeros() throws IOException {
+        BitReader reader = new BitReader(bytes(0b10100000), 5);
+        assertEquals(3, reader.getAvailableBits()); // Not enough bits for a 5-bit peek
+        assertEquals(0b10100, reader.peekBits(5));
+        assertEquals(0b1010000000, reader.peekBits(10)); // Past the end of the input
+    }
+
+    @Test
+    void testPeekWithExtraBits() throws IOException {
+        BitReader reader = new BitReader(bytes(0b10101000), 5); // 3 bits available (8-5)
+        assertEquals(0b101, reader.peekBits(3));
+        assertTrue(reader.getAvailableBits() < 4);
+    }
+
+    @Test
+    void testPeekInvalidLengthThrowsException() {
+        BitReader reader = new BitReader(bytes(0xFF), 0);
+        assertThrows(IllegalArgumentException.class, () -> reader.peekBits(0));
+        assertThrows(IllegalArgumentException.class, () -> reader.peekBits(BitReader.MAX_PEEK_BITS + 1));
+    }
+
+    @Test
+    void testSkipValidLength() throws IOException {
+        BitReader reader = new BitReader(bytes(0b10101000), 3);
+        reader.skipBits(3);
+        assertEquals(2, reader.getAvailableBits());
+        assertEquals(0b01, reader.peekBits(2));
+    }
+
+    @Test
+    void testSkipAll() throws IOException {
+        BitReader reader = new BitReader(bytes(0b10100000), 5);
+        reader.skipBits(3);
+        assertEquals(0, reader.getAvailableBits());
+    }
+
+    @Test
+    void testSkipMoreThanAvailableThrowsException() {
+        BitReader reader = new BitReader(bytes(0b10100000), 5);
+        assertThrows(EOFException.class, () -> reader.skipBits(10));
+    }
+
+    @Test
+    void testSkipZero() throws IOException {
+        BitReader reader = new BitReader(bytes(0b10100000), 5);
+        reader.skipBits(0);
+        assertEquals(3, reader.getAvailableBits());
+    }
+
+    @Test
+    void testSkipAcrossRefills() throws IOException {
+        byte[] data = new byte[20];
+        data[19] = (byte) 0b11000000;
+        BitReader reader = new BitReader(data, 0);
+        reader.skipBits(152); // Longer than the 64-bit register
+        assertEquals(0b11, reader.peekBits(2));
+    }
+
+    @Test
+    void testGetAvailableBitsWhenBufferSmallerThanExtraBits() throws IOException {
+        BitReader reader = new BitReader(bytes(0b10100000), 5);
+        reader.skipBits(3);
+        assertEquals(0, reader.getAvailableBits()); // Only the 5 padding bits are left
+    }
+
+    @Test
+    void testReadBits() throws IOException {
+        BitReader reader = new BitReader(bytes(0b11010110), 0);
+        assertEquals(0b110, reader.readBits(3));
+        assertEquals(0b10110, reader.readBits(5));
+        assertThrows(EOFException.class, () -> reader.readBits(1));
+    }
+
+    @Test
+    void testByteBufferStartsAtPosition() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes(0xFF, 0b01100000, 0xFF));
+        buffer.position(1).limit(2);
+        BitReader reader = new BitReader(buffer, 5);
+        assertEquals(3, reader.getAvailableBits());
+        assertEquals(0b011, reader.readBits(3));
+    }
+
+    @Test
+    void testSequentialOperations() throws IOException {
+        // Simulate real usage pattern
+        BitReader reader = new BitReader(bytes(0b11010110, 0b10000000), 7);
+
+        // Peek first 3 bits and consume them
+        assertEquals(0b110, reader.peekBits(3));
+        reader.skipBits(3);
+        assertEquals(6, reader.getAvailableBits());
+
+        // Peek and consume again, across the byte boundary
+        assertEquals(0b101, reader.peekBits(3));
+        reader.skipBits(3);
+        assertEquals(0b101, reader.peekBits(3));
+        reader.skipBits(3);
+        assertEquals(0, reader.getAvailableBits());
+    }
+
+    @Test
+    void testHuffmanDecodingScenario() throws IOException {
+        // Simulate Huffman decoding workflow with 2 extra padding bits
+        BitReader reader = new BitReader(bytes(0b11010110), 2);
+        assertEquals(6, reader.getAvailableBits()); // 8 - 2
+
+        // Decode codes of varying lengths
+        assertEquals(0b1, reader.peekBits(1));
+        reader.skipBits(1);
+
+        assertEquals(0b10, reader.peekBits(2));
+        reader.skipBits(2);
+
+        assertEquals(0b101, reader.peekBits(3));
+        reader.skipBits(3);
+
+        // Only padding left
+        assertEquals(0, reader.getAvailableBits());
+    }
+
+    @Test
+    void testEdgeCaseEmptyBuffer() throws IOException {
+        BitReader reader = new BitReader(new byte[0], 0);
+        assertEquals(0, reader.getAvailableBits());
+        assertEquals(0, reader.peekBits(1));
+        assertThrows(EOFException.class, () -> reader.skipBits(1));
+    }
+
+    @Test
+    void testLargeInput() throws IOException {
+        // 1000 alternating bits
+        byte[] data = new byte[125];
+        Arrays.fill(data, (byte) 0b01010101);
+        BitReader reader = new BitReader(data, 0);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2, reader.readBits(1), "Bit " + i);
+        }
+        assertEquals(0, reader.getAvailableBits());
+    }
+
+    @Test
+    void testMultipleReadsOfFixedWidthCodes() throws IOException {
+        // Ten 3-bit codes "101" packed into 30 bits plus 2 padding bits, like LZW codes
+        long packed = 0;
+        for (int i = 0; i < 10; i++) {
+            packed = (packed << 3) | 0b101;
+        }
+        packed <<= 2;
+        BitReader reader = new BitReader(bytes((int) (packed >>> 24), (int) (packed >>> 16), (int) (packed >>> 8), (int) packed), 2);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0b101, reader.readBits(3));
+            assertEquals(3 * (9 - i), reader.getAvailableBits());
+        }
+    }
+
+    @Test
+    void testReadsFileInChunks() throws IOException {
+        // Larger than one chunk so the reader refills from the file several times
+        byte[] data = new byte[BitReader.DEFAULT_BUFFER_SIZE * 2 + 3];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        Path file = tempDir.resolve("bits.bin");
+        Files.write(file, data);
+
+        try (ByteReader byteReader = new ByteReader(file.toString())) {
+            BitReader reader = new BitReader(byteReader, 4);
+            for (int i = 0; i < data.length - 1; i++) {
+                assertEquals(data[i] & 0xFF, reader.readBits(8), "Byte " + i);
+            }
+            assertEquals(4, reader.getAvailableBits());
+            assertEquals((data[data.length - 1] & 0xFF) >>> 4, reader.readBits(4));
+            assertEquals(0, reader.getAvailableBits());
+        }
+    }
+}
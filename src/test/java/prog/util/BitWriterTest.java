@@ -0,0 +1,130 @@
+package prog.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitWriterTest {
+    @TempDir
+    Path tempDir;
+
+    private interface BitWriterAction {
+        void accept(BitWriter bitWriter) throws IOException;
+    }
+
+    private byte[] write(int bufferSize, BitWriterAction action) throws IOException {
+        Path outputFile = tempDir.resolve("bits.bin");
+        try (ByteWriter byteWriter = new ByteWriter(outputFile.toString())) {
+            BitWriter bitWriter = new BitWriter(byteWriter, bufferSize);
+            action.accept(bitWriter);
+            bitWriter.flush();
+        }
+        return Files.readAllBytes(outputFile);
+    }
+
+    @Test
+    void testPartialByteIsPaddedWithZeros() throws IOException {
+        byte[] bytes = write(BitWriter.DEFAULT_BUFFER_SIZE, bitWriter -> {
+            bitWriter.writeBits(0b1, 1);
+            bitWriter.writeBits(0b01, 2);
+        });
+
+        assertArrayEquals(new byte[] {(byte) 0b10100000}, bytes);
+    }
+
+    @Test
+    void testCodesSpanByteBoundaries() throws IOException {
+        byte[] bytes = write(BitWriter.DEFAULT_BUFFER_SIZE, bitWriter -> {
+            bitWriter.writeBits(0b10110, 5);
+            bitWriter.writeBits(0b0111001, 7);
+            bitWriter.writeBits(0b1111, 4);
+        });
+
+        // 10110 0111001 1111 -> 10110011 10011111
+        assertArrayEquals(new byte[] {(byte) 0b10110011, (byte) 0b10011111}, bytes);
+    }
+
+    @Test
+    void testFlushWholeBytesKeepsPartialByte() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteWriter byteWriter = new ByteWriter(output, 16);
+        BitWriter bitWriter = new BitWriter(byteWriter, 4);
+        bitWriter.writeBits(0b1010110011, 10);
+
+        bitWriter.flushWholeBytes();
+        byteWriter.flush();
+        assertArrayEquals(new byte[] {(byte) 0b10101100}, output.toByteArray());
+
+        // The kept bits continue the stream: 11 + 010011 -> 11010011
+        bitWriter.writeBits(0b010011, 6);
+        bitWriter.flush();
+        byteWriter.flush();
+        assertArrayEquals(new byte[] {(byte) 0b10101100, (byte) 0b11010011}, output.toByteArray());
+    }
+
+    @Test
+    void testLeadingZerosAndIgnoredHighBits() throws IOException {
+        byte[] bytes = write(BitWriter.DEFAULT_BUFFER_SIZE, bitWriter -> {
+            bitWriter.writeBits(0b1, 4);
+            bitWriter.writeBits(0xFFF0, 4);
+        });
+
+        assertArrayEquals(new byte[] {(byte) 0b00010000}, bytes);
+    }
+
+    @Test
+    void testCodesLongerThan32Bits() throws IOException {
+        byte[] bytes = write(BitWriter.DEFAULT_BUFFER_SIZE, bitWriter -> {
+            bitWriter.writeBits(0b1, 1);
+            bitWriter.writeBits(0x0123456789ABCDEFL, 64);
+            bitWriter.writeBits(0, 7);
+        });
+
+        // One leading bit shifts every byte of the long right by one position
+        assertArrayEquals(new byte[] {(byte) 0x80, (byte) 0x91, (byte) 0xA2, (byte) 0xB3,
+            (byte) 0xC4, (byte) 0xD5, (byte) 0xE6, (byte) 0xF7, (byte) 0x80}, bytes);
+    }
+
+    @Test
+    void testNothingWritten() throws IOException {
+        assertEquals(0, write(BitWriter.DEFAULT_BUFFER_SIZE, bitWriter -> { }).length);
+    }
+
+    @Test
+    void testMatchesStringConcatenationAcrossBufferRefills() throws IOException {
+        // Small buffer forces many refills; compare against the plain string-based packing
+        Random random = new Random(42);
+        long[] values = new long[5000];
+        int[] lengths = new int[values.length];
+        StringBuilder bits = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            lengths[i] = 1 + random.nextInt(40);
+            values[i] = random.nextLong() & ((1L << lengths[i]) - 1);
+            bits.append(CommonUtil.padBinaryString(Long.toBinaryString(values[i]), lengths[i]));
+        }
+
+        byte[] bytes = write(4, bitWriter -> {
+            for (int i = 0; i < values.length; i++) {
+                bitWriter.writeBits(values[i], lengths[i]);
+            }
+        });
+
+        assertEquals((bits.length() + 7) / 8, bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            int end = Math.min(bits.length(), (i + 1) * 8);
+            assertEquals(CommonUtil.stringToByte(bits.substring(i * 8, end)), bytes[i], "Byte " + i + " differs");
+        }
+    }
+
+    @Test
+    void testBufferSmallerThanWordThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new BitWriter(null, 3));
+    }
+}
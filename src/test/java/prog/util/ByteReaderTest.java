@@ -0,0 +1,254 @@
+package prog.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteReaderTest {
+    @TempDir
+    Path tempDir;
+
+    private String writeFile(byte[] content) throws IOException {
+        Path file = tempDir.resolve("input.bin");
+        Files.write(file, content);
+        return file.toString();
+    }
+
+    @Test
+    void testReadReturnsUnsignedValuesThenEof() throws IOException {
+        String filePath = writeFile(new byte[] {0, 65, (byte) 0x80, (byte) 0xFF});
+
+        try (ByteReader reader = new ByteReader(filePath)) {
+            assertEquals(0, reader.read());
+            assertEquals(65, reader.read());
+            assertEquals(128, reader.read());
+            assertEquals(255, reader.read());
+            assertEquals(-1, reader.read());
+            assertEquals(-1, reader.read());
+        }
+    }
+
+    @Test
+    void testReadAcrossBufferRefills() throws IOException {
+        byte[] content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 7);
+        }
+        String filePath = writeFile(content);
+
+        try (ByteReader reader = new ByteReader(filePath, 16)) {
+            for (int i = 0; i < content.length; i++) {
+                assertEquals(content[i] & 0xFF, reader.read(), "Byte " + i);
+            }
+            assertEquals(-1, reader.read());
+        }
+    }
+
+    @Test
+    void testBulkReadMixedWithSingleReads() throws IOException {
+        byte[] content = new byte[100];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        String filePath = writeFile(content);
+
+        try (ByteReader reader = new ByteReader(filePath, 8)) {
+            assertEquals(0, reader.read());
+            byte[] chunk = new byte[50];
+            int total = 0;
+            while (total < chunk.length) {
+                int bytesRead = reader.read(chunk, total, chunk.length - total);
+                assertTrue(bytesRead > 0);
+                total += bytesRead;
+            }
+            for (int i = 0; i < chunk.length; i++) {
+                assertEquals(i + 1, chunk[i]);
+            }
+            assertEquals(51, reader.read());
+
+            // Larger than the buffer: bypasses it
+            byte[] rest = new byte[100];
+            int restRead = 0;
+            int bytesRead;
+            while ((bytesRead = reader.read(rest, restRead, rest.length - restRead)) != -1) {
+                restRead += bytesRead;
+            }
+            assertEquals(48, restRead);
+            assertEquals(52, rest[0]);
+            assertEquals(99, rest[47]);
+        }
+    }
+
+    @Test
+    void testReadZeroLength() throws IOException {
+        String filePath = writeFile(new byte[] {1});
+
+        try (ByteReader reader = new ByteReader(filePath)) {
+            assertEquals(0, reader.read(new byte[4], 0, 0));
+            assertEquals(1, reader.read());
+        }
+    }
+
+    @Test
+    void testReadNextByteAndReadInt() throws IOException {
+        String filePath = writeFile(new byte[] {(byte) 0xFE, 0x12, 0x34, 0x56, 0x78, 0x01});
+
+        try (ByteReader reader = new ByteReader(filePath, 2)) {
+            assertEquals((byte) 0xFE, reader.readNextByte());
+            assertEquals(0x12345678, reader.readInt());
+            assertEquals((byte) 0x01, reader.readNextByte());
+            assertNull(reader.readNextByte());
+        }
+    }
+
+    @Test
+    void testReadIntPastEndThrowsException() throws IOException {
+        String filePath = writeFile(new byte[] {0, 0, 1});
+
+        try (ByteReader reader = new ByteReader(filePath)) {
+            assertThrows(EOFException.class, reader::readInt);
+        }
+    }
+
+    @Test
+    void testReadNBytesSpansChunks() throws IOException {
+        String filePath = writeFile(new byte[] {1, 2, 3, 4, 5, 6, 7});
+
+        try (ByteReader reader = new ByteReader(filePath, 3)) {
+            byte[] bytes = new byte[5];
+            assertEquals(5, reader.readNBytes(bytes, 0, 5));
+            assertArrayEquals(new byte[] {1, 2, 3, 4, 5}, bytes);
+            assertEquals(2, reader.readNBytes(bytes, 0, 5)); // Short only at EOF
+            assertEquals(0, reader.readNBytes(bytes, 0, 5));
+        }
+    }
+
+    @Test
+    void testReadFileRange() throws IOException {
+        byte[] content = new byte[200000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 7);
+        }
+        String filePath = writeFile(content);
+
+        // Bulk reads larger than the buffer bypass it and must stop at the end of the range too
+        try (ByteReader reader = new ByteReader(filePath, 10, 150000)) {
+            assertEquals(content[10] & 0xFF, reader.read());
+            byte[] bytes = new byte[160000];
+            assertEquals(149999, reader.readNBytes(bytes, 0, bytes.length));
+            assertEquals(content[150009], bytes[149998]);
+            assertEquals(-1, reader.read());
+        }
+        try (ByteReader reader = new ByteReader(filePath, 199999, 10)) {
+            assertEquals(content[199999] & 0xFF, reader.read());
+            assertEquals(-1, reader.read());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ByteReader(filePath, -1, 10));
+    }
+
+    @Test
+    void testReadSegmentsInOrder() throws IOException {
+        ByteBuffer first = ByteBuffer.wrap(new byte[] {1, 2, 3});
+        first.position(1);
+        ByteBuffer empty = ByteBuffer.allocate(0);
+        ByteBuffer last = ByteBuffer.wrap(new byte[] {4, 5});
+
+        try (ByteReader reader = new ByteReader(first, empty, last)) {
+            byte[] bytes = new byte[4];
+            assertEquals(2, reader.read(bytes, 0, 4)); // Stops at the end of a segment
+            assertEquals(4, reader.read());
+            assertEquals(5, reader.read());
+            assertEquals(-1, reader.read());
+        }
+        assertEquals(1, first.position(), "Segment positions should be left untouched");
+    }
+
+    @Test
+    void testInvalidBufferSizeThrowsException() throws IOException {
+        String filePath = writeFile(new byte[] {1});
+        assertThrows(IllegalArgumentException.class, () -> new ByteReader(filePath, 0));
+    }
+
+    @Test
+    void testReadListenerReportsEveryChunk() throws IOException {
+        String filePath = writeFile(new byte[100]);
+        List<Long> totals = new ArrayList<>();
+
+        try (ByteReader reader = new ByteReader(filePath, 32)) {
+            reader.setReadListener(totals::add);
+            reader.read();
+            assertEquals(List.of(32L), totals, "Single-byte reads are reported once per chunk");
+
+            byte[] bytes = new byte[64];
+            reader.readNBytes(bytes, 0, 31);
+            assertEquals(64, reader.read(bytes, 0, 64)); // Bypasses the buffer
+            while (reader.read() != -1) {
+                // Drain
+            }
+            assertEquals(100, reader.getBytesRead());
+        }
+        assertEquals(List.of(32L, 96L, 100L), totals);
+
+        totals.clear();
+        try (ByteReader reader = new ByteReader(ByteBuffer.wrap(new byte[3]), ByteBuffer.allocate(0), ByteBuffer.wrap(new byte[2]))) {
+            reader.setReadListener(totals::add);
+            while (reader.read() != -1) {
+                // Drain
+            }
+        }
+        assertEquals(List.of(3L, 5L), totals);
+    }
+
+    @Test
+    void testReadListenerChunkLimit() throws IOException {
+        String filePath = writeFile(new byte[100]);
+        List<Long> totals = new ArrayList<>();
+
+        try (ByteReader reader = new ByteReader(filePath, 32)) {
+            reader.setReadListener(totals::add, 40);
+            byte[] bytes = new byte[64];
+            assertEquals(40, reader.read(bytes, 0, 64), "A bypass read stops at the limit");
+            while (reader.read() != -1) {
+                // Drain
+            }
+            assertThrows(IllegalArgumentException.class, () -> reader.setReadListener(totals::add, 0));
+        }
+        assertEquals(List.of(40L, 72L, 100L), totals);
+
+        totals.clear();
+        try (ByteReader reader = new ByteReader(ByteBuffer.wrap(new byte[25]), ByteBuffer.wrap(new byte[5]))) {
+            reader.setReadListener(totals::add, 10);
+            byte[] bytes = new byte[30];
+            assertEquals(30, reader.readNBytes(bytes, 0, 30));
+            assertEquals(-1, reader.read());
+        }
+        assertEquals(List.of(10L, 20L, 25L, 30L), totals);
+    }
+
+    @Test
+    void testReadListenerExceptionStopsTheRead() throws IOException {
+        String filePath = writeFile(new byte[100]);
+
+        try (ByteReader reader = new ByteReader(filePath, 32)) {
+            reader.setReadListener(total -> {
+                if (total > 32) {
+                    throw new IllegalStateException("Stop at " + total);
+                }
+            });
+            for (int i = 0; i < 32; i++) {
+                reader.read();
+            }
+            IllegalStateException exception = assertThrows(IllegalStateException.class, reader::read);
+            assertEquals("Stop at 64", exception.getMessage());
+        }
+    }
+}
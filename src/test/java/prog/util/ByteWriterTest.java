@@ -0,0 +1,121 @@
+package prog.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteWriterTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBytesReachFileOnlyAfterFlush() throws IOException {
+        Path file = tempDir.resolve("output.bin");
+
+        try (ByteWriter writer = new ByteWriter(file.toString())) {
+            writer.writeByte(1);
+            writer.writeByte(0xFF);
+            assertEquals(0, Files.size(file), "Bytes should stay in the buffer");
+
+            writer.flush();
+            assertArrayEquals(new byte[] {1, (byte) 0xFF}, Files.readAllBytes(file));
+        }
+    }
+
+    @Test
+    void testCloseFlushesAndCanBeRepeated() throws IOException {
+        Path file = tempDir.resolve("output.bin");
+
+        ByteWriter writer = new ByteWriter(file.toString());
+        writer.writeInt(0x12345678);
+        writer.close();
+        writer.close();
+
+        assertArrayEquals(new byte[] {0x12, 0x34, 0x56, 0x78}, Files.readAllBytes(file));
+    }
+
+    @Test
+    void testWritesLargerThanBufferKeepOrder() throws IOException {
+        Path file = tempDir.resolve("output.bin");
+        byte[] expected = new byte[100];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) i;
+        }
+
+        try (ByteWriter writer = new ByteWriter(file.toString(), 8)) {
+            writer.writeByte(expected[0]);
+            writer.write(expected, 1, 5);   // Fits in the buffer
+            writer.write(expected, 6, 4);   // Needs a flush first
+            writer.write(expected, 10, 50); // Bypasses the buffer
+            for (int i = 60; i < expected.length; i++) {
+                writer.writeByte(expected[i]);
+            }
+        }
+
+        assertArrayEquals(expected, Files.readAllBytes(file));
+    }
+
+    @Test
+    void testBytesWrittenCountsBufferedBytes() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        try (ByteWriter writer = new ByteWriter(stream, 8)) {
+            writer.writeInt(1);
+            assertEquals(4, writer.getBytesWritten());
+            assertEquals(0, stream.size(), "Bytes should stay in the buffer");
+            writer.write(new byte[20], 0, 20); // Bypasses the buffer
+            writer.writeByte(2);
+            assertEquals(25, writer.getBytesWritten());
+        }
+        assertEquals(25, stream.size());
+    }
+
+    @Test
+    void testWritesToOutputStream() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        try (ByteWriter writer = new ByteWriter(stream)) {
+            writer.writeByte(7);
+            writer.writeInt(0x01020304);
+        }
+
+        assertArrayEquals(new byte[] {7, 1, 2, 3, 4}, stream.toByteArray());
+    }
+
+    @Test
+    void testVarLongRoundTrip() throws IOException {
+        long[] values = {0, 1, 127, 128, 300, Integer.MAX_VALUE, 1L << 32, Long.MAX_VALUE};
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (ByteWriter writer = new ByteWriter(stream)) {
+            for (long value : values) {
+                writer.writeVarLong(value);
+            }
+            assertThrows(IllegalArgumentException.class, () -> writer.writeVarLong(-1));
+        }
+
+        byte[] bytes = stream.toByteArray();
+        assertArrayEquals(new byte[] {(byte) 0xAC, 0x02}, Arrays.copyOfRange(bytes, 5, 7), "300 takes two bytes");
+        try (ByteReader reader = new ByteReader(ByteBuffer.wrap(bytes))) {
+            for (long value : values) {
+                assertEquals(value, reader.readVarLong());
+            }
+            assertThrows(EOFException.class, reader::readVarLong);
+        }
+    }
+
+    @Test
+    void testInvalidBufferSizeThrowsException() {
+        Path file = tempDir.resolve("output.bin");
+        assertThrows(IllegalArgumentException.class, () -> new ByteWriter(file.toString(), 0));
+        assertFalse(Files.exists(file), "No file should be created for an invalid buffer size");
+    }
+}
@@ -0,0 +1,92 @@
+package prog.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileInputSourceTest {
+    @TempDir
+    Path tempDir;
+
+    private static byte[] readAll(ByteReader reader) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] chunk = new byte[5];
+        int count;
+        while ((count = reader.read(chunk, 0, chunk.length)) != -1) {
+            output.write(chunk, 0, count);
+        }
+        return output.toByteArray();
+    }
+
+    @Test
+    void testReadersCrossWindowBoundaries() throws IOException {
+        byte[] content = new byte[100];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        Path file = tempDir.resolve("input.bin");
+        Files.write(file, content);
+
+        MappedFileInputSource source = new MappedFileInputSource(file.toString(), 7);
+        assertEquals(100, source.size());
+        assertEquals(file.toString(), source.getPath());
+
+        // Each pass gets its own reader starting at the first byte
+        try (ByteReader first = source.openReader(); ByteReader second = source.openReader()) {
+            assertEquals(content[0] & 0xFF, first.read());
+            assertArrayEquals(content, readAll(second));
+            assertEquals(content[1] & 0xFF, first.read());
+        }
+        try (ByteReader reader = source.openReader()) {
+            assertArrayEquals(content, readAll(reader));
+        }
+    }
+
+    @Test
+    void testRangeReadersCrossWindowBoundaries() throws IOException {
+        byte[] content = new byte[100];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path file = tempDir.resolve("input.bin");
+        Files.write(file, content);
+        MappedFileInputSource source = new MappedFileInputSource(file.toString(), 7);
+
+        try (ByteReader reader = source.openReader(5, 20)) {
+            assertArrayEquals(Arrays.copyOfRange(content, 5, 25), readAll(reader));
+        }
+        try (ByteReader reader = source.openReader(98, 2)) {
+            assertArrayEquals(new byte[] {98, 99}, readAll(reader));
+        }
+        try (ByteReader reader = source.openReader(50, 0)) {
+            assertEquals(-1, reader.read());
+        }
+        assertThrows(IllegalArgumentException.class, () -> source.openReader(90, 11));
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        Path file = tempDir.resolve("empty.bin");
+        Files.write(file, new byte[0]);
+
+        MappedFileInputSource source = new MappedFileInputSource(file.toString());
+        assertEquals(0, source.size());
+        try (ByteReader reader = source.openReader()) {
+            assertEquals(-1, reader.read());
+        }
+    }
+
+    @Test
+    void testInvalidWindowSizeThrowsException() throws IOException {
+        Path file = tempDir.resolve("input.bin");
+        Files.write(file, new byte[] {1});
+        assertThrows(IllegalArgumentException.class, () -> new MappedFileInputSource(file.toString(), 0));
+    }
+}